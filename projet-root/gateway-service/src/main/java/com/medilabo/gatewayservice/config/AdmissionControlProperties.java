@@ -0,0 +1,85 @@
+package com.medilabo.gatewayservice.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Paramètres du contrôle d’admission de la gateway ({@code medilabo.gateway.admission.*}) :
+ * limitation de débit et cloisonnement de la concurrence, route par route.
+ */
+@ConfigurationProperties(prefix = "medilabo.gateway.admission")
+public class AdmissionControlProperties {
+
+    /**
+     * Active ou désactive le contrôle d’admission.
+     */
+    private boolean enabled = true;
+
+    /**
+     * Règles d’admission par route, indexées par identifiant de route.
+     */
+    private Map<String, Route> routes = new LinkedHashMap<>();
+
+    public boolean isEnabled() { return enabled; }
+    public void setEnabled(boolean enabled) { this.enabled = enabled; }
+
+    public Map<String, Route> getRoutes() { return routes; }
+    public void setRoutes(Map<String, Route> routes) { this.routes = routes; }
+
+    /**
+     * Règle d’admission d’une route.
+     */
+    public static class Route {
+
+        /**
+         * Préfixe des chemins de la route (par exemple {@code /assess}).
+         */
+        private String path;
+
+        /**
+         * Débit soutenu autorisé, en requêtes par seconde.
+         */
+        private double rate = 100;
+
+        /**
+         * Nombre de requêtes acceptées d’un coup au-delà du débit soutenu.
+         */
+        private int burst = 50;
+
+        /**
+         * Nombre maximal de requêtes relayées simultanément vers le microservice.
+         */
+        private int maxConcurrent = 50;
+
+        /**
+         * Nombre maximal de requêtes en attente lorsque toutes les places sont occupées (0 : rejet immédiat).
+         */
+        private int maxQueued = 0;
+
+        /**
+         * Durée d’attente maximale d’une requête en file.
+         */
+        private Duration queueTimeout = Duration.ofMillis(500);
+
+        public String getPath() { return path; }
+        public void setPath(String path) { this.path = path; }
+
+        public double getRate() { return rate; }
+        public void setRate(double rate) { this.rate = rate; }
+
+        public int getBurst() { return burst; }
+        public void setBurst(int burst) { this.burst = burst; }
+
+        public int getMaxConcurrent() { return maxConcurrent; }
+        public void setMaxConcurrent(int maxConcurrent) { this.maxConcurrent = maxConcurrent; }
+
+        public int getMaxQueued() { return maxQueued; }
+        public void setMaxQueued(int maxQueued) { this.maxQueued = maxQueued; }
+
+        public Duration getQueueTimeout() { return queueTimeout; }
+        public void setQueueTimeout(Duration queueTimeout) { this.queueTimeout = queueTimeout; }
+    }
+}
@@ -0,0 +1,96 @@
+package com.medilabo.gatewayservice.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.util.unit.DataSize;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Paramètres du cache des réponses GET de la gateway ({@code medilabo.gateway.cache.*}).
+ */
+@ConfigurationProperties(prefix = "medilabo.gateway.cache")
+public class ResponseCacheProperties {
+
+    /**
+     * Active ou désactive le cache.
+     */
+    private boolean enabled = true;
+
+    /**
+     * Taille maximale cumulée des réponses conservées.
+     */
+    private DataSize maxSize = DataSize.ofMegabytes(64);
+
+    /**
+     * Taille maximale d’une réponse conservée ; les réponses plus grandes sont relayées sans être conservées.
+     */
+    private DataSize maxEntrySize = DataSize.ofMegabytes(1);
+
+    /**
+     * Chemins jamais mis en cache (préfixes), par exemple les exports en flux.
+     */
+    private List<String> excludedPaths = new ArrayList<>();
+
+    /**
+     * Requêtes POST de lecture seule (préfixes), qui n’invalident pas le cache.
+     */
+    private List<String> readOnlyPosts = new ArrayList<>();
+
+    /**
+     * Règles de cache par route, indexées par identifiant de route.
+     */
+    private Map<String, Route> routes = new LinkedHashMap<>();
+
+    public boolean isEnabled() { return enabled; }
+    public void setEnabled(boolean enabled) { this.enabled = enabled; }
+
+    public DataSize getMaxSize() { return maxSize; }
+    public void setMaxSize(DataSize maxSize) { this.maxSize = maxSize; }
+
+    public DataSize getMaxEntrySize() { return maxEntrySize; }
+    public void setMaxEntrySize(DataSize maxEntrySize) { this.maxEntrySize = maxEntrySize; }
+
+    public List<String> getExcludedPaths() { return excludedPaths; }
+    public void setExcludedPaths(List<String> excludedPaths) { this.excludedPaths = excludedPaths; }
+
+    public List<String> getReadOnlyPosts() { return readOnlyPosts; }
+    public void setReadOnlyPosts(List<String> readOnlyPosts) { this.readOnlyPosts = readOnlyPosts; }
+
+    public Map<String, Route> getRoutes() { return routes; }
+    public void setRoutes(Map<String, Route> routes) { this.routes = routes; }
+
+    /**
+     * Règle de cache d’une route.
+     */
+    public static class Route {
+
+        /**
+         * Préfixe des chemins de la route (par exemple {@code /patients}).
+         */
+        private String path;
+
+        /**
+         * Durée de conservation des réponses de la route.
+         */
+        private Duration ttl = Duration.ofSeconds(30);
+
+        /**
+         * Routes dont le cache est vidé lorsqu’une écriture passe par cette route
+         * (la route elle-même si la liste est vide).
+         */
+        private List<String> invalidates = new ArrayList<>();
+
+        public String getPath() { return path; }
+        public void setPath(String path) { this.path = path; }
+
+        public Duration getTtl() { return ttl; }
+        public void setTtl(Duration ttl) { this.ttl = ttl; }
+
+        public List<String> getInvalidates() { return invalidates; }
+        public void setInvalidates(List<String> invalidates) { this.invalidates = invalidates; }
+    }
+}
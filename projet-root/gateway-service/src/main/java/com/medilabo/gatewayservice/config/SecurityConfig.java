@@ -1,28 +1,94 @@
 package com.medilabo.gatewayservice.config;
 
+import com.medilabo.gatewayservice.filter.AdmissionControlFilter;
+import com.nimbusds.jose.jwk.source.ImmutableSecret;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.core.annotation.Order;
+import org.springframework.security.config.Customizer;
 import org.springframework.security.config.annotation.web.builders.HttpSecurity;
+import org.springframework.security.config.http.SessionCreationPolicy;
+import org.springframework.security.core.userdetails.UserDetailsService;
+import org.springframework.security.core.userdetails.jdbc.JdbcDaoImpl;
 import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
 import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.security.oauth2.jose.jws.MacAlgorithm;
+import org.springframework.security.oauth2.jwt.JwtDecoder;
+import org.springframework.security.oauth2.jwt.JwtEncoder;
+import org.springframework.security.oauth2.jwt.JwtValidators;
+import org.springframework.security.oauth2.jwt.NimbusJwtDecoder;
+import org.springframework.security.oauth2.jwt.NimbusJwtEncoder;
+import org.springframework.security.oauth2.server.resource.authentication.JwtAuthenticationConverter;
+import org.springframework.security.oauth2.server.resource.authentication.JwtGrantedAuthoritiesConverter;
 import org.springframework.security.web.SecurityFilterChain;
+import org.springframework.security.web.authentication.www.BasicAuthenticationFilter;
+
+import javax.crypto.SecretKey;
+import javax.crypto.spec.SecretKeySpec;
+import javax.sql.DataSource;
+import java.nio.charset.StandardCharsets;
 
 /**
  * Configuration de la sécurité pour le service Gateway.
  * <p>
- * Cette classe centralise la gestion de la sécurité pour l'ensemble des microservices␊
- * en imposant l'authentification via la gateway. Les utilisateurs sont chargés depuis la␊
- * base de données grâce à {@code CustomUserDetailsService} et les pages de connexion et␊
- * d'inscription sont fournies par la gateway.
+ * Cette classe centralise la gestion de la sécurité pour l'ensemble des microservices
+ * en imposant l'authentification via la gateway. L'authentification est sans état :
+ * l'utilisateur échange une seule fois ses identifiants (HTTP Basic, vérifiés avec BCrypt
+ * contre la table {@code users}) contre un jeton signé de courte durée sur {@code POST /auth/token},
+ * puis présente ce jeton ({@code Authorization: Bearer}) à chaque requête.
+ * </p>
+ * <p>
+ * La vérification d'un jeton ne consulte ni la base ni une session : seule la signature HMAC
+ * est contrôlée, avec une clé construite une fois au démarrage. L'identité vérifiée est ensuite
+ * transmise aux microservices par {@code IdentityHeaderFilter}.
+ * </p>
  */
 @Configuration
+@EnableConfigurationProperties(TokenProperties.class)
 public class SecurityConfig {
+
+    /**
+     * Nom de la revendication portant les rôles de l'utilisateur ({@code ROLE_*}).
+     */
+    public static final String ROLES_CLAIM = "roles";
+
     /**
-     * Définit la chaîne de filtres de sécurité HTTP.
+     * Définit la chaîne de filtres de l'émission des jetons.
      * <p>
-     * Les pages de connexion et d'inscription sont accessibles sans authentification,
-     * tandis que les routes proxifiées vers les microservices et les autres pages
-     * nécessitent une authentification.
+     * Seul {@code POST /auth/token} accepte les identifiants de l'utilisateur (HTTP Basic) ;
+     * aucune session n'est créée. Le contrôle d'admission (route {@code auth-token}) s'applique
+     * avant la vérification BCrypt : une rafale de tentatives est refusée (429 ou 503) sans
+     * consommer de calcul.
+     * </p>
+     *
+     * @param http l'objet {@link HttpSecurity} configuré par Spring Security
+     * @param admissionControlFilter contrôle d'admission des requêtes
+     * @return un {@link SecurityFilterChain} limité à l'émission des jetons
+     * @throws Exception en cas d'erreur de configuration
+     */
+    @Bean
+    @Order(1)
+    public SecurityFilterChain tokenFilterChain(HttpSecurity http, AdmissionControlFilter admissionControlFilter)
+            throws Exception {
+        http
+            .securityMatcher("/auth/token")
+            .addFilterBefore(admissionControlFilter, BasicAuthenticationFilter.class)
+            .authorizeHttpRequests(auth -> auth.anyRequest().authenticated())
+            .httpBasic(Customizer.withDefaults())
+            .sessionManagement(session -> session.sessionCreationPolicy(SessionCreationPolicy.STATELESS))
+            .csrf(csrf -> csrf.disable());
+
+        return http.build();
+    }
+
+    /**
+     * Définit la chaîne de filtres HTTP des routes proxifiées.
+     * <p>
+     * Les routes vers les microservices exigent un jeton valide portant le rôle ORGANISATEUR
+     * ou PRATICIEN ; l'état de santé reste accessible sans authentification. L'invalidation du
+     * cache de risk-assessment-service ({@code /assess/cache/**}) est réservée aux appels internes
+     * de patient-service et note-service et n'est jamais exposée.
      * </p>
      *
      * @param http l'objet {@link HttpSecurity} configuré par Spring Security
@@ -30,27 +96,89 @@ public class SecurityConfig {
      * @throws Exception en cas d'erreur de configuration
      */
     @Bean
+    @Order(2)
     public SecurityFilterChain filterChain(HttpSecurity http) throws Exception {
+        JwtGrantedAuthoritiesConverter authorities = new JwtGrantedAuthoritiesConverter();
+        authorities.setAuthoritiesClaimName(ROLES_CLAIM);
+        authorities.setAuthorityPrefix("");
+        JwtAuthenticationConverter authentication = new JwtAuthenticationConverter();
+        authentication.setJwtGrantedAuthoritiesConverter(authorities);
+
         http
-		    .authorizeHttpRequests(auth -> auth
-		        .requestMatchers("/css/**", "/js/**", "/images/**", "/register", "/login").permitAll()
-		        .requestMatchers("/patients/**", "/notes/**","/risk/**").hasAnyRole("ORGANISATEUR", "PRATICIEN")
-		        .anyRequest().authenticated()
-		    )
-		    .formLogin(form -> form
-		        .loginPage("/login")
-		        .defaultSuccessUrl("/patients", true)
-		        .permitAll()
-		    )
-		    .logout(logout -> logout
-		        .logoutSuccessUrl("/login?logout")
-		        .permitAll()
-		    )
-		    .httpBasic();
+            .authorizeHttpRequests(auth -> auth
+                .requestMatchers("/actuator/health", "/actuator/health/**").permitAll()
+                .requestMatchers("/assess/cache/**").denyAll()
+                .requestMatchers("/patients/**", "/notes/**", "/assess/**").hasAnyRole("ORGANISATEUR", "PRATICIEN")
+                .anyRequest().authenticated()
+            )
+            .oauth2ResourceServer(resourceServer -> resourceServer
+                .jwt(jwt -> jwt.jwtAuthenticationConverter(authentication))
+            )
+            .sessionManagement(session -> session.sessionCreationPolicy(SessionCreationPolicy.STATELESS))
+            .csrf(csrf -> csrf.disable());
 
         return http.build();
     }
 
+    /**
+     * Charge les utilisateurs depuis la table {@code users} (rôles stockés sous la forme {@code ROLE_*}).
+     * <p>
+     * Appelé uniquement lors de l'émission d'un jeton.
+     * </p>
+     *
+     * @param dataSource la base des comptes utilisateurs
+     * @return le service de chargement des utilisateurs
+     */
+    @Bean
+    public UserDetailsService userDetailsService(DataSource dataSource) {
+        JdbcDaoImpl users = new JdbcDaoImpl();
+        users.setDataSource(dataSource);
+        users.setUsersByUsernameQuery("select username, password, true from users where username = ?");
+        users.setAuthoritiesByUsernameQuery("select username, role from users where username = ?");
+        return users;
+    }
+
+    /**
+     * Construit, une seule fois, la clé HMAC-SHA256 de signature et de vérification des jetons.
+     *
+     * @param properties paramètres des jetons
+     * @return la clé secrète
+     * @throws IllegalStateException si le secret fait moins de 32 octets
+     */
+    @Bean
+    public SecretKey tokenSigningKey(TokenProperties properties) {
+        String secret = properties.getSecret();
+        if (secret == null || secret.getBytes(StandardCharsets.UTF_8).length < 32) {
+            throw new IllegalStateException("medilabo.gateway.auth.secret doit faire au moins 32 octets");
+        }
+        return new SecretKeySpec(secret.getBytes(StandardCharsets.UTF_8), "HmacSHA256");
+    }
+
+    /**
+     * @param tokenSigningKey clé de signature
+     * @return l'encodeur utilisé pour signer les jetons émis
+     */
+    @Bean
+    public JwtEncoder jwtEncoder(SecretKey tokenSigningKey) {
+        return new NimbusJwtEncoder(new ImmutableSecret<>(tokenSigningKey));
+    }
+
+    /**
+     * Vérifie la signature, l'expiration et l'émetteur des jetons présentés.
+     *
+     * @param tokenSigningKey clé de vérification
+     * @param properties paramètres des jetons
+     * @return le décodeur de jetons
+     */
+    @Bean
+    public JwtDecoder jwtDecoder(SecretKey tokenSigningKey, TokenProperties properties) {
+        NimbusJwtDecoder decoder = NimbusJwtDecoder.withSecretKey(tokenSigningKey)
+                .macAlgorithm(MacAlgorithm.HS256)
+                .build();
+        decoder.setJwtValidator(JwtValidators.createDefaultWithIssuer(properties.getIssuer()));
+        return decoder;
+    }
+
     /**
      * Fournit un encodeur de mots de passe basé sur BCrypt pour sécuriser les mots de passe
      * des utilisateurs gérés par la gateway.
@@ -61,4 +189,4 @@ public class SecurityConfig {
     public PasswordEncoder passwordEncoder() {
         return new BCryptPasswordEncoder();
     }
-}
\ No newline at end of file
+}
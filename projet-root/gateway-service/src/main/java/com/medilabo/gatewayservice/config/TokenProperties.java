@@ -0,0 +1,36 @@
+package com.medilabo.gatewayservice.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+
+/**
+ * Paramètres des jetons d’accès émis par la gateway ({@code medilabo.gateway.auth.*}).
+ */
+@ConfigurationProperties(prefix = "medilabo.gateway.auth")
+public class TokenProperties {
+
+    /**
+     * Émetteur inscrit dans les jetons et exigé à leur vérification.
+     */
+    private String issuer = "medilabo-gateway";
+
+    /**
+     * Secret partagé de signature HMAC-SHA256 (au moins 32 octets).
+     */
+    private String secret;
+
+    /**
+     * Durée de validité d’un jeton.
+     */
+    private Duration ttl = Duration.ofMinutes(15);
+
+    public String getIssuer() { return issuer; }
+    public void setIssuer(String issuer) { this.issuer = issuer; }
+
+    public String getSecret() { return secret; }
+    public void setSecret(String secret) { this.secret = secret; }
+
+    public Duration getTtl() { return ttl; }
+    public void setTtl(Duration ttl) { this.ttl = ttl; }
+}
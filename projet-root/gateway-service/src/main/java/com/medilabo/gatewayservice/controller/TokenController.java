@@ -0,0 +1,38 @@
+package com.medilabo.gatewayservice.controller;
+
+import com.medilabo.gatewayservice.dto.TokenResponse;
+import com.medilabo.gatewayservice.service.TokenService;
+import org.springframework.security.core.Authentication;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+/**
+ * Point d’entrée d’authentification de la gateway.
+ * <p>
+ * Les identifiants (HTTP Basic) ne sont vérifiés qu’ici ; les requêtes suivantes présentent
+ * le jeton obtenu.
+ * </p>
+ */
+@RestController
+public class TokenController {
+
+    private final TokenService tokenService;
+
+    /**
+     * @param tokenService service d’émission des jetons
+     */
+    public TokenController(TokenService tokenService) {
+        this.tokenService = tokenService;
+    }
+
+    /**
+     * Échange les identifiants de l’utilisateur contre un jeton d’accès.
+     *
+     * @param authentication l’utilisateur authentifié par HTTP Basic
+     * @return le jeton signé et sa durée de validité
+     */
+    @PostMapping("/auth/token")
+    public TokenResponse token(Authentication authentication) {
+        return tokenService.issue(authentication);
+    }
+}
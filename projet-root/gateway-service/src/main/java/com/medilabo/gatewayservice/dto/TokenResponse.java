@@ -0,0 +1,31 @@
+package com.medilabo.gatewayservice.dto;
+
+import com.fasterxml.jackson.annotation.JsonProperty;
+
+/**
+ * Réponse de {@code POST /auth/token} : jeton d’accès signé et sa durée de validité.
+ */
+public class TokenResponse {
+
+    private final String accessToken;
+
+    private final long expiresIn;
+
+    /**
+     * @param accessToken jeton d’accès signé
+     * @param expiresIn durée de validité du jeton, en secondes
+     */
+    public TokenResponse(String accessToken, long expiresIn) {
+        this.accessToken = accessToken;
+        this.expiresIn = expiresIn;
+    }
+
+    @JsonProperty("access_token")
+    public String getAccessToken() { return accessToken; }
+
+    @JsonProperty("token_type")
+    public String getTokenType() { return "Bearer"; }
+
+    @JsonProperty("expires_in")
+    public long getExpiresIn() { return expiresIn; }
+}
@@ -0,0 +1,166 @@
+package com.medilabo.gatewayservice.filter;
+
+import com.medilabo.gatewayservice.config.AdmissionControlProperties;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.http.HttpHeaders;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.IOException;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Contrôle d’admission des requêtes relayées par la gateway.
+ * <p>
+ * Chaque route dispose de son propre seau à jetons (limitation de débit) et de sa propre cloison
+ * (nombre de requêtes simultanées, file d’attente bornée) : une rafale sur {@code /assess/**}
+ * ne consomme donc pas la capacité de {@code /patients/**} ni de {@code /notes/**}.
+ * Une requête au-delà du débit reçoit un 429 avec {@code Retry-After} ; une requête qui ne trouve
+ * pas de place reçoit un 503.
+ * </p>
+ * <p>
+ * Le filtre s’exécute après le cache de réponses : les réponses servies par le cache ne consomment
+ * aucune capacité. Sur {@code /auth/token}, il est placé dans la chaîne de Spring Security, avant
+ * la vérification des identifiants. Les métriques {@code gateway.admission} (par route et par issue) et les jauges
+ * {@code gateway.admission.in.flight} et {@code gateway.admission.queued} sont exposées par Micrometer,
+ * ainsi que la durée de relais des requêtes admises ({@code gateway.route}, par route et statut,
+ * avec histogramme de percentiles).
+ * </p>
+ */
+@Component
+@Order(Ordered.LOWEST_PRECEDENCE)
+@EnableConfigurationProperties(AdmissionControlProperties.class)
+public class AdmissionControlFilter extends OncePerRequestFilter {
+
+    private final boolean enabled;
+
+    private final MeterRegistry meterRegistry;
+
+    private final Map<String, RouteAdmission> routes = new LinkedHashMap<>();
+
+    /**
+     * Construit les seaux à jetons, cloisons et compteurs de chaque route.
+     *
+     * @param properties paramètres du contrôle d’admission
+     * @param meterRegistry registre des métriques
+     */
+    public AdmissionControlFilter(AdmissionControlProperties properties, MeterRegistry meterRegistry) {
+        this.enabled = properties.isEnabled();
+        this.meterRegistry = meterRegistry;
+        properties.getRoutes().forEach((id, route) -> routes.put(id, new RouteAdmission(id, route, meterRegistry)));
+    }
+
+    @Override
+    protected boolean shouldNotFilter(HttpServletRequest request) {
+        return !enabled || routeOf(request.getRequestURI()) == null;
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain chain)
+            throws ServletException, IOException {
+        RouteAdmission route = routeOf(request.getRequestURI());
+
+        long waitNanos = route.bucket.tryAcquire();
+        if (waitNanos > 0) {
+            route.rateLimited.increment();
+            response.setHeader(HttpHeaders.RETRY_AFTER, String.valueOf(Math.max(1, TimeUnit.NANOSECONDS.toSeconds(waitNanos))));
+            response.sendError(429, "Trop de requêtes pour " + route.id);
+            return;
+        }
+
+        Bulkhead.Admission admission;
+        try {
+            admission = route.bulkhead.acquire();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            admission = Bulkhead.Admission.TIMED_OUT;
+        }
+        switch (admission) {
+            case ADMITTED -> route.admitted.increment();
+            case QUEUED -> route.queued.increment();
+            case FULL, TIMED_OUT -> {
+                (admission == Bulkhead.Admission.FULL ? route.bulkheadFull : route.queueTimeout).increment();
+                response.sendError(HttpServletResponse.SC_SERVICE_UNAVAILABLE, "Capacité de " + route.id + " saturée");
+                return;
+            }
+        }
+
+        Timer.Sample sample = Timer.start(meterRegistry);
+        try {
+            chain.doFilter(request, response);
+        } finally {
+            route.bulkhead.release();
+            sample.stop(Timer.builder("gateway.route")
+                    .description("Durée de relais des requêtes admises par la gateway")
+                    .tag("route", route.id)
+                    .tag("status", String.valueOf(response.getStatus()))
+                    .publishPercentileHistogram()
+                    .register(meterRegistry));
+        }
+    }
+
+    /**
+     * @return la règle de la route correspondant au chemin, ou {@code null} si aucune route n’est contrôlée
+     */
+    private RouteAdmission routeOf(String path) {
+        for (RouteAdmission route : routes.values()) {
+            if (path.equals(route.path) || path.startsWith(route.path + "/")) {
+                return route;
+            }
+        }
+        return null;
+    }
+
+    /**
+     * État d’admission d’une route : seau à jetons, cloison et compteurs.
+     */
+    private static final class RouteAdmission {
+
+        private final String id;
+        private final String path;
+        private final TokenBucket bucket;
+        private final Bulkhead bulkhead;
+        private final Counter admitted;
+        private final Counter queued;
+        private final Counter rateLimited;
+        private final Counter bulkheadFull;
+        private final Counter queueTimeout;
+
+        private RouteAdmission(String id, AdmissionControlProperties.Route route, MeterRegistry registry) {
+            this.id = id;
+            this.path = route.getPath();
+            this.bucket = new TokenBucket(route.getRate(), route.getBurst(), System::nanoTime);
+            this.bulkhead = new Bulkhead(route.getMaxConcurrent(), route.getMaxQueued(), route.getQueueTimeout());
+            this.admitted = counter(registry, id, "admitted", "none");
+            this.queued = counter(registry, id, "queued", "none");
+            this.rateLimited = counter(registry, id, "rejected", "rate_limited");
+            this.bulkheadFull = counter(registry, id, "rejected", "bulkhead_full");
+            this.queueTimeout = counter(registry, id, "rejected", "queue_timeout");
+            Gauge.builder("gateway.admission.in.flight", bulkhead, Bulkhead::inFlight)
+                    .tag("route", id).register(registry);
+            Gauge.builder("gateway.admission.queued", bulkhead, Bulkhead::queued)
+                    .tag("route", id).register(registry);
+        }
+
+        private static Counter counter(MeterRegistry registry, String route, String outcome, String reason) {
+            return Counter.builder("gateway.admission")
+                    .description("Requêtes soumises au contrôle d’admission de la gateway")
+                    .tag("route", route)
+                    .tag("outcome", outcome)
+                    .tag("reason", reason)
+                    .register(registry);
+        }
+    }
+}
@@ -0,0 +1,228 @@
+package com.medilabo.gatewayservice.filter;
+
+import jakarta.servlet.ServletOutputStream;
+import jakarta.servlet.WriteListener;
+import jakarta.servlet.http.HttpServletResponse;
+import jakarta.servlet.http.HttpServletResponseWrapper;
+import org.springframework.http.HttpHeaders;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.PrintWriter;
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Enveloppe de réponse qui retient le corps en mémoire tant qu’il reste sous une taille limite.
+ * <p>
+ * Tant que la limite n’est pas atteinte, le corps est retenu (et l’en-tête
+ * {@code Content-Length} aussi) : le filtre de cache le conserve puis l’écrit lui-même. Dès
+ * qu’une écriture ou un {@code Content-Length} annoncé dépasse la limite, la réponse
+ * « déborde » : les octets déjà retenus sont transmis au client, puis le reste du corps est
+ * relayé au fil de l’eau. Une grande réponse n’est ainsi jamais entièrement mise en mémoire et
+ * son premier octet n’attend pas le dernier.
+ * </p>
+ */
+class BoundedCachingResponseWrapper extends HttpServletResponseWrapper {
+
+    private final long limit;
+
+    private final ByteArrayOutputStream content = new ByteArrayOutputStream();
+
+    private final ServletOutputStream outputStream = new BoundedOutputStream();
+
+    private PrintWriter writer;
+
+    private boolean overflowed;
+
+    /**
+     * @param response réponse d’origine
+     * @param limit taille au-delà de laquelle le corps n’est plus retenu, en octets
+     */
+    BoundedCachingResponseWrapper(HttpServletResponse response, long limit) {
+        super(response);
+        this.limit = limit;
+    }
+
+    /**
+     * @return {@code true} si le corps a dépassé la limite et a été relayé au client
+     */
+    boolean isOverflowed() {
+        return overflowed;
+    }
+
+    /**
+     * @return le corps retenu, tant que la réponse n’a pas débordé
+     */
+    byte[] getContentAsByteArray() {
+        if (writer != null) {
+            writer.flush();
+        }
+        return content.toByteArray();
+    }
+
+    /**
+     * Transmet au client le corps retenu, sans le conserver.
+     */
+    void copyBodyToResponse() throws IOException {
+        if (writer != null) {
+            writer.flush();
+        }
+        if (!overflowed) {
+            if (content.size() > 0 && !getResponse().isCommitted()) {
+                getResponse().setContentLength(content.size());
+            }
+            overflow();
+        }
+    }
+
+    @Override
+    public ServletOutputStream getOutputStream() {
+        return outputStream;
+    }
+
+    @Override
+    public PrintWriter getWriter() {
+        if (writer == null) {
+            String encoding = getCharacterEncoding();
+            Charset charset = encoding != null ? Charset.forName(encoding) : StandardCharsets.ISO_8859_1;
+            writer = new PrintWriter(new OutputStreamWriter(outputStream, charset));
+        }
+        return writer;
+    }
+
+    @Override
+    public void flushBuffer() throws IOException {
+        if (writer != null) {
+            writer.flush();
+        }
+        if (overflowed) {
+            super.flushBuffer();
+        }
+    }
+
+    @Override
+    public void setContentLength(int length) {
+        setContentLengthLong(length);
+    }
+
+    @Override
+    public void setContentLengthLong(long length) {
+        if (overflowed) {
+            super.setContentLengthLong(length);
+        } else if (length > limit) {
+            overflowQuietly();
+            super.setContentLengthLong(length);
+        }
+    }
+
+    @Override
+    public void setHeader(String name, String value) {
+        if (HttpHeaders.CONTENT_LENGTH.equalsIgnoreCase(name)) {
+            setContentLengthLong(Long.parseLong(value.trim()));
+        } else {
+            super.setHeader(name, value);
+        }
+    }
+
+    @Override
+    public void addHeader(String name, String value) {
+        if (HttpHeaders.CONTENT_LENGTH.equalsIgnoreCase(name)) {
+            setContentLengthLong(Long.parseLong(value.trim()));
+        } else {
+            super.addHeader(name, value);
+        }
+    }
+
+    @Override
+    public void setIntHeader(String name, int value) {
+        if (HttpHeaders.CONTENT_LENGTH.equalsIgnoreCase(name)) {
+            setContentLengthLong(value);
+        } else {
+            super.setIntHeader(name, value);
+        }
+    }
+
+    @Override
+    public void addIntHeader(String name, int value) {
+        if (HttpHeaders.CONTENT_LENGTH.equalsIgnoreCase(name)) {
+            setContentLengthLong(value);
+        } else {
+            super.addIntHeader(name, value);
+        }
+    }
+
+    @Override
+    public void reset() {
+        super.reset();
+        content.reset();
+    }
+
+    @Override
+    public void resetBuffer() {
+        super.resetBuffer();
+        content.reset();
+    }
+
+    private void overflow() throws IOException {
+        overflowed = true;
+        content.writeTo(getResponse().getOutputStream());
+        content.reset();
+    }
+
+    private void overflowQuietly() {
+        try {
+            overflow();
+        } catch (IOException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    /**
+     * Flux du corps : retenu sous la limite, relayé au-delà.
+     */
+    private class BoundedOutputStream extends ServletOutputStream {
+
+        @Override
+        public void write(int b) throws IOException {
+            if (!overflowed && content.size() + 1 > limit) {
+                overflow();
+            }
+            if (overflowed) {
+                getResponse().getOutputStream().write(b);
+            } else {
+                content.write(b);
+            }
+        }
+
+        @Override
+        public void write(byte[] b, int off, int len) throws IOException {
+            if (!overflowed && content.size() + (long) len > limit) {
+                overflow();
+            }
+            if (overflowed) {
+                getResponse().getOutputStream().write(b, off, len);
+            } else {
+                content.write(b, off, len);
+            }
+        }
+
+        @Override
+        public void flush() throws IOException {
+            if (overflowed) {
+                getResponse().getOutputStream().flush();
+            }
+        }
+
+        @Override
+        public boolean isReady() {
+            return true;
+        }
+
+        @Override
+        public void setWriteListener(WriteListener listener) {
+            throw new UnsupportedOperationException("Écriture non bloquante non prise en charge");
+        }
+    }
+}
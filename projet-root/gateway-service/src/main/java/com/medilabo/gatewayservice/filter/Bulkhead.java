@@ -0,0 +1,117 @@
+package com.medilabo.gatewayservice.filter;
+
+import java.time.Duration;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Cloison limitant le nombre de requêtes relayées simultanément vers un microservice.
+ * <p>
+ * Une requête obtient une place sans attendre si elle est libre ; sinon elle peut patienter
+ * dans une file de taille bornée, pendant une durée bornée. Les compteurs de places et de file
+ * sont mis à jour par compare-and-set, sans verrou.
+ * </p>
+ */
+final class Bulkhead {
+
+    /**
+     * Résultat d’une demande de place.
+     */
+    enum Admission {
+        /**
+         * Place obtenue immédiatement.
+         */
+        ADMITTED,
+        /**
+         * Place obtenue après une attente en file.
+         */
+        QUEUED,
+        /**
+         * Toutes les places et la file sont occupées.
+         */
+        FULL,
+        /**
+         * Aucune place ne s’est libérée pendant l’attente.
+         */
+        TIMED_OUT
+    }
+
+    private final Semaphore permits;
+
+    private final int maxConcurrent;
+
+    private final int maxQueued;
+
+    private final Duration queueTimeout;
+
+    private final AtomicInteger queued = new AtomicInteger();
+
+    /**
+     * @param maxConcurrent nombre maximal de requêtes simultanées
+     * @param maxQueued nombre maximal de requêtes en attente
+     * @param queueTimeout durée d’attente maximale en file
+     */
+    Bulkhead(int maxConcurrent, int maxQueued, Duration queueTimeout) {
+        this.permits = new Semaphore(maxConcurrent);
+        this.maxConcurrent = maxConcurrent;
+        this.maxQueued = maxQueued;
+        this.queueTimeout = queueTimeout;
+    }
+
+    /**
+     * Demande une place ; en cas de succès, {@link #release()} doit être appelé à la fin de la requête.
+     *
+     * @return le résultat de la demande
+     * @throws InterruptedException si le thread est interrompu pendant l’attente
+     */
+    Admission acquire() throws InterruptedException {
+        if (permits.tryAcquire()) {
+            return Admission.ADMITTED;
+        }
+        if (!enqueue()) {
+            return Admission.FULL;
+        }
+        try {
+            return permits.tryAcquire(queueTimeout.toNanos(), TimeUnit.NANOSECONDS) ? Admission.QUEUED : Admission.TIMED_OUT;
+        } finally {
+            queued.decrementAndGet();
+        }
+    }
+
+    /**
+     * Libère la place obtenue par {@link #acquire()}.
+     */
+    void release() {
+        permits.release();
+    }
+
+    /**
+     * @return le nombre de requêtes en cours
+     */
+    int inFlight() {
+        return maxConcurrent - permits.availablePermits();
+    }
+
+    /**
+     * @return le nombre de requêtes en attente
+     */
+    int queued() {
+        return queued.get();
+    }
+
+    /**
+     * Réserve une place dans la file d’attente si elle n’est pas pleine.
+     */
+    private boolean enqueue() {
+        while (true) {
+            int current = queued.get();
+            if (current >= maxQueued) {
+                return false;
+            }
+            if (queued.compareAndSet(current, current + 1)) {
+                return true;
+            }
+        }
+    }
+}
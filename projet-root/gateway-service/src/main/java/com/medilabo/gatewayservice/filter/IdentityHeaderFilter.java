@@ -0,0 +1,104 @@
+package com.medilabo.gatewayservice.filter;
+
+import com.medilabo.common.security.IdentityHeaders;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletRequestWrapper;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.boot.autoconfigure.security.SecurityProperties;
+import org.springframework.core.annotation.Order;
+import org.springframework.http.HttpHeaders;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.GrantedAuthority;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.security.oauth2.server.resource.authentication.JwtAuthenticationToken;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Enumeration;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.stream.Collectors;
+
+/**
+ * Transmet aux microservices l’identité vérifiée par la gateway.
+ * <p>
+ * Après la vérification du jeton par Spring Security, la requête relayée reçoit les en-têtes
+ * {@value IdentityHeaders#USER_HEADER} (nom de l’utilisateur) et
+ * {@value IdentityHeaders#ROLES_HEADER} (rôles séparés par des virgules), définis dans le module
+ * medilabo-common et lus par les microservices. Les mêmes en-têtes fournis par le client sont
+ * toujours retirés, pour qu’ils ne puissent pas être usurpés, ainsi que l’en-tête
+ * {@code Authorization} : le jeton ne quitte pas la gateway.
+ * </p>
+ */
+@Component
+@Order(SecurityProperties.DEFAULT_FILTER_ORDER + 1)
+public class IdentityHeaderFilter extends OncePerRequestFilter {
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain chain)
+            throws ServletException, IOException {
+        Map<String, String> identity = new TreeMap<>(String.CASE_INSENSITIVE_ORDER);
+        Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+        if (authentication instanceof JwtAuthenticationToken && authentication.isAuthenticated()) {
+            identity.put(IdentityHeaders.USER_HEADER, authentication.getName());
+            identity.put(IdentityHeaders.ROLES_HEADER, authentication.getAuthorities().stream()
+                    .map(GrantedAuthority::getAuthority)
+                    .collect(Collectors.joining(",")));
+        }
+        chain.doFilter(new IdentityRequest(request, identity), response);
+    }
+
+    /**
+     * Requête dont les en-têtes d’identité sont remplacés par ceux vérifiés par la gateway.
+     */
+    private static final class IdentityRequest extends HttpServletRequestWrapper {
+
+        private final Map<String, String> identity;
+
+        IdentityRequest(HttpServletRequest request, Map<String, String> identity) {
+            super(request);
+            this.identity = identity;
+        }
+
+        @Override
+        public String getHeader(String name) {
+            if (isReplaced(name)) {
+                return identity.get(name);
+            }
+            return super.getHeader(name);
+        }
+
+        @Override
+        public Enumeration<String> getHeaders(String name) {
+            if (isReplaced(name)) {
+                String value = identity.get(name);
+                return value == null ? Collections.emptyEnumeration() : Collections.enumeration(List.of(value));
+            }
+            return super.getHeaders(name);
+        }
+
+        @Override
+        public Enumeration<String> getHeaderNames() {
+            List<String> names = new ArrayList<>();
+            for (String name : Collections.list(super.getHeaderNames())) {
+                if (!isReplaced(name)) {
+                    names.add(name);
+                }
+            }
+            names.addAll(identity.keySet());
+            return Collections.enumeration(names);
+        }
+
+        private static boolean isReplaced(String name) {
+            return IdentityHeaders.USER_HEADER.equalsIgnoreCase(name)
+                    || IdentityHeaders.ROLES_HEADER.equalsIgnoreCase(name)
+                    || HttpHeaders.AUTHORIZATION.equalsIgnoreCase(name);
+        }
+    }
+}
@@ -0,0 +1,256 @@
+package com.medilabo.gatewayservice.filter;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Expiry;
+import com.medilabo.gatewayservice.config.ResponseCacheProperties;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.stereotype.Component;
+import org.springframework.util.DigestUtils;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.IOException;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Cache en mémoire des réponses GET relayées par la gateway.
+ * <p>
+ * Les réponses 200 des routes configurées sont conservées pendant la durée propre à chaque route,
+ * dans la limite d’une taille totale. Une réponse plus grande que {@code max-entry-size} est
+ * relayée au fil de l’eau sans être conservée : son corps n’est retenu en mémoire que jusqu’à
+ * cette taille ({@link BoundedCachingResponseWrapper}), ou pas du tout si son
+ * {@code Content-Length} la dépasse. Une réponse marquée {@code Cache-Control: no-store} ou
+ * {@code private} (évaluation de risque servie en mode dégradé, par exemple) n’est pas
+ * conservée. Chaque réponse porte un {@code ETag} : un client qui renvoie
+ * cette valeur dans {@code If-None-Match} reçoit un 304 sans corps. Toute requête d’écriture
+ * (POST, PUT, PATCH, DELETE) passant par une route vide le cache des routes qu’elle affecte
+ * (par exemple, l’ajout d’une note invalide aussi les évaluations de risque).
+ * </p>
+ * <p>
+ * Le filtre s’exécute après Spring Security : seules les requêtes autorisées atteignent le cache.
+ * Une réponse obtenue avant une invalidation n’est pas conservée si l’invalidation survient
+ * pendant son relais (compteur de génération par route, relu après l’insertion).
+ * </p>
+ */
+@Component
+@Order(Ordered.LOWEST_PRECEDENCE - 10)
+@EnableConfigurationProperties(ResponseCacheProperties.class)
+public class ResponseCacheFilter extends OncePerRequestFilter {
+
+    /**
+     * En-tête de diagnostic indiquant si la réponse provient du cache.
+     */
+    static final String CACHE_STATUS_HEADER = "X-Gateway-Cache";
+
+    private final ResponseCacheProperties properties;
+
+    private final Cache<String, CachedResponse> cache;
+
+    /**
+     * Génération de chaque route, incrémentée à chaque invalidation.
+     */
+    private final Map<String, AtomicLong> generations = new ConcurrentHashMap<>();
+
+    /**
+     * Construit le filtre et son cache borné.
+     *
+     * @param properties paramètres du cache
+     */
+    public ResponseCacheFilter(ResponseCacheProperties properties) {
+        this.properties = properties;
+        this.cache = Caffeine.newBuilder()
+                .maximumWeight(properties.getMaxSize().toBytes())
+                .weigher((String key, CachedResponse response) -> key.length() + response.body().length)
+                .expireAfter(new Expiry<String, CachedResponse>() {
+                    @Override
+                    public long expireAfterCreate(String key, CachedResponse response, long currentTime) {
+                        return response.ttlNanos();
+                    }
+
+                    @Override
+                    public long expireAfterUpdate(String key, CachedResponse response, long currentTime, long currentDuration) {
+                        return response.ttlNanos();
+                    }
+
+                    @Override
+                    public long expireAfterRead(String key, CachedResponse response, long currentTime, long currentDuration) {
+                        return currentDuration;
+                    }
+                })
+                .build();
+    }
+
+    @Override
+    protected boolean shouldNotFilter(HttpServletRequest request) {
+        return !properties.isEnabled() || routeOf(request.getRequestURI()) == null;
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain chain)
+            throws ServletException, IOException {
+        String routeId = routeOf(request.getRequestURI());
+        String method = request.getMethod();
+
+        if (HttpMethod.GET.matches(method)) {
+            if (isExcluded(request.getRequestURI())) {
+                chain.doFilter(request, response);
+            } else {
+                serveGet(routeId, request, response, chain);
+            }
+            return;
+        }
+
+        try {
+            chain.doFilter(request, response);
+        } finally {
+            if (isWrite(method, request.getRequestURI())) {
+                invalidate(routeId);
+            }
+        }
+    }
+
+    /**
+     * Sert une requête GET depuis le cache, ou la relaie et conserve la réponse.
+     */
+    private void serveGet(String routeId, HttpServletRequest request, HttpServletResponse response, FilterChain chain)
+            throws ServletException, IOException {
+        String key = cacheKey(routeId, request);
+        CachedResponse cached = cache.getIfPresent(key);
+        if (cached != null) {
+            response.setHeader(CACHE_STATUS_HEADER, "HIT");
+            write(cached, request, response);
+            return;
+        }
+
+        long generation = generation(routeId).get();
+        BoundedCachingResponseWrapper wrapper =
+                new BoundedCachingResponseWrapper(response, properties.getMaxEntrySize().toBytes());
+        chain.doFilter(request, wrapper);
+
+        if (wrapper.isOverflowed() || wrapper.getStatus() != HttpServletResponse.SC_OK || isNoStore(wrapper)) {
+            wrapper.copyBodyToResponse();
+            return;
+        }
+        byte[] body = wrapper.getContentAsByteArray();
+        CachedResponse fresh = new CachedResponse(body, wrapper.getContentType(),
+                "\"" + DigestUtils.md5DigestAsHex(body) + "\"",
+                properties.getRoutes().get(routeId).getTtl().toNanos());
+        AtomicLong current = generation(routeId);
+        if (current.get() == generation) {
+            cache.put(key, fresh);
+            // Une invalidation survenue entre la vérification et l’insertion n’a pas vu cette entrée.
+            if (current.get() != generation) {
+                cache.asMap().remove(key, fresh);
+            }
+        }
+        // Le corps mis en mémoire par le wrapper n’est pas recopié : il est réécrit (ou remplacé par un 304) ici.
+        response.setHeader(CACHE_STATUS_HEADER, "MISS");
+        write(fresh, request, response);
+    }
+
+    /**
+     * Écrit une réponse conservée, ou un 304 si le client en possède déjà la version courante.
+     */
+    private static void write(CachedResponse cached, HttpServletRequest request, HttpServletResponse response)
+            throws IOException {
+        response.setHeader(HttpHeaders.ETAG, cached.etag());
+        if (matchesEtag(request.getHeader(HttpHeaders.IF_NONE_MATCH), cached.etag())) {
+            response.setStatus(HttpServletResponse.SC_NOT_MODIFIED);
+            return;
+        }
+        response.setStatus(HttpServletResponse.SC_OK);
+        if (cached.contentType() != null) {
+            response.setContentType(cached.contentType());
+        }
+        response.setContentLength(cached.body().length);
+        response.getOutputStream().write(cached.body());
+    }
+
+    /**
+     * Vide le cache des routes affectées par une écriture passant par la route donnée.
+     *
+     * @param routeId route empruntée par l’écriture
+     */
+    void invalidate(String routeId) {
+        ResponseCacheProperties.Route route = properties.getRoutes().get(routeId);
+        Iterable<String> targets = route.getInvalidates().isEmpty() ? List.of(routeId) : route.getInvalidates();
+        for (String target : targets) {
+            generation(target).incrementAndGet();
+            String prefix = target + " ";
+            cache.asMap().keySet().removeIf(key -> key.startsWith(prefix));
+        }
+    }
+
+    /**
+     * @return l’identifiant de la route correspondant au chemin, ou {@code null} si aucune route n’est mise en cache
+     */
+    private String routeOf(String path) {
+        for (Map.Entry<String, ResponseCacheProperties.Route> route : properties.getRoutes().entrySet()) {
+            String prefix = route.getValue().getPath();
+            if (path.equals(prefix) || path.startsWith(prefix + "/")) {
+                return route.getKey();
+            }
+        }
+        return null;
+    }
+
+    private boolean isExcluded(String path) {
+        return properties.getExcludedPaths().stream().anyMatch(path::startsWith);
+    }
+
+    private boolean isWrite(String method, String path) {
+        if (HttpMethod.POST.matches(method)) {
+            return properties.getReadOnlyPosts().stream().noneMatch(path::equals);
+        }
+        return HttpMethod.PUT.matches(method) || HttpMethod.PATCH.matches(method) || HttpMethod.DELETE.matches(method);
+    }
+
+    private AtomicLong generation(String routeId) {
+        return generations.computeIfAbsent(routeId, id -> new AtomicLong());
+    }
+
+    private static String cacheKey(String routeId, HttpServletRequest request) {
+        String query = request.getQueryString();
+        String accept = request.getHeader(HttpHeaders.ACCEPT);
+        return routeId + " " + request.getRequestURI() + (query != null ? "?" + query : "")
+                + " " + (accept != null ? accept : "");
+    }
+
+    private static boolean isNoStore(HttpServletResponse response) {
+        String cacheControl = response.getHeader(HttpHeaders.CACHE_CONTROL);
+        return cacheControl != null && (cacheControl.contains("no-store") || cacheControl.contains("private"));
+    }
+
+    private static boolean matchesEtag(String ifNoneMatch, String etag) {
+        if (ifNoneMatch == null) {
+            return false;
+        }
+        for (String candidate : ifNoneMatch.split(",")) {
+            String value = candidate.trim();
+            if (value.startsWith("W/")) {
+                value = value.substring(2);
+            }
+            if (value.equals("*") || value.equals(etag)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Réponse conservée : corps, type de contenu, ETag et durée de conservation.
+     */
+    private record CachedResponse(byte[] body, String contentType, String etag, long ttlNanos) {
+    }
+}
@@ -0,0 +1,59 @@
+package com.medilabo.gatewayservice.filter;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.LongSupplier;
+
+/**
+ * Seau à jetons sans verrou, implémenté par l’algorithme GCRA (« generic cell rate algorithm »).
+ * <p>
+ * L’état se réduit à l’instant théorique d’arrivée de la prochaine requête, mis à jour par
+ * compare-and-set : chaque requête admise le repousse d’un intervalle d’émission ({@code 1 / rate}),
+ * et une requête est refusée lorsqu’il dépasse l’instant courant de plus que la rafale autorisée.
+ * Le comportement est celui d’un seau de {@code burst} jetons rechargé à {@code rate} jetons par seconde.
+ * </p>
+ */
+final class TokenBucket {
+
+    private final long emissionIntervalNanos;
+
+    private final long toleranceNanos;
+
+    private final LongSupplier clock;
+
+    /**
+     * Instant théorique d’arrivée de la prochaine requête ({@link System#nanoTime()}).
+     */
+    private final AtomicLong theoreticalArrival;
+
+    /**
+     * @param rate débit soutenu, en requêtes par seconde
+     * @param burst nombre de requêtes acceptées d’un coup
+     * @param clock horloge en nanosecondes
+     */
+    TokenBucket(double rate, int burst, LongSupplier clock) {
+        this.emissionIntervalNanos = (long) (1_000_000_000L / rate);
+        this.toleranceNanos = emissionIntervalNanos * Math.max(burst, 1);
+        this.clock = clock;
+        this.theoreticalArrival = new AtomicLong(clock.getAsLong());
+    }
+
+    /**
+     * Consomme un jeton s’il en reste un.
+     *
+     * @return 0 si la requête est admise, sinon le délai en nanosecondes avant qu’un jeton ne soit disponible
+     */
+    long tryAcquire() {
+        while (true) {
+            long now = clock.getAsLong();
+            long tat = theoreticalArrival.get();
+            long next = Math.max(tat, now) + emissionIntervalNanos;
+            long excess = next - now - toleranceNanos;
+            if (excess > 0) {
+                return excess;
+            }
+            if (theoreticalArrival.compareAndSet(tat, next)) {
+                return 0;
+            }
+        }
+    }
+}
@@ -0,0 +1,59 @@
+package com.medilabo.gatewayservice.service;
+
+import com.medilabo.gatewayservice.config.SecurityConfig;
+import com.medilabo.gatewayservice.config.TokenProperties;
+import com.medilabo.gatewayservice.dto.TokenResponse;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.GrantedAuthority;
+import org.springframework.security.oauth2.jose.jws.MacAlgorithm;
+import org.springframework.security.oauth2.jwt.JwsHeader;
+import org.springframework.security.oauth2.jwt.JwtClaimsSet;
+import org.springframework.security.oauth2.jwt.JwtEncoder;
+import org.springframework.security.oauth2.jwt.JwtEncoderParameters;
+import org.springframework.stereotype.Service;
+
+import java.time.Instant;
+import java.util.List;
+
+/**
+ * Émission des jetons d’accès signés de la gateway.
+ */
+@Service
+public class TokenService {
+
+    private final JwtEncoder encoder;
+
+    private final TokenProperties properties;
+
+    /**
+     * @param encoder encodeur signant les jetons
+     * @param properties émetteur et durée de validité des jetons
+     */
+    public TokenService(JwtEncoder encoder, TokenProperties properties) {
+        this.encoder = encoder;
+        this.properties = properties;
+    }
+
+    /**
+     * Émet un jeton pour un utilisateur authentifié.
+     *
+     * @param authentication l’utilisateur dont les identifiants viennent d’être vérifiés
+     * @return le jeton signé, portant le nom de l’utilisateur et ses rôles
+     */
+    public TokenResponse issue(Authentication authentication) {
+        Instant now = Instant.now();
+        List<String> roles = authentication.getAuthorities().stream()
+                .map(GrantedAuthority::getAuthority)
+                .toList();
+        JwtClaimsSet claims = JwtClaimsSet.builder()
+                .issuer(properties.getIssuer())
+                .subject(authentication.getName())
+                .issuedAt(now)
+                .expiresAt(now.plus(properties.getTtl()))
+                .claim(SecurityConfig.ROLES_CLAIM, roles)
+                .build();
+        String token = encoder.encode(JwtEncoderParameters.from(JwsHeader.with(MacAlgorithm.HS256).build(), claims))
+                .getTokenValue();
+        return new TokenResponse(token, properties.getTtl().toSeconds());
+    }
+}
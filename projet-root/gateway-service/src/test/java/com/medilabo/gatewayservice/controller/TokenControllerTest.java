@@ -0,0 +1,119 @@
+package com.medilabo.gatewayservice.controller;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.medilabo.gatewayservice.filter.AdmissionControlFilter;
+import jakarta.servlet.Filter;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.security.web.FilterChainProxy;
+import org.springframework.security.web.authentication.www.BasicAuthenticationFilter;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.servlet.MockMvc;
+
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.security.test.web.servlet.request.SecurityMockMvcRequestPostProcessors.httpBasic;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.delete;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@SpringBootTest
+@AutoConfigureMockMvc
+@ActiveProfiles("test")
+class TokenControllerTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private PasswordEncoder passwordEncoder;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Autowired
+    private FilterChainProxy filterChainProxy;
+
+    @BeforeEach
+    void setUp() {
+        jdbcTemplate.update("delete from users");
+        jdbcTemplate.update("insert into users (username, password, role) values (?, ?, ?)",
+                "alice", passwordEncoder.encode("secret"), "ROLE_PRATICIEN");
+    }
+
+    @Test
+    void token_isIssuedForValidCredentialsWithoutSession() throws Exception {
+        mockMvc.perform(post("/auth/token").with(httpBasic("alice", "secret")))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.token_type").value("Bearer"))
+                .andExpect(jsonPath("$.expires_in").value(900))
+                .andExpect(header().doesNotExist("Set-Cookie"));
+    }
+
+    @Test
+    void token_isRefusedForInvalidCredentials() throws Exception {
+        mockMvc.perform(post("/auth/token").with(httpBasic("alice", "wrong")))
+                .andExpect(status().isUnauthorized());
+    }
+
+    @Test
+    void protectedEndpoints_acceptIssuedTokenOnly() throws Exception {
+        String token = issueToken();
+
+        mockMvc.perform(get("/actuator/metrics").header("Authorization", "Bearer " + token))
+                .andExpect(status().isOk());
+        mockMvc.perform(get("/actuator/metrics").header("Authorization", "Bearer " + tamper(token)))
+                .andExpect(status().isUnauthorized());
+        mockMvc.perform(get("/patients/1"))
+                .andExpect(status().isUnauthorized());
+    }
+
+    @Test
+    void riskCacheInvalidation_isNotExposed() throws Exception {
+        mockMvc.perform(delete("/assess/cache/1").header("Authorization", "Bearer " + issueToken()))
+                .andExpect(status().isForbidden());
+    }
+
+    @Test
+    void token_isAdmittedBeforeCredentialsAreChecked() {
+        List<Class<?>> filters = filterChainProxy.getFilters("/auth/token").stream()
+                .<Class<?>>map(Filter::getClass)
+                .toList();
+
+        assertThat(filters).contains(AdmissionControlFilter.class, BasicAuthenticationFilter.class);
+        assertThat(filters.indexOf(AdmissionControlFilter.class))
+                .isLessThan(filters.indexOf(BasicAuthenticationFilter.class));
+    }
+
+    @Test
+    void protectedEndpoints_doNotAcceptPasswords() throws Exception {
+        mockMvc.perform(get("/actuator/metrics").with(httpBasic("alice", "secret")))
+                .andExpect(status().isUnauthorized());
+    }
+
+    private String issueToken() throws Exception {
+        String body = mockMvc.perform(post("/auth/token").with(httpBasic("alice", "secret")))
+                .andReturn().getResponse().getContentAsString();
+        JsonNode json = objectMapper.readTree(body);
+        assertThat(json.get("access_token").asText()).isNotBlank();
+        return json.get("access_token").asText();
+    }
+
+    private static String tamper(String token) {
+        char last = token.charAt(token.length() - 1);
+        return token.substring(0, token.length() - 1) + (last == 'A' ? 'B' : 'A');
+    }
+}
@@ -0,0 +1,179 @@
+package com.medilabo.gatewayservice.filter;
+
+import com.medilabo.gatewayservice.config.AdmissionControlProperties;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import jakarta.servlet.FilterChain;
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.context.properties.bind.Binder;
+import org.springframework.boot.context.properties.source.ConfigurationPropertySources;
+import org.springframework.boot.env.YamlPropertySourceLoader;
+import org.springframework.core.io.ClassPathResource;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class AdmissionControlFilterTest {
+
+    private final MeterRegistry registry = new SimpleMeterRegistry();
+
+    @Test
+    void rateLimit_rejectsBeyondBurstWith429_andOtherRoutesAreUnaffected() throws Exception {
+        AdmissionControlFilter filter = filter(route("/assess", 1, 2, 10, 0), route("/patients", 1, 2, 10, 0));
+
+        assertThat(perform(filter, "/assess/1", (req, res) -> { }).getStatus()).isEqualTo(200);
+        assertThat(perform(filter, "/assess/1", (req, res) -> { }).getStatus()).isEqualTo(200);
+        MockHttpServletResponse rejected = perform(filter, "/assess/1", (req, res) -> { });
+
+        assertThat(rejected.getStatus()).isEqualTo(429);
+        assertThat(rejected.getHeader("Retry-After")).isNotNull();
+        assertThat(perform(filter, "/patients/1", (req, res) -> { }).getStatus()).isEqualTo(200);
+        assertThat(count("/assess", "rejected", "rate_limited")).isEqualTo(1);
+        assertThat(count("/assess", "admitted", "none")).isEqualTo(2);
+        assertThat(registry.get("gateway.route").tag("route", "/assess").tag("status", "200").timer().count())
+                .isEqualTo(2);
+    }
+
+    @Test
+    void bulkhead_queuesThenRejectsWith503() throws Exception {
+        AdmissionControlFilter filter = filter(route("/assess", 1000, 1000, 1, 1));
+        CountDownLatch entered = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        FilterChain slow = (req, res) -> {
+            entered.countDown();
+            try {
+                release.await(5, TimeUnit.SECONDS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        };
+
+        ExecutorService executor = Executors.newFixedThreadPool(2);
+        try {
+            Future<MockHttpServletResponse> first = executor.submit(() -> perform(filter, "/assess/1", slow));
+            assertThat(entered.await(5, TimeUnit.SECONDS)).isTrue();
+            Future<MockHttpServletResponse> queued = executor.submit(() -> perform(filter, "/assess/2", (req, res) -> { }));
+            waitUntilQueued();
+
+            MockHttpServletResponse rejected = perform(filter, "/assess/3", (req, res) -> { });
+            release.countDown();
+
+            assertThat(rejected.getStatus()).isEqualTo(503);
+            assertThat(first.get(5, TimeUnit.SECONDS).getStatus()).isEqualTo(200);
+            assertThat(queued.get(5, TimeUnit.SECONDS).getStatus()).isEqualTo(200);
+            assertThat(count("/assess", "queued", "none")).isEqualTo(1);
+            assertThat(count("/assess", "rejected", "bulkhead_full")).isEqualTo(1);
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    @Test
+    void configuredRiskRoute_admitsSimultaneousOverviewPages() throws Exception {
+        // Chaque page de la liste des patients n'envoie qu'un POST /assess/batch : une rafale de
+        // pages affichées en même temps doit passer sans 429 ni 503 avec les limites livrées.
+        AdmissionControlProperties properties = shippedProperties();
+        AdmissionControlProperties.Route risk = properties.getRoutes().get("risk-assessment-service");
+        AdmissionControlFilter filter = new AdmissionControlFilter(properties, registry);
+        FilterChain batchCall = (req, res) -> {
+            try {
+                Thread.sleep(50);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        };
+
+        ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor();
+        try {
+            List<Future<MockHttpServletResponse>> pages = new ArrayList<>();
+            for (int i = 0; i < risk.getBurst(); i++) {
+                pages.add(executor.submit(() -> perform(filter, "POST", "/assess/batch", batchCall)));
+            }
+            for (Future<MockHttpServletResponse> page : pages) {
+                assertThat(page.get(5, TimeUnit.SECONDS).getStatus()).isEqualTo(200);
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+        assertThat(count("risk-assessment-service", "admitted", "none")
+                + count("risk-assessment-service", "queued", "none")).isEqualTo(risk.getBurst());
+    }
+
+    @Test
+    void tokenBucket_refillsAtConfiguredRate() {
+        AtomicLong now = new AtomicLong();
+        TokenBucket bucket = new TokenBucket(10, 2, now::get);
+
+        assertThat(bucket.tryAcquire()).isZero();
+        assertThat(bucket.tryAcquire()).isZero();
+        assertThat(bucket.tryAcquire()).isEqualTo(Duration.ofMillis(100).toNanos());
+
+        now.addAndGet(Duration.ofMillis(100).toNanos());
+        assertThat(bucket.tryAcquire()).isZero();
+        assertThat(bucket.tryAcquire()).isPositive();
+    }
+
+    private void waitUntilQueued() throws InterruptedException {
+        for (int i = 0; i < 500 && registry.get("gateway.admission.queued").gauge().value() < 1; i++) {
+            Thread.sleep(10);
+        }
+    }
+
+    private double count(String route, String outcome, String reason) {
+        return registry.get("gateway.admission").tag("route", route).tag("outcome", outcome).tag("reason", reason)
+                .counter().count();
+    }
+
+    private static MockHttpServletResponse perform(AdmissionControlFilter filter, String path, FilterChain chain)
+            throws Exception {
+        return perform(filter, "GET", path, chain);
+    }
+
+    private static MockHttpServletResponse perform(AdmissionControlFilter filter, String method, String path,
+                                                   FilterChain chain) throws Exception {
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        filter.doFilter(new MockHttpServletRequest(method, path), response, chain);
+        return response;
+    }
+
+    /**
+     * @return les paramètres d'admission de {@code application.yml}
+     */
+    private static AdmissionControlProperties shippedProperties() throws IOException {
+        return new Binder(ConfigurationPropertySources.from(
+                new YamlPropertySourceLoader().load("application", new ClassPathResource("application.yml"))))
+                .bind("medilabo.gateway.admission", AdmissionControlProperties.class)
+                .get();
+    }
+
+    private AdmissionControlFilter filter(AdmissionControlProperties.Route... routes) {
+        AdmissionControlProperties properties = new AdmissionControlProperties();
+        for (AdmissionControlProperties.Route route : routes) {
+            properties.getRoutes().put(route.getPath(), route);
+        }
+        return new AdmissionControlFilter(properties, registry);
+    }
+
+    private static AdmissionControlProperties.Route route(String path, double rate, int burst, int maxConcurrent, int maxQueued) {
+        AdmissionControlProperties.Route route = new AdmissionControlProperties.Route();
+        route.setPath(path);
+        route.setRate(rate);
+        route.setBurst(burst);
+        route.setMaxConcurrent(maxConcurrent);
+        route.setMaxQueued(maxQueued);
+        route.setQueueTimeout(Duration.ofSeconds(5));
+        return route;
+    }
+}
@@ -0,0 +1,67 @@
+package com.medilabo.gatewayservice.filter;
+
+import com.medilabo.common.security.IdentityHeaders;
+import jakarta.servlet.http.HttpServletRequest;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockFilterChain;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.security.core.authority.AuthorityUtils;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.security.oauth2.jwt.Jwt;
+import org.springframework.security.oauth2.server.resource.authentication.JwtAuthenticationToken;
+
+import java.time.Instant;
+import java.util.Collections;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class IdentityHeaderFilterTest {
+
+    private final IdentityHeaderFilter filter = new IdentityHeaderFilter();
+
+    @AfterEach
+    void tearDown() {
+        SecurityContextHolder.clearContext();
+    }
+
+    @Test
+    void authenticatedRequest_forwardsVerifiedIdentityInsteadOfClientHeaders() throws Exception {
+        Jwt jwt = Jwt.withTokenValue("token").header("alg", "HS256").subject("alice")
+                .issuedAt(Instant.now()).expiresAt(Instant.now().plusSeconds(60)).build();
+        SecurityContextHolder.getContext().setAuthentication(
+                new JwtAuthenticationToken(jwt, AuthorityUtils.createAuthorityList("ROLE_PRATICIEN"), "alice"));
+
+        HttpServletRequest forwarded = forward(spoofedRequest());
+
+        assertThat(forwarded.getHeader(IdentityHeaders.USER_HEADER)).isEqualTo("alice");
+        assertThat(Collections.list(forwarded.getHeaders("x-authenticated-roles"))).containsExactly("ROLE_PRATICIEN");
+        assertThat(forwarded.getHeader("Authorization")).isNull();
+        assertThat(forwarded.getHeader("Accept")).isEqualTo("application/json");
+    }
+
+    @Test
+    void anonymousRequest_dropsClientIdentityHeaders() throws Exception {
+        HttpServletRequest forwarded = forward(spoofedRequest());
+
+        assertThat(forwarded.getHeader(IdentityHeaders.USER_HEADER)).isNull();
+        assertThat(Collections.list(forwarded.getHeaderNames()))
+                .noneMatch(name -> name.toLowerCase().startsWith("x-authenticated"));
+    }
+
+    private HttpServletRequest forward(MockHttpServletRequest request) throws Exception {
+        MockFilterChain chain = new MockFilterChain();
+        filter.doFilter(request, new MockHttpServletResponse(), chain);
+        return (HttpServletRequest) chain.getRequest();
+    }
+
+    private static MockHttpServletRequest spoofedRequest() {
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/patients/1");
+        request.addHeader("X-Authenticated-User", "mallory");
+        request.addHeader("X-Authenticated-Roles", "ROLE_ORGANISATEUR");
+        request.addHeader("Authorization", "Bearer token");
+        request.addHeader("Accept", "application/json");
+        return request;
+    }
+}
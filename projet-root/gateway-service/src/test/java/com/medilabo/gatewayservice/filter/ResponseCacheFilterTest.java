@@ -0,0 +1,187 @@
+package com.medilabo.gatewayservice.filter;
+
+import com.medilabo.gatewayservice.config.ResponseCacheProperties;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.http.HttpServletResponse;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.util.unit.DataSize;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class ResponseCacheFilterTest {
+
+    private final AtomicInteger backendCalls = new AtomicInteger();
+
+    private ResponseCacheProperties properties;
+
+    private ResponseCacheFilter filter;
+
+    /**
+     * Simule le microservice relayé : renvoie un corps différent à chaque appel.
+     */
+    private final FilterChain backend = (request, response) -> {
+        int call = backendCalls.incrementAndGet();
+        response.setContentType("application/json");
+        response.getOutputStream().write(("{\"call\":" + call + "}").getBytes(StandardCharsets.UTF_8));
+    };
+
+    @BeforeEach
+    void setUp() {
+        properties = new ResponseCacheProperties();
+        properties.setExcludedPaths(List.of("/patients/export"));
+        properties.setReadOnlyPosts(List.of("/assess/batch"));
+        properties.getRoutes().put("patient-service", route("/patients", List.of("patient-service", "risk-assessment-service")));
+        properties.getRoutes().put("note-service", route("/notes", List.of("note-service", "risk-assessment-service")));
+        properties.getRoutes().put("risk-assessment-service", route("/assess", List.of()));
+        filter = new ResponseCacheFilter(properties);
+    }
+
+    @Test
+    void repeatedGet_isServedFromCacheWithEtag() throws Exception {
+        MockHttpServletResponse first = perform("GET", "/assess/1", null);
+        MockHttpServletResponse second = perform("GET", "/assess/1", null);
+
+        assertThat(backendCalls).hasValue(1);
+        assertThat(first.getHeader(ResponseCacheFilter.CACHE_STATUS_HEADER)).isEqualTo("MISS");
+        assertThat(second.getHeader(ResponseCacheFilter.CACHE_STATUS_HEADER)).isEqualTo("HIT");
+        assertThat(second.getContentAsString()).isEqualTo("{\"call\":1}").isEqualTo(first.getContentAsString());
+        assertThat(second.getContentType()).isEqualTo("application/json");
+        assertThat(second.getHeader("ETag")).isNotBlank().isEqualTo(first.getHeader("ETag"));
+    }
+
+    @Test
+    void ifNoneMatch_withCurrentEtag_returnsNotModified() throws Exception {
+        String etag = perform("GET", "/patients/1", null).getHeader("ETag");
+
+        MockHttpServletResponse response = perform("GET", "/patients/1", etag);
+
+        assertThat(response.getStatus()).isEqualTo(304);
+        assertThat(response.getContentAsByteArray()).isEmpty();
+        assertThat(backendCalls).hasValue(1);
+    }
+
+    @Test
+    void write_invalidatesOwnRouteAndDependentRoutes() throws Exception {
+        perform("GET", "/notes/patient/1", null);
+        perform("GET", "/assess/1", null);
+        perform("GET", "/patients/1", null);
+
+        perform("POST", "/notes", null);
+
+        assertThat(perform("GET", "/notes/patient/1", null).getContentAsString()).isEqualTo("{\"call\":5}");
+        assertThat(perform("GET", "/assess/1", null).getContentAsString()).isEqualTo("{\"call\":6}");
+        assertThat(perform("GET", "/patients/1", null).getHeader(ResponseCacheFilter.CACHE_STATUS_HEADER)).isEqualTo("HIT");
+    }
+
+    @Test
+    void readOnlyPost_doesNotInvalidate() throws Exception {
+        perform("GET", "/assess/1", null);
+
+        perform("POST", "/assess/batch", null);
+
+        assertThat(perform("GET", "/assess/1", null).getHeader(ResponseCacheFilter.CACHE_STATUS_HEADER)).isEqualTo("HIT");
+    }
+
+    @Test
+    void excludedPath_isNeverCached() throws Exception {
+        perform("GET", "/patients/export", null);
+        MockHttpServletResponse second = perform("GET", "/patients/export", null);
+
+        assertThat(backendCalls).hasValue(2);
+        assertThat(second.getHeader(ResponseCacheFilter.CACHE_STATUS_HEADER)).isNull();
+    }
+
+    @Test
+    void responseLargerThanEntryLimit_isNotCached() throws Exception {
+        properties.setMaxEntrySize(DataSize.ofBytes(8));
+        filter = new ResponseCacheFilter(properties);
+
+        MockHttpServletResponse first = perform("GET", "/assess/1", null);
+        perform("GET", "/assess/1", null);
+
+        assertThat(backendCalls).hasValue(2);
+        assertThat(first.getContentAsString()).isEqualTo("{\"call\":1}");
+        assertThat(first.getHeader(ResponseCacheFilter.CACHE_STATUS_HEADER)).isNull();
+    }
+
+    @Test
+    void responseLargerThanEntryLimit_isRelayedWhileBackendStillWrites() throws Exception {
+        properties.setMaxEntrySize(DataSize.ofBytes(8));
+        filter = new ResponseCacheFilter(properties);
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        AtomicInteger relayedBeforeEnd = new AtomicInteger();
+
+        filter.doFilter(new MockHttpServletRequest("GET", "/patients"), response, (req, res) -> {
+            res.getOutputStream().write("[{\"id\":1},".getBytes(StandardCharsets.UTF_8));
+            relayedBeforeEnd.set(response.getContentAsByteArray().length);
+            res.getOutputStream().write("{\"id\":2}]".getBytes(StandardCharsets.UTF_8));
+        });
+
+        assertThat(relayedBeforeEnd).hasValue(10);
+        assertThat(response.getContentAsString()).isEqualTo("[{\"id\":1},{\"id\":2}]");
+        assertThat(response.getHeader(ResponseCacheFilter.CACHE_STATUS_HEADER)).isNull();
+    }
+
+    @Test
+    void declaredContentLengthAboveEntryLimit_isNeverBuffered() throws Exception {
+        properties.setMaxEntrySize(DataSize.ofBytes(8));
+        filter = new ResponseCacheFilter(properties);
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        AtomicInteger relayedBeforeEnd = new AtomicInteger();
+
+        filter.doFilter(new MockHttpServletRequest("GET", "/patients"), response, (req, res) -> {
+            res.setContentLength(9);
+            res.getOutputStream().write("[1,".getBytes(StandardCharsets.UTF_8));
+            relayedBeforeEnd.set(response.getContentAsByteArray().length);
+            res.getOutputStream().write("2,3,4]".getBytes(StandardCharsets.UTF_8));
+        });
+
+        assertThat(relayedBeforeEnd).hasValue(3);
+        assertThat(response.getContentLength()).isEqualTo(9);
+        assertThat(response.getContentAsString()).isEqualTo("[1,2,3,4]");
+    }
+
+    @Test
+    void noStoreResponse_isNotCached() throws Exception {
+        FilterChain degraded = (request, response) -> {
+            backendCalls.incrementAndGet();
+            ((HttpServletResponse) response).setHeader("Cache-Control", "no-store");
+            response.setContentType("application/json");
+            response.getOutputStream().write("{\"stale\":true}".getBytes(StandardCharsets.UTF_8));
+        };
+
+        MockHttpServletResponse first = new MockHttpServletResponse();
+        filter.doFilter(new MockHttpServletRequest("GET", "/assess/1"), first, degraded);
+        perform("GET", "/assess/1", null);
+
+        assertThat(backendCalls).hasValue(2);
+        assertThat(first.getContentAsString()).isEqualTo("{\"stale\":true}");
+        assertThat(first.getContentLength()).isEqualTo(14);
+    }
+
+    private MockHttpServletResponse perform(String method, String path, String ifNoneMatch) throws Exception {
+        MockHttpServletRequest request = new MockHttpServletRequest(method, path);
+        if (ifNoneMatch != null) {
+            request.addHeader("If-None-Match", ifNoneMatch);
+        }
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        filter.doFilter(request, response, backend);
+        return response;
+    }
+
+    private static ResponseCacheProperties.Route route(String path, List<String> invalidates) {
+        ResponseCacheProperties.Route route = new ResponseCacheProperties.Route();
+        route.setPath(path);
+        route.setTtl(Duration.ofMinutes(1));
+        route.setInvalidates(invalidates);
+        return route;
+    }
+}
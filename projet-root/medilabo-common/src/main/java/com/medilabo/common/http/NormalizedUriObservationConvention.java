@@ -0,0 +1,31 @@
+package com.medilabo.common.http;
+
+import io.micrometer.common.KeyValue;
+import org.springframework.http.client.observation.ClientRequestObservationContext;
+import org.springframework.http.client.observation.DefaultClientRequestObservationConvention;
+
+import java.util.regex.Pattern;
+
+/**
+ * Convention d’observation des appels HTTP sortants ({@code http.client.requests}).
+ * <p>
+ * Les URL appelées par les microservices sont construites par concaténation
+ * ({@code /patients/42}, {@code /assess/42}) : sans normalisation, chaque identifiant produirait une valeur
+ * distincte du tag {@code uri}, donc une série de métriques par patient.
+ * Les segments numériques sont remplacés par {@code {id}}.
+ * </p>
+ */
+public class NormalizedUriObservationConvention extends DefaultClientRequestObservationConvention {
+
+    private static final Pattern NUMERIC_SEGMENT = Pattern.compile("/\\d+(?=/|$|\\?)");
+
+    public NormalizedUriObservationConvention() {
+        super("http.client.requests");
+    }
+
+    @Override
+    protected KeyValue uri(ClientRequestObservationContext context) {
+        KeyValue uri = super.uri(context);
+        return KeyValue.of(uri.getKey(), NUMERIC_SEGMENT.matcher(uri.getValue()).replaceAll("/{id}"));
+    }
+}
@@ -0,0 +1,127 @@
+package com.medilabo.common.http;
+
+import io.micrometer.core.instrument.binder.MeterBinder;
+import io.micrometer.core.instrument.binder.httpcomponents.hc5.PoolingHttpClientConnectionManagerMetricsBinder;
+import org.apache.hc.client5.http.config.ConnectionConfig;
+import org.apache.hc.client5.http.config.RequestConfig;
+import org.apache.hc.client5.http.impl.DefaultConnectionKeepAliveStrategy;
+import org.apache.hc.client5.http.impl.classic.CloseableHttpClient;
+import org.apache.hc.client5.http.impl.classic.HttpClients;
+import org.apache.hc.client5.http.impl.io.PoolingHttpClientConnectionManager;
+import org.apache.hc.client5.http.impl.io.PoolingHttpClientConnectionManagerBuilder;
+import org.apache.hc.core5.util.TimeValue;
+import org.apache.hc.core5.util.Timeout;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.http.client.observation.ClientRequestObservationConvention;
+
+import java.time.Duration;
+
+/**
+ * Client HTTP à connexions mutualisées, partagé par les microservices qui appellent d’autres services
+ * (risk-assessment-service vers patient-service et note-service, patient-ui-service vers le gateway).
+ * <p>
+ * Les connexions sont mutualisées dans un pool (taille globale et par route configurables)
+ * et réutilisées tant qu’elles restent actives, ce qui évite d’ouvrir une connexion TCP par appel.
+ * Chaque appel est borné par un délai de connexion, un délai d’obtention d’une connexion du pool
+ * et un délai de lecture : un service aval bloqué ne peut plus immobiliser un thread indéfiniment.
+ * </p>
+ * <p>
+ * L’occupation du pool est publiée dans Micrometer ({@code httpcomponents.httpclient.pool.*}, nommé par
+ * {@code medilabo.http.pool-name}), ainsi que la durée de chaque appel ({@code http.client.requests},
+ * tag {@code uri} normalisé). Chaque microservice importe cette configuration et déclare son propre
+ * {@code RestTemplate} sur le {@link CloseableHttpClient}.
+ * </p>
+ */
+@Configuration(proxyBeanMethods = false)
+public class PooledHttpClientConfig {
+
+    /**
+     * Pool de connexions HTTP partagé par tous les appels sortants.
+     *
+     * @param maxTotal nombre maximal de connexions ouvertes
+     * @param maxPerRoute nombre maximal de connexions vers une même route
+     * @param connectTimeout délai maximal d’établissement d’une connexion
+     * @param readTimeout délai maximal d’attente de données sur une connexion établie
+     * @param timeToLive durée de vie maximale d’une connexion, même active
+     * @return le gestionnaire de connexions
+     */
+    @Bean(destroyMethod = "close")
+    public PoolingHttpClientConnectionManager httpConnectionManager(
+            @Value("${medilabo.http.max-total:200}") int maxTotal,
+            @Value("${medilabo.http.max-per-route:100}") int maxPerRoute,
+            @Value("${medilabo.http.connect-timeout:1s}") Duration connectTimeout,
+            @Value("${medilabo.http.read-timeout:5s}") Duration readTimeout,
+            @Value("${medilabo.http.time-to-live:5m}") Duration timeToLive) {
+        return PoolingHttpClientConnectionManagerBuilder.create()
+                .setMaxConnTotal(maxTotal)
+                .setMaxConnPerRoute(maxPerRoute)
+                .setDefaultConnectionConfig(ConnectionConfig.custom()
+                        .setConnectTimeout(Timeout.of(connectTimeout))
+                        .setSocketTimeout(Timeout.of(readTimeout))
+                        .setTimeToLive(TimeValue.of(timeToLive))
+                        .setValidateAfterInactivity(TimeValue.ofSeconds(2))
+                        .build())
+                .build();
+    }
+
+    /**
+     * Client HTTP construit sur le pool de connexions.
+     * <p>
+     * Une connexion est conservée au plus {@code keepAlive} (ou moins si le serveur l’indique),
+     * et les connexions inactives ou expirées sont fermées en tâche de fond.
+     * </p>
+     *
+     * @param connectionManager le pool de connexions
+     * @param readTimeout délai maximal d’attente de la réponse
+     * @param poolTimeout délai maximal d’attente d’une connexion libre dans le pool
+     * @param keepAlive durée maximale de conservation d’une connexion inactive
+     * @return le client HTTP
+     */
+    @Bean(destroyMethod = "close")
+    public CloseableHttpClient httpClient(
+            PoolingHttpClientConnectionManager connectionManager,
+            @Value("${medilabo.http.read-timeout:5s}") Duration readTimeout,
+            @Value("${medilabo.http.pool-timeout:1s}") Duration poolTimeout,
+            @Value("${medilabo.http.keep-alive:30s}") Duration keepAlive) {
+        TimeValue maxKeepAlive = TimeValue.of(keepAlive);
+        return HttpClients.custom()
+                .setConnectionManager(connectionManager)
+                .setDefaultRequestConfig(RequestConfig.custom()
+                        .setConnectionRequestTimeout(Timeout.of(poolTimeout))
+                        .setResponseTimeout(Timeout.of(readTimeout))
+                        .build())
+                .setKeepAliveStrategy((response, context) -> {
+                    TimeValue announced = DefaultConnectionKeepAliveStrategy.INSTANCE.getKeepAliveDuration(response, context);
+                    return announced.compareTo(maxKeepAlive) < 0 ? announced : maxKeepAlive;
+                })
+                .evictExpiredConnections()
+                .evictIdleConnections(maxKeepAlive)
+                .build();
+    }
+
+    /**
+     * Publie les métriques d’occupation du pool (connexions disponibles, louées, en attente).
+     *
+     * @param connectionManager le pool de connexions
+     * @param poolName nom du pool dans les métriques
+     * @return le {@link MeterBinder} enregistré automatiquement par Spring Boot
+     */
+    @Bean
+    public MeterBinder httpConnectionPoolMetrics(PoolingHttpClientConnectionManager connectionManager,
+                                                 @Value("${medilabo.http.pool-name:downstream}") String poolName) {
+        return new PoolingHttpClientConnectionManagerMetricsBinder(connectionManager, poolName);
+    }
+
+    /**
+     * Remplace les identifiants des URL appelées par {@code {id}} dans le tag {@code uri}
+     * des métriques {@code http.client.requests}.
+     *
+     * @return la convention utilisée par le {@code RestTemplateBuilder}
+     */
+    @Bean
+    public ClientRequestObservationConvention clientRequestObservationConvention() {
+        return new NormalizedUriObservationConvention();
+    }
+}
@@ -0,0 +1,91 @@
+package com.medilabo.common.risk;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.web.client.RestTemplateBuilder;
+import org.springframework.stereotype.Component;
+import org.springframework.web.client.RestClientException;
+import org.springframework.web.client.RestTemplate;
+
+import java.time.Duration;
+import java.util.Collection;
+
+/**
+ * Prévient risk-assessment-service qu’une évaluation en cache n’est plus valable.
+ * <p>
+ * Utilisé par patient-service (modification ou suppression d’un patient) et note-service
+ * (écriture d’une note), qui l’importent dans leur contexte.
+ * L’appel est volontairement tolérant aux pannes : un échec est seulement journalisé, l’écriture
+ * reste valide et l’entrée du cache expirera d’elle-même.
+ * </p>
+ */
+@Component
+public class RiskInvalidationNotifier {
+
+    private static final Logger log = LoggerFactory.getLogger(RiskInvalidationNotifier.class);
+
+    private final RestTemplate restTemplate;
+
+    private final String invalidationUrl;
+
+    private final boolean enabled;
+
+    public RiskInvalidationNotifier(RestTemplateBuilder restTemplateBuilder,
+                                    @Value("${medilabo.risk.invalidation-url:http://risk-assessment-service:8084/assess/cache/}") String invalidationUrl,
+                                    @Value("${medilabo.risk.invalidation-enabled:true}") boolean enabled) {
+        this.restTemplate = restTemplateBuilder
+                .connectTimeout(Duration.ofSeconds(1))
+                .readTimeout(Duration.ofSeconds(2))
+                .build();
+        this.invalidationUrl = invalidationUrl;
+        this.enabled = enabled;
+    }
+
+    /**
+     * Invalide l’évaluation du risque en cache pour un patient.
+     *
+     * @param patientId identifiant du patient modifié ou dont les notes ont changé
+     */
+    public void patientChanged(Number patientId) {
+        send(patientId, "");
+    }
+
+    /**
+     * Invalide en un seul appel les évaluations du risque en cache de plusieurs patients
+     * ({@code POST /assess/cache/batch}), par exemple après l’écriture d’un lot de notes.
+     *
+     * @param patientIds identifiants des patients concernés
+     */
+    public void patientsChanged(Collection<? extends Number> patientIds) {
+        if (!enabled || patientIds.isEmpty()) {
+            return;
+        }
+        try {
+            restTemplate.postForLocation(invalidationUrl + "batch", patientIds);
+        } catch (RestClientException e) {
+            log.warn("Invalidation du cache de risque impossible pour {} patients : {}", patientIds.size(), e.getMessage());
+        }
+    }
+
+    /**
+     * Fait oublier toute évaluation du risque d’un patient supprimé, y compris la dernière
+     * évaluation connue servie en mode dégradé.
+     *
+     * @param patientId identifiant du patient supprimé
+     */
+    public void patientDeleted(Number patientId) {
+        send(patientId, "?patientDeleted=true");
+    }
+
+    private void send(Number patientId, String query) {
+        if (!enabled || patientId == null) {
+            return;
+        }
+        try {
+            restTemplate.delete(invalidationUrl + patientId + query);
+        } catch (RestClientException e) {
+            log.warn("Invalidation du cache de risque impossible pour le patient {} : {}", patientId, e.getMessage());
+        }
+    }
+}
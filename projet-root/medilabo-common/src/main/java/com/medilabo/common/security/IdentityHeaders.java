@@ -0,0 +1,30 @@
+package com.medilabo.common.security;
+
+/**
+ * En-têtes d’identité échangés entre la gateway et les microservices.
+ * <p>
+ * La gateway vérifie le jeton de l’utilisateur puis transmet son identité dans ces en-têtes ;
+ * les appels internes d’un microservice vers un autre y placent l’identité du service appelant,
+ * avec le rôle {@value #SERVICE_ROLE}.
+ * </p>
+ */
+public final class IdentityHeaders {
+
+    /**
+     * En-tête portant le nom de l’utilisateur authentifié (ou du service appelant).
+     */
+    public static final String USER_HEADER = "X-Authenticated-User";
+
+    /**
+     * En-tête portant les rôles de l’appelant ({@code ROLE_*}, séparés par des virgules).
+     */
+    public static final String ROLES_HEADER = "X-Authenticated-Roles";
+
+    /**
+     * Rôle porté par les appels internes entre microservices.
+     */
+    public static final String SERVICE_ROLE = "ROLE_SERVICE";
+
+    private IdentityHeaders() {
+    }
+}
@@ -0,0 +1,56 @@
+package com.medilabo.common.security;
+
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.IOException;
+
+/**
+ * Refuse les requêtes qui ne portent pas d’identité transmise par la gateway ou par un autre
+ * microservice ({@link IdentityHeaders#USER_HEADER}).
+ * <p>
+ * Utilisé par les microservices sans Spring Security (note-service, risk-assessment-service),
+ * qui l’importent dans leur contexte. Une requête sans identité reçoit une réponse 403 ; seuls
+ * les points de supervision ({@code /actuator/**}) restent accessibles. Le contrôle peut être
+ * désactivé par {@code medilabo.security.identity-header.required=false}.
+ * </p>
+ * <p>
+ * L’en-tête n’est pas signé : il ne fait foi que parce que ces microservices ne sont joignables
+ * que depuis le réseau interne (ports non publiés par {@code docker-compose.yml}), derrière la
+ * gateway qui vérifie les jetons.
+ * </p>
+ */
+@Component
+public class RequiredIdentityFilter extends OncePerRequestFilter {
+
+    private final boolean required;
+
+    /**
+     * @param required exige une identité sur chaque requête
+     */
+    public RequiredIdentityFilter(@Value("${medilabo.security.identity-header.required:true}") boolean required) {
+        this.required = required;
+    }
+
+    @Override
+    protected boolean shouldNotFilter(HttpServletRequest request) {
+        String path = request.getRequestURI().substring(request.getContextPath().length());
+        return !required || path.equals("/actuator") || path.startsWith("/actuator/");
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain chain)
+            throws ServletException, IOException {
+        String user = request.getHeader(IdentityHeaders.USER_HEADER);
+        if (user == null || user.isBlank()) {
+            response.sendError(HttpServletResponse.SC_FORBIDDEN, "Identité de l’appelant manquante");
+            return;
+        }
+        chain.doFilter(request, response);
+    }
+}
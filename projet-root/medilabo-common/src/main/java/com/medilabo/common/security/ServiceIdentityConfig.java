@@ -0,0 +1,36 @@
+package com.medilabo.common.security;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.web.client.RestTemplateCustomizer;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * Identité des appels internes entre microservices.
+ * <p>
+ * Chaque {@code RestTemplate} construit par le {@code RestTemplateBuilder} de Spring Boot envoie
+ * le nom du service appelant dans {@link IdentityHeaders#USER_HEADER}, avec le rôle
+ * {@link IdentityHeaders#SERVICE_ROLE} : ces appels restent acceptés par les microservices
+ * qui exigent une identité ({@link RequiredIdentityFilter}).
+ * </p>
+ * <p>
+ * Le démarrage échoue, avec un message explicite, si {@code spring.application.name} n’est pas défini.
+ * </p>
+ */
+@Configuration(proxyBeanMethods = false)
+public class ServiceIdentityConfig {
+
+    /**
+     * @param serviceName nom du service appelant
+     * @return la personnalisation ajoutant l’identité du service aux appels sortants
+     */
+    @Bean
+    public RestTemplateCustomizer serviceIdentityCustomizer(@Value("${spring.application.name:}") String serviceName) {
+        if (serviceName.isBlank()) {
+            throw new IllegalStateException("spring.application.name doit être défini : il identifie le service "
+                    + "dans l’en-tête " + IdentityHeaders.USER_HEADER + " de ses appels internes");
+        }
+        ServiceIdentityInterceptor interceptor = new ServiceIdentityInterceptor(serviceName);
+        return restTemplate -> restTemplate.getInterceptors().add(interceptor);
+    }
+}
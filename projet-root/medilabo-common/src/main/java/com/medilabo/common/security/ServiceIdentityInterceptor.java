@@ -0,0 +1,38 @@
+package com.medilabo.common.security;
+
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpRequest;
+import org.springframework.http.client.ClientHttpRequestExecution;
+import org.springframework.http.client.ClientHttpRequestInterceptor;
+import org.springframework.http.client.ClientHttpResponse;
+
+import java.io.IOException;
+
+/**
+ * Ajoute l’identité du service appelant aux requêtes envoyées à un autre microservice.
+ * <p>
+ * Une identité déjà présente dans la requête n’est pas remplacée.
+ * </p>
+ */
+public class ServiceIdentityInterceptor implements ClientHttpRequestInterceptor {
+
+    private final String serviceName;
+
+    /**
+     * @param serviceName nom du service appelant ({@code spring.application.name})
+     */
+    public ServiceIdentityInterceptor(String serviceName) {
+        this.serviceName = serviceName;
+    }
+
+    @Override
+    public ClientHttpResponse intercept(HttpRequest request, byte[] body, ClientHttpRequestExecution execution)
+            throws IOException {
+        HttpHeaders headers = request.getHeaders();
+        if (!headers.containsKey(IdentityHeaders.USER_HEADER)) {
+            headers.set(IdentityHeaders.USER_HEADER, serviceName);
+            headers.set(IdentityHeaders.ROLES_HEADER, IdentityHeaders.SERVICE_ROLE);
+        }
+        return execution.execute(request, body);
+    }
+}
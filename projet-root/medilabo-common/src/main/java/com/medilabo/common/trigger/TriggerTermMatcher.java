@@ -0,0 +1,275 @@
+package com.medilabo.common.trigger;
+
+import java.text.Normalizer;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.TreeSet;
+
+/**
+ * Détecteur des termes déclencheurs basé sur un automate d’Aho-Corasick.
+ * <p>
+ * L’automate est construit une seule fois à partir de la liste des termes, puis chaque note
+ * est parcourue en un seul passage, quel que soit le nombre de termes recherchés.
+ * La recherche ignore la casse et les accents (« hemoglobine » correspond à « Hémoglobine »)
+ * et n’alloue aucun objet par caractère lu.
+ * </p>
+ * <p>
+ * Les instances sont immuables et peuvent être partagées entre plusieurs threads.
+ * </p>
+ */
+public final class TriggerTermMatcher {
+
+    /**
+     * Taille de la table de normalisation précalculée (Latin-1 et Latin étendu A/B).
+     */
+    private static final int FOLD_TABLE_SIZE = 0x0250;
+
+    /**
+     * Table associant à chaque caractère sa forme minuscule sans accent.
+     */
+    private static final char[] FOLD_TABLE = buildFoldTable();
+
+    /**
+     * Termes recherchés, dans l’ordre fourni à la construction (l’indice sert d’identifiant).
+     */
+    private final List<String> terms;
+
+    /**
+     * Symbole associé à chaque caractère normalisé de la table {@link #FOLD_TABLE} (0 = absent des termes).
+     */
+    private final int[] tableSymbols;
+
+    /**
+     * Caractères normalisés hors table présents dans les termes, triés pour une recherche dichotomique.
+     */
+    private final char[] extraChars;
+
+    /**
+     * Nombre de symboles de l’alphabet (symbole 0 inclus).
+     */
+    private final int width;
+
+    /**
+     * Fonction de transition complète de l’automate : {@code transitions[état * width + symbole]}.
+     */
+    private final int[] transitions;
+
+    /**
+     * Identifiants des termes reconnus à chaque état (suffixes compris).
+     */
+    private final int[][] outputs;
+
+    /**
+     * Construit l’automate à partir de la liste des termes à rechercher.
+     *
+     * @param terms les termes déclencheurs (les termes vides sont ignorés)
+     */
+    public TriggerTermMatcher(List<String> terms) {
+        this.terms = List.copyOf(terms);
+
+        List<String> folded = new ArrayList<>(this.terms.size());
+        TreeSet<Character> extra = new TreeSet<>();
+        TreeSet<Character> inTable = new TreeSet<>();
+        for (String term : this.terms) {
+            String f = fold(term);
+            folded.add(f);
+            for (int i = 0; i < f.length(); i++) {
+                char c = f.charAt(i);
+                if (c < FOLD_TABLE_SIZE) {
+                    inTable.add(c);
+                } else {
+                    extra.add(c);
+                }
+            }
+        }
+
+        this.tableSymbols = new int[FOLD_TABLE_SIZE];
+        int symbol = 1;
+        for (char c : inTable) {
+            tableSymbols[c] = symbol++;
+        }
+        this.extraChars = new char[extra.size()];
+        int index = 0;
+        for (char c : extra) {
+            extraChars[index++] = c;
+        }
+        this.width = symbol + extraChars.length;
+
+        // Construction du trie
+        List<Map<Integer, Integer>> gotoFunction = new ArrayList<>();
+        List<List<Integer>> stateOutputs = new ArrayList<>();
+        gotoFunction.add(new HashMap<>());
+        stateOutputs.add(new ArrayList<>());
+        for (int id = 0; id < folded.size(); id++) {
+            String f = folded.get(id);
+            if (f.isEmpty()) {
+                continue;
+            }
+            int state = 0;
+            for (int i = 0; i < f.length(); i++) {
+                int s = symbolOf(f.charAt(i));
+                Integer next = gotoFunction.get(state).get(s);
+                if (next == null) {
+                    next = gotoFunction.size();
+                    gotoFunction.add(new HashMap<>());
+                    stateOutputs.add(new ArrayList<>());
+                    gotoFunction.get(state).put(s, next);
+                }
+                state = next;
+            }
+            stateOutputs.get(state).add(id);
+        }
+
+        // Liens d’échec et transitions complètes (parcours en largeur)
+        int stateCount = gotoFunction.size();
+        this.transitions = new int[stateCount * width];
+        int[] fail = new int[stateCount];
+        Queue<Integer> queue = new ArrayDeque<>();
+        for (Map.Entry<Integer, Integer> edge : gotoFunction.get(0).entrySet()) {
+            transitions[edge.getKey()] = edge.getValue();
+            queue.add(edge.getValue());
+        }
+        while (!queue.isEmpty()) {
+            int state = queue.poll();
+            stateOutputs.get(state).addAll(stateOutputs.get(fail[state]));
+            for (int s = 0; s < width; s++) {
+                Integer next = gotoFunction.get(state).get(s);
+                if (next != null) {
+                    fail[next] = transitions[fail[state] * width + s];
+                    transitions[state * width + s] = next;
+                    queue.add(next);
+                } else {
+                    transitions[state * width + s] = transitions[fail[state] * width + s];
+                }
+            }
+        }
+
+        this.outputs = new int[stateCount][];
+        for (int state = 0; state < stateCount; state++) {
+            outputs[state] = stateOutputs.get(state).stream().mapToInt(Integer::intValue).distinct().toArray();
+        }
+    }
+
+    /**
+     * @return le nombre de termes recherchés
+     */
+    public int termCount() {
+        return terms.size();
+    }
+
+    /**
+     * @param id identifiant d’un terme (son indice dans la liste fournie à la construction)
+     * @return le terme correspondant
+     */
+    public String term(int id) {
+        return terms.get(id);
+    }
+
+    /**
+     * Compte le nombre de termes distincts présents dans un texte.
+     * <p>
+     * Un terme présent plusieurs fois dans le texte n’est compté qu’une seule fois.
+     * </p>
+     *
+     * @param text le texte à analyser (peut être {@code null})
+     * @return le nombre de termes distincts trouvés
+     */
+    public int countDistinctTerms(CharSequence text) {
+        if (text == null || terms.isEmpty()) {
+            return 0;
+        }
+        long[] seen = new long[(terms.size() + 63) >>> 6];
+        int count = 0;
+        int state = 0;
+        for (int i = 0, length = text.length(); i < length; i++) {
+            state = transitions[state * width + symbolOf(foldChar(text.charAt(i)))];
+            for (int id : outputs[state]) {
+                long bit = 1L << id;
+                if ((seen[id >>> 6] & bit) == 0) {
+                    seen[id >>> 6] |= bit;
+                    count++;
+                }
+            }
+        }
+        return count;
+    }
+
+    /**
+     * Retourne les identifiants des termes distincts présents dans un texte.
+     *
+     * @param text le texte à analyser (peut être {@code null})
+     * @return les identifiants des termes trouvés, par ordre croissant
+     */
+    public int[] distinctTermIds(CharSequence text) {
+        if (text == null || terms.isEmpty()) {
+            return new int[0];
+        }
+        long[] seen = new long[(terms.size() + 63) >>> 6];
+        int state = 0;
+        for (int i = 0, length = text.length(); i < length; i++) {
+            state = transitions[state * width + symbolOf(foldChar(text.charAt(i)))];
+            for (int id : outputs[state]) {
+                seen[id >>> 6] |= 1L << id;
+            }
+        }
+        return BitSet.valueOf(seen).stream().toArray();
+    }
+
+    /**
+     * Retourne le symbole de l’alphabet associé à un caractère déjà normalisé.
+     *
+     * @param c caractère normalisé
+     * @return le symbole, ou 0 si le caractère n’apparaît dans aucun terme
+     */
+    private int symbolOf(char c) {
+        if (c < FOLD_TABLE_SIZE) {
+            return tableSymbols[c];
+        }
+        int index = Arrays.binarySearch(extraChars, c);
+        return index >= 0 ? width - extraChars.length + index : 0;
+    }
+
+    /**
+     * Normalise un caractère : minuscule, sans accent.
+     *
+     * @param c caractère brut
+     * @return le caractère normalisé
+     */
+    private static char foldChar(char c) {
+        return c < FOLD_TABLE_SIZE ? FOLD_TABLE[c] : Character.toLowerCase(c);
+    }
+
+    /**
+     * Normalise une chaîne caractère par caractère, comme lors de l’analyse des notes.
+     *
+     * @param value chaîne brute
+     * @return la chaîne normalisée
+     */
+    private static String fold(String value) {
+        char[] chars = value.toCharArray();
+        for (int i = 0; i < chars.length; i++) {
+            chars[i] = foldChar(chars[i]);
+        }
+        return new String(chars);
+    }
+
+    /**
+     * Précalcule la forme minuscule sans accent des caractères Latin-1 et Latin étendu.
+     *
+     * @return la table de normalisation
+     */
+    private static char[] buildFoldTable() {
+        char[] table = new char[FOLD_TABLE_SIZE];
+        for (char c = 0; c < FOLD_TABLE_SIZE; c++) {
+            String decomposed = Normalizer.normalize(String.valueOf(c), Normalizer.Form.NFD);
+            table[c] = Character.toLowerCase(decomposed.charAt(0));
+        }
+        return table;
+    }
+}
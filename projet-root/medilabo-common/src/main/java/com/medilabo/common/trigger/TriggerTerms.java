@@ -0,0 +1,32 @@
+package com.medilabo.common.trigger;
+
+import java.util.List;
+
+/**
+ * Liste unique des termes déclencheurs, partagée par note-service (indexation des notes)
+ * et risk-assessment-service (calcul du risque).
+ * <p>
+ * note-service stocke sur chaque note les indices des termes trouvés, que risk-assessment-service
+ * agrège ensuite : l’ordre de la liste fait donc partie du format des données. Un nouveau terme
+ * doit être ajouté en fin de liste, puis les notes existantes réindexées.
+ * </p>
+ */
+public final class TriggerTerms {
+
+    /**
+     * Termes déclencheurs, dans l’ordre qui définit leurs identifiants.
+     */
+    public static final List<String> TERMS = List.of(
+        "Hémoglobine A1C", "Microalbumine", "Taille", "Poids",
+        "Fumeur", "Fumeuse", "Anormal", "Cholestérol",
+        "Vertiges", "Rechute", "Réaction", "Anticorps"
+    );
+
+    /**
+     * Automate de recherche des termes déclencheurs, construit une seule fois.
+     */
+    public static final TriggerTermMatcher MATCHER = new TriggerTermMatcher(TERMS);
+
+    private TriggerTerms() {
+    }
+}
@@ -0,0 +1,61 @@
+package com.medilabo.common.security;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockFilterChain;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+
+class RequiredIdentityFilterTest {
+
+    @Test
+    void shouldRejectRequestWithoutIdentity() throws Exception {
+        MockFilterChain chain = new MockFilterChain();
+        MockHttpServletResponse response = perform(new RequiredIdentityFilter(true), request("/notes/patient/1"), chain);
+
+        assertThat(response.getStatus()).isEqualTo(403);
+        assertThat(chain.getRequest()).isNull();
+    }
+
+    @Test
+    void shouldAcceptRequestWithIdentity() throws Exception {
+        MockHttpServletRequest request = request("/notes/patient/1");
+        request.addHeader(IdentityHeaders.USER_HEADER, "praticien");
+        MockFilterChain chain = new MockFilterChain();
+
+        MockHttpServletResponse response = perform(new RequiredIdentityFilter(true), request, chain);
+
+        assertThat(response.getStatus()).isEqualTo(200);
+        assertThat(chain.getRequest()).isSameAs(request);
+    }
+
+    @Test
+    void shouldLeaveActuatorOpen() throws Exception {
+        MockFilterChain chain = new MockFilterChain();
+        perform(new RequiredIdentityFilter(true), request("/actuator/health"), chain);
+
+        assertThat(chain.getRequest()).isNotNull();
+    }
+
+    @Test
+    void shouldAcceptEverythingWhenDisabled() throws Exception {
+        MockFilterChain chain = new MockFilterChain();
+        perform(new RequiredIdentityFilter(false), request("/assess/1"), chain);
+
+        assertThat(chain.getRequest()).isNotNull();
+    }
+
+    private static MockHttpServletRequest request(String path) {
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", path);
+        request.setRequestURI(path);
+        return request;
+    }
+
+    private static MockHttpServletResponse perform(RequiredIdentityFilter filter, MockHttpServletRequest request,
+                                                   MockFilterChain chain) throws Exception {
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        filter.doFilter(request, response, chain);
+        return response;
+    }
+}
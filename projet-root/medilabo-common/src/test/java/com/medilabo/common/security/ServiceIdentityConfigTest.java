@@ -0,0 +1,26 @@
+package com.medilabo.common.security;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.web.client.RestTemplate;
+
+class ServiceIdentityConfigTest {
+
+    @Test
+    void shouldAddServiceIdentityToRestTemplates() {
+        RestTemplate restTemplate = new RestTemplate();
+
+        new ServiceIdentityConfig().serviceIdentityCustomizer("note-service").customize(restTemplate);
+
+        assertThat(restTemplate.getInterceptors()).singleElement().isInstanceOf(ServiceIdentityInterceptor.class);
+    }
+
+    @Test
+    void shouldRefuseMissingApplicationName() {
+        assertThatThrownBy(() -> new ServiceIdentityConfig().serviceIdentityCustomizer(""))
+                .isInstanceOf(IllegalStateException.class)
+                .hasMessageContaining("spring.application.name");
+    }
+}
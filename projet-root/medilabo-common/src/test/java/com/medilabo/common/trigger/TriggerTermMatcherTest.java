@@ -0,0 +1,46 @@
+package com.medilabo.common.trigger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+
+class TriggerTermMatcherTest {
+
+    private final TriggerTermMatcher matcher = TriggerTerms.MATCHER;
+
+    @Test
+    void shouldIgnoreCaseAndAccents() {
+        assertThat(matcher.countDistinctTerms("HEMOGLOBINE a1c élevée")).isEqualTo(1);
+        assertThat(matcher.countDistinctTerms("cholesterol et reaction")).isEqualTo(2);
+    }
+
+    @Test
+    void shouldCountEachTermOncePerText() {
+        assertThat(matcher.countDistinctTerms("Poids, poids et encore POIDS")).isEqualTo(1);
+    }
+
+    @Test
+    void shouldDetectOverlappingTerms() {
+        assertThat(matcher.countDistinctTerms("Fumeuse")).isEqualTo(1);
+        assertThat(matcher.countDistinctTerms("Fumeur, fumeuse, anormale")).isEqualTo(3);
+        assertThat(matcher.countDistinctTerms("microalbuminemie")).isEqualTo(1);
+    }
+
+    @Test
+    void shouldReturnZeroWithoutMatch() {
+        assertThat(matcher.countDistinctTerms("Aucune mention suspecte")).isZero();
+        assertThat(matcher.countDistinctTerms("")).isZero();
+        assertThat(matcher.countDistinctTerms(null)).isZero();
+    }
+
+    @Test
+    void shouldMatchTermsSharingSuffixes() {
+        TriggerTermMatcher suffixes = new TriggerTermMatcher(List.of("he", "she", "his", "hers"));
+
+        assertThat(suffixes.countDistinctTerms("ushers")).isEqualTo(3);
+        assertThat(suffixes.termCount()).isEqualTo(4);
+        assertThat(suffixes.term(1)).isEqualTo("she");
+    }
+}
@@ -1,11 +1,14 @@
 package com.medilabo.noteservice;
 
+import com.medilabo.common.security.RequiredIdentityFilter;
+import com.medilabo.common.security.ServiceIdentityConfig;
 import com.medilabo.noteservice.model.Note;
 import com.medilabo.noteservice.repository.NoteRepository;
 import org.springframework.boot.CommandLineRunner;
 import org.springframework.boot.SpringApplication;
 import org.springframework.boot.autoconfigure.SpringBootApplication;
 import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Import;
 
 /**
  * Point d'entrée principal du microservice NoteService.
@@ -14,6 +17,10 @@ import org.springframework.context.annotation.Bean;
  * Il expose des endpoints REST pour la création, la lecture, la mise à jour
  * et la suppression des notes.
  * </p>
+ * <p>
+ * Seules les requêtes portant l'identité transmise par la gateway ou par un autre microservice
+ * sont acceptées ({@link RequiredIdentityFilter}).
+ * </p>
  *
  * <p>
  * Cette classe initialise le contexte Spring Boot et démarre l'application.
@@ -23,6 +30,7 @@ import org.springframework.context.annotation.Bean;
  * @version 1.0
  */
 @SpringBootApplication
+@Import({ServiceIdentityConfig.class, RequiredIdentityFilter.class})
 public class NoteServiceApplication {
 
     /**
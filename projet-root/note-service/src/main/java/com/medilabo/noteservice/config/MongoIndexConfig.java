@@ -0,0 +1,59 @@
+package com.medilabo.noteservice.config;
+
+import com.medilabo.noteservice.model.Note;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.index.IndexOperations;
+import org.springframework.data.mongodb.core.index.IndexResolver;
+import org.springframework.data.mongodb.core.index.MongoPersistentEntityIndexResolver;
+
+/**
+ * Création des index MongoDB au démarrage de l'application.
+ * <p>
+ * Les index déclarés par annotations sur {@link Note} ({@code @CompoundIndex}, {@code @Indexed})
+ * sont créés explicitement une fois le contexte prêt, plutôt que de dépendre de
+ * l'option <code>auto-index-creation</code> de Spring Data. La création est idempotente :
+ * un index déjà présent n'est pas reconstruit.
+ * </p>
+ * <p>
+ * L'index simple <code>patientId</code>, créé par les premières versions du service, est
+ * supprimé : l'index composé <code>(patientId, createdAt)</code> le remplace.
+ * </p>
+ */
+@Configuration
+public class MongoIndexConfig {
+
+    private static final Logger log = LoggerFactory.getLogger(MongoIndexConfig.class);
+
+    /**
+     * Index simple sur le patient, remplacé par l'index composé déclaré sur {@link Note}.
+     */
+    static final String LEGACY_PATIENT_INDEX = "patientId";
+
+    private final MongoTemplate mongoTemplate;
+
+    public MongoIndexConfig(MongoTemplate mongoTemplate) {
+        this.mongoTemplate = mongoTemplate;
+    }
+
+    /**
+     * Crée les index de la collection des notes s'ils n'existent pas encore.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void ensureIndexes() {
+        IndexOperations indexOps = mongoTemplate.indexOps(Note.class);
+        IndexResolver resolver = new MongoPersistentEntityIndexResolver(mongoTemplate.getConverter().getMappingContext());
+        resolver.resolveIndexFor(Note.class).forEach(index -> {
+            String name = indexOps.createIndex(index);
+            log.info("Index MongoDB vérifié : {}", name);
+        });
+        if (indexOps.getIndexInfo().stream().anyMatch(info -> LEGACY_PATIENT_INDEX.equals(info.getName()))) {
+            indexOps.dropIndex(LEGACY_PATIENT_INDEX);
+            log.info("Index MongoDB obsolète supprimé : {}", LEGACY_PATIENT_INDEX);
+        }
+    }
+}
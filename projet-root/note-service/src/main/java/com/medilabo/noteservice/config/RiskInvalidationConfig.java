@@ -0,0 +1,19 @@
+package com.medilabo.noteservice.config;
+
+import com.medilabo.common.risk.RiskInvalidationNotifier;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Import;
+
+/**
+ * Enregistre {@link RiskInvalidationNotifier} (module medilabo-common), qui prévient
+ * risk-assessment-service après l'écriture d'une note.
+ * <p>
+ * Déclaré ici plutôt que sur la classe principale : les tests de tranche
+ * ({@code @DataMongoTest}, {@code @WebMvcTest}...) ne chargent pas les classes de configuration
+ * trouvées par le scan, ni donc ce composant et ses dépendances.
+ * </p>
+ */
+@Configuration(proxyBeanMethods = false)
+@Import(RiskInvalidationNotifier.class)
+public class RiskInvalidationConfig {
+}
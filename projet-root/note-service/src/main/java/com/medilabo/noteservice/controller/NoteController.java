@@ -1,9 +1,20 @@
 package com.medilabo.noteservice.controller;
 
+import com.medilabo.noteservice.dto.NoteImportReport;
+import com.medilabo.noteservice.dto.PatientTriggerCount;
 import com.medilabo.noteservice.model.Note;
+import com.medilabo.noteservice.repository.NoteContenu;
+import com.medilabo.noteservice.service.NoteImportService;
 import com.medilabo.noteservice.service.NoteService;
+import com.medilabo.noteservice.service.TriggerBackfillService;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+import reactor.core.publisher.Flux;
 
+import java.io.IOException;
+import java.io.InputStream;
 import java.util.List;
 
 /**
@@ -26,13 +37,22 @@ public class NoteController {
      */
     private final NoteService noteService;
 
+    private final TriggerBackfillService triggerBackfillService;
+
+    private final NoteImportService noteImportService;
+
     /**
      * Constructeur injectant le {@link NoteService}.
      *
      * @param noteService service de gestion des notes
+     * @param triggerBackfillService service de rattrapage de l'index des termes déclencheurs
+     * @param noteImportService service d'import de notes en masse
      */
-    public NoteController(NoteService noteService) {
+    public NoteController(NoteService noteService, TriggerBackfillService triggerBackfillService,
+                          NoteImportService noteImportService) {
         this.noteService = noteService;
+        this.triggerBackfillService = triggerBackfillService;
+        this.noteImportService = noteImportService;
     }
 
     /**
@@ -46,6 +66,97 @@ public class NoteController {
         return noteService.getNotesByPatient(patientId);
     }
 
+    /**
+     * Récupère uniquement le contenu des notes d'un patient.
+     * <p>
+     * Destiné aux appelants qui n'ont pas besoin du document complet, comme le calcul du risque.
+     * </p>
+     *
+     * @param patientId l'identifiant du patient
+     * @return le contenu de chaque note du patient
+     */
+    @GetMapping("/patient/{patientId}/contenus")
+    public List<NoteContenu> getContenusByPatient(@PathVariable Integer patientId) {
+        return noteService.getContenusByPatient(patientId);
+    }
+
+    /**
+     * Diffuse le contenu des notes d'un patient en NDJSON (une note par ligne), au fil
+     * de leur lecture dans MongoDB.
+     * <p>
+     * Sélectionné lorsque l'appelant accepte <code>application/x-ndjson</code> (calcul réactif
+     * du risque) : chaque note est envoyée dès sa lecture, sans attendre la fin de la requête.
+     * </p>
+     *
+     * @param patientId l'identifiant du patient
+     * @return le flux du contenu des notes du patient
+     */
+    @GetMapping(value = "/patient/{patientId}/contenus", produces = MediaType.APPLICATION_NDJSON_VALUE)
+    public Flux<NoteContenu> streamContenusByPatient(@PathVariable Integer patientId) {
+        return noteService.streamContenusByPatient(patientId);
+    }
+
+    /**
+     * Compte les notes d'un patient.
+     *
+     * @param patientId l'identifiant du patient
+     * @return le nombre de notes du patient
+     */
+    @GetMapping("/patient/{patientId}/count")
+    public long countNotesByPatient(@PathVariable Integer patientId) {
+        return noteService.countNotesByPatient(patientId);
+    }
+
+    /**
+     * Retourne le nombre de termes déclencheurs relevés dans les notes d'un patient,
+     * calculé par agrégation sur les termes indexés à l'écriture.
+     *
+     * @param patientId l'identifiant du patient
+     * @return le décompte du patient
+     */
+    @GetMapping("/patient/{patientId}/triggers")
+    public PatientTriggerCount countTriggersByPatient(@PathVariable Integer patientId) {
+        return noteService.countTriggersByPatient(patientId);
+    }
+
+    /**
+     * Retourne en un seul appel le nombre de termes déclencheurs de plusieurs patients.
+     *
+     * @param patientIds les identifiants des patients
+     * @return un décompte par patient ayant au moins une note
+     */
+    @PostMapping("/patients/triggers")
+    public List<PatientTriggerCount> countTriggersByPatients(@RequestBody List<Integer> patientIds) {
+        return noteService.countTriggersByPatients(patientIds);
+    }
+
+    /**
+     * Indexe les termes déclencheurs des notes enregistrées avant l'indexation à l'écriture.
+     *
+     * @return le nombre de notes mises à jour
+     */
+    @PostMapping("/triggers/backfill")
+    public long backfillTriggers() {
+        return triggerBackfillService.backfill();
+    }
+
+    /**
+     * Récupère en un seul appel les notes de plusieurs patients.
+     * <p>
+     * La réponse est diffusée au fil de la lecture en base.
+     * </p>
+     *
+     * @param patientIds les identifiants des patients
+     * @return les notes regroupées par identifiant de patient
+     */
+    @PostMapping("/patients")
+    public ResponseEntity<StreamingResponseBody> getNotesByPatients(@RequestBody List<Integer> patientIds) {
+        StreamingResponseBody body = out -> noteService.writeNotesByPatients(patientIds, out);
+        return ResponseEntity.ok()
+                .contentType(MediaType.APPLICATION_JSON)
+                .body(body);
+    }
+
     /**
      * Enregistre une nouvelle note médicale pour un patient.
      *
@@ -56,4 +167,20 @@ public class NoteController {
     public Note addNote(@RequestBody Note note) {
         return noteService.addNote(note);
     }
+
+    /**
+     * Importe des notes en masse à partir d'un flux NDJSON (une note par ligne).
+     * <p>
+     * Le corps est lu au fil de l'insertion des lots dans MongoDB ; les lignes rejetées
+     * n'interrompent pas l'import.
+     * </p>
+     *
+     * @param body contenu du flux NDJSON, en UTF-8
+     * @return le bilan de l'import, lot par lot
+     * @throws IOException si la lecture du corps échoue
+     */
+    @PostMapping(value = "/bulk", consumes = MediaType.APPLICATION_NDJSON_VALUE)
+    public NoteImportReport importNotes(InputStream body) throws IOException {
+        return noteImportService.importNdjson(body);
+    }
 }
\ No newline at end of file
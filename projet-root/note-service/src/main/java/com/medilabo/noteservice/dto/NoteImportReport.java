@@ -0,0 +1,118 @@
+package com.medilabo.noteservice.dto;
+
+import java.util.List;
+
+/**
+ * Bilan d'un import de notes en masse ({@code POST /notes/bulk}).
+ * <p>
+ * Les notes sont insérées par lots ; chaque lot est résumé dans {@link #getBatches()}. Les lignes
+ * rejetées (JSON invalide, champ obligatoire absent, refus de MongoDB) n'interrompent pas l'import :
+ * les premières sont détaillées dans {@link #getErrors()}, toutes sont comptées dans
+ * {@link #getRejected()}.
+ * </p>
+ */
+public class NoteImportReport {
+
+    /**
+     * Nombre de lignes non vides reçues.
+     */
+    private final long received;
+
+    /**
+     * Nombre de notes insérées.
+     */
+    private final long inserted;
+
+    /**
+     * Nombre de lignes rejetées.
+     */
+    private final long rejected;
+
+    /**
+     * Résumé de chaque lot envoyé à MongoDB.
+     */
+    private final List<BatchSummary> batches;
+
+    /**
+     * Détail des premières lignes rejetées.
+     */
+    private final List<RowError> errors;
+
+    /**
+     * Indique que des erreurs ont été omises de {@link #errors}.
+     */
+    private final boolean errorsTruncated;
+
+    /**
+     * @param received nombre de lignes non vides reçues
+     * @param inserted nombre de notes insérées
+     * @param rejected nombre de lignes rejetées
+     * @param batches résumé de chaque lot
+     * @param errors détail des premières lignes rejetées
+     * @param errorsTruncated vrai si des erreurs ont été omises
+     */
+    public NoteImportReport(long received, long inserted, long rejected, List<BatchSummary> batches,
+                            List<RowError> errors, boolean errorsTruncated) {
+        this.received = received;
+        this.inserted = inserted;
+        this.rejected = rejected;
+        this.batches = batches;
+        this.errors = errors;
+        this.errorsTruncated = errorsTruncated;
+    }
+
+    /**
+     * @return le nombre de lignes non vides reçues
+     */
+    public long getReceived() { return received; }
+
+    /**
+     * @return le nombre de notes insérées
+     */
+    public long getInserted() { return inserted; }
+
+    /**
+     * @return le nombre de lignes rejetées
+     */
+    public long getRejected() { return rejected; }
+
+    /**
+     * @return le résumé de chaque lot
+     */
+    public List<BatchSummary> getBatches() { return batches; }
+
+    /**
+     * @return le détail des premières lignes rejetées
+     */
+    public List<RowError> getErrors() { return errors; }
+
+    /**
+     * @return vrai si des erreurs ont été omises du détail
+     */
+    public boolean isErrorsTruncated() { return errorsTruncated; }
+
+    /**
+     * Résumé d'un lot d'insertions.
+     *
+     * @param batch numéro du lot (à partir de 1)
+     * @param firstLine première ligne du lot dans le flux reçu
+     * @param lastLine dernière ligne du lot dans le flux reçu
+     * @param documents nombre de notes envoyées
+     * @param bytes taille des lignes JSON du lot, en octets
+     * @param inserted nombre de notes insérées
+     * @param failed nombre de notes refusées par MongoDB
+     * @param durationMillis durée de l'écriture groupée, en millisecondes
+     */
+    public record BatchSummary(int batch, long firstLine, long lastLine, int documents, long bytes,
+                               int inserted, int failed, long durationMillis) {
+    }
+
+    /**
+     * Ligne rejetée et motif du rejet.
+     *
+     * @param line numéro de la ligne dans le flux reçu (la première ligne vaut 1)
+     * @param message motif du rejet
+     */
+    public record RowError(long line, String message) {
+    }
+}
@@ -0,0 +1,106 @@
+package com.medilabo.noteservice.dto;
+
+/**
+ * Nombre de termes déclencheurs relevés dans les notes d'un patient.
+ * <p>
+ * Résultat de l'agrégation sur les termes indexés à l'écriture des notes. Chaque terme est compté
+ * au plus une fois par note, puis les notes sont additionnées, comme le fait le calcul du risque.
+ * </p>
+ */
+public class PatientTriggerCount {
+
+    /**
+     * Identifiant du patient.
+     */
+    private Integer patientId;
+
+    /**
+     * Nombre de notes du patient.
+     */
+    private long noteCount;
+
+    /**
+     * Somme, sur les notes indexées, du nombre de termes déclencheurs distincts par note.
+     */
+    private long triggerCount;
+
+    /**
+     * Nombre de notes pas encore indexées (antérieures à l'indexation, en attente de rattrapage).
+     */
+    private long unindexedNotes;
+
+    /**
+     * Constructeur par défaut requis pour le mapping MongoDB et JSON.
+     */
+    public PatientTriggerCount() {
+    }
+
+    /**
+     * @param patientId identifiant du patient
+     * @param noteCount nombre de notes
+     * @param triggerCount nombre de termes déclencheurs
+     * @param unindexedNotes nombre de notes non indexées
+     */
+    public PatientTriggerCount(Integer patientId, long noteCount, long triggerCount, long unindexedNotes) {
+        this.patientId = patientId;
+        this.noteCount = noteCount;
+        this.triggerCount = triggerCount;
+        this.unindexedNotes = unindexedNotes;
+    }
+
+    /**
+     * @return l'identifiant du patient
+     */
+    public Integer getPatientId() {
+        return patientId;
+    }
+
+    /**
+     * @param patientId l'identifiant du patient
+     */
+    public void setPatientId(Integer patientId) {
+        this.patientId = patientId;
+    }
+
+    /**
+     * @return le nombre de notes du patient
+     */
+    public long getNoteCount() {
+        return noteCount;
+    }
+
+    /**
+     * @param noteCount le nombre de notes du patient
+     */
+    public void setNoteCount(long noteCount) {
+        this.noteCount = noteCount;
+    }
+
+    /**
+     * @return le nombre de termes déclencheurs
+     */
+    public long getTriggerCount() {
+        return triggerCount;
+    }
+
+    /**
+     * @param triggerCount le nombre de termes déclencheurs
+     */
+    public void setTriggerCount(long triggerCount) {
+        this.triggerCount = triggerCount;
+    }
+
+    /**
+     * @return le nombre de notes non indexées
+     */
+    public long getUnindexedNotes() {
+        return unindexedNotes;
+    }
+
+    /**
+     * @param unindexedNotes le nombre de notes non indexées
+     */
+    public void setUnindexedNotes(long unindexedNotes) {
+        this.unindexedNotes = unindexedNotes;
+    }
+}
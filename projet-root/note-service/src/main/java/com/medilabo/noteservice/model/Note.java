@@ -1,16 +1,24 @@
 package com.medilabo.noteservice.model;
 
 import org.springframework.data.annotation.Id;
+import org.springframework.data.mongodb.core.index.CompoundIndex;
 import org.springframework.data.mongodb.core.mapping.Document;
 
+import java.time.Instant;
+import java.util.List;
+
 /**
  * Représente une note médicale associée à un patient.
  * <p>
  * Cette entité est stockée dans la collection MongoDB nommée <code>notes</code>.
  * </p>
- * 
+ * <p>
+ * L'index composé <code>(patientId, createdAt)</code> sert à la fois les recherches par patient
+ * et leur tri chronologique.
+ * </p>
  */
 @Document(collection = "notes")
+@CompoundIndex(name = "patientId_createdAt", def = "{'patientId': 1, 'createdAt': 1}")
 public class Note {
 
     /**
@@ -29,6 +37,18 @@ public class Note {
      */
     private String contenu;
 
+    /**
+     * Date de création de la note, renseignée à l'enregistrement.
+     */
+    private Instant createdAt;
+
+    /**
+     * Identifiants des termes déclencheurs présents dans le contenu, calculés à l'écriture
+     * (voir {@link com.medilabo.noteservice.service.TriggerIndexer}).
+     * Absent pour les notes pas encore indexées.
+     */
+    private List<Integer> triggerIds;
+
     /**
      * Constructeur par défaut requis par Spring Data.
      */
@@ -73,6 +93,24 @@ public class Note {
         return contenu;
     }
 
+    /**
+     * Retourne la date de création de la note.
+     *
+     * @return la date de création, ou {@code null} pour les notes antérieures à ce champ
+     */
+    public Instant getCreatedAt() {
+        return createdAt;
+    }
+
+    /**
+     * Retourne les identifiants des termes déclencheurs présents dans la note.
+     *
+     * @return les identifiants des termes, ou {@code null} si la note n'est pas encore indexée
+     */
+    public List<Integer> getTriggerIds() {
+        return triggerIds;
+    }
+
     /**
      * Définit l'identifiant de la note.
      *
@@ -99,4 +137,22 @@ public class Note {
     public void setContenu(String contenu) {
         this.contenu = contenu;
     }
+
+    /**
+     * Définit la date de création de la note.
+     *
+     * @param createdAt date de création
+     */
+    public void setCreatedAt(Instant createdAt) {
+        this.createdAt = createdAt;
+    }
+
+    /**
+     * Définit les identifiants des termes déclencheurs présents dans la note.
+     *
+     * @param triggerIds identifiants des termes
+     */
+    public void setTriggerIds(List<Integer> triggerIds) {
+        this.triggerIds = triggerIds;
+    }
 }
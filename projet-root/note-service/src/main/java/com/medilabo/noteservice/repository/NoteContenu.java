@@ -0,0 +1,16 @@
+package com.medilabo.noteservice.repository;
+
+/**
+ * Projection d'une {@link com.medilabo.noteservice.model.Note} réduite à son contenu.
+ * <p>
+ * Utilisée par les appelants qui n'ont besoin que du texte des notes (calcul du risque) :
+ * seul le champ <code>contenu</code> est lu et transféré depuis MongoDB.
+ * </p>
+ */
+public interface NoteContenu {
+
+    /**
+     * @return le contenu textuel de la note
+     */
+    String getContenu();
+}
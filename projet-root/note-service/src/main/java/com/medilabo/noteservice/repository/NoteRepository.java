@@ -1,8 +1,12 @@
 package com.medilabo.noteservice.repository;
 
+import com.medilabo.noteservice.dto.PatientTriggerCount;
 import com.medilabo.noteservice.model.Note;
+import org.springframework.data.mongodb.repository.Aggregation;
 import org.springframework.data.mongodb.repository.MongoRepository;
+import java.util.Collection;
 import java.util.List;
+import java.util.stream.Stream;
 
 /**
  * Interface de repository pour l'accès aux données des {@link Note} dans la base MongoDB.
@@ -19,4 +23,60 @@ public interface NoteRepository extends MongoRepository<Note, String> {
      * @return une liste de {@link Note} associées à ce patient
      */
     List<Note> findByPatientId(Integer patientId);
+
+    /**
+     * Recherche les notes d'un patient par ordre chronologique, en s'appuyant sur
+     * l'index <code>(patientId, createdAt)</code> pour le filtre et le tri.
+     *
+     * @param patientId l'identifiant du patient
+     * @return les notes du patient, des plus anciennes aux plus récentes
+     */
+    List<Note> findByPatientIdOrderByCreatedAtAsc(Integer patientId);
+
+    /**
+     * Retourne uniquement le contenu des notes d'un patient.
+     *
+     * @param patientId l'identifiant du patient
+     * @return le contenu de chaque note du patient
+     */
+    List<NoteContenu> findContenuByPatientId(Integer patientId);
+
+    /**
+     * Compte les notes d'un patient sans les lire (requête couverte par l'index).
+     *
+     * @param patientId l'identifiant du patient
+     * @return le nombre de notes du patient
+     */
+    long countByPatientId(Integer patientId);
+
+    /**
+     * Calcule, par patient, le nombre de termes déclencheurs relevés dans ses notes à partir
+     * des termes indexés à l'écriture (champ <code>triggerIds</code>), sans lire le texte des notes.
+     * <p>
+     * Les notes non encore indexées sont comptées à part dans <code>unindexedNotes</code>.
+     * </p>
+     *
+     * @param patientIds les identifiants des patients
+     * @return un résultat par patient ayant au moins une note
+     */
+    @Aggregation(pipeline = {
+        "{ $match: { patientId: { $in: ?0 } } }",
+        "{ $group: { _id: '$patientId', noteCount: { $sum: 1 },"
+            + " triggerCount: { $sum: { $size: { $ifNull: ['$triggerIds', []] } } },"
+            + " unindexedNotes: { $sum: { $cond: [{ $isArray: '$triggerIds' }, 0, 1] } } } }",
+        "{ $project: { _id: 0, patientId: '$_id', noteCount: 1, triggerCount: 1, unindexedNotes: 1 } }"
+    })
+    List<PatientTriggerCount> countTriggersByPatientIdIn(Collection<Integer> patientIds);
+
+    /**
+     * Parcourt en une seule requête ({@code $in} sur l'index {@code patientId}) les notes
+     * de plusieurs patients, triées par patient.
+     * <p>
+     * Les notes sont lues au fil d'un curseur MongoDB ; le flux doit être fermé après usage.
+     * </p>
+     *
+     * @param patientIds les identifiants des patients
+     * @return un flux de {@link Note} regroupées par patient
+     */
+    Stream<Note> findByPatientIdInOrderByPatientIdAsc(Collection<Integer> patientIds);
 }
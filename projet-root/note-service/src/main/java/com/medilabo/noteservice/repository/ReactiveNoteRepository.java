@@ -0,0 +1,24 @@
+package com.medilabo.noteservice.repository;
+
+import com.medilabo.noteservice.model.Note;
+import org.springframework.data.mongodb.repository.ReactiveMongoRepository;
+import reactor.core.publisher.Flux;
+
+/**
+ * Accès non bloquant aux {@link Note}, avec le driver MongoDB réactif.
+ * <p>
+ * Les documents sont émis au fil du curseur MongoDB, dès leur lecture : l'appelant peut
+ * commencer à les traiter avant que la dernière note ne soit lue, sans bloquer de thread
+ * pendant l'attente de la base.
+ * </p>
+ */
+public interface ReactiveNoteRepository extends ReactiveMongoRepository<Note, String> {
+
+    /**
+     * Émet le contenu des notes d'un patient au fil de leur lecture.
+     *
+     * @param patientId l'identifiant du patient
+     * @return le contenu de chaque note du patient
+     */
+    Flux<NoteContenu> findContenuByPatientId(Integer patientId);
+}
@@ -0,0 +1,66 @@
+package com.medilabo.noteservice.service;
+
+import com.medilabo.noteservice.model.Note;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.aggregation.AggregationUpdate;
+import org.springframework.data.mongodb.core.aggregation.ConvertOperators;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.schema.JsonSchemaObject;
+import org.springframework.stereotype.Service;
+
+/**
+ * Rattrapage de la date de création des notes enregistrées avant l'ajout du champ <code>createdAt</code>.
+ * <p>
+ * Sans date, ces notes se classent avant toutes les autres dans l'index
+ * <code>(patientId, createdAt)</code> et dans la liste chronologique d'un patient. La date
+ * d'insertion est reprise de leur identifiant MongoDB (un <code>ObjectId</code> porte l'instant
+ * de sa création), en une seule mise à jour exécutée par le serveur. Le traitement peut être
+ * relancé sans risque : seules les notes encore sans date sont modifiées.
+ * </p>
+ */
+@Service
+public class CreatedAtBackfillService {
+
+    private static final Logger log = LoggerFactory.getLogger(CreatedAtBackfillService.class);
+
+    private final MongoTemplate mongoTemplate;
+
+    private final boolean runOnStartup;
+
+    public CreatedAtBackfillService(MongoTemplate mongoTemplate,
+                                    @Value("${medilabo.notes.created-at-backfill-on-startup:true}") boolean runOnStartup) {
+        this.mongoTemplate = mongoTemplate;
+        this.runOnStartup = runOnStartup;
+    }
+
+    /**
+     * Lance le rattrapage au démarrage si <code>medilabo.notes.created-at-backfill-on-startup</code> est activé.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void backfillOnStartup() {
+        if (runOnStartup) {
+            backfill();
+        }
+    }
+
+    /**
+     * Renseigne la date de création des notes qui n'en ont pas, à partir de leur identifiant.
+     *
+     * @return le nombre de notes mises à jour
+     */
+    public long backfill() {
+        Query query = new Query(Criteria.where("createdAt").exists(false)
+                .and("_id").type(JsonSchemaObject.Type.objectIdType()));
+        AggregationUpdate update = AggregationUpdate.update()
+                .set("createdAt").toValue(ConvertOperators.valueOf("_id").convertToDate());
+        long updated = mongoTemplate.updateMulti(query, update, Note.class).getModifiedCount();
+        log.info("Date de création rattrapée pour {} note(s)", updated);
+        return updated;
+    }
+}
@@ -0,0 +1,304 @@
+package com.medilabo.noteservice.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+import com.medilabo.common.risk.RiskInvalidationNotifier;
+import com.medilabo.noteservice.dto.NoteImportReport;
+import com.medilabo.noteservice.dto.NoteImportReport.BatchSummary;
+import com.medilabo.noteservice.dto.NoteImportReport.RowError;
+import com.medilabo.noteservice.model.Note;
+import com.mongodb.bulk.BulkWriteError;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataAccessException;
+import org.springframework.data.mongodb.BulkOperationException;
+import org.springframework.data.mongodb.core.BulkOperations;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.util.unit.DataSize;
+
+import java.io.BufferedInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Import de notes en masse à partir d'un flux NDJSON (une note JSON par ligne).
+ * <p>
+ * Le flux HTTP est lu ligne à ligne et les notes sont regroupées en lots, fermés dès qu'ils
+ * atteignent {@code batchSize} notes ou {@code batchBytes} octets, puis insérés par une écriture
+ * groupée non ordonnée. Une ligne plus longue que {@code batchBytes} n'est pas conservée en
+ * mémoire : elle est rejetée et la lecture reprend à la ligne suivante.
+ * La lecture de la requête est suspendue pendant l'écriture d'un lot : un client plus rapide que
+ * MongoDB est ralenti par le contrôle de flux TCP, et la mémoire consommée reste bornée à un lot,
+ * quelle que soit la taille du flux.
+ * </p>
+ * <p>
+ * Comme pour {@link NoteService#addNote(Note)}, la date de création est renseignée si elle est
+ * absente et les termes déclencheurs sont indexés ; l'évaluation du risque des patients concernés
+ * est invalidée après chaque lot, en un seul appel à risk-assessment-service. Un identifiant
+ * fourni est conservé : rejouer un import déjà effectué rejette les notes en double au lieu de
+ * les dupliquer.
+ * </p>
+ */
+@Service
+public class NoteImportService {
+
+    private static final Logger log = LoggerFactory.getLogger(NoteImportService.class);
+
+    private final MongoTemplate mongoTemplate;
+
+    private final TriggerIndexer triggerIndexer;
+
+    private final RiskInvalidationNotifier riskInvalidationNotifier;
+
+    private final ObjectReader noteReader;
+
+    private final int batchSize;
+
+    private final long batchBytes;
+
+    private final int maxErrors;
+
+    /**
+     * @param mongoTemplate accès à MongoDB (écritures groupées)
+     * @param triggerIndexer indexation des termes déclencheurs
+     * @param riskInvalidationNotifier invalidation du risque en cache
+     * @param objectMapper lecture des lignes NDJSON
+     * @param batchSize nombre maximal de notes par lot
+     * @param batchBytes taille maximale d'un lot
+     * @param maxErrors nombre maximal d'erreurs détaillées dans le bilan
+     */
+    public NoteImportService(MongoTemplate mongoTemplate, TriggerIndexer triggerIndexer,
+                             RiskInvalidationNotifier riskInvalidationNotifier, ObjectMapper objectMapper,
+                             @Value("${medilabo.notes.import.batch-size:1000}") int batchSize,
+                             @Value("${medilabo.notes.import.batch-bytes:4MB}") DataSize batchBytes,
+                             @Value("${medilabo.notes.import.max-errors:1000}") int maxErrors) {
+        this.mongoTemplate = mongoTemplate;
+        this.triggerIndexer = triggerIndexer;
+        this.riskInvalidationNotifier = riskInvalidationNotifier;
+        this.noteReader = objectMapper.readerFor(Note.class);
+        this.batchSize = batchSize;
+        this.batchBytes = batchBytes.toBytes();
+        this.maxErrors = maxErrors;
+    }
+
+    /**
+     * Importe les notes d'un flux NDJSON.
+     *
+     * @param in contenu du flux, en UTF-8 (non fermé par cette méthode)
+     * @return le bilan de l'import
+     * @throws IOException si la lecture du flux échoue
+     */
+    public NoteImportReport importNdjson(InputStream in) throws IOException {
+        ImportState state = new ImportState();
+        BufferedInputStream input = new BufferedInputStream(in);
+        ByteArrayOutputStream buffer = new ByteArrayOutputStream(1024);
+        Batch batch = new Batch();
+        long lineNumber = 0;
+        Line status;
+        while ((status = readLine(input, buffer, batchBytes)) != Line.END) {
+            lineNumber++;
+            if (status == Line.TOO_LONG) {
+                state.received++;
+                state.reject(lineNumber, "Ligne de plus de " + batchBytes + " octets");
+                continue;
+            }
+            byte[] line = buffer.toByteArray();
+            if (isBlank(line)) {
+                continue;
+            }
+            state.received++;
+            Note note;
+            try {
+                note = parse(line);
+            } catch (IllegalArgumentException e) {
+                state.reject(lineNumber, e.getMessage());
+                continue;
+            }
+            if (!batch.lines.isEmpty() && batch.bytes + line.length > batchBytes) {
+                state.batches.add(write(batch, state));
+                batch = new Batch();
+            }
+            batch.add(lineNumber, note, line.length);
+            if (batch.lines.size() >= batchSize) {
+                state.batches.add(write(batch, state));
+                batch = new Batch();
+            }
+        }
+        if (!batch.lines.isEmpty()) {
+            state.batches.add(write(batch, state));
+        }
+        log.info("Import de notes terminé : {} insérées, {} rejetées, {} lot(s)",
+                state.inserted, state.rejected, state.batches.size());
+        return new NoteImportReport(state.received, state.inserted, state.rejected, List.copyOf(state.batches),
+                List.copyOf(state.errors), state.rejected > state.errors.size());
+    }
+
+    /**
+     * Lit et valide une note.
+     *
+     * @param line ligne JSON
+     * @return la note, datée et indexée
+     * @throws IllegalArgumentException si la ligne est illisible ou incomplète
+     */
+    private Note parse(byte[] line) {
+        Note note;
+        try {
+            note = noteReader.readValue(line);
+        } catch (IOException e) {
+            throw new IllegalArgumentException("JSON invalide : " + e.getMessage().lines().findFirst().orElse(""));
+        }
+        if (note == null) {
+            throw new IllegalArgumentException("Objet note attendu");
+        }
+        if (note.getPatientId() == null) {
+            throw new IllegalArgumentException("patientId manquant");
+        }
+        if (note.getContenu() == null || note.getContenu().isBlank()) {
+            throw new IllegalArgumentException("Contenu manquant");
+        }
+        if (note.getCreatedAt() == null) {
+            note.setCreatedAt(Instant.now());
+        }
+        note.setTriggerIds(triggerIndexer.termIds(note.getContenu()));
+        return note;
+    }
+
+    /**
+     * Insère un lot par une écriture groupée non ordonnée : une note refusée n'empêche pas
+     * l'insertion des autres.
+     *
+     * @param batch lot à insérer
+     * @param state bilan en cours
+     * @return le résumé du lot
+     */
+    private BatchSummary write(Batch batch, ImportState state) {
+        long start = System.nanoTime();
+        int documents = batch.notes.size();
+        int inserted;
+        try {
+            inserted = mongoTemplate.bulkOps(BulkOperations.BulkMode.UNORDERED, Note.class)
+                    .insert(batch.notes)
+                    .execute()
+                    .getInsertedCount();
+        } catch (BulkOperationException e) {
+            inserted = e.getResult().getInsertedCount();
+            for (BulkWriteError error : e.getErrors()) {
+                state.reject(batch.lines.get(error.getIndex()), "Refusée par MongoDB : " + error.getMessage());
+            }
+        } catch (DataAccessException e) {
+            inserted = 0;
+            for (Long line : batch.lines) {
+                state.reject(line, "Lot non enregistré : " + e.getMostSpecificCause().getMessage());
+            }
+        }
+        long durationMillis = (System.nanoTime() - start) / 1_000_000;
+        state.inserted += inserted;
+        riskInvalidationNotifier.patientsChanged(batch.patientIds);
+        return new BatchSummary(state.batches.size() + 1, batch.lines.get(0), batch.lines.get(documents - 1),
+                documents, batch.bytes, inserted, documents - inserted, durationMillis);
+    }
+
+    /**
+     * Lit une ligne du flux (sans le saut de ligne final, {@code \n} ou {@code \r\n}).
+     * <p>
+     * Au-delà de {@code maxBytes} octets, la suite de la ligne est lue sans être conservée,
+     * jusqu'au saut de ligne suivant.
+     * </p>
+     *
+     * @param in flux tamponné
+     * @param buffer reçoit la ligne lue
+     * @param maxBytes taille maximale d'une ligne
+     * @return l'issue de la lecture
+     * @throws IOException si la lecture échoue
+     */
+    private static Line readLine(InputStream in, ByteArrayOutputStream buffer, long maxBytes) throws IOException {
+        buffer.reset();
+        int b;
+        boolean pendingCr = false;
+        while ((b = in.read()) != -1 && b != '\n') {
+            if (pendingCr) {
+                buffer.write('\r');
+            }
+            pendingCr = b == '\r';
+            if (!pendingCr) {
+                buffer.write(b);
+            }
+            if (buffer.size() > maxBytes) {
+                while ((b = in.read()) != -1 && b != '\n') {
+                    // Reste de la ligne ignoré
+                }
+                buffer.reset();
+                return Line.TOO_LONG;
+            }
+        }
+        return b != -1 || buffer.size() > 0 || pendingCr ? Line.READ : Line.END;
+    }
+
+    private static boolean isBlank(byte[] line) {
+        for (byte b : line) {
+            if (b != ' ' && b != '\t') {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Issue de la lecture d'une ligne du flux.
+     */
+    private enum Line {
+        READ, TOO_LONG, END
+    }
+
+    /**
+     * Lot de notes en cours de constitution.
+     */
+    private static final class Batch {
+
+        private final List<Note> notes = new ArrayList<>();
+
+        private final List<Long> lines = new ArrayList<>();
+
+        private final Set<Integer> patientIds = new HashSet<>();
+
+        private long bytes;
+
+        void add(long line, Note note, int size) {
+            notes.add(note);
+            lines.add(line);
+            patientIds.add(note.getPatientId());
+            bytes += size;
+        }
+    }
+
+    /**
+     * Compteurs, résumés et erreurs de l'import en cours.
+     */
+    private final class ImportState {
+
+        private long received;
+
+        private long inserted;
+
+        private long rejected;
+
+        private final List<BatchSummary> batches = new ArrayList<>();
+
+        private final List<RowError> errors = new ArrayList<>();
+
+        void reject(long line, String message) {
+            rejected++;
+            if (errors.size() < maxErrors) {
+                errors.add(new RowError(line, message));
+            }
+        }
+    }
+}
@@ -1,10 +1,26 @@
 package com.medilabo.noteservice.service;
 
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.medilabo.common.risk.RiskInvalidationNotifier;
+import com.medilabo.noteservice.dto.PatientTriggerCount;
 import com.medilabo.noteservice.model.Note;
+import com.medilabo.noteservice.repository.NoteContenu;
 import com.medilabo.noteservice.repository.NoteRepository;
+import com.medilabo.noteservice.repository.ReactiveNoteRepository;
 import org.springframework.stereotype.Service;
+import reactor.core.publisher.Flux;
 
+import java.io.IOException;
+import java.io.OutputStream;
+import java.time.Instant;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.Iterator;
 import java.util.List;
+import java.util.stream.Stream;
 
 /**
  * Service métier pour la gestion des {@link Note}.
@@ -18,28 +34,143 @@ public class NoteService {
 
     private final NoteRepository noteRepository;
 
-    public NoteService(NoteRepository noteRepository) {
+    private final ReactiveNoteRepository reactiveNoteRepository;
+
+    private final RiskInvalidationNotifier riskInvalidationNotifier;
+
+    private final TriggerIndexer triggerIndexer;
+
+    private final ObjectWriter noteWriter;
+
+    public NoteService(NoteRepository noteRepository, ReactiveNoteRepository reactiveNoteRepository,
+                       RiskInvalidationNotifier riskInvalidationNotifier,
+                       TriggerIndexer triggerIndexer, ObjectMapper objectMapper) {
         this.noteRepository = noteRepository;
+        this.reactiveNoteRepository = reactiveNoteRepository;
+        this.riskInvalidationNotifier = riskInvalidationNotifier;
+        this.triggerIndexer = triggerIndexer;
+        this.noteWriter = objectMapper.writerFor(Note.class)
+                .without(SerializationFeature.FLUSH_AFTER_WRITE_VALUE);
     }
 
     /**
-     * Retourne l'ensemble des notes d'un patient.
+     * Retourne l'ensemble des notes d'un patient, par ordre chronologique.
      *
      * @param patientId identifiant du patient
      * @return liste des notes du patient
      */
     public List<Note> getNotesByPatient(Integer patientId) {
-        return noteRepository.findByPatientId(patientId);
+        return noteRepository.findByPatientIdOrderByCreatedAtAsc(patientId);
+    }
+
+    /**
+     * Retourne uniquement le contenu des notes d'un patient.
+     *
+     * @param patientId identifiant du patient
+     * @return le contenu de chaque note du patient
+     */
+    public List<NoteContenu> getContenusByPatient(Integer patientId) {
+        return noteRepository.findContenuByPatientId(patientId);
+    }
+
+    /**
+     * Émet le contenu des notes d'un patient au fil de leur lecture dans MongoDB.
+     *
+     * @param patientId identifiant du patient
+     * @return le contenu de chaque note du patient, sans attendre la fin de la lecture
+     */
+    public Flux<NoteContenu> streamContenusByPatient(Integer patientId) {
+        return reactiveNoteRepository.findContenuByPatientId(patientId);
+    }
+
+    /**
+     * Compte les notes d'un patient.
+     *
+     * @param patientId identifiant du patient
+     * @return le nombre de notes du patient
+     */
+    public long countNotesByPatient(Integer patientId) {
+        return noteRepository.countByPatientId(patientId);
+    }
+
+    /**
+     * Retourne le nombre de termes déclencheurs relevés dans les notes d'un patient.
+     *
+     * @param patientId identifiant du patient
+     * @return le décompte du patient (à zéro s'il n'a aucune note)
+     */
+    public PatientTriggerCount countTriggersByPatient(Integer patientId) {
+        List<PatientTriggerCount> counts = noteRepository.countTriggersByPatientIdIn(List.of(patientId));
+        return counts.isEmpty() ? new PatientTriggerCount(patientId, 0, 0, 0) : counts.get(0);
+    }
+
+    /**
+     * Retourne le nombre de termes déclencheurs relevés dans les notes de plusieurs patients,
+     * en une seule agrégation.
+     *
+     * @param patientIds identifiants des patients
+     * @return un décompte par patient ayant au moins une note
+     */
+    public List<PatientTriggerCount> countTriggersByPatients(Collection<Integer> patientIds) {
+        return noteRepository.countTriggersByPatientIdIn(new HashSet<>(patientIds));
+    }
+
+    /**
+     * Écrit en JSON les notes de plusieurs patients, regroupées par identifiant de patient.
+     * <p>
+     * Les notes sont lues par une seule requête et écrites au fur et à mesure sous la forme
+     * <code>{"1":[...],"2":[...]}</code>, sans être toutes chargées en mémoire.
+     * Les patients sans note n'apparaissent pas dans le résultat.
+     * </p>
+     *
+     * @param patientIds identifiants des patients
+     * @param out flux de sortie (non fermé par cette méthode)
+     * @throws IOException si l'écriture échoue
+     */
+    public void writeNotesByPatients(Collection<Integer> patientIds, OutputStream out) throws IOException {
+        try (Stream<Note> notes = noteRepository.findByPatientIdInOrderByPatientIdAsc(new HashSet<>(patientIds));
+             JsonGenerator generator = noteWriter.createGenerator(out)) {
+            generator.disable(JsonGenerator.Feature.AUTO_CLOSE_TARGET);
+            generator.writeStartObject();
+            Integer currentPatientId = null;
+            Iterator<Note> iterator = notes.iterator();
+            while (iterator.hasNext()) {
+                Note note = iterator.next();
+                if (!note.getPatientId().equals(currentPatientId)) {
+                    if (currentPatientId != null) {
+                        generator.writeEndArray();
+                    }
+                    currentPatientId = note.getPatientId();
+                    generator.writeArrayFieldStart(currentPatientId.toString());
+                }
+                noteWriter.writeValue(generator, note);
+            }
+            if (currentPatientId != null) {
+                generator.writeEndArray();
+            }
+            generator.writeEndObject();
+        }
     }
 
     /**
      * Enregistre une nouvelle note médicale.
+     * <p>
+     * La date de création est renseignée si elle est absente, et les termes déclencheurs
+     * présents dans le contenu sont indexés une fois pour toutes.
+     * L’évaluation du risque en cache pour ce patient est invalidée une fois la note persistée.
+     * </p>
      *
      * @param note la note à sauvegarder
      * @return la note persistée
      */
     public Note addNote(Note note) {
-        return noteRepository.save(note);
+        if (note.getCreatedAt() == null) {
+            note.setCreatedAt(Instant.now());
+        }
+        note.setTriggerIds(triggerIndexer.termIds(note.getContenu()));
+        Note saved = noteRepository.save(note);
+        riskInvalidationNotifier.patientChanged(note.getPatientId());
+        return saved;
     }
     
     /**
@@ -0,0 +1,92 @@
+package com.medilabo.noteservice.service;
+
+import com.medilabo.noteservice.model.Note;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.mongodb.core.BulkOperations;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.stereotype.Service;
+
+import java.util.Iterator;
+import java.util.stream.Stream;
+
+/**
+ * Rattrapage de l'index des termes déclencheurs pour les notes existantes.
+ * <p>
+ * Les notes sans champ <code>triggerIds</code> (enregistrées avant l'indexation à l'écriture)
+ * sont parcourues au fil d'un curseur, en ne lisant que leur contenu, puis mises à jour par lots
+ * d'écritures groupées non ordonnées. Le traitement peut être relancé sans risque : seules les
+ * notes encore non indexées sont traitées.
+ * </p>
+ */
+@Service
+public class TriggerBackfillService {
+
+    private static final Logger log = LoggerFactory.getLogger(TriggerBackfillService.class);
+
+    /**
+     * Nombre de mises à jour envoyées à MongoDB par écriture groupée.
+     */
+    static final int BULK_SIZE = 1000;
+
+    private final MongoTemplate mongoTemplate;
+
+    private final TriggerIndexer triggerIndexer;
+
+    private final boolean runOnStartup;
+
+    public TriggerBackfillService(MongoTemplate mongoTemplate, TriggerIndexer triggerIndexer,
+                                  @Value("${medilabo.notes.trigger-backfill-on-startup:false}") boolean runOnStartup) {
+        this.mongoTemplate = mongoTemplate;
+        this.triggerIndexer = triggerIndexer;
+        this.runOnStartup = runOnStartup;
+    }
+
+    /**
+     * Lance le rattrapage au démarrage si <code>medilabo.notes.trigger-backfill-on-startup</code> est activé.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void backfillOnStartup() {
+        if (runOnStartup) {
+            backfill();
+        }
+    }
+
+    /**
+     * Indexe toutes les notes qui ne l'ont pas encore été.
+     *
+     * @return le nombre de notes mises à jour
+     */
+    public long backfill() {
+        Query query = new Query(Criteria.where("triggerIds").exists(false));
+        query.fields().include("contenu");
+
+        long updated = 0;
+        int pending = 0;
+        BulkOperations bulk = mongoTemplate.bulkOps(BulkOperations.BulkMode.UNORDERED, Note.class);
+        try (Stream<Note> notes = mongoTemplate.stream(query, Note.class)) {
+            Iterator<Note> iterator = notes.iterator();
+            while (iterator.hasNext()) {
+                Note note = iterator.next();
+                bulk.updateOne(Query.query(Criteria.where("_id").is(note.getId())),
+                        Update.update("triggerIds", triggerIndexer.termIds(note.getContenu())));
+                if (++pending == BULK_SIZE) {
+                    updated += bulk.execute().getModifiedCount();
+                    bulk = mongoTemplate.bulkOps(BulkOperations.BulkMode.UNORDERED, Note.class);
+                    pending = 0;
+                }
+            }
+        }
+        if (pending > 0) {
+            updated += bulk.execute().getModifiedCount();
+        }
+        log.info("Index des termes déclencheurs rattrapé pour {} note(s)", updated);
+        return updated;
+    }
+}
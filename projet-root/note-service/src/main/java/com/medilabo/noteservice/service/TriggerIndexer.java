@@ -0,0 +1,33 @@
+package com.medilabo.noteservice.service;
+
+import com.medilabo.common.trigger.TriggerTerms;
+import org.springframework.stereotype.Component;
+
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Indexation des termes déclencheurs présents dans une note.
+ * <p>
+ * Les termes trouvés sont stockés sur la note sous forme de liste d'identifiants
+ * (l'indice du terme dans {@link TriggerTerms#TERMS}), ce qui permet de calculer le nombre de
+ * déclencheurs d'un patient par simple agrégation, sans relire le texte des notes.
+ * </p>
+ * <p>
+ * La liste et l'automate de recherche sont ceux du module medilabo-common, également utilisés par
+ * risk-assessment-service : les identifiants stockés ne peuvent pas diverger des termes comptés.
+ * </p>
+ */
+@Component
+public class TriggerIndexer {
+
+    /**
+     * Retourne les identifiants des termes déclencheurs distincts présents dans un texte.
+     *
+     * @param contenu contenu de la note (peut être {@code null})
+     * @return les identifiants des termes trouvés, par ordre croissant
+     */
+    public List<Integer> termIds(String contenu) {
+        return Arrays.stream(TriggerTerms.MATCHER.distinctTermIds(contenu)).boxed().toList();
+    }
+}
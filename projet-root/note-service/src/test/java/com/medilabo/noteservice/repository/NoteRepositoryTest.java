@@ -29,4 +29,16 @@ class NoteRepositoryTest {
         assertThat(notes).isNotEmpty();
         assertThat(notes.get(0).getContenu()).isEqualTo("Vertiges");
     }
+
+    @Test
+    void shouldProjectContenuAndCountByPatientId() {
+        repository.deleteAll();
+        repository.save(new Note(98, "Fumeur"));
+        repository.save(new Note(98, "Rechute"));
+
+        List<NoteContenu> contenus = repository.findContenuByPatientId(98);
+
+        assertThat(contenus).extracting(NoteContenu::getContenu).containsExactlyInAnyOrder("Fumeur", "Rechute");
+        assertThat(repository.countByPatientId(98)).isEqualTo(2);
+    }
 }
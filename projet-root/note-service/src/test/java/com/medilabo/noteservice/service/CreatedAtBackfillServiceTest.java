@@ -0,0 +1,39 @@
+package com.medilabo.noteservice.service;
+
+import com.medilabo.noteservice.model.Note;
+import com.mongodb.client.result.UpdateResult;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.aggregation.AggregationUpdate;
+import org.springframework.data.mongodb.core.query.Query;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class CreatedAtBackfillServiceTest {
+
+    @Mock
+    private MongoTemplate mongoTemplate;
+
+    @Test
+    void backfill_setsCreatedAtFromObjectIdOnUndatedNotesOnly() {
+        when(mongoTemplate.updateMulti(any(Query.class), any(AggregationUpdate.class), eq(Note.class)))
+                .thenReturn(UpdateResult.acknowledged(3, 3L, null));
+
+        long updated = new CreatedAtBackfillService(mongoTemplate, false).backfill();
+
+        ArgumentCaptor<Query> query = ArgumentCaptor.forClass(Query.class);
+        verify(mongoTemplate).updateMulti(query.capture(), any(AggregationUpdate.class), eq(Note.class));
+        assertThat(updated).isEqualTo(3);
+        assertThat(query.getValue().getQueryObject().toJson())
+                .contains("\"createdAt\": {\"$exists\": false}")
+                .contains("\"_id\": {\"$type\"");
+    }
+}
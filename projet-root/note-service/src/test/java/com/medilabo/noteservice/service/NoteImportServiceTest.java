@@ -0,0 +1,145 @@
+package com.medilabo.noteservice.service;
+
+import com.medilabo.common.risk.RiskInvalidationNotifier;
+import com.medilabo.noteservice.dto.NoteImportReport;
+import com.medilabo.noteservice.dto.NoteImportReport.BatchSummary;
+import com.medilabo.noteservice.dto.NoteImportReport.RowError;
+import com.medilabo.noteservice.model.Note;
+import com.mongodb.MongoBulkWriteException;
+import com.mongodb.ServerAddress;
+import com.mongodb.bulk.BulkWriteError;
+import com.mongodb.bulk.BulkWriteResult;
+import org.bson.BsonDocument;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.mongodb.BulkOperationException;
+import org.springframework.data.mongodb.core.BulkOperations;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+import org.springframework.util.unit.DataSize;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.Set;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class NoteImportServiceTest {
+
+    @Mock
+    private MongoTemplate mongoTemplate;
+
+    @Mock
+    private BulkOperations bulkOperations;
+
+    @Mock
+    private RiskInvalidationNotifier riskInvalidationNotifier;
+
+    @BeforeEach
+    void setUp() {
+        when(mongoTemplate.bulkOps(BulkOperations.BulkMode.UNORDERED, Note.class)).thenReturn(bulkOperations);
+        when(bulkOperations.insert(anyList())).thenReturn(bulkOperations);
+    }
+
+    @Test
+    void importNdjson_insertsBatchesByCountAndReportsRejectedLines() throws IOException {
+        when(bulkOperations.execute()).thenReturn(inserted(2), inserted(2), inserted(1));
+
+        NoteImportReport report = service(2, DataSize.ofMegabytes(4)).importNdjson(stream("""
+                {"patientId":1,"contenu":"Fumeur"}
+                {"patientId":1,"contenu":"RAS"}
+                {"contenu":"sans patient"}
+
+                {"patientId":2,"contenu":"Cholestérol","createdAt":"2020-01-01T00:00:00Z"}
+                {"patientId":2,
+                {"patientId":3,"contenu":"Poids"}
+                {"patientId":3,"contenu":"Taille"}
+                """));
+
+        assertThat(report.getReceived()).isEqualTo(7);
+        assertThat(report.getInserted()).isEqualTo(5);
+        assertThat(report.getErrors()).extracting(RowError::line).containsExactly(3L, 6L);
+        assertThat(report.getBatches()).extracting(BatchSummary::documents).containsExactly(2, 2, 1);
+        assertThat(report.getBatches().get(1).firstLine()).isEqualTo(5);
+        assertThat(report.getBatches().get(1).lastLine()).isEqualTo(7);
+
+        ArgumentCaptor<List<Note>> batches = ArgumentCaptor.captor();
+        verify(bulkOperations, times(3)).insert(batches.capture());
+        Note first = batches.getAllValues().get(0).get(0);
+        assertThat(first.getCreatedAt()).isNotNull();
+        assertThat(first.getTriggerIds()).isNotEmpty();
+        verify(riskInvalidationNotifier).patientsChanged(Set.of(1));
+        verify(riskInvalidationNotifier).patientsChanged(Set.of(2, 3));
+        verify(riskInvalidationNotifier).patientsChanged(Set.of(3));
+        verify(riskInvalidationNotifier, never()).patientChanged(any());
+    }
+
+    @Test
+    void importNdjson_closesBatchBeforeExceedingByteLimit() throws IOException {
+        when(bulkOperations.execute()).thenReturn(inserted(2), inserted(1));
+        String line = "{\"patientId\":1,\"contenu\":\"RAS\"}";
+
+        NoteImportReport report = service(100, DataSize.ofBytes(2L * line.length()))
+                .importNdjson(stream(line + "\n" + line + "\r\n" + line));
+
+        assertThat(report.getBatches()).extracting(BatchSummary::documents).containsExactly(2, 1);
+        assertThat(report.getBatches().get(0).bytes()).isEqualTo(2L * line.length());
+    }
+
+    @Test
+    void importNdjson_rejectsLinesLongerThanByteLimitAndResumesOnNextLine() throws IOException {
+        when(bulkOperations.execute()).thenReturn(inserted(2));
+        String line = "{\"patientId\":1,\"contenu\":\"RAS\"}";
+        String tooLong = "{\"patientId\":2,\"contenu\":\"" + "x".repeat(10 * line.length()) + "\"}";
+
+        NoteImportReport report = service(100, DataSize.ofBytes(2L * line.length()))
+                .importNdjson(stream(line + "\n" + tooLong + "\r\n" + line + "\n"));
+
+        assertThat(report.getReceived()).isEqualTo(3);
+        assertThat(report.getInserted()).isEqualTo(2);
+        assertThat(report.getErrors()).extracting(RowError::line).containsExactly(2L);
+        assertThat(report.getErrors().get(0).message()).contains("octets");
+        assertThat(report.getBatches()).extracting(BatchSummary::documents).containsExactly(2);
+    }
+
+    @Test
+    void importNdjson_reportsDocumentsRefusedByMongoWithoutStopping() throws IOException {
+        MongoBulkWriteException failure = new MongoBulkWriteException(inserted(1),
+                List.of(new BulkWriteError(11000, "E11000 duplicate key", new BsonDocument(), 0)),
+                null, new ServerAddress(), Set.of());
+        when(bulkOperations.execute()).thenThrow(new BulkOperationException("duplicate", failure));
+
+        NoteImportReport report = service(10, DataSize.ofMegabytes(4)).importNdjson(stream("""
+                {"id":"n1","patientId":1,"contenu":"RAS"}
+                {"id":"n2","patientId":1,"contenu":"RAS"}
+                """));
+
+        assertThat(report.getInserted()).isEqualTo(1);
+        assertThat(report.getRejected()).isEqualTo(1);
+        assertThat(report.getErrors()).extracting(RowError::line).containsExactly(1L);
+        assertThat(report.getBatches().get(0).failed()).isEqualTo(1);
+    }
+
+    private NoteImportService service(int batchSize, DataSize batchBytes) {
+        return new NoteImportService(mongoTemplate, new TriggerIndexer(), riskInvalidationNotifier,
+                Jackson2ObjectMapperBuilder.json().build(), batchSize, batchBytes, 100);
+    }
+
+    private static BulkWriteResult inserted(int count) {
+        return BulkWriteResult.acknowledged(count, 0, 0, 0, List.of(), List.of());
+    }
+
+    private static InputStream stream(String content) {
+        return new ByteArrayInputStream(content.getBytes(StandardCharsets.UTF_8));
+    }
+}
@@ -1,15 +1,28 @@
 package com.medilabo.noteservice.service;
 
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.medilabo.common.risk.RiskInvalidationNotifier;
+import com.medilabo.common.trigger.TriggerTerms;
+import com.medilabo.noteservice.dto.PatientTriggerCount;
 import com.medilabo.noteservice.model.Note;
+import com.medilabo.noteservice.repository.NoteContenu;
 import com.medilabo.noteservice.repository.NoteRepository;
+import com.medilabo.noteservice.repository.ReactiveNoteRepository;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
+import org.mockito.Spy;
 import org.mockito.junit.jupiter.MockitoExtension;
+import reactor.core.publisher.Flux;
 
+import java.io.ByteArrayOutputStream;
+import java.nio.charset.StandardCharsets;
 import java.util.Arrays;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.stream.Stream;
 
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.mockito.Mockito.*;
@@ -20,18 +33,74 @@ class NoteServiceTest {
     @Mock
     private NoteRepository noteRepository;
 
+    @Mock
+    private ReactiveNoteRepository reactiveNoteRepository;
+
+    @Mock
+    private RiskInvalidationNotifier riskInvalidationNotifier;
+
+    @Spy
+    private TriggerIndexer triggerIndexer = new TriggerIndexer();
+
+    @Spy
+    private ObjectMapper objectMapper = new ObjectMapper();
+
     @InjectMocks
     private NoteService noteService;
 
     @Test
     void getNotesByPatient_returnsNotes() {
         List<Note> notes = Arrays.asList(new Note(), new Note());
-        when(noteRepository.findByPatientId(1)).thenReturn(notes);
+        when(noteRepository.findByPatientIdOrderByCreatedAtAsc(1)).thenReturn(notes);
 
         List<Note> result = noteService.getNotesByPatient(1);
 
         assertThat(result).hasSize(2);
-        verify(noteRepository).findByPatientId(1);
+        verify(noteRepository).findByPatientIdOrderByCreatedAtAsc(1);
+    }
+
+    @Test
+    void streamContenusByPatient_emitsNotesFromReactiveRepository() {
+        NoteContenu first = () -> "Fumeur";
+        NoteContenu second = () -> "Vertiges";
+        when(reactiveNoteRepository.findContenuByPatientId(1)).thenReturn(Flux.just(first, second));
+
+        List<NoteContenu> result = noteService.streamContenusByPatient(1).collectList().block();
+
+        assertThat(result).containsExactly(first, second);
+        verify(noteRepository, never()).findContenuByPatientId(any());
+    }
+
+    @Test
+    void countNotesByPatient_usesCountQuery() {
+        when(noteRepository.countByPatientId(1)).thenReturn(3L);
+
+        assertThat(noteService.countNotesByPatient(1)).isEqualTo(3L);
+        verify(noteRepository, never()).findByPatientId(any());
+    }
+
+    @Test
+    void writeNotesByPatients_groupsNotesByPatient() throws Exception {
+        when(noteRepository.findByPatientIdInOrderByPatientIdAsc(Set.of(1, 2))).thenReturn(Stream.of(
+                new Note(1, "Fumeur"), new Note(1, "Vertiges"), new Note(2, "Poids")));
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+
+        noteService.writeNotesByPatients(List.of(1, 2, 1), out);
+
+        Map<String, Object> result = objectMapper.readValue(out.toString(StandardCharsets.UTF_8), Map.class);
+        assertThat(result).containsOnlyKeys("1", "2");
+        assertThat((List<?>) result.get("1")).hasSize(2);
+        verify(noteRepository).findByPatientIdInOrderByPatientIdAsc(Set.of(1, 2));
+    }
+
+    @Test
+    void writeNotesByPatients_writesEmptyObjectWhenNoNotes() throws Exception {
+        when(noteRepository.findByPatientIdInOrderByPatientIdAsc(Set.of(3))).thenReturn(Stream.empty());
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+
+        noteService.writeNotesByPatients(List.of(3), out);
+
+        assertThat(out.toString(StandardCharsets.UTF_8)).isEqualTo("{}");
     }
 
     @Test
@@ -42,9 +111,43 @@ class NoteServiceTest {
         Note result = noteService.addNote(note);
 
         assertThat(result).isEqualTo(note);
+        assertThat(note.getCreatedAt()).isNotNull();
         verify(noteRepository).save(note);
     }
 
+    @Test
+    void addNote_indexesTriggerTerms() {
+        Note note = new Note(4, "Patient fumeur, cholesterol anormal. Fumeur depuis 10 ans.");
+        when(noteRepository.save(note)).thenReturn(note);
+
+        noteService.addNote(note);
+
+        assertThat(note.getTriggerIds()).containsExactly(
+                TriggerTerms.TERMS.indexOf("Fumeur"),
+                TriggerTerms.TERMS.indexOf("Anormal"),
+                TriggerTerms.TERMS.indexOf("Cholestérol"));
+    }
+
+    @Test
+    void countTriggersByPatient_defaultsToZeroWithoutNotes() {
+        when(noteRepository.countTriggersByPatientIdIn(List.of(5))).thenReturn(List.of());
+
+        PatientTriggerCount count = noteService.countTriggersByPatient(5);
+
+        assertThat(count.getPatientId()).isEqualTo(5);
+        assertThat(count.getTriggerCount()).isZero();
+    }
+
+    @Test
+    void addNote_invalidatesCachedRisk() {
+        Note note = new Note(4, "Rechute");
+        when(noteRepository.save(note)).thenReturn(note);
+
+        noteService.addNote(note);
+
+        verify(riskInvalidationNotifier).patientChanged(4);
+    }
+
     @Test
     void deleteAll_removesAllNotes() {
         noteService.deleteAll();
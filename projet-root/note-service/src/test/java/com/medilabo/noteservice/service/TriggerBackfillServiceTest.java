@@ -0,0 +1,53 @@
+package com.medilabo.noteservice.service;
+
+import com.medilabo.noteservice.model.Note;
+import com.mongodb.bulk.BulkWriteResult;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.mongodb.core.BulkOperations;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+
+import java.util.List;
+import java.util.stream.IntStream;
+import java.util.stream.Stream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class TriggerBackfillServiceTest {
+
+    @Mock
+    private MongoTemplate mongoTemplate;
+
+    @Mock
+    private BulkOperations bulkOperations;
+
+    @Test
+    void backfill_updatesUnindexedNotesInBulkBatches() {
+        int total = TriggerBackfillService.BULK_SIZE + 5;
+        Stream<Note> notes = IntStream.range(0, total).mapToObj(i -> {
+            Note note = new Note(1, i % 2 == 0 ? "Fumeur" : "RAS");
+            note.setId("n" + i);
+            return note;
+        });
+        when(mongoTemplate.stream(any(Query.class), eq(Note.class))).thenReturn(notes);
+        when(mongoTemplate.bulkOps(BulkOperations.BulkMode.UNORDERED, Note.class)).thenReturn(bulkOperations);
+        when(bulkOperations.execute()).thenReturn(
+                BulkWriteResult.acknowledged(0, 0, 0, TriggerBackfillService.BULK_SIZE, List.of(), List.of()),
+                BulkWriteResult.acknowledged(0, 0, 0, 5, List.of(), List.of()));
+
+        TriggerBackfillService service = new TriggerBackfillService(mongoTemplate, new TriggerIndexer(), false);
+        long updated = service.backfill();
+
+        assertThat(updated).isEqualTo(total);
+        verify(bulkOperations, times(total)).updateOne(any(Query.class), any(Update.class));
+        verify(bulkOperations, times(2)).execute();
+    }
+}
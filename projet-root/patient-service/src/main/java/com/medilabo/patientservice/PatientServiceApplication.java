@@ -3,9 +3,11 @@ package com.medilabo.patientservice;
 import org.springframework.boot.SpringApplication;
 import org.springframework.boot.autoconfigure.SpringBootApplication;
 import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Import;
 
 import com.fasterxml.jackson.databind.ObjectMapper;
 import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import com.medilabo.common.security.ServiceIdentityConfig;
 
 /**
  * Classe principale du microservice Patient Service.
@@ -15,6 +17,7 @@ import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
  * </p>
  */
 @SpringBootApplication
+@Import(ServiceIdentityConfig.class)
 public class PatientServiceApplication {
 
     /**
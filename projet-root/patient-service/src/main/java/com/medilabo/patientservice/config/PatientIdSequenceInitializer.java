@@ -0,0 +1,59 @@
+package com.medilabo.patientservice.config;
+
+import com.medilabo.patientservice.model.Patient;
+import jakarta.annotation.PostConstruct;
+import jakarta.persistence.EntityManagerFactory;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+/**
+ * Aligne le générateur d'identifiants des patients sur les identifiants déjà présents en base.
+ * <p>
+ * Les patients créés avant le passage à la table {@value Patient#ID_TABLE} ont reçu leur identifiant
+ * de la colonne auto-incrémentée : au démarrage, le générateur est avancé au-delà du plus grand
+ * identifiant existant (bloc « pooled » compris) pour qu'aucun identifiant ne soit réattribué.
+ * Sans effet lorsque le générateur est déjà en avance.
+ * </p>
+ */
+@Component
+public class PatientIdSequenceInitializer {
+
+    private static final Logger log = LoggerFactory.getLogger(PatientIdSequenceInitializer.class);
+
+    private final JdbcTemplate jdbcTemplate;
+
+    /**
+     * @param jdbcTemplate accès JDBC à la base des patients
+     * @param entityManagerFactory garantit que le schéma a été créé ou mis à jour par Hibernate
+     */
+    public PatientIdSequenceInitializer(JdbcTemplate jdbcTemplate, EntityManagerFactory entityManagerFactory) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    /**
+     * Avance le générateur si nécessaire, avant que le service n'accepte des requêtes.
+     */
+    @PostConstruct
+    void alignWithExistingIds() {
+        Long maxId = jdbcTemplate.queryForObject("select coalesce(max(id), 0) from patient", Long.class);
+        if (maxId == null || maxId == 0) {
+            return;
+        }
+        long floor = maxId + Patient.ID_ALLOCATION_SIZE + 1;
+        int updated = jdbcTemplate.update(
+                "update " + Patient.ID_TABLE + " set next_val = ? where sequence_name = ? and next_val < ?",
+                floor, Patient.ID_SEQUENCE, floor);
+        Integer rows = jdbcTemplate.queryForObject(
+                "select count(*) from " + Patient.ID_TABLE + " where sequence_name = ?", Integer.class, Patient.ID_SEQUENCE);
+        if (rows == null || rows == 0) {
+            updated = jdbcTemplate.update(
+                    "insert into " + Patient.ID_TABLE + " (sequence_name, next_val) values (?, ?)",
+                    Patient.ID_SEQUENCE, floor);
+        }
+        if (updated > 0) {
+            log.info("Générateur d'identifiants des patients avancé à {}", floor);
+        }
+    }
+}
@@ -1,38 +1,95 @@
 package com.medilabo.patientservice.config;
 
+import com.medilabo.common.security.IdentityHeaders;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.security.authentication.ProviderManager;
 import org.springframework.security.config.annotation.web.builders.HttpSecurity;
+import org.springframework.security.config.http.SessionCreationPolicy;
+import org.springframework.security.core.authority.AuthorityUtils;
 import org.springframework.security.web.SecurityFilterChain;
+import org.springframework.security.web.authentication.preauth.PreAuthenticatedAuthenticationProvider;
+import org.springframework.security.web.authentication.preauth.PreAuthenticatedGrantedAuthoritiesUserDetailsService;
+import org.springframework.security.web.authentication.preauth.PreAuthenticatedGrantedAuthoritiesWebAuthenticationDetails;
+import org.springframework.security.web.authentication.preauth.RequestHeaderAuthenticationFilter;
+import org.springframework.security.web.context.RequestAttributeSecurityContextRepository;
 
 /**
  * Configuration de la sécurité pour le microservice Patient Service.
  * <p>
- * Cette configuration désactive la protection CSRF et permet l'accès à toutes les requêtes HTTP
- * sans authentification.
+ * L'authentification est assurée par la gateway, qui vérifie le jeton de l'utilisateur puis
+ * transmet son identité dans les en-têtes {@value #USER_HEADER} et {@value #ROLES_HEADER}.
+ * Ce microservice fait confiance à ces en-têtes et n'ouvre aucune session : il n'est joignable
+ * que depuis le réseau interne, son port n'étant pas publié par {@code docker-compose.yml}.
+ * </p>
+ * <p>
+ * L'identité est exigée sur {@code /patients/**} : les appels internes (risk-assessment-service)
+ * transmettent l'identité de leur service ({@link IdentityHeaders#SERVICE_ROLE}). Le contrôle ne
+ * peut être levé qu'explicitement, par {@code medilabo.security.identity-header.required=false}.
  * </p>
  */
 @Configuration
 public class SecurityConfig {
 
+    /**
+     * En-tête portant le nom de l'utilisateur authentifié par la gateway.
+     */
+    public static final String USER_HEADER = IdentityHeaders.USER_HEADER;
+
+    /**
+     * En-tête portant les rôles de l'utilisateur ({@code ROLE_*}, séparés par des virgules).
+     */
+    public static final String ROLES_HEADER = IdentityHeaders.ROLES_HEADER;
+
     /**
      * Définit la chaîne de filtres de sécurité pour l'application.
      * <p>
-     * - Autorise toutes les requêtes sans authentification.<br>
+     * - Authentifie l'utilisateur transmis par la gateway, sans session.<br>
+     * - Exige cette authentification sur {@code /patients/**}, sauf si {@code required} est
+     *   désactivé.<br>
      * - Désactive la protection CSRF (utile pour les API REST stateless).
      * </p>
      *
      * @param http l'objet {@link HttpSecurity} à configurer
+     * @param required exige une identité transmise par la gateway
      * @return la chaîne de filtres de sécurité {@link SecurityFilterChain}
      * @throws Exception en cas d'erreur de configuration
      */
     @Bean
-    public SecurityFilterChain filterChain(HttpSecurity http) throws Exception {
+    public SecurityFilterChain filterChain(HttpSecurity http,
+                                           @Value("${medilabo.security.identity-header.required:true}") boolean required)
+            throws Exception {
         http
-            .authorizeHttpRequests(authz -> authz
-                .anyRequest().permitAll()
-            )
+            .addFilter(identityHeaderFilter())
+            .authorizeHttpRequests(authz -> {
+                if (required) {
+                    authz.requestMatchers("/patients/**").authenticated();
+                }
+                authz.anyRequest().permitAll();
+            })
+            .sessionManagement(session -> session.sessionCreationPolicy(SessionCreationPolicy.STATELESS))
             .csrf(csrf -> csrf.disable());
         return http.build();
     }
+
+    /**
+     * Construit le filtre authentifiant l'utilisateur à partir des en-têtes de la gateway.
+     *
+     * @return le filtre d'authentification par en-têtes
+     */
+    private RequestHeaderAuthenticationFilter identityHeaderFilter() {
+        PreAuthenticatedAuthenticationProvider provider = new PreAuthenticatedAuthenticationProvider();
+        provider.setPreAuthenticatedUserDetailsService(new PreAuthenticatedGrantedAuthoritiesUserDetailsService());
+
+        RequestHeaderAuthenticationFilter filter = new RequestHeaderAuthenticationFilter();
+        filter.setPrincipalRequestHeader(USER_HEADER);
+        filter.setExceptionIfHeaderMissing(false);
+        filter.setAuthenticationDetailsSource(request -> new PreAuthenticatedGrantedAuthoritiesWebAuthenticationDetails(
+                request, AuthorityUtils.commaSeparatedStringToAuthorityList(
+                        request.getHeader(ROLES_HEADER) == null ? "" : request.getHeader(ROLES_HEADER))));
+        filter.setAuthenticationManager(new ProviderManager(provider));
+        filter.setSecurityContextRepository(new RequestAttributeSecurityContextRepository());
+        return filter;
+    }
 }
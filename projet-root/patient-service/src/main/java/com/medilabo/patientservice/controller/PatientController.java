@@ -1,11 +1,21 @@
 package com.medilabo.patientservice.controller;
 
+import com.medilabo.patientservice.dto.PatientIdRange;
+import com.medilabo.patientservice.dto.PatientImportReport;
+import com.medilabo.patientservice.dto.PatientPage;
 import com.medilabo.patientservice.model.Patient;
+import com.medilabo.patientservice.service.PatientImportService;
 import com.medilabo.patientservice.service.PatientService;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.server.ResponseStatusException;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
+import java.io.IOException;
+import java.io.InputStream;
 import java.util.List;
 
 /**
@@ -21,6 +31,9 @@ public class PatientController {
     @Autowired
     private PatientService patientService;
 
+    @Autowired
+    private PatientImportService patientImportService;
+
     /**
      * Récupère la liste de tous les patients.
      *
@@ -31,6 +44,53 @@ public class PatientController {
         return patientService.getAll();
     }
 
+    /**
+     * Récupère une page de patients par pagination par curseur.
+     * <p>
+     * Sélectionné dès que le paramètre {@code limit} est présent. Pour parcourir tous les patients,
+     * repasser le champ {@code nextAfter} de la réponse dans {@code after} jusqu'à ce qu'il soit nul.
+     * </p>
+     *
+     * @param after identifiant du dernier patient déjà reçu (absent pour la première page)
+     * @param limit nombre de patients souhaité (plafonné côté serveur)
+     * @return une {@link PatientPage}
+     */
+    @GetMapping(params = "limit")
+    public PatientPage getPage(@RequestParam(required = false) Long after,
+                               @RequestParam(defaultValue = "" + PatientService.DEFAULT_PAGE_SIZE) int limit) {
+        return patientService.getPage(after, limit);
+    }
+
+    /**
+     * Retourne les bornes des identifiants de patients.
+     * <p>
+     * Utilisé par les traitements de masse (recalcul du risque de toute la population) pour
+     * découper les identifiants en plages, chacune parcourue avec {@code after} et {@code limit}.
+     * </p>
+     *
+     * @return le {@link PatientIdRange} courant
+     */
+    @GetMapping("/id-range")
+    public PatientIdRange getIdRange() {
+        return patientService.getIdRange();
+    }
+
+    /**
+     * Exporte tous les patients au format NDJSON, un patient par ligne.
+     * <p>
+     * La réponse est écrite au fil de la lecture en base, sans jamais charger toute la table en mémoire.
+     * </p>
+     *
+     * @return le corps de réponse diffusé en flux
+     */
+    @GetMapping(value = "/export", produces = MediaType.APPLICATION_NDJSON_VALUE)
+    public ResponseEntity<StreamingResponseBody> export() {
+        StreamingResponseBody body = patientService::exportAll;
+        return ResponseEntity.ok()
+                .contentType(MediaType.APPLICATION_NDJSON)
+                .body(body);
+    }
+
     /**
      * Récupère un patient par son identifiant.
      *
@@ -44,6 +104,17 @@ public class PatientController {
                 .orElse(ResponseEntity.notFound().build());
     }
 
+    /**
+     * Récupère plusieurs patients en un seul appel, à partir de leurs identifiants.
+     *
+     * @param ids les identifiants des patients à rechercher
+     * @return la liste des {@link Patient} trouvés (les identifiants inconnus sont ignorés)
+     */
+    @PostMapping("/batch")
+    public List<Patient> getBatch(@RequestBody List<Long> ids) {
+        return patientService.getByIds(ids);
+    }
+
     /**
      * Crée un nouveau patient dans la base de données.
      *
@@ -55,6 +126,38 @@ public class PatientController {
         return patientService.create(patient);
     }
 
+    /**
+     * Importe des patients en masse à partir d'un fichier CSV (en-tête obligatoire).
+     * <p>
+     * Le corps est lu en flux ; les lignes invalides sont rejetées sans interrompre l'import
+     * et détaillées dans le bilan.
+     * </p>
+     *
+     * @param body contenu du fichier CSV, en UTF-8
+     * @return le {@link PatientImportReport} de l'import
+     * @throws IOException si la lecture du corps échoue
+     */
+    @PostMapping(value = "/bulk", consumes = "text/csv")
+    public PatientImportReport importCsv(InputStream body) throws IOException {
+        try {
+            return patientImportService.importCsv(body);
+        } catch (IllegalArgumentException e) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, e.getMessage());
+        }
+    }
+
+    /**
+     * Importe des patients en masse à partir d'un flux NDJSON (un patient par ligne).
+     *
+     * @param body contenu du flux NDJSON, en UTF-8
+     * @return le {@link PatientImportReport} de l'import
+     * @throws IOException si la lecture du corps échoue
+     */
+    @PostMapping(value = "/bulk", consumes = MediaType.APPLICATION_NDJSON_VALUE)
+    public PatientImportReport importNdjson(InputStream body) throws IOException {
+        return patientImportService.importNdjson(body);
+    }
+
     /**
      * Met à jour un patient existant.
      *
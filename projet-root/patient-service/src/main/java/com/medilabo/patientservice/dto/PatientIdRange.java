@@ -0,0 +1,53 @@
+package com.medilabo.patientservice.dto;
+
+/**
+ * Bornes des identifiants de patients ({@code GET /patients/id-range}).
+ * <p>
+ * Permet à un traitement de masse de découper la population en plages d'identifiants
+ * avant de les parcourir par la pagination par curseur. Les bornes valent {@code null}
+ * lorsqu'il n'existe aucun patient.
+ * </p>
+ */
+public class PatientIdRange {
+
+    /**
+     * Plus petit identifiant de patient.
+     */
+    private final Long minId;
+
+    /**
+     * Plus grand identifiant de patient.
+     */
+    private final Long maxId;
+
+    /**
+     * Nombre de patients.
+     */
+    private final long count;
+
+    /**
+     * @param minId plus petit identifiant
+     * @param maxId plus grand identifiant
+     * @param count nombre de patients
+     */
+    public PatientIdRange(Long minId, Long maxId, long count) {
+        this.minId = minId;
+        this.maxId = maxId;
+        this.count = count;
+    }
+
+    /**
+     * @return le plus petit identifiant, ou {@code null}
+     */
+    public Long getMinId() { return minId; }
+
+    /**
+     * @return le plus grand identifiant, ou {@code null}
+     */
+    public Long getMaxId() { return maxId; }
+
+    /**
+     * @return le nombre de patients
+     */
+    public long getCount() { return count; }
+}
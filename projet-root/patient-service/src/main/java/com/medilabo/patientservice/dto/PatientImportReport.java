@@ -0,0 +1,76 @@
+package com.medilabo.patientservice.dto;
+
+import java.util.List;
+
+/**
+ * Bilan d'un import de patients en masse ({@code POST /patients/bulk}).
+ * <p>
+ * Les lignes rejetées n'interrompent pas l'import : chacune est signalée avec son numéro de ligne
+ * dans le fichier reçu. Seules les {@code maxErrors} premières erreurs sont détaillées ;
+ * {@code rejected} les compte toutes.
+ * </p>
+ */
+public class PatientImportReport {
+
+    /**
+     * Nombre de patients enregistrés.
+     */
+    private final long imported;
+
+    /**
+     * Nombre de lignes rejetées.
+     */
+    private final long rejected;
+
+    /**
+     * Détail des premières lignes rejetées.
+     */
+    private final List<RowError> errors;
+
+    /**
+     * Indique que des erreurs ont été omises de {@link #errors}.
+     */
+    private final boolean errorsTruncated;
+
+    /**
+     * @param imported nombre de patients enregistrés
+     * @param rejected nombre de lignes rejetées
+     * @param errors détail des premières lignes rejetées
+     * @param errorsTruncated vrai si des erreurs ont été omises
+     */
+    public PatientImportReport(long imported, long rejected, List<RowError> errors, boolean errorsTruncated) {
+        this.imported = imported;
+        this.rejected = rejected;
+        this.errors = errors;
+        this.errorsTruncated = errorsTruncated;
+    }
+
+    /**
+     * @return le nombre de patients enregistrés
+     */
+    public long getImported() { return imported; }
+
+    /**
+     * @return le nombre de lignes rejetées
+     */
+    public long getRejected() { return rejected; }
+
+    /**
+     * @return le détail des premières lignes rejetées
+     */
+    public List<RowError> getErrors() { return errors; }
+
+    /**
+     * @return vrai si des erreurs ont été omises du détail
+     */
+    public boolean isErrorsTruncated() { return errorsTruncated; }
+
+    /**
+     * Ligne rejetée et motif du rejet.
+     *
+     * @param line numéro de la ligne dans le fichier reçu (la première ligne vaut 1)
+     * @param message motif du rejet
+     */
+    public record RowError(long line, String message) {
+    }
+}
@@ -0,0 +1,45 @@
+package com.medilabo.patientservice.dto;
+
+import com.medilabo.patientservice.model.Patient;
+
+import java.util.List;
+
+/**
+ * Page de patients retournée par la pagination par curseur.
+ * <p>
+ * Le curseur {@code nextAfter} est l'identifiant du dernier patient de la page : il suffit de le
+ * repasser dans le paramètre {@code after} pour obtenir la page suivante. Il vaut {@code null}
+ * lorsque la dernière page est atteinte.
+ * </p>
+ */
+public class PatientPage {
+
+    /**
+     * Patients de la page, triés par identifiant croissant.
+     */
+    private final List<Patient> patients;
+
+    /**
+     * Curseur de la page suivante, ou {@code null} s'il n'y en a pas.
+     */
+    private final Long nextAfter;
+
+    /**
+     * @param patients patients de la page
+     * @param nextAfter curseur de la page suivante
+     */
+    public PatientPage(List<Patient> patients, Long nextAfter) {
+        this.patients = patients;
+        this.nextAfter = nextAfter;
+    }
+
+    /**
+     * @return les patients de la page
+     */
+    public List<Patient> getPatients() { return patients; }
+
+    /**
+     * @return le curseur de la page suivante, ou {@code null}
+     */
+    public Long getNextAfter() { return nextAfter; }
+}
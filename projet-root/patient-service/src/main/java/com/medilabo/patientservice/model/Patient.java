@@ -1,6 +1,9 @@
 package com.medilabo.patientservice.model;
 
 import jakarta.persistence.*;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
+
 import java.time.LocalDate;
 
 /**
@@ -8,16 +11,50 @@ import java.time.LocalDate;
  * <p>
  * Cette entité est persistée en base de données via JPA.
  * </p>
+ * <p>
+ * Les patients sont conservés dans le cache de second niveau (région {@value #CACHE_REGION}) :
+ * une lecture par identifiant ne sollicite la base qu'au premier accès. Les créations,
+ * modifications et suppressions effectuées via JPA mettent le cache à jour.
+ * </p>
+ * <p>
+ * Les identifiants sont réservés par blocs de {@value #ID_ALLOCATION_SIZE} dans la table
+ * {@value #ID_TABLE} (optimiseur « pooled » de Hibernate), ce qui permet de regrouper les
+ * insertions en lots JDBC, contrairement à une colonne auto-incrémentée.
+ * </p>
  */
 @Entity
+@Cacheable
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE, region = Patient.CACHE_REGION)
 public class Patient {
 
+    /**
+     * Région du cache de second niveau (dimensionnée dans <code>caffeine.conf</code>).
+     */
+    public static final String CACHE_REGION = "patients";
+
+    /**
+     * Table des générateurs d'identifiants.
+     */
+    public static final String ID_TABLE = "id_sequences";
+
+    /**
+     * Nom du générateur des identifiants de patients dans {@value #ID_TABLE}.
+     */
+    public static final String ID_SEQUENCE = "patient";
+
+    /**
+     * Nombre d'identifiants réservés à chaque lecture de {@value #ID_TABLE}.
+     */
+    public static final int ID_ALLOCATION_SIZE = 50;
+
     /**
      * Identifiant unique du patient.
-     * Généré automatiquement par la base de données.
+     * Généré par blocs à partir de la table {@value #ID_TABLE}.
      */
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.TABLE, generator = "patient_id")
+    @TableGenerator(name = "patient_id", table = ID_TABLE, pkColumnName = "sequence_name",
+            valueColumnName = "next_val", pkColumnValue = ID_SEQUENCE, allocationSize = ID_ALLOCATION_SIZE)
     private Long id;
 
     /**
@@ -1,7 +1,19 @@
 package com.medilabo.patientservice.repository;
 
+import com.medilabo.patientservice.dto.PatientIdRange;
 import com.medilabo.patientservice.model.Patient;
+import jakarta.persistence.QueryHint;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+
+import java.util.List;
+import java.util.stream.Stream;
+
+import static org.hibernate.jpa.HibernateHints.HINT_CACHEABLE;
+import static org.hibernate.jpa.HibernateHints.HINT_FETCH_SIZE;
+import static org.hibernate.jpa.HibernateHints.HINT_READ_ONLY;
 
 /**
  * Interface de repository pour l'accès aux données des {@link Patient}.
@@ -9,6 +21,57 @@ import org.springframework.data.jpa.repository.JpaRepository;
  * Étend {@link JpaRepository} pour fournir les opérations CRUD de base ainsi que la pagination
  * et le tri sur l'entité {@link Patient}.
  * </p>
+ * <p>
+ * Seules les pages de la pagination par curseur passent par le cache de requêtes Hibernate :
+ * seuls les identifiants résultants y sont conservés, les patients étant relus depuis le cache
+ * de second niveau. Toute écriture sur la table invalide ces résultats. La liste complète
+ * ({@code findAll}) et les recherches groupées ({@code findAllById}, dont chaque combinaison
+ * d'identifiants formerait une entrée distincte) n'y sont pas conservées : elles rempliraient
+ * le cache d'entrées volumineuses ou rarement relues.
+ * </p>
  */
 public interface PatientRepository extends JpaRepository<Patient, Long> {
+
+    /**
+     * Pagination par curseur : retourne les patients dont l'identifiant suit {@code id}.
+     * <p>
+     * La requête s'appuie sur la clé primaire, son coût ne dépend donc pas de la position
+     * de la page, contrairement à un {@code OFFSET}.
+     * </p>
+     *
+     * @param id identifiant du dernier patient déjà lu
+     * @param limit nombre maximal de patients à retourner
+     * @return les patients suivants, triés par identifiant croissant
+     */
+    @QueryHints(@QueryHint(name = HINT_CACHEABLE, value = "true"))
+    List<Patient> findByIdGreaterThanOrderByIdAsc(Long id, Limit limit);
+
+    /**
+     * Parcourt tous les patients par identifiant croissant, sans les charger en mémoire d'un coup.
+     * <p>
+     * Les lignes sont lues par lots de {@value #STREAM_FETCH_SIZE} via un curseur JDBC.
+     * Le flux doit être consommé dans une transaction puis fermé.
+     * </p>
+     *
+     * @return un flux de patients
+     */
+    @QueryHints({
+            @QueryHint(name = HINT_FETCH_SIZE, value = "" + STREAM_FETCH_SIZE),
+            @QueryHint(name = HINT_READ_ONLY, value = "true")
+    })
+    @Query("select p from Patient p order by p.id")
+    Stream<Patient> streamAllOrderedById();
+
+    /**
+     * Bornes et nombre des identifiants, lus sur l'index de la clé primaire.
+     *
+     * @return les bornes des identifiants (nulles si la table est vide)
+     */
+    @Query("select new com.medilabo.patientservice.dto.PatientIdRange(min(p.id), max(p.id), count(p)) from Patient p")
+    PatientIdRange findIdRange();
+
+    /**
+     * Nombre de lignes lues par aller-retour lors du parcours en flux.
+     */
+    int STREAM_FETCH_SIZE = 500;
 }
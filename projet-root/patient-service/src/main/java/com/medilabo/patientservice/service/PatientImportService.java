@@ -0,0 +1,419 @@
+package com.medilabo.patientservice.service;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+import com.medilabo.patientservice.dto.PatientImportReport;
+import com.medilabo.patientservice.dto.PatientImportReport.RowError;
+import com.medilabo.patientservice.model.Patient;
+import jakarta.persistence.EntityManager;
+import org.hibernate.CacheMode;
+import org.hibernate.Session;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.NestedExceptionUtils;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.util.unit.DataSize;
+
+import java.io.BufferedInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.time.format.DateTimeParseException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Import de patients en masse, au format CSV ou NDJSON.
+ * <p>
+ * Le fichier est lu ligne à ligne, sans être chargé en mémoire : chaque ligne est validée dès sa
+ * lecture, puis les patients valides sont enregistrés par lots de {@code batchSize} lignes, un lot
+ * par transaction, en lots JDBC (identifiants pré-alloués par la table {@value Patient#ID_TABLE}).
+ * Les patients importés ne sont pas placés dans le cache de second niveau. Une ligne plus longue
+ * que {@code maxLineBytes} n'est pas conservée en mémoire : elle est lue jusqu'au bout puis
+ * rejetée.
+ * </p>
+ * <p>
+ * Une ligne invalide est rejetée sans interrompre l'import. Si l'enregistrement d'un lot échoue,
+ * ses lignes sont réessayées une à une afin de n'écarter que les lignes fautives.
+ * </p>
+ */
+@Service
+public class PatientImportService {
+
+    private static final Logger log = LoggerFactory.getLogger(PatientImportService.class);
+
+    private final EntityManager entityManager;
+
+    private final TransactionTemplate transactionTemplate;
+
+    private final ObjectReader patientReader;
+
+    private final int batchSize;
+
+    private final int maxErrors;
+
+    private final long maxLineBytes;
+
+    /**
+     * @param entityManager contexte de persistance partagé
+     * @param transactionManager gestionnaire des transactions (une par lot)
+     * @param objectMapper lecture des lignes NDJSON
+     * @param batchSize nombre de lignes enregistrées par transaction et par lot JDBC
+     * @param maxErrors nombre maximal d'erreurs détaillées dans le bilan
+     * @param maxLineBytes taille maximale d'une ligne (en-tête compris)
+     */
+    public PatientImportService(EntityManager entityManager, PlatformTransactionManager transactionManager,
+                                ObjectMapper objectMapper,
+                                @Value("${medilabo.patient.import.batch-size:500}") int batchSize,
+                                @Value("${medilabo.patient.import.max-errors:1000}") int maxErrors,
+                                @Value("${medilabo.patient.import.max-line-bytes:64KB}") DataSize maxLineBytes) {
+        this.entityManager = entityManager;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.patientReader = objectMapper.readerFor(Patient.class);
+        this.batchSize = batchSize;
+        this.maxErrors = maxErrors;
+        this.maxLineBytes = maxLineBytes.toBytes();
+    }
+
+    /**
+     * Importe des patients au format CSV.
+     * <p>
+     * La première ligne est l'en-tête : elle nomme les colonnes ({@code prenom}, {@code nom},
+     * {@code dateNaissance}, {@code genre}, {@code adresse}, {@code telephone}), dans n'importe quel
+     * ordre. Le séparateur est la virgule, ou le point-virgule s'il est seul présent dans l'en-tête.
+     * Les dates sont au format ISO ({@code 1980-03-02}).
+     * </p>
+     *
+     * @param in contenu du fichier, en UTF-8
+     * @return le bilan de l'import
+     * @throws IOException si la lecture échoue
+     * @throws IllegalArgumentException si l'en-tête est absent, trop long ou incomplet
+     */
+    public PatientImportReport importCsv(InputStream in) throws IOException {
+        BufferedInputStream input = new BufferedInputStream(in);
+        ByteArrayOutputStream buffer = new ByteArrayOutputStream(1024);
+        Line status = readLine(input, buffer, maxLineBytes);
+        if (status == Line.END) {
+            throw new IllegalArgumentException("Fichier CSV vide : en-tête attendu");
+        }
+        if (status == Line.TOO_LONG) {
+            throw new IllegalArgumentException("En-tête CSV de plus de " + maxLineBytes + " octets");
+        }
+        String header = buffer.toString(StandardCharsets.UTF_8).replace("\uFEFF", "");
+        char separator = header.indexOf(',') < 0 && header.indexOf(';') >= 0 ? ';' : ',';
+        Map<String, Integer> columns = new HashMap<>();
+        List<String> names = splitCsv(header, separator);
+        for (int i = 0; i < names.size(); i++) {
+            columns.put(names.get(i).trim(), i);
+        }
+        for (String required : List.of("prenom", "nom", "dateNaissance", "genre")) {
+            if (!columns.containsKey(required)) {
+                throw new IllegalArgumentException("Colonne manquante dans l'en-tête CSV : " + required);
+            }
+        }
+        return importRows(input, buffer, 1, line -> {
+            List<String> fields = splitCsv(line, separator);
+            Patient patient = new Patient();
+            patient.setPrenom(field(fields, columns, "prenom"));
+            patient.setNom(field(fields, columns, "nom"));
+            patient.setGenre(field(fields, columns, "genre"));
+            patient.setAdresse(field(fields, columns, "adresse"));
+            patient.setTelephone(field(fields, columns, "telephone"));
+            String dateNaissance = field(fields, columns, "dateNaissance");
+            if (dateNaissance != null) {
+                try {
+                    patient.setDateNaissance(LocalDate.parse(dateNaissance));
+                } catch (DateTimeParseException e) {
+                    throw new IllegalArgumentException("Date de naissance invalide : " + dateNaissance);
+                }
+            }
+            return patient;
+        });
+    }
+
+    /**
+     * Importe des patients au format NDJSON (un objet {@link Patient} JSON par ligne).
+     * <p>
+     * Un éventuel identifiant fourni est ignoré.
+     * </p>
+     *
+     * @param in contenu du fichier, en UTF-8
+     * @return le bilan de l'import
+     * @throws IOException si la lecture échoue
+     */
+    public PatientImportReport importNdjson(InputStream in) throws IOException {
+        return importRows(new BufferedInputStream(in), new ByteArrayOutputStream(1024), 0, line -> {
+            Patient patient;
+            try {
+                patient = patientReader.readValue(line);
+            } catch (JsonProcessingException e) {
+                throw new IllegalArgumentException("JSON invalide : " + e.getOriginalMessage());
+            }
+            if (patient == null) {
+                throw new IllegalArgumentException("Objet patient attendu");
+            }
+            return patient;
+        });
+    }
+
+    /**
+     * Lit, valide et enregistre les lignes restantes du fichier.
+     *
+     * @param input flux positionné sur la première ligne de données
+     * @param buffer tampon de lecture des lignes
+     * @param linesRead nombre de lignes déjà lues (en-tête)
+     * @param parser conversion d'une ligne en patient
+     * @return le bilan de l'import
+     * @throws IOException si la lecture échoue
+     */
+    private PatientImportReport importRows(InputStream input, ByteArrayOutputStream buffer, long linesRead,
+                                           RowParser parser) throws IOException {
+        ImportState state = new ImportState();
+        List<Row> batch = new ArrayList<>(batchSize);
+        long lineNumber = linesRead;
+        Line status;
+        while ((status = readLine(input, buffer, maxLineBytes)) != Line.END) {
+            lineNumber++;
+            if (status == Line.TOO_LONG) {
+                state.reject(lineNumber, "Ligne de plus de " + maxLineBytes + " octets");
+                continue;
+            }
+            String line = buffer.toString(StandardCharsets.UTF_8);
+            if (line.isBlank()) {
+                continue;
+            }
+            try {
+                Patient patient = parser.parse(line);
+                validate(patient);
+                batch.add(new Row(lineNumber, patient));
+            } catch (IllegalArgumentException e) {
+                state.reject(lineNumber, e.getMessage());
+                continue;
+            }
+            if (batch.size() == batchSize) {
+                save(batch, state);
+                batch.clear();
+            }
+        }
+        if (!batch.isEmpty()) {
+            save(batch, state);
+        }
+        log.info("Import de patients terminé : {} importés, {} rejetés", state.imported, state.rejected);
+        return new PatientImportReport(state.imported, state.rejected, List.copyOf(state.errors),
+                state.rejected > state.errors.size());
+    }
+
+    /**
+     * Enregistre un lot en une transaction ; en cas d'échec, réessaie ses lignes une à une.
+     *
+     * @param rows lignes validées du lot
+     * @param state bilan en cours
+     */
+    private void save(List<Row> rows, ImportState state) {
+        try {
+            transactionTemplate.executeWithoutResult(status -> persist(rows));
+            state.imported += rows.size();
+            return;
+        } catch (RuntimeException e) {
+            log.warn("Échec de l'enregistrement d'un lot de {} patients, nouvel essai ligne par ligne : {}",
+                    rows.size(), e.getMessage());
+        }
+        for (Row row : rows) {
+            row.patient().setId(null);
+            try {
+                transactionTemplate.executeWithoutResult(status -> persist(List.of(row)));
+                state.imported++;
+            } catch (RuntimeException e) {
+                state.reject(row.line(), "Enregistrement impossible : "
+                        + NestedExceptionUtils.getMostSpecificCause(e).getMessage());
+            }
+        }
+    }
+
+    /**
+     * Persiste des patients dans la transaction courante ; les insertions sont regroupées
+     * en lots JDBC lors du commit.
+     *
+     * @param rows lignes à persister
+     */
+    private void persist(List<Row> rows) {
+        Session session = entityManager.unwrap(Session.class);
+        session.setJdbcBatchSize(batchSize);
+        session.setCacheMode(CacheMode.IGNORE);
+        for (Row row : rows) {
+            session.persist(row.patient());
+        }
+    }
+
+    /**
+     * Vérifie les champs obligatoires d'un patient et normalise son genre.
+     *
+     * @param patient patient lu
+     * @throws IllegalArgumentException si le patient est invalide
+     */
+    private static void validate(Patient patient) {
+        patient.setId(null);
+        if (patient.getPrenom() == null || patient.getPrenom().isBlank()) {
+            throw new IllegalArgumentException("Prénom manquant");
+        }
+        if (patient.getNom() == null || patient.getNom().isBlank()) {
+            throw new IllegalArgumentException("Nom manquant");
+        }
+        if (patient.getDateNaissance() == null) {
+            throw new IllegalArgumentException("Date de naissance manquante");
+        }
+        if (patient.getDateNaissance().isAfter(LocalDate.now())) {
+            throw new IllegalArgumentException("Date de naissance dans le futur : " + patient.getDateNaissance());
+        }
+        String genre = patient.getGenre() == null ? "" : patient.getGenre().trim().toUpperCase();
+        if (!genre.equals("M") && !genre.equals("F")) {
+            throw new IllegalArgumentException("Genre invalide (M ou F attendu) : " + patient.getGenre());
+        }
+        patient.setGenre(genre);
+    }
+
+    /**
+     * @param fields champs de la ligne
+     * @param columns position des colonnes
+     * @param name nom de la colonne
+     * @return la valeur de la colonne, sans espaces superflus, ou {@code null} si absente ou vide
+     */
+    private static String field(List<String> fields, Map<String, Integer> columns, String name) {
+        Integer index = columns.get(name);
+        if (index == null || index >= fields.size()) {
+            return null;
+        }
+        String value = fields.get(index).trim();
+        return value.isEmpty() ? null : value;
+    }
+
+    /**
+     * Découpe une ligne CSV ; les champs peuvent être entourés de guillemets ({@code ""} pour
+     * un guillemet littéral).
+     *
+     * @param line ligne CSV
+     * @param separator séparateur de champs
+     * @return les champs de la ligne
+     * @throws IllegalArgumentException si un guillemet n'est pas fermé
+     */
+    static List<String> splitCsv(String line, char separator) {
+        List<String> fields = new ArrayList<>();
+        StringBuilder field = new StringBuilder();
+        boolean quoted = false;
+        for (int i = 0; i < line.length(); i++) {
+            char c = line.charAt(i);
+            if (quoted) {
+                if (c != '"') {
+                    field.append(c);
+                } else if (i + 1 < line.length() && line.charAt(i + 1) == '"') {
+                    field.append('"');
+                    i++;
+                } else {
+                    quoted = false;
+                }
+            } else if (c == '"') {
+                quoted = true;
+            } else if (c == separator) {
+                fields.add(field.toString());
+                field.setLength(0);
+            } else {
+                field.append(c);
+            }
+        }
+        if (quoted) {
+            throw new IllegalArgumentException("Guillemet non fermé");
+        }
+        fields.add(field.toString());
+        return fields;
+    }
+
+    /**
+     * Lit une ligne du flux (sans le saut de ligne final, {@code \n} ou {@code \r\n}).
+     * <p>
+     * Au-delà de {@code maxBytes} octets, la suite de la ligne est lue sans être conservée,
+     * jusqu'au saut de ligne suivant.
+     * </p>
+     *
+     * @param in flux tamponné
+     * @param buffer reçoit la ligne lue
+     * @param maxBytes taille maximale d'une ligne
+     * @return l'issue de la lecture
+     * @throws IOException si la lecture échoue
+     */
+    private static Line readLine(InputStream in, ByteArrayOutputStream buffer, long maxBytes) throws IOException {
+        buffer.reset();
+        int b;
+        boolean pendingCr = false;
+        while ((b = in.read()) != -1 && b != '\n') {
+            if (pendingCr) {
+                buffer.write('\r');
+            }
+            pendingCr = b == '\r';
+            if (!pendingCr) {
+                buffer.write(b);
+            }
+            if (buffer.size() > maxBytes) {
+                while ((b = in.read()) != -1 && b != '\n') {
+                    // Reste de la ligne ignoré
+                }
+                buffer.reset();
+                return Line.TOO_LONG;
+            }
+        }
+        return b != -1 || buffer.size() > 0 || pendingCr ? Line.READ : Line.END;
+    }
+
+    /**
+     * Issue de la lecture d'une ligne du flux.
+     */
+    private enum Line {
+        READ, TOO_LONG, END
+    }
+
+    /**
+     * Conversion d'une ligne du fichier en patient.
+     */
+    @FunctionalInterface
+    private interface RowParser {
+
+        /**
+         * @param line ligne non vide
+         * @return le patient lu
+         * @throws IllegalArgumentException si la ligne est illisible
+         */
+        Patient parse(String line);
+    }
+
+    /**
+     * Patient validé et numéro de sa ligne dans le fichier.
+     */
+    private record Row(long line, Patient patient) {
+    }
+
+    /**
+     * Compteurs et erreurs de l'import en cours.
+     */
+    private final class ImportState {
+
+        private long imported;
+
+        private long rejected;
+
+        private final List<RowError> errors = new ArrayList<>();
+
+        void reject(long line, String message) {
+            rejected++;
+            if (errors.size() < maxErrors) {
+                errors.add(new RowError(line, message));
+            }
+        }
+    }
+}
@@ -1,11 +1,27 @@
 package com.medilabo.patientservice.service;
 
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.medilabo.common.risk.RiskInvalidationNotifier;
+import com.medilabo.patientservice.dto.PatientIdRange;
+import com.medilabo.patientservice.dto.PatientPage;
 import com.medilabo.patientservice.model.Patient;
 import com.medilabo.patientservice.repository.PatientRepository;
+import jakarta.persistence.EntityManager;
+import org.hibernate.CacheMode;
+import org.hibernate.Session;
+import org.springframework.data.domain.Limit;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.Iterator;
 import java.util.List;
 import java.util.Optional;
+import java.util.stream.Stream;
 
 /**
  * Service métier pour la gestion des {@link Patient}.
@@ -17,10 +33,32 @@ import java.util.Optional;
 @Service
 public class PatientService {
 
+    /**
+     * Taille de page appliquée lorsque le client n'en précise pas.
+     */
+    public static final int DEFAULT_PAGE_SIZE = 50;
+
+    /**
+     * Taille de page maximale acceptée.
+     */
+    public static final int MAX_PAGE_SIZE = 500;
+
     private final PatientRepository patientRepository;
 
-    public PatientService(PatientRepository patientRepository) {
+    private final RiskInvalidationNotifier riskInvalidationNotifier;
+
+    private final EntityManager entityManager;
+
+    private final ObjectWriter exportWriter;
+
+    public PatientService(PatientRepository patientRepository, RiskInvalidationNotifier riskInvalidationNotifier,
+                          EntityManager entityManager, ObjectMapper objectMapper) {
         this.patientRepository = patientRepository;
+        this.riskInvalidationNotifier = riskInvalidationNotifier;
+        this.entityManager = entityManager;
+        this.exportWriter = objectMapper.writerFor(Patient.class)
+                .withRootValueSeparator("")
+                .without(SerializationFeature.FLUSH_AFTER_WRITE_VALUE);
     }
 
     /**
@@ -32,6 +70,75 @@ public class PatientService {
         return patientRepository.findAll();
     }
 
+    /**
+     * Récupère une page de patients par pagination par curseur (keyset).
+     * <p>
+     * Une ligne de plus que demandé est lue pour savoir s'il existe une page suivante,
+     * sans requête de comptage.
+     * </p>
+     *
+     * @param after identifiant du dernier patient de la page précédente ({@code null} pour la première page)
+     * @param limit nombre de patients souhaité, ramené entre 1 et {@value #MAX_PAGE_SIZE}
+     * @return la page de patients et le curseur de la page suivante
+     */
+    public PatientPage getPage(Long after, int limit) {
+        int size = Math.clamp(limit, 1, MAX_PAGE_SIZE);
+        List<Patient> patients = patientRepository.findByIdGreaterThanOrderByIdAsc(
+                after == null ? 0L : after, Limit.of(size + 1));
+        if (patients.size() <= size) {
+            return new PatientPage(patients, null);
+        }
+        List<Patient> page = patients.subList(0, size);
+        return new PatientPage(List.copyOf(page), page.get(size - 1).getId());
+    }
+
+    /**
+     * Retourne les bornes des identifiants de patients, pour découper la population en plages
+     * parcourues ensuite par {@link #getPage(Long, int)}.
+     *
+     * @return les bornes et le nombre des identifiants
+     */
+    public PatientIdRange getIdRange() {
+        return patientRepository.findIdRange();
+    }
+
+    /**
+     * Exporte tous les patients au format NDJSON (un objet JSON par ligne).
+     * <p>
+     * Les patients sont lus via un curseur JDBC et écrits au fil de l'eau ; chaque entité est
+     * détachée du contexte de persistance une fois écrite, si bien que la mémoire consommée
+     * reste constante quel que soit le nombre de patients.
+     * </p>
+     * <p>
+     * Le cache de second niveau est ignoré pendant l'export ({@link CacheMode#IGNORE}) : un export
+     * complet n'évince pas de la région <code>patients</code> les fiches consultées par les
+     * utilisateurs. Le mode est porté par la session, car les entités d'un flux sont chargées
+     * au fil du parcours, après l'exécution de la requête.
+     * </p>
+     *
+     * @param out flux de sortie (non fermé par cette méthode)
+     * @return le nombre de patients exportés
+     * @throws IOException si l'écriture échoue
+     */
+    @Transactional(readOnly = true)
+    public long exportAll(OutputStream out) throws IOException {
+        long count = 0;
+        entityManager.unwrap(Session.class).setCacheMode(CacheMode.IGNORE);
+        try (Stream<Patient> patients = patientRepository.streamAllOrderedById();
+             JsonGenerator generator = exportWriter.createGenerator(out)) {
+            generator.disable(JsonGenerator.Feature.AUTO_CLOSE_TARGET);
+            Iterator<Patient> iterator = patients.iterator();
+            while (iterator.hasNext()) {
+                Patient patient = iterator.next();
+                exportWriter.writeValue(generator, patient);
+                generator.writeRaw('\n');
+                entityManager.detach(patient);
+                count++;
+            }
+        }
+        return count;
+    }
+
     /**
      * Recherche un patient par son identifiant.
      *
@@ -42,6 +149,16 @@ public class PatientService {
         return patientRepository.findById(id);
     }
 
+    /**
+     * Recherche plusieurs patients en une seule requête.
+     *
+     * @param ids identifiants des patients
+     * @return les patients trouvés (les identifiants inconnus sont ignorés)
+     */
+    public List<Patient> getByIds(List<Long> ids) {
+        return patientRepository.findAllById(ids);
+    }
+
     /**
      * Crée un nouveau patient.
      *
@@ -54,6 +171,10 @@ public class PatientService {
 
     /**
      * Met à jour les informations d'un patient existant.
+     * <p>
+     * L'évaluation du risque en cache est invalidée à chaque mise à jour : elle reprend le nom
+     * et le prénom du patient, en plus de sa date de naissance et de son genre.
+     * </p>
      *
      * @param id identifiant du patient
      * @param updatedPatient informations à mettre à jour
@@ -67,7 +188,9 @@ public class PatientService {
             patient.setGenre(updatedPatient.getGenre());
             patient.setAdresse(updatedPatient.getAdresse());
             patient.setTelephone(updatedPatient.getTelephone());
-            return patientRepository.save(patient);
+            Patient saved = patientRepository.save(patient);
+            riskInvalidationNotifier.patientChanged(id);
+            return saved;
         });
     }
 
@@ -80,6 +203,7 @@ public class PatientService {
     public boolean delete(Long id) {
         if (patientRepository.existsById(id)) {
             patientRepository.deleteById(id);
+            riskInvalidationNotifier.patientDeleted(id);
             return true;
         }
         return false;
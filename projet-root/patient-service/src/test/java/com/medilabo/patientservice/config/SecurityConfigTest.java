@@ -0,0 +1,36 @@
+package com.medilabo.patientservice.config;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.servlet.MockMvc;
+
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@SpringBootTest(properties = "medilabo.security.identity-header.required=true")
+@AutoConfigureMockMvc
+@ActiveProfiles("test")
+class SecurityConfigTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Test
+    void patients_requireIdentityForwardedByGateway() throws Exception {
+        mockMvc.perform(get("/patients"))
+                .andExpect(status().isForbidden());
+    }
+
+    @Test
+    void patients_acceptIdentityHeadersWithoutSession() throws Exception {
+        mockMvc.perform(get("/patients")
+                        .header(SecurityConfig.USER_HEADER, "alice")
+                        .header(SecurityConfig.ROLES_HEADER, "ROLE_PRATICIEN"))
+                .andExpect(status().isOk())
+                .andExpect(header().doesNotExist("Set-Cookie"));
+    }
+}
@@ -11,6 +11,7 @@ import org.springframework.boot.test.context.SpringBootTest;
 import org.springframework.http.MediaType;
 import org.springframework.test.context.ActiveProfiles;
 import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
 
 import java.time.LocalDate;
 
@@ -54,6 +55,51 @@ class PatientControllerTest {
                 .andExpect(jsonPath("$[0].nom").value("Durand"));
     }
 
+    @Test
+    void testGetPage_followsCursor() throws Exception {
+        Patient second = new Patient();
+        second.setPrenom("Bruno");
+        second.setNom("Martin");
+        second = service.create(second);
+
+        mockMvc.perform(get("/patients").param("limit", "1"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.patients.length()").value(1))
+                .andExpect(jsonPath("$.patients[0].nom").value("Durand"))
+                .andExpect(jsonPath("$.nextAfter").value(testPatient.getId()));
+
+        mockMvc.perform(get("/patients").param("after", testPatient.getId().toString()).param("limit", "1"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.patients[0].id").value(second.getId()))
+                .andExpect(jsonPath("$.nextAfter").doesNotExist());
+    }
+
+    @Test
+    void testGetIdRange() throws Exception {
+        Patient second = new Patient();
+        second.setPrenom("Bruno");
+        second.setNom("Martin");
+        second = service.create(second);
+
+        mockMvc.perform(get("/patients/id-range"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.minId").value(testPatient.getId()))
+                .andExpect(jsonPath("$.maxId").value(second.getId()))
+                .andExpect(jsonPath("$.count").value(2));
+    }
+
+    @Test
+    void testExport_streamsNdjson() throws Exception {
+        MvcResult result = mockMvc.perform(get("/patients/export"))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+
+        mockMvc.perform(asyncDispatch(result))
+                .andExpect(status().isOk())
+                .andExpect(content().contentTypeCompatibleWith(MediaType.APPLICATION_NDJSON))
+                .andExpect(content().string(org.hamcrest.Matchers.containsString("\"nom\":\"Durand\"")));
+    }
+
     @Test
     void testGetOne_found() throws Exception {
         mockMvc.perform(get("/patients/" + testPatient.getId()))
@@ -67,6 +113,16 @@ class PatientControllerTest {
                 .andExpect(status().isNotFound());
     }
 
+    @Test
+    void testGetBatch() throws Exception {
+        mockMvc.perform(post("/patients/batch")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content("[" + testPatient.getId() + ", 9999]"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.length()").value(1))
+                .andExpect(jsonPath("$[0].nom").value("Durand"));
+    }
+
     @Test
     void testCreate() throws Exception {
         Patient newPatient = new Patient();
@@ -114,4 +170,23 @@ class PatientControllerTest {
         mockMvc.perform(delete("/patients/9999"))
                 .andExpect(status().isNotFound());
     }
-}
\ No newline at end of file
+
+    @Test
+    void testBulkImportCsv() throws Exception {
+        mockMvc.perform(post("/patients/bulk")
+                        .contentType("text/csv")
+                        .content("prenom,nom,dateNaissance,genre\nPaul,Martin,1980-03-02,M\nJeanne,,1990-01-01,F\n"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.imported").value(1))
+                .andExpect(jsonPath("$.rejected").value(1))
+                .andExpect(jsonPath("$.errors[0].line").value(3));
+    }
+
+    @Test
+    void testBulkImportCsv_invalidHeader() throws Exception {
+        mockMvc.perform(post("/patients/bulk")
+                        .contentType("text/csv")
+                        .content("nom\nMartin\n"))
+                .andExpect(status().isBadRequest());
+    }
+}
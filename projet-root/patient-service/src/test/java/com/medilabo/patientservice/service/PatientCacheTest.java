@@ -0,0 +1,108 @@
+package com.medilabo.patientservice.service;
+
+import com.medilabo.patientservice.model.Patient;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.io.ByteArrayOutputStream;
+import java.time.LocalDate;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@SpringBootTest
+@ActiveProfiles("test")
+class PatientCacheTest {
+
+    @Autowired
+    private PatientService service;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    private Statistics statistics;
+
+    private Patient patient;
+
+    @BeforeEach
+    void setUp() {
+        service.getAll().forEach(p -> service.delete(p.getId()));
+        statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        Patient newPatient = new Patient();
+        newPatient.setPrenom("Alice");
+        newPatient.setNom("Durand");
+        newPatient.setGenre("F");
+        newPatient.setDateNaissance(LocalDate.of(1980, 3, 2));
+        patient = service.create(newPatient);
+        statistics.clear();
+    }
+
+    @Test
+    void getById_isServedFromSecondLevelCacheAfterFirstRead() {
+        service.getById(patient.getId());
+        statistics.clear();
+
+        assertThat(service.getById(patient.getId())).isPresent();
+        assertThat(statistics.getSecondLevelCacheHitCount()).isEqualTo(1);
+        assertThat(statistics.getPrepareStatementCount()).isZero();
+    }
+
+    @Test
+    void update_refreshesCachedPatient() {
+        Patient update = new Patient();
+        update.setPrenom("Alice");
+        update.setNom("Martin");
+        update.setGenre("F");
+        update.setDateNaissance(LocalDate.of(1980, 3, 2));
+        service.update(patient.getId(), update);
+        statistics.clear();
+
+        assertThat(service.getById(patient.getId())).get().extracting(Patient::getNom).isEqualTo("Martin");
+        assertThat(statistics.getPrepareStatementCount()).isZero();
+    }
+
+    @Test
+    void delete_evictsCachedPatient() {
+        service.delete(patient.getId());
+
+        assertThat(service.getById(patient.getId())).isEmpty();
+    }
+
+    @Test
+    void exportAll_bypassesSecondLevelCache() throws Exception {
+        entityManagerFactory.getCache().evictAll();
+        statistics.clear();
+
+        assertThat(service.exportAll(new ByteArrayOutputStream())).isEqualTo(1);
+        assertThat(statistics.getSecondLevelCachePutCount()).isZero();
+        assertThat(entityManagerFactory.getCache().contains(Patient.class, patient.getId())).isFalse();
+    }
+
+    @Test
+    void listQueries_useQueryCacheUntilTableChanges() {
+        service.getPage(null, 10);
+        service.getPage(null, 10);
+        assertThat(statistics.getQueryCacheHitCount()).isEqualTo(1);
+
+        Patient other = new Patient();
+        other.setNom("Petit");
+        service.create(other);
+
+        assertThat(service.getPage(null, 10).getPatients()).hasSize(2);
+        assertThat(statistics.getQueryCacheHitCount()).isEqualTo(1);
+    }
+
+    @Test
+    void fullListAndBatchLookups_bypassQueryCache() {
+        service.getAll();
+        service.getByIds(List.of(patient.getId()));
+
+        assertThat(statistics.getQueryCachePutCount()).isZero();
+    }
+}
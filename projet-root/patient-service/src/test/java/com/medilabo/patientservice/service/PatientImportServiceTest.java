@@ -0,0 +1,110 @@
+package com.medilabo.patientservice.service;
+
+import com.medilabo.patientservice.dto.PatientImportReport;
+import com.medilabo.patientservice.dto.PatientImportReport.RowError;
+import com.medilabo.patientservice.model.Patient;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.assertj.core.api.Assertions.tuple;
+
+@SpringBootTest(properties = {
+        "medilabo.patient.import.batch-size=2",
+        "medilabo.patient.import.max-errors=2",
+        "medilabo.patient.import.max-line-bytes=200B"
+})
+@ActiveProfiles("test")
+class PatientImportServiceTest {
+
+    @Autowired
+    private PatientImportService importService;
+
+    @Autowired
+    private PatientService patientService;
+
+    @BeforeEach
+    void setUp() {
+        patientService.getAll().forEach(p -> patientService.delete(p.getId()));
+    }
+
+    @Test
+    void importCsv_savesValidRowsAndReportsRejectedLines() throws IOException {
+        PatientImportReport report = importService.importCsv(stream("""
+                nom;prenom;dateNaissance;genre;adresse
+                Durand;Alice;1980-03-02;f;"12 rue ""Haute"";Paris"
+                Martin;Paul;02/03/1980;M;
+                ;Jeanne;1990-01-01;F;
+
+                Petit;Louis;1975-06-30;M;
+                Moreau;Emma;1999-12-31;X;
+                Bernard;Léa;2001-07-14;F;
+                """));
+
+        assertThat(report.getImported()).isEqualTo(3);
+        assertThat(report.getRejected()).isEqualTo(3);
+        assertThat(report.getErrors()).extracting(RowError::line).containsExactly(3L, 4L);
+        assertThat(report.isErrorsTruncated()).isTrue();
+        assertThat(patientService.getAll())
+                .extracting(Patient::getNom, Patient::getGenre, Patient::getAdresse)
+                .contains(tuple("Durand", "F", "12 rue \"Haute\";Paris"));
+    }
+
+    @Test
+    void importCsv_missingRequiredColumn_isRefused() {
+        assertThatThrownBy(() -> importService.importCsv(stream("nom,prenom,genre\nDurand,Alice,F\n")))
+                .isInstanceOf(IllegalArgumentException.class)
+                .hasMessageContaining("dateNaissance");
+    }
+
+    @Test
+    void importNdjson_rejectsOverlongLineWithoutStoppingImport() throws IOException {
+        PatientImportReport report = importService.importNdjson(stream(
+                "{\"nom\":\"Durand\",\"prenom\":\"Alice\",\"genre\":\"F\",\"dateNaissance\":\"1980-03-02\"}\n"
+                        + "{\"nom\":\"" + "x".repeat(300) + "\"}\r\n"
+                        + "{\"nom\":\"Petit\",\"prenom\":\"Louis\",\"genre\":\"M\",\"dateNaissance\":\"1975-06-30\"}\n"));
+
+        assertThat(report.getImported()).isEqualTo(2);
+        assertThat(report.getErrors()).extracting(RowError::line, RowError::message)
+                .containsExactly(tuple(2L, "Ligne de plus de 200 octets"));
+    }
+
+    @Test
+    void importNdjson_ignoresSuppliedIdsAndRejectsMalformedLines() throws IOException {
+        PatientImportReport report = importService.importNdjson(stream("""
+                {"id":999,"nom":"Durand","prenom":"Alice","genre":"F","dateNaissance":"1980-03-02"}
+                {"nom":"Martin",
+                {"nom":"Petit","prenom":"Louis","genre":"M","dateNaissance":"1975-06-30"}
+                """));
+
+        assertThat(report.getImported()).isEqualTo(2);
+        assertThat(report.getErrors()).extracting(RowError::line).containsExactly(2L);
+        assertThat(patientService.getAll()).extracting(Patient::getId).doesNotContain(999L);
+    }
+
+    @Test
+    void failingBatch_isRetriedRowByRowSoOnlyFaultyRowIsRejected() throws IOException {
+        String tooLong = "x".repeat(300);
+        PatientImportReport report = importService.importNdjson(stream("""
+                {"nom":"Durand","prenom":"Alice","genre":"F","dateNaissance":"1980-03-02","adresse":"%s"}
+                {"nom":"Petit","prenom":"Louis","genre":"M","dateNaissance":"1975-06-30"}
+                """.formatted(tooLong)));
+
+        assertThat(report.getImported()).isEqualTo(1);
+        assertThat(report.getErrors()).extracting(RowError::line).containsExactly(1L);
+        assertThat(patientService.getAll()).extracting(Patient::getNom).containsExactly("Petit");
+    }
+
+    private static InputStream stream(String content) {
+        return new ByteArrayInputStream(content.getBytes(StandardCharsets.UTF_8));
+    }
+}
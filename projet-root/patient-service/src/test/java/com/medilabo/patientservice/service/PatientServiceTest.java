@@ -1,16 +1,29 @@
 package com.medilabo.patientservice.service;
 
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import com.medilabo.common.risk.RiskInvalidationNotifier;
+import com.medilabo.patientservice.dto.PatientPage;
 import com.medilabo.patientservice.model.Patient;
 import com.medilabo.patientservice.repository.PatientRepository;
+import org.hibernate.CacheMode;
+import org.hibernate.Session;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
+import org.mockito.Spy;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.domain.Limit;
 
+import jakarta.persistence.EntityManager;
+
+import java.io.ByteArrayOutputStream;
+import java.nio.charset.StandardCharsets;
 import java.time.LocalDate;
 import java.util.List;
 import java.util.Optional;
+import java.util.stream.Stream;
 
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.mockito.Mockito.*;
@@ -21,6 +34,15 @@ class PatientServiceTest {
     @Mock
     private PatientRepository repository;
 
+    @Mock
+    private RiskInvalidationNotifier riskInvalidationNotifier;
+
+    @Mock
+    private EntityManager entityManager;
+
+    @Spy
+    private ObjectMapper objectMapper = new ObjectMapper().registerModule(new JavaTimeModule());
+
     @InjectMocks
     private PatientService service;
 
@@ -34,6 +56,48 @@ class PatientServiceTest {
         verify(repository).findAll();
     }
 
+    @Test
+    void getPage_returnsCursorWhenMoreRowsExist() {
+        when(repository.findByIdGreaterThanOrderByIdAsc(10L, Limit.of(3))).thenReturn(List.of(
+                patient(11L), patient(12L), patient(13L)));
+
+        PatientPage page = service.getPage(10L, 2);
+
+        assertThat(page.getPatients()).extracting(Patient::getId).containsExactly(11L, 12L);
+        assertThat(page.getNextAfter()).isEqualTo(12L);
+    }
+
+    @Test
+    void getPage_lastPageHasNoCursorAndLimitIsCapped() {
+        when(repository.findByIdGreaterThanOrderByIdAsc(0L, Limit.of(PatientService.MAX_PAGE_SIZE + 1)))
+                .thenReturn(List.of(patient(1L)));
+
+        PatientPage page = service.getPage(null, 100_000);
+
+        assertThat(page.getPatients()).hasSize(1);
+        assertThat(page.getNextAfter()).isNull();
+    }
+
+    @Test
+    void exportAll_writesOneLinePerPatientAndDetachesEntities() throws Exception {
+        Patient first = patient(1L);
+        Patient second = patient(2L);
+        Session session = mock(Session.class);
+        when(entityManager.unwrap(Session.class)).thenReturn(session);
+        when(repository.streamAllOrderedById()).thenReturn(Stream.of(first, second));
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+
+        long count = service.exportAll(out);
+
+        String[] lines = out.toString(StandardCharsets.UTF_8).split("\n");
+        assertThat(count).isEqualTo(2);
+        assertThat(lines).hasSize(2);
+        assertThat(lines[1]).contains("\"id\":2");
+        verify(entityManager).detach(first);
+        verify(entityManager).detach(second);
+        verify(session).setCacheMode(CacheMode.IGNORE);
+    }
+
     @Test
     void getById_found() {
         Patient patient = new Patient();
@@ -55,6 +119,17 @@ class PatientServiceTest {
         verify(repository).findById(1L);
     }
 
+    @Test
+    void getByIds_usesSingleQuery() {
+        List<Long> ids = List.of(1L, 2L);
+        when(repository.findAllById(ids)).thenReturn(List.of(new Patient(), new Patient()));
+
+        List<Patient> result = service.getByIds(ids);
+
+        assertThat(result).hasSize(2);
+        verify(repository).findAllById(ids);
+    }
+
     @Test
     void create_savesPatient() {
         Patient patient = new Patient();
@@ -87,6 +162,27 @@ class PatientServiceTest {
         assertThat(result).isPresent();
         assertThat(result.get().getPrenom()).isEqualTo("Bob");
         verify(repository).save(existing);
+        verify(riskInvalidationNotifier).patientChanged(1L);
+    }
+
+    @Test
+    void update_withoutRiskFieldChange_stillInvalidatesCachedRisk() {
+        Patient existing = new Patient();
+        existing.setId(1L);
+        existing.setNom("Martin");
+        existing.setGenre("F");
+        existing.setDateNaissance(LocalDate.of(1980, 3, 2));
+        Patient update = new Patient();
+        update.setNom("Durand");
+        update.setGenre("F");
+        update.setDateNaissance(LocalDate.of(1980, 3, 2));
+
+        when(repository.findById(1L)).thenReturn(Optional.of(existing));
+        when(repository.save(existing)).thenAnswer(invocation -> invocation.getArgument(0));
+
+        service.update(1L, update);
+
+        verify(riskInvalidationNotifier).patientChanged(1L);
     }
 
     @Test
@@ -108,6 +204,7 @@ class PatientServiceTest {
 
         assertThat(result).isTrue();
         verify(repository).deleteById(1L);
+        verify(riskInvalidationNotifier).patientDeleted(1L);
     }
 
     @Test
@@ -119,4 +216,11 @@ class PatientServiceTest {
         assertThat(result).isFalse();
         verify(repository, never()).deleteById(anyLong());
     }
-}
\ No newline at end of file
+
+    private static Patient patient(Long id) {
+        Patient patient = new Patient();
+        patient.setId(id);
+        patient.setNom("Patient " + id);
+        return patient;
+    }
+}
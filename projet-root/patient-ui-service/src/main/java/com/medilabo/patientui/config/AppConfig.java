@@ -1,9 +1,20 @@
 package com.medilabo.patientui.config;
 
+import com.medilabo.common.http.PooledHttpClientConfig;
+import com.medilabo.patientui.security.GatewayTokenInterceptor;
+import io.micrometer.context.ContextExecutorService;
+import io.micrometer.context.ContextSnapshotFactory;
+import org.apache.hc.client5.http.impl.classic.CloseableHttpClient;
+import org.springframework.boot.web.client.RestTemplateBuilder;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Import;
+import org.springframework.http.client.HttpComponentsClientHttpRequestFactory;
 import org.springframework.web.client.RestTemplate;
 
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
 /**
  * Classe de configuration de l'application Patient UI Service.
  * <p>
@@ -12,16 +23,46 @@ import org.springframework.web.client.RestTemplate;
  * </p>
  */
 @Configuration
+@Import(PooledHttpClientConfig.class)
 public class AppConfig {
 
     /**
      * Déclare un bean {@link RestTemplate} pour permettre la communication avec les microservices
      * comme patient-service, note-service ou risk-assessment-service.
+     * <p>
+     * Ce bean est partagé par tous les services de l’interface ; il s’appuie sur le pool
+     * de connexions de {@link PooledHttpClientConfig} (module medilabo-common). Chaque appel porte
+     * le jeton d’accès à la gateway de l’utilisateur connecté ({@link GatewayTokenInterceptor}).
+     * </p>
      *
+     * @param builder le builder fourni par Spring Boot (convertisseurs, observations)
+     * @param httpClient le client HTTP à connexions mutualisées
+     * @param gatewayTokenInterceptor ajout du jeton de l’utilisateur
      * @return une instance de {@link RestTemplate}
      */
     @Bean
-    public RestTemplate restTemplate() {
-        return new RestTemplate();
+    public RestTemplate restTemplate(RestTemplateBuilder builder, CloseableHttpClient httpClient,
+                                     GatewayTokenInterceptor gatewayTokenInterceptor) {
+        return builder
+                .requestFactory(() -> new HttpComponentsClientHttpRequestFactory(httpClient))
+                .additionalInterceptors(gatewayTokenInterceptor)
+                .build();
+    }
+
+    /**
+     * Déclare l’exécuteur à threads virtuels utilisé pour assembler la liste des patients
+     * (appels parallèles vers note-service et risk-assessment-service).
+     * <p>
+     * Les tâches reprennent le contexte du thread appelant, pour que leurs appels HTTP
+     * restent rattachés à la trace de la page demandée et portent le jeton de l’utilisateur
+     * (contexte de sécurité).
+     * </p>
+     *
+     * @return un {@link ExecutorService} à threads virtuels
+     */
+    @Bean(destroyMethod = "close")
+    public ExecutorService overviewExecutor() {
+        return ContextExecutorService.wrap(Executors.newVirtualThreadPerTaskExecutor(),
+                ContextSnapshotFactory.builder().build());
     }
 }
@@ -1,11 +1,30 @@
 package com.medilabo.patientui.config;
 
+import com.medilabo.patientui.security.CachingPasswordEncoder;
+import com.medilabo.patientui.security.GatewayAuthentication;
+import com.medilabo.patientui.security.GatewayTokenAuthenticationProvider;
+import com.medilabo.patientui.security.GatewayTokenCookie;
+import com.medilabo.patientui.security.GatewayTokenFilter;
+import com.medilabo.patientui.security.GatewayTokenService;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.security.authentication.AuthenticationProvider;
+import org.springframework.security.authentication.dao.DaoAuthenticationProvider;
 import org.springframework.security.config.annotation.web.builders.HttpSecurity;
+import org.springframework.security.config.http.SessionCreationPolicy;
+import org.springframework.security.core.userdetails.UserDetailsService;
 import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
 import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.security.web.SecurityFilterChain;
+import org.springframework.security.web.authentication.AnonymousAuthenticationFilter;
+import org.springframework.security.web.authentication.SimpleUrlAuthenticationFailureHandler;
+import org.springframework.security.web.authentication.SimpleUrlAuthenticationSuccessHandler;
+import org.springframework.security.web.context.RequestAttributeSecurityContextRepository;
+import org.springframework.security.web.csrf.CookieCsrfTokenRepository;
+import org.springframework.security.web.savedrequest.NullRequestCache;
+
+import java.time.Duration;
 
 /**
  * Configuration de la sécurité pour le microservice patient-ui.
@@ -13,6 +32,12 @@ import org.springframework.security.web.SecurityFilterChain;
  * <p>Cette configuration définit les règles d'authentification et d'autorisation
  * pour les utilisateurs de l'application, ainsi que la gestion du formulaire de login.
  * La protection CSRF est activée par défaut pour protéger contre les attaques CSRF.</p>
+ *
+ * <p>À la connexion, les identifiants de l'utilisateur sont aussi échangés contre un jeton
+ * d'accès à la gateway ({@link GatewayTokenService}), confié au navigateur dans un cookie
+ * ({@link GatewayTokenCookie}) et joint ensuite à chaque appel vers les microservices.
+ * L'interface ne crée aucune session HTTP : chaque instance reconstruit l'utilisateur à partir
+ * du jeton, sans affinité de session entre le navigateur et une instance.</p>
  */
 @Configuration
 public class SecurityConfig {
@@ -26,17 +51,32 @@ public class SecurityConfig {
      *     <li>Les URL sécurisées (patients, notes, risk) nécessitent un rôle ORGANISATEUR ou PRATICIEN.</li>
      *     <li>Toutes les autres requêtes nécessitent une authentification.</li>
      * </ul>
-     * Le formulaire de connexion personnalisé est configuré, ainsi que la gestion des sessions et déconnexions.
+     * Le formulaire de connexion personnalisé dépose le jeton d'accès à la gateway dans un cookie ;
+     * la déconnexion le supprime. Aucune session HTTP n'est créée : ni contexte de sécurité, ni
+     * requête mémorisée avant connexion, ni message d'erreur de connexion.
+     * <br/>
+     * La protection CSRF reste activée, son jeton étant conservé dans un cookie plutôt qu'en session.
      * <br/>
-     * La protection CSRF est activée par défaut et ne doit pas être désactivée pour assurer la sécurité des formulaires.</p>
+     * Chaque requête est authentifiée par le jeton qu'elle présente ; un jeton expiré renvoie vers
+     * la connexion ({@link GatewayTokenFilter}).</p>
      *
      * @param http l'objet HttpSecurity à configurer
+     * @param gatewayTokenService vérification des jetons d'accès à la gateway
      * @return la chaîne de filtres de sécurité configurée
      * @throws Exception en cas d'erreur lors de la configuration
      */
     @Bean
-    public SecurityFilterChain filterChain(HttpSecurity http) throws Exception {
+    public SecurityFilterChain filterChain(HttpSecurity http, GatewayTokenService gatewayTokenService) throws Exception {
+        SimpleUrlAuthenticationSuccessHandler successHandler = new SimpleUrlAuthenticationSuccessHandler("/patients");
+        successHandler.setAlwaysUseDefaultTargetUrl(true);
+        SimpleUrlAuthenticationFailureHandler failureHandler = new SimpleUrlAuthenticationFailureHandler("/login?error");
+        failureHandler.setAllowSessionCreation(false);
+
         http
+            .sessionManagement(session -> session.sessionCreationPolicy(SessionCreationPolicy.STATELESS))
+            .securityContext(context -> context.securityContextRepository(new RequestAttributeSecurityContextRepository()))
+            .requestCache(cache -> cache.requestCache(new NullRequestCache()))
+            .csrf(csrf -> csrf.csrfTokenRepository(new CookieCsrfTokenRepository()))
             .authorizeHttpRequests(auth -> auth
                 .requestMatchers("/css/**", "/js/**", "/images/**", "/register", "/login").permitAll()
                 .requestMatchers("/patients/**", "/notes/**","/risk/**").hasAnyRole("ORGANISATEUR", "PRATICIEN")
@@ -44,28 +84,60 @@ public class SecurityConfig {
             )
             .formLogin(form -> form
                 .loginPage("/login")
-                .defaultSuccessUrl("/patients", true)
+                .successHandler((request, response, authentication) -> {
+                    if (authentication instanceof GatewayAuthentication gatewayAuthentication) {
+                        GatewayTokenCookie.write(request, response, gatewayAuthentication);
+                    }
+                    successHandler.onAuthenticationSuccess(request, response, authentication);
+                })
+                .failureHandler(failureHandler)
                 .permitAll()
             )
             .logout(logout -> logout
+                .addLogoutHandler((request, response, authentication) -> GatewayTokenCookie.clear(request, response))
                 .logoutSuccessUrl("/login?logout")
                 .permitAll()
             )
-            .httpBasic();
+            .addFilterBefore(new GatewayTokenFilter(gatewayTokenService), AnonymousAuthenticationFilter.class);
 
         return http.build();
     }
 
+    /**
+     * Authentifie les utilisateurs à partir de la base (mot de passe BCrypt), puis leur obtient
+     * un jeton d'accès à la gateway ; l'utilisateur authentifié est celui du jeton.
+     *
+     * @param userDetailsService chargement des utilisateurs
+     * @param passwordEncoder vérification des mots de passe
+     * @param gatewayTokenService échange des identifiants contre un jeton d'accès à la gateway
+     * @return le fournisseur d'authentification de l'application
+     */
+    @Bean
+    public AuthenticationProvider authenticationProvider(UserDetailsService userDetailsService,
+                                                         PasswordEncoder passwordEncoder,
+                                                         GatewayTokenService gatewayTokenService) {
+        DaoAuthenticationProvider provider = new DaoAuthenticationProvider(userDetailsService);
+        provider.setPasswordEncoder(passwordEncoder);
+        return new GatewayTokenAuthenticationProvider(provider, gatewayTokenService);
+    }
+
     /**
      * Fournit un encodeur de mot de passe basé sur l’algorithme BCrypt.
      *
      * <p>Ce bean est utilisé pour encoder et vérifier les mots de passe utilisateurs
      * de manière sécurisée avant stockage et lors de l'authentification.</p>
      *
-     * @return une instance de {@link BCryptPasswordEncoder}
+     * <p>Les vérifications réussies sont mémorisées par {@link CachingPasswordEncoder},
+     * pour ne pas refaire le calcul BCrypt à chaque connexion répétée d'un même utilisateur.</p>
+     *
+     * @param maximumSize nombre maximal de vérifications mémorisées
+     * @param expireAfterWrite durée de vie d'une vérification mémorisée
+     * @return une instance de {@link CachingPasswordEncoder} s'appuyant sur {@link BCryptPasswordEncoder}
      */
     @Bean
-    public PasswordEncoder passwordEncoder() {
-        return new BCryptPasswordEncoder();
+    public CachingPasswordEncoder passwordEncoder(
+            @Value("${medilabo.ui.auth.credential-cache.maximum-size:1000}") long maximumSize,
+            @Value("${medilabo.ui.auth.credential-cache.expire-after-write:5m}") Duration expireAfterWrite) {
+        return new CachingPasswordEncoder(new BCryptPasswordEncoder(), maximumSize, expireAfterWrite);
     }
 }
@@ -2,6 +2,7 @@ package com.medilabo.patientui.controller;
 
 import com.medilabo.patientui.model.AppUser;
 import com.medilabo.patientui.repository.UserRepository;
+import com.medilabo.patientui.security.UserDetailsCache;
 import jakarta.validation.Valid;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.security.crypto.password.PasswordEncoder;
@@ -24,6 +25,9 @@ public class AuthController {
     @Autowired
     private PasswordEncoder passwordEncoder;
 
+    @Autowired
+    private UserDetailsCache userCache;
+
     /**
      * Affiche la page de connexion de l'utilisateur.
      *
@@ -79,6 +83,7 @@ public class AuthController {
 
         user.setPassword(passwordEncoder.encode(user.getPassword()));
         userRepository.save(user);
+        userCache.invalidate(user.getUsername());
         return "redirect:/login";
     }
 }
@@ -1,23 +1,27 @@
 package com.medilabo.patientui.controller;
 
 import java.io.IOException;
-import java.util.HashMap;
 import java.util.List;
+import java.util.Locale;
 import java.util.Map;
 
+import org.springframework.http.HttpStatus;
 import org.springframework.stereotype.Controller;
 import org.springframework.ui.Model;
 import org.springframework.web.bind.annotation.*;
 import org.springframework.web.client.RestTemplate;
+import org.springframework.web.server.ResponseStatusException;
 
-import com.itextpdf.text.Document;
 import com.itextpdf.text.DocumentException;
-import com.itextpdf.text.Paragraph;
-import com.itextpdf.text.pdf.PdfWriter;
+import com.medilabo.patientui.dto.PatientOverview;
+import com.medilabo.patientui.dto.PatientPage;
+import com.medilabo.patientui.dto.PatientRowSummary;
 import com.medilabo.patientui.dto.RiskAssessmentResponse;
 import com.medilabo.patientui.model.Patient;
 import com.medilabo.patientui.service.NoteService;
+import com.medilabo.patientui.service.PatientOverviewService;
 import com.medilabo.patientui.service.PatientService;
+import com.medilabo.patientui.service.PdfReportService;
 
 import jakarta.servlet.http.HttpServletResponse;
 
@@ -32,6 +36,18 @@ public class PatientController {
     private final PatientService patientService;
     private final NoteService noteService;
     private final RestTemplate restTemplate;
+    private final PatientOverviewService patientOverviewService;
+    private final PdfReportService pdfReportService;
+
+    /**
+     * Nombre de patients affichés par page par défaut.
+     */
+    static final int DEFAULT_PAGE_SIZE = 20;
+
+    /**
+     * Nombre maximal de patients affichés par page.
+     */
+    static final int MAX_PAGE_SIZE = 100;
 
     /**
      * Constructeur avec injection des dépendances.
@@ -39,46 +55,85 @@ public class PatientController {
      * @param patientService le service de gestion des patients
      * @param noteService le service de gestion des notes␊
      * @param restTemplate pour communiquer avec les microservices␊
+     * @param patientOverviewService le service d’assemblage des notes et risques de la liste des patients
+     * @param pdfReportService le service de génération des rapports PDF
      */
-    public PatientController(PatientService patientService, NoteService noteService, RestTemplate restTemplate) {
+    public PatientController(PatientService patientService, NoteService noteService, RestTemplate restTemplate,
+                             PatientOverviewService patientOverviewService, PdfReportService pdfReportService) {
         this.patientService = patientService;
         this.noteService = noteService;
         this.restTemplate = restTemplate;
+        this.patientOverviewService = patientOverviewService;
+        this.pdfReportService = pdfReportService;
     }
 
     /**
-     * Affiche la liste de tous les patients avec leurs notes et niveaux de risque.
+     * Affiche une page de la liste des patients.
+     * <p>
+     * Seule la page courante est récupérée auprès de patient-service (pagination par curseur) ;
+     * le nombre de notes et le niveau de risque des lignes sont chargés ensuite par la page, en une
+     * requête via {@link #getPatientSummaries(List)}, afin que l’affichage ne dépende pas de la taille
+     * de la patientèle.
+     * </p>
      *
+     * @param after identifiant du dernier patient de la page précédente (absent pour la première page)
+     * @param size nombre de patients par page
      * @param model le modèle pour la vue Thymeleaf
      * @return le nom de la vue "patients"
      */
     @GetMapping("/patients")
-    public String getAllPatients(Model model) {
-    	List<Patient> patients = patientService.getAllPatients();
-        Map<Long, List<Map<String, Object>>> notesByPatient = new HashMap<>();
-        Map<Long, String> riskByPatient = new HashMap<>();
-
-        for (Patient p : patients) {
-            List<Map<String, Object>> notes = noteService.getNotesByPatientId(p.getId());
-            notesByPatient.put(p.getId(), notes);
-
-            try {
-                RiskAssessmentResponse risk = restTemplate.getForObject(
-                        "http://gateway-service:8080/assess/" + p.getId(),
-                        RiskAssessmentResponse.class
-                    );
-                riskByPatient.put(p.getId(), risk.getRiskLevel());
-            } catch (Exception e) {
-                riskByPatient.put(p.getId(), "Non disponible");
-            }
-        }
+    public String getAllPatients(@RequestParam(required = false) Long after,
+                                 @RequestParam(defaultValue = "" + DEFAULT_PAGE_SIZE) int size,
+                                 Model model) {
+        int pageSize = Math.min(Math.max(size, 1), MAX_PAGE_SIZE);
+        PatientPage page = patientService.getPatientPage(after, pageSize);
 
-        model.addAttribute("patients", patients);
-        model.addAttribute("notesByPatient", notesByPatient);
-        model.addAttribute("riskByPatient", riskByPatient);
+        model.addAttribute("patients", page.getPatients());
+        model.addAttribute("nextAfter", page.getNextAfter());
+        model.addAttribute("after", after);
+        model.addAttribute("size", pageSize);
         return "patients";
     }
 
+    /**
+     * Retourne le nombre de notes et le niveau de risque d’un patient, au format JSON.
+     * <p>
+     * Appelé par la liste des patients pour compléter chaque ligne après son affichage.
+     * </p>
+     *
+     * @param id l’identifiant du patient
+     * @return le résumé de la ligne du patient
+     */
+    @GetMapping("/patients/{id}/summary")
+    @ResponseBody
+    public PatientRowSummary getPatientSummary(@PathVariable Long id) {
+        return summary(id, patientOverviewService.loadOverview(List.of(id)));
+    }
+
+    /**
+     * Retourne le nombre de notes et le niveau de risque des patients d’une page, au format JSON.
+     * <p>
+     * Appelé une fois par la liste des patients pour compléter toutes ses lignes : les nombres de
+     * notes et les niveaux de risque de la page sont obtenus en un appel groupé chacun.
+     * </p>
+     *
+     * @param ids identifiants des patients de la page (au plus {@value #MAX_PAGE_SIZE})
+     * @return le résumé de chaque ligne, dans l’ordre des identifiants
+     */
+    @GetMapping("/patients/summaries")
+    @ResponseBody
+    public List<PatientRowSummary> getPatientSummaries(@RequestParam List<Long> ids) {
+        List<Long> pageIds = ids.stream().distinct().limit(MAX_PAGE_SIZE).toList();
+        PatientOverview overview = patientOverviewService.loadOverview(pageIds);
+        return pageIds.stream().map(id -> summary(id, overview)).toList();
+    }
+
+    private static PatientRowSummary summary(Long id, PatientOverview overview) {
+        return new PatientRowSummary(id,
+                overview.getNoteCountByPatient().getOrDefault(id, 0L),
+                overview.getRiskByPatient().getOrDefault(id, PatientOverviewService.UNAVAILABLE));
+    }
+
     /**
      * Affiche le formulaire d’ajout d’un patient.
      *
@@ -208,29 +263,50 @@ public class PatientController {
      */
     @GetMapping("/patients/{id}/report/pdf")
     public void downloadPdfReport(@PathVariable Long id, HttpServletResponse response) throws IOException, DocumentException {
-    	Patient patient = patientService.getPatientById(id)
-            .orElseThrow(() -> new IllegalArgumentException("Patient non trouvé : " + id));
-
-        RiskAssessmentResponse risk = restTemplate.getForObject(
-                "http://gateway-service:8080/assess/" + id,
-                RiskAssessmentResponse.class
-            );
-
         response.setContentType("application/pdf");
         response.setHeader("Content-Disposition", "attachment; filename=rapport_patient_" + id + ".pdf");
+        pdfReportService.writeReport(id, response.getOutputStream());
+    }
 
-        Document document = new Document();
-        PdfWriter.getInstance(document, response.getOutputStream());
-        document.open();
-        document.add(new Paragraph("Rapport de risque de diabète"));
-        document.add(new Paragraph(" "));
-        document.add(new Paragraph("Nom : " + patient.getNom()));
-        document.add(new Paragraph("Prénom : " + patient.getPrenom()));
-        document.add(new Paragraph("Date de naissance : " + patient.getDateNaissance()));
-        document.add(new Paragraph("Genre : " + patient.getGenre()));
-        document.add(new Paragraph("Âge : " + risk.getAge()));
-        document.add(new Paragraph("Risque détecté : " + risk.getRiskLevel()));
-        document.close();
+    /**
+     * Exporte en une seule réponse les rapports de risque d’un ensemble de patients.
+     * <p>
+     * Le document est écrit directement dans la réponse au fur et à mesure de l’évaluation
+     * des patients : un seul PDF d’une page par patient, ou une archive ZIP d’un PDF par patient.
+     * </p>
+     *
+     * @param ids identifiants des patients à exporter (toute la patientèle si absent)
+     * @param riskLevel niveau de risque à retenir (tous les niveaux si absent)
+     * @param fromLatestRun limite un export de toute la patientèle filtré par niveau aux patients
+     *                      classés à ce niveau par le dernier recalcul (plus rapide, mais sans les
+     *                      patients arrivés ou reclassés depuis) ; toute la patientèle est
+     *                      réévaluée par défaut
+     * @param format "pdf" ou "zip"
+     * @param response la réponse HTTP pour l’écriture du fichier
+     * @throws ResponseStatusException 400 Bad Request si le format est inconnu
+     * @throws IOException en cas d'erreur d'écriture
+     * @throws DocumentException en cas d'erreur de génération du PDF
+     */
+    @GetMapping("/patients/reports")
+    public void exportReports(@RequestParam(required = false) List<Long> ids,
+                              @RequestParam(required = false) String riskLevel,
+                              @RequestParam(defaultValue = "false") boolean fromLatestRun,
+                              @RequestParam(defaultValue = "pdf") String format,
+                              HttpServletResponse response) throws IOException, DocumentException {
+        PdfReportService.Format exportFormat;
+        try {
+            exportFormat = PdfReportService.Format.valueOf(format.trim().toUpperCase(Locale.ROOT));
+        } catch (IllegalArgumentException e) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Format d’export inconnu : " + format);
+        }
+        if (exportFormat == PdfReportService.Format.ZIP) {
+            response.setContentType("application/zip");
+            response.setHeader("Content-Disposition", "attachment; filename=rapports_patients.zip");
+        } else {
+            response.setContentType("application/pdf");
+            response.setHeader("Content-Disposition", "attachment; filename=rapports_patients.pdf");
+        }
+        pdfReportService.export(ids, riskLevel, fromLatestRun, exportFormat, response.getOutputStream());
     }
 
 }
\ No newline at end of file
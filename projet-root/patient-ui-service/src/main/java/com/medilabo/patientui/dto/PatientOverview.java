@@ -0,0 +1,42 @@
+package com.medilabo.patientui.dto;
+
+import java.util.Map;
+
+/**
+ * Données affichées à côté de chaque patient dans la liste des patients : son nombre de notes et son niveau de risque.
+ * <p>
+ * Les éléments qui n'ont pas pu être obtenus à temps sont remplacés par une valeur par défaut
+ * (aucune note, risque « Non disponible »).
+ * </p>
+ */
+public class PatientOverview {
+
+    /**
+     * Nombre de notes de chaque patient, indexé par identifiant de patient.
+     */
+    private final Map<Long, Long> noteCountByPatient;
+
+    /**
+     * Niveau de risque de chaque patient, indexé par identifiant de patient.
+     */
+    private final Map<Long, String> riskByPatient;
+
+    /**
+     * @param noteCountByPatient nombre de notes de chaque patient
+     * @param riskByPatient niveau de risque de chaque patient
+     */
+    public PatientOverview(Map<Long, Long> noteCountByPatient, Map<Long, String> riskByPatient) {
+        this.noteCountByPatient = noteCountByPatient;
+        this.riskByPatient = riskByPatient;
+    }
+
+    /**
+     * @return le nombre de notes de chaque patient
+     */
+    public Map<Long, Long> getNoteCountByPatient() { return noteCountByPatient; }
+
+    /**
+     * @return le niveau de risque de chaque patient
+     */
+    public Map<Long, String> getRiskByPatient() { return riskByPatient; }
+}
@@ -0,0 +1,39 @@
+package com.medilabo.patientui.dto;
+
+import com.medilabo.patientui.model.Patient;
+
+import java.util.List;
+
+/**
+ * Page de patients renvoyée par patient-service (pagination par curseur).
+ */
+public class PatientPage {
+
+    /**
+     * Patients de la page, triés par identifiant croissant.
+     */
+    private List<Patient> patients = List.of();
+
+    /**
+     * Curseur de la page suivante (dernier identifiant de la page), ou {@code null} s'il s'agit de la dernière page.
+     */
+    private Long nextAfter;
+
+    public PatientPage() {
+    }
+
+    /**
+     * @param patients patients de la page
+     * @param nextAfter curseur de la page suivante
+     */
+    public PatientPage(List<Patient> patients, Long nextAfter) {
+        this.patients = patients;
+        this.nextAfter = nextAfter;
+    }
+
+    public List<Patient> getPatients() { return patients; }
+    public void setPatients(List<Patient> patients) { this.patients = patients; }
+
+    public Long getNextAfter() { return nextAfter; }
+    public void setNextAfter(Long nextAfter) { this.nextAfter = nextAfter; }
+}
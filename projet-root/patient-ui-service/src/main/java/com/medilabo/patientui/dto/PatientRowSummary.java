@@ -0,0 +1,39 @@
+package com.medilabo.patientui.dto;
+
+/**
+ * Résumé d'une ligne de la liste des patients, chargé à la demande par la page (nombre de notes et niveau de risque).
+ */
+public class PatientRowSummary {
+
+    /**
+     * Identifiant du patient.
+     */
+    private final Long patientId;
+
+    /**
+     * Nombre de notes du patient.
+     */
+    private final long noteCount;
+
+    /**
+     * Niveau de risque du patient, ou « Non disponible ».
+     */
+    private final String riskLevel;
+
+    /**
+     * @param patientId identifiant du patient
+     * @param noteCount nombre de notes
+     * @param riskLevel niveau de risque
+     */
+    public PatientRowSummary(Long patientId, long noteCount, String riskLevel) {
+        this.patientId = patientId;
+        this.noteCount = noteCount;
+        this.riskLevel = riskLevel;
+    }
+
+    public Long getPatientId() { return patientId; }
+
+    public long getNoteCount() { return noteCount; }
+
+    public String getRiskLevel() { return riskLevel; }
+}
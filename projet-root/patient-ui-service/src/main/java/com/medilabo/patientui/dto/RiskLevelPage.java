@@ -0,0 +1,38 @@
+package com.medilabo.patientui.dto;
+
+import java.util.List;
+
+/**
+ * Page des patients classés à un niveau de risque par le dernier recalcul de population,
+ * renvoyée par risk-assessment-service (pagination par curseur).
+ */
+public class RiskLevelPage {
+
+    /**
+     * Identifiants des patients de la page, par ordre croissant.
+     */
+    private List<Long> patientIds = List.of();
+
+    /**
+     * Curseur de la page suivante, ou {@code null} s'il s'agit de la dernière page.
+     */
+    private Long nextAfter;
+
+    public RiskLevelPage() {
+    }
+
+    /**
+     * @param patientIds identifiants des patients de la page
+     * @param nextAfter curseur de la page suivante
+     */
+    public RiskLevelPage(List<Long> patientIds, Long nextAfter) {
+        this.patientIds = patientIds;
+        this.nextAfter = nextAfter;
+    }
+
+    public List<Long> getPatientIds() { return patientIds; }
+    public void setPatientIds(List<Long> patientIds) { this.patientIds = patientIds; }
+
+    public Long getNextAfter() { return nextAfter; }
+    public void setNextAfter(Long nextAfter) { this.nextAfter = nextAfter; }
+}
@@ -0,0 +1,39 @@
+package com.medilabo.patientui.dto;
+
+import com.fasterxml.jackson.annotation.JsonProperty;
+
+/**
+ * Jeton d'accès émis par la gateway ({@code POST /auth/token}).
+ */
+public class TokenResponse {
+
+    /**
+     * Jeton signé, présenté ensuite dans l'en-tête {@code Authorization: Bearer}.
+     */
+    @JsonProperty("access_token")
+    private String accessToken;
+
+    /**
+     * Durée de validité du jeton, en secondes.
+     */
+    @JsonProperty("expires_in")
+    private long expiresIn;
+
+    public TokenResponse() {
+    }
+
+    /**
+     * @param accessToken jeton signé
+     * @param expiresIn durée de validité du jeton, en secondes
+     */
+    public TokenResponse(String accessToken, long expiresIn) {
+        this.accessToken = accessToken;
+        this.expiresIn = expiresIn;
+    }
+
+    public String getAccessToken() { return accessToken; }
+    public void setAccessToken(String accessToken) { this.accessToken = accessToken; }
+
+    public long getExpiresIn() { return expiresIn; }
+    public void setExpiresIn(long expiresIn) { this.expiresIn = expiresIn; }
+}
@@ -0,0 +1,129 @@
+package com.medilabo.patientui.security;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.springframework.security.crypto.password.PasswordEncoder;
+
+import javax.crypto.KeyGenerator;
+import javax.crypto.Mac;
+import javax.crypto.SecretKey;
+import java.nio.charset.StandardCharsets;
+import java.security.GeneralSecurityException;
+import java.security.NoSuchAlgorithmException;
+import java.security.SecureRandom;
+import java.time.Duration;
+import java.util.HexFormat;
+
+/**
+ * Encodeur de mot de passe mémorisant les vérifications réussies.
+ * <p>
+ * Une vérification BCrypt coûte plusieurs dizaines de millisecondes de calcul, refaite à chaque
+ * connexion d'un même utilisateur. Cet encodeur conserve,
+ * pour une durée limitée, l'empreinte HMAC-SHA256 des couples (mot de passe saisi, mot de passe
+ * encodé) déjà vérifiés : le mot de passe en clair n'est jamais conservé.
+ * </p>
+ * <p>
+ * La clé HMAC est tirée au hasard à la construction et ne quitte pas la mémoire du processus :
+ * une empreinte extraite du cache (vidage mémoire, par exemple) ne permet pas de tester
+ * rapidement des mots de passe candidats, contrairement à un simple condensat SHA-256.
+ * </p>
+ * <p>
+ * Seules les vérifications réussies sont mémorisées, et la clé inclut le mot de passe encodé :
+ * un changement de mot de passe rend caduques les entrées précédentes.
+ * </p>
+ * <p>
+ * Métriques : {@code cache.gets{cache="auth.credentials",result="hit|miss"}}.
+ * </p>
+ */
+public class CachingPasswordEncoder implements PasswordEncoder, MeterBinder {
+
+    private final PasswordEncoder delegate;
+
+    private final Cache<String, Boolean> verified;
+
+    private final SecretKey fingerprintKey;
+
+    /**
+     * Construit l'encodeur.
+     *
+     * @param delegate encodeur effectif (BCrypt)
+     * @param maximumSize nombre maximal de vérifications mémorisées
+     * @param expireAfterWrite durée de vie d'une vérification mémorisée
+     */
+    public CachingPasswordEncoder(PasswordEncoder delegate, long maximumSize, Duration expireAfterWrite) {
+        this.delegate = delegate;
+        this.verified = Caffeine.newBuilder()
+                .maximumSize(maximumSize)
+                .expireAfterWrite(expireAfterWrite)
+                .recordStats()
+                .build();
+        this.fingerprintKey = newFingerprintKey();
+    }
+
+    @Override
+    public String encode(CharSequence rawPassword) {
+        return delegate.encode(rawPassword);
+    }
+
+    @Override
+    public boolean matches(CharSequence rawPassword, String encodedPassword) {
+        if (rawPassword == null || encodedPassword == null) {
+            return delegate.matches(rawPassword, encodedPassword);
+        }
+        String key = fingerprint(rawPassword, encodedPassword);
+        if (verified.getIfPresent(key) != null) {
+            return true;
+        }
+        boolean matches = delegate.matches(rawPassword, encodedPassword);
+        if (matches) {
+            verified.put(key, Boolean.TRUE);
+        }
+        return matches;
+    }
+
+    @Override
+    public boolean upgradeEncoding(String encodedPassword) {
+        return delegate.upgradeEncoding(encodedPassword);
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        CaffeineCacheMetrics.monitor(registry, verified, "auth.credentials");
+    }
+
+    /**
+     * Calcule la clé d'une vérification.
+     *
+     * @param rawPassword mot de passe saisi
+     * @param encodedPassword mot de passe encodé
+     * @return l'empreinte HMAC-SHA256, en hexadécimal
+     */
+    String fingerprint(CharSequence rawPassword, String encodedPassword) {
+        try {
+            Mac mac = Mac.getInstance("HmacSHA256");
+            mac.init(fingerprintKey);
+            mac.update(encodedPassword.getBytes(StandardCharsets.UTF_8));
+            mac.update((byte) 0);
+            mac.update(rawPassword.toString().getBytes(StandardCharsets.UTF_8));
+            return HexFormat.of().formatHex(mac.doFinal());
+        } catch (GeneralSecurityException e) {
+            throw new IllegalStateException("HMAC-SHA256 indisponible", e);
+        }
+    }
+
+    /**
+     * @return une clé HMAC-SHA256 aléatoire, propre à cette instance
+     */
+    private static SecretKey newFingerprintKey() {
+        try {
+            KeyGenerator generator = KeyGenerator.getInstance("HmacSHA256");
+            generator.init(256, new SecureRandom());
+            return generator.generateKey();
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("HMAC-SHA256 indisponible", e);
+        }
+    }
+}
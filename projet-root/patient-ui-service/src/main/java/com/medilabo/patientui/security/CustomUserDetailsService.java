@@ -2,7 +2,6 @@ package com.medilabo.patientui.security;
 
 import com.medilabo.patientui.model.AppUser;
 import com.medilabo.patientui.repository.UserRepository;
-import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.security.core.userdetails.*;
 import org.springframework.stereotype.Service;
 
@@ -13,12 +12,25 @@ import org.springframework.stereotype.Service;
  * <p>Cette classe implémente {@link UserDetailsService} et surcharge la méthode
  * {@link #loadUserByUsername(String)} pour charger un utilisateur par son nom d'utilisateur
  * depuis la base de données via {@link UserRepository}.</p>
+ *
+ * <p>Les utilisateurs chargés sont conservés dans {@link UserDetailsCache}, pour éviter
+ * une lecture en base à chaque requête authentifiée.</p>
  */
 @Service
 public class CustomUserDetailsService implements UserDetailsService {
 
-    @Autowired
-    private UserRepository userRepository;
+    private final UserRepository userRepository;
+
+    private final UserDetailsCache userCache;
+
+    /**
+     * @param userRepository accès aux utilisateurs en base
+     * @param userCache cache des utilisateurs authentifiés
+     */
+    public CustomUserDetailsService(UserRepository userRepository, UserDetailsCache userCache) {
+        this.userRepository = userRepository;
+        this.userCache = userCache;
+    }
 
     /**
      * Charge les détails d’un utilisateur par son nom d’utilisateur.
@@ -37,6 +49,17 @@ public class CustomUserDetailsService implements UserDetailsService {
      */
     @Override
     public UserDetails loadUserByUsername(String username) throws UsernameNotFoundException {
+        return userCache.get(username, this::loadFromDatabase);
+    }
+
+    /**
+     * Lit l'utilisateur en base et le convertit en {@link UserDetails}.
+     *
+     * @param username le nom d'utilisateur
+     * @return les informations de l'utilisateur
+     * @throws UsernameNotFoundException si l'utilisateur n'existe pas dans la base
+     */
+    private UserDetails loadFromDatabase(String username) {
         AppUser user = userRepository.findByUsername(username)
             .orElseThrow(() -> new UsernameNotFoundException("Utilisateur non trouvé"));
 
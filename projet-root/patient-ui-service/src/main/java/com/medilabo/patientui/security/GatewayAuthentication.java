@@ -0,0 +1,65 @@
+package com.medilabo.patientui.security;
+
+import org.springframework.security.authentication.AbstractAuthenticationToken;
+import org.springframework.security.core.GrantedAuthority;
+
+import java.time.Instant;
+import java.util.Collection;
+
+/**
+ * Utilisateur authentifié par un jeton d'accès à la gateway.
+ * <p>
+ * Le nom et les rôles sont ceux du jeton : l'interface ne conserve aucun état entre deux
+ * requêtes, le jeton présenté par le navigateur suffit à reconstruire l'utilisateur.
+ * </p>
+ */
+public class GatewayAuthentication extends AbstractAuthenticationToken {
+
+    private final String username;
+
+    private final String token;
+
+    private final Instant expiresAt;
+
+    /**
+     * @param username nom d'utilisateur (sujet du jeton)
+     * @param authorities rôles portés par le jeton
+     * @param token jeton signé par la gateway
+     * @param expiresAt instant d'expiration du jeton
+     */
+    public GatewayAuthentication(String username, Collection<? extends GrantedAuthority> authorities,
+                                 String token, Instant expiresAt) {
+        super(authorities);
+        this.username = username;
+        this.token = token;
+        this.expiresAt = expiresAt;
+        setAuthenticated(true);
+    }
+
+    @Override
+    public Object getPrincipal() {
+        return username;
+    }
+
+    /**
+     * @return {@code null} : le jeton n'est exposé que par {@link #getToken()}
+     */
+    @Override
+    public Object getCredentials() {
+        return null;
+    }
+
+    /**
+     * @return le jeton à présenter à la gateway
+     */
+    public String getToken() {
+        return token;
+    }
+
+    /**
+     * @return l'instant d'expiration du jeton
+     */
+    public Instant getExpiresAt() {
+        return expiresAt;
+    }
+}
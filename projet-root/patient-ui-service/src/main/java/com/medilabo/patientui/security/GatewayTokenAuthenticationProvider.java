@@ -0,0 +1,51 @@
+package com.medilabo.patientui.security;
+
+import org.springframework.security.authentication.AuthenticationProvider;
+import org.springframework.security.authentication.AuthenticationServiceException;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.AuthenticationException;
+import org.springframework.web.client.RestClientException;
+
+/**
+ * Authentifie l'utilisateur localement, puis échange ses identifiants contre un jeton d'accès
+ * à la gateway ({@link GatewayTokenService}).
+ * <p>
+ * L'échange a lieu tant que le mot de passe saisi est encore disponible (Spring Security l'efface
+ * ensuite). L'utilisateur renvoyé est celui du jeton ({@link GatewayAuthentication}), que la
+ * connexion confie au navigateur ({@link GatewayTokenCookie}). Si la gateway ne délivre pas de
+ * jeton, la connexion échoue, aucune page de l'interface ne pouvant fonctionner sans lui.
+ * </p>
+ */
+public class GatewayTokenAuthenticationProvider implements AuthenticationProvider {
+
+    private final AuthenticationProvider delegate;
+
+    private final GatewayTokenService tokenService;
+
+    /**
+     * @param delegate vérification locale des identifiants
+     * @param tokenService échange des identifiants contre un jeton
+     */
+    public GatewayTokenAuthenticationProvider(AuthenticationProvider delegate, GatewayTokenService tokenService) {
+        this.delegate = delegate;
+        this.tokenService = tokenService;
+    }
+
+    @Override
+    public Authentication authenticate(Authentication authentication) throws AuthenticationException {
+        Authentication result = delegate.authenticate(authentication);
+        if (result == null) {
+            return null;
+        }
+        try {
+            return tokenService.authenticate(result.getName(), String.valueOf(authentication.getCredentials()));
+        } catch (RestClientException e) {
+            throw new AuthenticationServiceException("Jeton d'accès à la gateway indisponible", e);
+        }
+    }
+
+    @Override
+    public boolean supports(Class<?> authentication) {
+        return delegate.supports(authentication);
+    }
+}
@@ -0,0 +1,81 @@
+package com.medilabo.patientui.security;
+
+import jakarta.servlet.http.Cookie;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.ResponseCookie;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Optional;
+
+/**
+ * Cookie qui porte le jeton d'accès à la gateway de l'utilisateur connecté.
+ * <p>
+ * Le cookie remplace la session HTTP : {@code HttpOnly} (inaccessible aux scripts),
+ * {@code SameSite=Lax} (non envoyé par les formulaires d'autres sites) et limité à la durée
+ * de vie du jeton. Il est marqué {@code Secure} lorsque la requête est elle-même sécurisée.
+ * </p>
+ */
+public final class GatewayTokenCookie {
+
+    /**
+     * Nom du cookie.
+     */
+    public static final String NAME = "MEDILABO_TOKEN";
+
+    private GatewayTokenCookie() {
+    }
+
+    /**
+     * @param request requête reçue
+     * @return le jeton présenté par le navigateur, s'il y en a un
+     */
+    public static Optional<String> read(HttpServletRequest request) {
+        Cookie[] cookies = request.getCookies();
+        if (cookies == null) {
+            return Optional.empty();
+        }
+        for (Cookie cookie : cookies) {
+            if (NAME.equals(cookie.getName()) && !cookie.getValue().isBlank()) {
+                return Optional.of(cookie.getValue());
+            }
+        }
+        return Optional.empty();
+    }
+
+    /**
+     * Confie le jeton de l'utilisateur au navigateur, jusqu'à son expiration.
+     *
+     * @param request requête de connexion
+     * @param response réponse de connexion
+     * @param authentication utilisateur authentifié par le jeton
+     */
+    public static void write(HttpServletRequest request, HttpServletResponse response,
+                             GatewayAuthentication authentication) {
+        Duration maxAge = Duration.between(Instant.now(), authentication.getExpiresAt());
+        response.addHeader(HttpHeaders.SET_COOKIE, cookie(request, authentication.getToken(), maxAge).toString());
+    }
+
+    /**
+     * Supprime le jeton du navigateur.
+     *
+     * @param request requête reçue
+     * @param response réponse à la requête
+     */
+    public static void clear(HttpServletRequest request, HttpServletResponse response) {
+        response.addHeader(HttpHeaders.SET_COOKIE, cookie(request, "", Duration.ZERO).toString());
+    }
+
+    private static ResponseCookie cookie(HttpServletRequest request, String value, Duration maxAge) {
+        String path = request.getContextPath().isEmpty() ? "/" : request.getContextPath();
+        return ResponseCookie.from(NAME, value)
+                .httpOnly(true)
+                .secure(request.isSecure())
+                .sameSite("Lax")
+                .path(path)
+                .maxAge(maxAge.isNegative() ? Duration.ZERO : maxAge)
+                .build();
+    }
+}
@@ -0,0 +1,79 @@
+package com.medilabo.patientui.security;
+
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.http.HttpHeaders;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContext;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.IOException;
+import java.util.Optional;
+
+/**
+ * Authentifie chaque requête par le jeton d'accès à la gateway qu'elle présente.
+ * <p>
+ * Le jeton vient du cookie {@link GatewayTokenCookie} (navigateur) ou d'un en-tête
+ * {@code Authorization: Bearer} (clients scriptés, qui l'obtiennent auprès de la gateway).
+ * Aucune session n'est consultée : un jeton valide suffit à reconstruire l'utilisateur, sur
+ * n'importe quelle instance de l'interface.
+ * </p>
+ * <p>
+ * Sans jeton valide, aucun appel vers la gateway ne peut aboutir : un cookie invalide ou expiré
+ * est supprimé et le navigateur renvoyé vers {@code /login?expired}, un en-tête invalide est
+ * refusé ({@code 401}). Déclaré dans la chaîne de Spring Security uniquement (pas de bean).
+ * </p>
+ */
+public class GatewayTokenFilter extends OncePerRequestFilter {
+
+    private static final String BEARER_PREFIX = "Bearer ";
+
+    private final GatewayTokenService tokenService;
+
+    /**
+     * @param tokenService vérification des jetons
+     */
+    public GatewayTokenFilter(GatewayTokenService tokenService) {
+        this.tokenService = tokenService;
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain chain)
+            throws ServletException, IOException {
+        Authentication current = SecurityContextHolder.getContext().getAuthentication();
+        if (current != null && current.isAuthenticated()) {
+            chain.doFilter(request, response);
+            return;
+        }
+        String header = request.getHeader(HttpHeaders.AUTHORIZATION);
+        if (header != null && header.startsWith(BEARER_PREFIX)) {
+            Optional<GatewayAuthentication> authentication = tokenService.verify(header.substring(BEARER_PREFIX.length()));
+            if (authentication.isEmpty()) {
+                response.sendError(HttpServletResponse.SC_UNAUTHORIZED);
+                return;
+            }
+            authenticate(authentication.get());
+        } else {
+            Optional<String> cookie = GatewayTokenCookie.read(request);
+            if (cookie.isPresent()) {
+                Optional<GatewayAuthentication> authentication = tokenService.verify(cookie.get());
+                if (authentication.isEmpty()) {
+                    GatewayTokenCookie.clear(request, response);
+                    response.sendRedirect(request.getContextPath() + "/login?expired");
+                    return;
+                }
+                authenticate(authentication.get());
+            }
+        }
+        chain.doFilter(request, response);
+    }
+
+    private static void authenticate(GatewayAuthentication authentication) {
+        SecurityContext context = SecurityContextHolder.createEmptyContext();
+        context.setAuthentication(authentication);
+        SecurityContextHolder.setContext(context);
+    }
+}
@@ -0,0 +1,37 @@
+package com.medilabo.patientui.security;
+
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpRequest;
+import org.springframework.http.client.ClientHttpRequestExecution;
+import org.springframework.http.client.ClientHttpRequestInterceptor;
+import org.springframework.http.client.ClientHttpResponse;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+
+/**
+ * Joint aux appels vers la gateway le jeton de l'utilisateur connecté
+ * ({@code Authorization: Bearer}).
+ * <p>
+ * Le jeton est celui du contexte de sécurité du thread courant ({@link GatewayAuthentication},
+ * reconstruit à chaque requête par {@link GatewayTokenFilter}) ; l'exécuteur de la liste des
+ * patients transmet ce contexte à ses tâches. Une requête qui porte déjà un en-tête
+ * {@code Authorization} n'est pas modifiée.
+ * </p>
+ */
+@Component
+public class GatewayTokenInterceptor implements ClientHttpRequestInterceptor {
+
+    @Override
+    public ClientHttpResponse intercept(HttpRequest request, byte[] body, ClientHttpRequestExecution execution)
+            throws IOException {
+        Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+        if (authentication instanceof GatewayAuthentication gatewayAuthentication
+                && !request.getHeaders().containsKey(HttpHeaders.AUTHORIZATION)) {
+            request.getHeaders().setBearerAuth(gatewayAuthentication.getToken());
+        }
+        return execution.execute(request, body);
+    }
+}
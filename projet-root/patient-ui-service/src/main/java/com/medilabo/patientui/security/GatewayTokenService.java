@@ -0,0 +1,159 @@
+package com.medilabo.patientui.security;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.medilabo.patientui.dto.TokenResponse;
+import org.apache.hc.client5.http.impl.classic.CloseableHttpClient;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.web.client.RestTemplateBuilder;
+import org.springframework.http.HttpEntity;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.client.HttpComponentsClientHttpRequestFactory;
+import org.springframework.security.core.GrantedAuthority;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
+import org.springframework.stereotype.Component;
+import org.springframework.web.client.RestClientException;
+import org.springframework.web.client.RestTemplate;
+
+import javax.crypto.Mac;
+import javax.crypto.spec.SecretKeySpec;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.security.GeneralSecurityException;
+import java.security.MessageDigest;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * Jetons d'accès à la gateway, obtenus pour le compte des utilisateurs qui se connectent.
+ * <p>
+ * La gateway n'accepte que des jetons signés ({@code Authorization: Bearer}). À la connexion
+ * d'un utilisateur, ses identifiants sont échangés une fois contre un jeton
+ * ({@code POST /auth/token}, HTTP Basic). Le jeton n'est pas conservé ici : il est confié au
+ * navigateur ({@link GatewayTokenCookie}) et vérifié à chaque requête, si bien que n'importe
+ * quelle instance de l'interface peut servir n'importe quel utilisateur.
+ * </p>
+ * <p>
+ * La vérification reprend celle de la gateway : signature HMAC-SHA256 avec le secret partagé
+ * ({@code GATEWAY_TOKEN_SECRET}), émetteur et expiration. Un jeton est refusé
+ * {@code refresh-margin} avant son expiration, pour ne pas expirer entre l'interface et la
+ * gateway ; l'utilisateur est alors renvoyé vers la connexion. Le mot de passe n'est jamais
+ * conservé.
+ * </p>
+ */
+@Component
+public class GatewayTokenService {
+
+    private static final String ALGORITHM = "HS256";
+
+    private static final String ROLES_CLAIM = "roles";
+
+    private final RestTemplate restTemplate;
+
+    private final ObjectMapper objectMapper;
+
+    private final String tokenUrl;
+
+    private final String issuer;
+
+    private final SecretKeySpec key;
+
+    private final Duration refreshMargin;
+
+    /**
+     * @param builder le builder fourni par Spring Boot (convertisseurs, observations)
+     * @param httpClient le client HTTP à connexions mutualisées
+     * @param objectMapper lecture des en-têtes et revendications des jetons
+     * @param tokenUrl adresse d'émission des jetons de la gateway
+     * @param issuer émetteur attendu des jetons
+     * @param secret secret HMAC partagé avec la gateway (au moins 32 octets)
+     * @param refreshMargin délai avant expiration à partir duquel un jeton n'est plus accepté
+     * @throws IllegalStateException si le secret fait moins de 32 octets
+     */
+    public GatewayTokenService(RestTemplateBuilder builder, CloseableHttpClient httpClient, ObjectMapper objectMapper,
+                               @Value("${medilabo.ui.gateway.token-url:http://gateway-service:8080/auth/token}") String tokenUrl,
+                               @Value("${medilabo.ui.gateway.token-issuer:medilabo-gateway}") String issuer,
+                               @Value("${medilabo.ui.gateway.token-secret}") String secret,
+                               @Value("${medilabo.ui.gateway.token-refresh-margin:30s}") Duration refreshMargin) {
+        if (secret == null || secret.getBytes(StandardCharsets.UTF_8).length < 32) {
+            throw new IllegalStateException("medilabo.ui.gateway.token-secret doit faire au moins 32 octets");
+        }
+        this.restTemplate = builder
+                .requestFactory(() -> new HttpComponentsClientHttpRequestFactory(httpClient))
+                .build();
+        this.objectMapper = objectMapper;
+        this.tokenUrl = tokenUrl;
+        this.issuer = issuer;
+        this.key = new SecretKeySpec(secret.getBytes(StandardCharsets.UTF_8), "HmacSHA256");
+        this.refreshMargin = refreshMargin;
+    }
+
+    /**
+     * Obtient un jeton pour un utilisateur dont les identifiants viennent d'être vérifiés.
+     *
+     * @param username nom d'utilisateur
+     * @param password mot de passe saisi
+     * @return l'utilisateur authentifié par le jeton délivré
+     * @throws RestClientException si la gateway refuse les identifiants, ne répond pas ou
+     *                             renvoie un jeton invalide
+     */
+    public GatewayAuthentication authenticate(String username, String password) {
+        HttpHeaders headers = new HttpHeaders();
+        headers.setBasicAuth(username, password, StandardCharsets.UTF_8);
+        TokenResponse response = restTemplate.postForObject(tokenUrl, new HttpEntity<>(headers), TokenResponse.class);
+        if (response == null || response.getAccessToken() == null || response.getAccessToken().isBlank()) {
+            throw new RestClientException("Aucun jeton renvoyé par la gateway");
+        }
+        return verify(response.getAccessToken())
+                .orElseThrow(() -> new RestClientException("Jeton renvoyé par la gateway invalide ou déjà expiré"));
+    }
+
+    /**
+     * Vérifie un jeton présenté par le navigateur.
+     *
+     * @param token jeton signé par la gateway
+     * @return l'utilisateur qu'il authentifie, ou vide si le jeton est invalide ou proche de
+     *         son expiration
+     */
+    public Optional<GatewayAuthentication> verify(String token) {
+        String[] parts = token.split("\\.", -1);
+        if (parts.length != 3) {
+            return Optional.empty();
+        }
+        try {
+            JsonNode header = objectMapper.readTree(Base64.getUrlDecoder().decode(parts[0]));
+            if (!ALGORITHM.equals(header.path("alg").asText())
+                    || !MessageDigest.isEqual(sign(parts[0] + "." + parts[1]), Base64.getUrlDecoder().decode(parts[2]))) {
+                return Optional.empty();
+            }
+            JsonNode claims = objectMapper.readTree(Base64.getUrlDecoder().decode(parts[1]));
+            String subject = claims.path("sub").asText();
+            if (!issuer.equals(claims.path("iss").asText()) || subject.isBlank() || !claims.path("exp").isNumber()) {
+                return Optional.empty();
+            }
+            Instant expiresAt = Instant.ofEpochSecond(claims.path("exp").asLong());
+            if (!Instant.now().isBefore(expiresAt.minus(refreshMargin))) {
+                return Optional.empty();
+            }
+            List<GrantedAuthority> authorities = new ArrayList<>();
+            claims.path(ROLES_CLAIM).forEach(role -> authorities.add(new SimpleGrantedAuthority(role.asText())));
+            return Optional.of(new GatewayAuthentication(subject, authorities, token, expiresAt));
+        } catch (IllegalArgumentException | IOException e) {
+            return Optional.empty();
+        }
+    }
+
+    private byte[] sign(String content) {
+        try {
+            Mac mac = Mac.getInstance(key.getAlgorithm());
+            mac.init(key);
+            return mac.doFinal(content.getBytes(StandardCharsets.US_ASCII));
+        } catch (GeneralSecurityException e) {
+            throw new IllegalStateException("HMAC-SHA256 indisponible", e);
+        }
+    }
+}
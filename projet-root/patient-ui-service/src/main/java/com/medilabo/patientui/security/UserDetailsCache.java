@@ -0,0 +1,79 @@
+package com.medilabo.patientui.security;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.security.core.userdetails.User;
+import org.springframework.security.core.userdetails.UserDetails;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.function.Function;
+
+/**
+ * Cache local des utilisateurs authentifiés, indexé par nom d'utilisateur.
+ * <p>
+ * Chaque connexion recharge l'utilisateur : ce cache évite une lecture en base lors des
+ * connexions répétées. Il est borné et chaque entrée expire après un délai
+ * configurable ; toute écriture d'un utilisateur (inscription, changement de rôle) doit appeler
+ * {@link #invalidate(String)}.
+ * </p>
+ * <p>
+ * Spring Security efface le mot de passe de l'utilisateur une fois authentifié : le cache
+ * renvoie donc toujours une copie de l'entrée conservée.
+ * </p>
+ * <p>
+ * Métriques : {@code cache.gets{cache="auth.users",result="hit|miss"}}.
+ * </p>
+ */
+@Component
+public class UserDetailsCache implements MeterBinder {
+
+    private final Cache<String, UserDetails> cache;
+
+    /**
+     * Construit le cache.
+     *
+     * @param maximumSize nombre maximal d'utilisateurs conservés
+     * @param expireAfterWrite durée de vie d'une entrée
+     */
+    public UserDetailsCache(@Value("${medilabo.ui.auth.user-cache.maximum-size:1000}") long maximumSize,
+                            @Value("${medilabo.ui.auth.user-cache.expire-after-write:5m}") Duration expireAfterWrite) {
+        this.cache = Caffeine.newBuilder()
+                .maximumSize(maximumSize)
+                .expireAfterWrite(expireAfterWrite)
+                .recordStats()
+                .build();
+    }
+
+    /**
+     * Retourne l'utilisateur en cache, ou le charge puis le met en cache.
+     * <p>
+     * Les utilisateurs inconnus ne sont pas mis en cache : l'exception du chargement est propagée.
+     * </p>
+     *
+     * @param username nom d'utilisateur
+     * @param loader chargement de l'utilisateur en cas d'absence
+     * @return une copie de l'utilisateur
+     */
+    public UserDetails get(String username, Function<String, UserDetails> loader) {
+        return User.withUserDetails(cache.get(username, loader)).build();
+    }
+
+    /**
+     * Retire un utilisateur du cache après modification.
+     *
+     * @param username nom d'utilisateur
+     */
+    public void invalidate(String username) {
+        cache.invalidate(username);
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        CaffeineCacheMetrics.monitor(registry, cache, "auth.users");
+    }
+}
@@ -1,8 +1,12 @@
 package com.medilabo.patientui.service;
 
+import org.springframework.core.ParameterizedTypeReference;
+import org.springframework.http.HttpEntity;
+import org.springframework.http.HttpMethod;
 import org.springframework.stereotype.Service;
 import org.springframework.web.client.RestTemplate;
 
+import java.util.Collection;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
@@ -17,13 +21,22 @@ import java.util.Map;
 @Service
 public class NoteService {
 
-    private final RestTemplate restTemplate = new RestTemplate();
+    private final RestTemplate restTemplate;
 
     /**
      * URL exposée par le gateway pour le microservice note-service.
      */
     private final String NOTE_SERVICE_URL = "http://gateway-service:8080/notes";
 
+    /**
+     * Constructeur avec injection du client HTTP partagé.
+     *
+     * @param restTemplate client HTTP à connexions mutualisées
+     */
+    public NoteService(RestTemplate restTemplate) {
+        this.restTemplate = restTemplate;
+    }
+
     /**
      * Récupère les notes d’un patient à partir du microservice note-service.
      *
@@ -34,6 +47,65 @@ public class NoteService {
         return restTemplate.getForObject(NOTE_SERVICE_URL + "/patient/" + patientId, List.class);
     }
 
+    /**
+     * Récupère en un seul appel les notes de plusieurs patients.
+     *
+     * @param patientIds identifiants des patients
+     * @return les notes de chaque patient, indexées par identifiant de patient
+     *         (les patients sans note sont absents)
+     */
+    public Map<Long, List<Map<String, Object>>> getNotesByPatientIds(Collection<Long> patientIds) {
+        if (patientIds.isEmpty()) {
+            return Map.of();
+        }
+        Map<Long, List<Map<String, Object>>> notes = restTemplate.exchange(
+                NOTE_SERVICE_URL + "/patients",
+                HttpMethod.POST,
+                new HttpEntity<>(patientIds),
+                new ParameterizedTypeReference<Map<Long, List<Map<String, Object>>>>() {}
+        ).getBody();
+        return notes != null ? notes : Map.of();
+    }
+
+    /**
+     * Compte les notes d’un patient sans les télécharger.
+     *
+     * @param patientId identifiant du patient
+     * @return le nombre de notes du patient
+     */
+    public long countNotesByPatientId(Long patientId) {
+        Long count = restTemplate.getForObject(NOTE_SERVICE_URL + "/patient/" + patientId + "/count", Long.class);
+        return count != null ? count : 0;
+    }
+
+    /**
+     * Compte en un seul appel les notes de plusieurs patients, sans les télécharger.
+     *
+     * @param patientIds identifiants des patients
+     * @return le nombre de notes de chaque patient, indexé par identifiant de patient
+     *         (les patients sans note sont absents)
+     */
+    public Map<Long, Long> countNotesByPatientIds(Collection<Long> patientIds) {
+        if (patientIds.isEmpty()) {
+            return Map.of();
+        }
+        List<Map<String, Object>> counts = restTemplate.exchange(
+                NOTE_SERVICE_URL + "/patients/triggers",
+                HttpMethod.POST,
+                new HttpEntity<>(patientIds),
+                new ParameterizedTypeReference<List<Map<String, Object>>>() {}
+        ).getBody();
+        Map<Long, Long> noteCounts = new HashMap<>();
+        if (counts != null) {
+            for (Map<String, Object> count : counts) {
+                if (count.get("patientId") instanceof Number patientId && count.get("noteCount") instanceof Number noteCount) {
+                    noteCounts.put(patientId.longValue(), noteCount.longValue());
+                }
+            }
+        }
+        return noteCounts;
+    }
+
     /**
      * Envoie une nouvelle note pour un patient au microservice note-service.
      *
@@ -0,0 +1,163 @@
+package com.medilabo.patientui.service;
+
+import com.medilabo.patientui.dto.PatientOverview;
+import com.medilabo.patientui.dto.RiskAssessmentResponse;
+import io.micrometer.core.annotation.Timed;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.web.client.RestTemplate;
+
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+/**
+ * Assemble les nombres de notes et niveaux de risque affichés dans la liste des patients.
+ * <p>
+ * Les nombres de notes et les évaluations de risque de tous les patients de la page sont demandés
+ * en deux appels groupés ({@code /notes/patients/triggers} et {@code /assess/batch}), lancés en
+ * parallèle sur des
+ * threads virtuels : la page ne consomme que deux requêtes du gateway, quel que soit le nombre de
+ * lignes affichées. Les deux appels partagent un délai global : à son expiration, l'appel en cours
+ * est annulé et les éléments manquants sont affichés comme « Non disponible ». Le temps de rendu
+ * de la page est ainsi celui de l'appel le plus lent, plafonné par ce délai.
+ * </p>
+ */
+@Service
+public class PatientOverviewService {
+
+    private static final Logger log = LoggerFactory.getLogger(PatientOverviewService.class);
+
+    /**
+     * Libellé affiché lorsque le niveau de risque n'a pas pu être obtenu.
+     */
+    public static final String UNAVAILABLE = "Non disponible";
+
+    /**
+     * URL exposée par le gateway pour le microservice risk-assessment-service.
+     */
+    private static final String RISK_BATCH_URL = "http://gateway-service:8080/assess/batch";
+
+    private final NoteService noteService;
+
+    private final RestTemplate restTemplate;
+
+    private final ExecutorService overviewExecutor;
+
+    private final Duration pageDeadline;
+
+    /**
+     * Constructeur avec injection des dépendances.
+     *
+     * @param noteService service de gestion des notes
+     * @param restTemplate client HTTP partagé
+     * @param overviewExecutor exécuteur à threads virtuels
+     * @param pageDeadline délai maximal d'assemblage de la page
+     */
+    public PatientOverviewService(NoteService noteService,
+                                  RestTemplate restTemplate,
+                                  @Qualifier("overviewExecutor") ExecutorService overviewExecutor,
+                                  @Value("${medilabo.ui.overview.page-deadline:3s}") Duration pageDeadline) {
+        this.noteService = noteService;
+        this.restTemplate = restTemplate;
+        this.overviewExecutor = overviewExecutor;
+        this.pageDeadline = pageDeadline;
+    }
+
+    /**
+     * Récupère le nombre de notes et le niveau de risque des patients affichés.
+     * <p>
+     * Les notes sont comptées par note-service sans que leur contenu soit transféré ; pour un
+     * patient seul, le décompte passe par {@code /notes/patient/{id}/count}.
+     * </p>
+     *
+     * @param ids identifiants des patients
+     * @return le nombre de notes et le niveau de risque de chaque patient, complétés par des valeurs par défaut
+     */
+    @Timed(value = "ui.patients.overview", histogram = true)
+    public PatientOverview loadOverview(List<Long> ids) {
+        long deadline = System.nanoTime() + pageDeadline.toNanos();
+
+        Future<Map<Long, Long>> notesTask = overviewExecutor.submit(() -> countNotes(ids));
+        Future<Map<Long, String>> riskTask = overviewExecutor.submit(() -> fetchRiskLevels(ids));
+
+        Map<Long, Long> noteCountByPatient = new HashMap<>(await(notesTask, deadline, Map.of(), "notes"));
+        Map<Long, String> riskByPatient = new HashMap<>(await(riskTask, deadline, Map.of(), "risques"));
+        for (Long id : ids) {
+            noteCountByPatient.putIfAbsent(id, 0L);
+            riskByPatient.putIfAbsent(id, UNAVAILABLE);
+        }
+        return new PatientOverview(noteCountByPatient, riskByPatient);
+    }
+
+    /**
+     * Compte les notes des patients auprès de note-service.
+     *
+     * @param patientIds identifiants des patients
+     * @return le nombre de notes de chaque patient ayant au moins une note
+     */
+    private Map<Long, Long> countNotes(List<Long> patientIds) {
+        if (patientIds.size() == 1) {
+            Long patientId = patientIds.getFirst();
+            return Map.of(patientId, noteService.countNotesByPatientId(patientId));
+        }
+        return noteService.countNotesByPatientIds(patientIds);
+    }
+
+    /**
+     * Interroge risk-assessment-service (via le gateway) pour tous les patients de la page en un appel.
+     *
+     * @param patientIds identifiants des patients
+     * @return le niveau de risque de chaque patient évalué ; les patients absents de la réponse
+     *         (évaluation impossible) n'y figurent pas
+     */
+    private Map<Long, String> fetchRiskLevels(List<Long> patientIds) {
+        if (patientIds.isEmpty()) {
+            return Map.of();
+        }
+        RiskAssessmentResponse[] risks = restTemplate.postForObject(RISK_BATCH_URL, patientIds, RiskAssessmentResponse[].class);
+        Map<Long, String> riskByPatient = new HashMap<>();
+        if (risks != null) {
+            for (RiskAssessmentResponse risk : risks) {
+                if (risk != null && risk.getPatientId() != null && risk.getRiskLevel() != null) {
+                    riskByPatient.put(risk.getPatientId(), risk.getRiskLevel());
+                }
+            }
+        }
+        return riskByPatient;
+    }
+
+    /**
+     * Attend le résultat d'une tâche jusqu'au délai global, et retourne une valeur par défaut
+     * si la tâche échoue ou n'est pas terminée à temps (elle est alors annulée).
+     *
+     * @param task la tâche
+     * @param deadline échéance globale ({@link System#nanoTime()})
+     * @param fallback valeur par défaut
+     * @param label description de la tâche pour les journaux
+     * @return le résultat de la tâche ou la valeur par défaut
+     */
+    private <T> T await(Future<T> task, long deadline, T fallback, String label) {
+        try {
+            return task.get(Math.max(0, deadline - System.nanoTime()), TimeUnit.NANOSECONDS);
+        } catch (TimeoutException e) {
+            task.cancel(true);
+            log.warn("Délai de {} ms dépassé pour : {}", pageDeadline.toMillis(), label);
+        } catch (ExecutionException e) {
+            log.warn("Échec de la récupération de : {} ({})", label, e.getCause().getMessage());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            task.cancel(true);
+        }
+        return fallback;
+    }
+}
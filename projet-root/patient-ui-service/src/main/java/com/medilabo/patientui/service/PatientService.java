@@ -7,6 +7,7 @@ import java.util.Optional;
 import org.springframework.stereotype.Service;
 import org.springframework.web.client.RestTemplate;
 
+import com.medilabo.patientui.dto.PatientPage;
 import com.medilabo.patientui.model.Patient;
 
 /**
@@ -18,13 +19,22 @@ import com.medilabo.patientui.model.Patient;
 @Service
 public class PatientService {
 
-    private final RestTemplate restTemplate = new RestTemplate();
+    private final RestTemplate restTemplate;
 
     /**
      * URL de base exposée par le gateway pour le microservice patient-service.
      */
     private static final String PATIENT_SERVICE_URL = "http://gateway-service:8080/patients";
 
+    /**
+     * Constructeur avec injection du client HTTP partagé.
+     *
+     * @param restTemplate client HTTP à connexions mutualisées
+     */
+    public PatientService(RestTemplate restTemplate) {
+        this.restTemplate = restTemplate;
+    }
+
     /**
      * Récupère la liste de tous les patients depuis le microservice patient-service.
      *
@@ -35,6 +45,19 @@ public class PatientService {
         return patients != null ? Arrays.asList(patients) : List.of();
     }
 
+    /**
+     * Récupère une page de patients, triés par identifiant, à partir d'un curseur.
+     *
+     * @param after identifiant du dernier patient de la page précédente ({@code null} pour la première page)
+     * @param size nombre maximal de patients de la page
+     * @return la page de patients et le curseur de la page suivante
+     */
+    public PatientPage getPatientPage(Long after, int size) {
+        String url = PATIENT_SERVICE_URL + "?limit=" + size + (after != null ? "&after=" + after : "");
+        PatientPage page = restTemplate.getForObject(url, PatientPage.class);
+        return page != null ? page : new PatientPage(List.of(), null);
+    }
+
     /**
      * Récupère un patient par son identifiant.
      *
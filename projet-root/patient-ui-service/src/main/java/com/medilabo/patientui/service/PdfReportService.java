@@ -0,0 +1,339 @@
+package com.medilabo.patientui.service;
+
+import com.itextpdf.text.Document;
+import com.itextpdf.text.DocumentException;
+import com.itextpdf.text.Font;
+import com.itextpdf.text.Paragraph;
+import com.itextpdf.text.pdf.PdfWriter;
+import com.medilabo.patientui.dto.PatientPage;
+import com.medilabo.patientui.dto.RiskAssessmentResponse;
+import com.medilabo.patientui.dto.RiskLevelPage;
+import com.medilabo.patientui.model.Patient;
+import io.micrometer.core.annotation.Timed;
+import org.springframework.stereotype.Service;
+import org.springframework.web.client.HttpClientErrorException;
+import org.springframework.web.client.RestTemplate;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipOutputStream;
+
+/**
+ * Service de génération des rapports de risque au format PDF.
+ * <p>
+ * Les exports groupés parcourent les patients par lots : chaque lot est évalué en un seul appel
+ * à {@code /assess/batch}, puis ses pages sont écrites et envoyées immédiatement dans le flux de sortie.
+ * La mémoire utilisée ne dépend donc pas du nombre de patients exportés. Les polices sont créées
+ * une seule fois et partagées par tous les documents.
+ * </p>
+ * <p>
+ * Un export de toute la patientèle filtré par niveau de risque réévalue tous les patients, seul
+ * moyen de n’omettre ni un patient arrivé depuis le dernier recalcul de population, ni un patient
+ * dont le niveau a changé depuis. Sur demande ({@code fromLatestRun}), les candidats sont limités
+ * aux patients classés à ce niveau par le dernier recalcul ({@code /assess/levels/{riskLevel}}),
+ * réévalués au moment de l’export : l’export est plus rapide, mais ces patients-là en sont absents.
+ * Tant qu’aucun recalcul n’est terminé, toute la patientèle est évaluée.
+ * </p>
+ * <p>
+ * La durée de génération est mesurée par le timer {@code ui.report.pdf} (tag {@code mode}).
+ * </p>
+ */
+@Service
+public class PdfReportService {
+
+    /**
+     * Nombre de patients récupérés et évalués par lot.
+     */
+    static final int BATCH_SIZE = 200;
+
+    /**
+     * URL exposée par le gateway pour l’évaluation groupée du risque.
+     */
+    private static final String RISK_BATCH_URL = "http://gateway-service:8080/assess/batch";
+
+    /**
+     * URL exposée par le gateway pour l’évaluation du risque d’un patient.
+     */
+    private static final String RISK_SERVICE_URL = "http://gateway-service:8080/assess/";
+
+    /**
+     * URL exposée par le gateway pour les patients d’un niveau de risque au dernier recalcul.
+     */
+    private static final String RISK_LEVEL_URL = "http://gateway-service:8080/assess/levels/{riskLevel}?after={after}&limit={limit}";
+
+    /**
+     * URL exposée par le gateway pour la récupération groupée des patients.
+     */
+    private static final String PATIENT_BATCH_URL = "http://gateway-service:8080/patients/batch";
+
+    private static final Font TITLE_FONT = new Font(Font.FontFamily.HELVETICA, 16, Font.BOLD);
+    private static final Font BODY_FONT = new Font(Font.FontFamily.HELVETICA, 12);
+
+    private final PatientService patientService;
+
+    private final RestTemplate restTemplate;
+
+    /**
+     * Format d’un export groupé.
+     */
+    public enum Format {
+        /**
+         * Un seul document PDF, une page par patient.
+         */
+        PDF,
+        /**
+         * Une archive ZIP contenant un document PDF par patient.
+         */
+        ZIP
+    }
+
+    /**
+     * Constructeur avec injection des dépendances.
+     *
+     * @param patientService service de gestion des patients
+     * @param restTemplate client HTTP partagé
+     */
+    public PdfReportService(PatientService patientService, RestTemplate restTemplate) {
+        this.patientService = patientService;
+        this.restTemplate = restTemplate;
+    }
+
+    /**
+     * Écrit le rapport de risque d’un patient.
+     *
+     * @param patientId identifiant du patient
+     * @param out flux de sortie (fermé à la fin du document)
+     * @throws DocumentException en cas d'erreur de génération du PDF
+     */
+    @Timed(value = "ui.report.pdf", extraTags = {"mode", "single"}, histogram = true)
+    public void writeReport(Long patientId, OutputStream out) throws DocumentException {
+        Patient patient = patientService.getPatientById(patientId)
+            .orElseThrow(() -> new IllegalArgumentException("Patient non trouvé : " + patientId));
+        RiskAssessmentResponse risk = restTemplate.getForObject(RISK_SERVICE_URL + patientId, RiskAssessmentResponse.class);
+
+        Document document = new Document();
+        PdfWriter.getInstance(document, out);
+        document.open();
+        addReportPage(document, patient, risk);
+        document.close();
+    }
+
+    /**
+     * Exporte les rapports de risque d’un ensemble de patients.
+     *
+     * @param patientIds patients à exporter, ou {@code null} pour toute la patientèle
+     * @param riskLevel niveau de risque à retenir, ou {@code null} pour tous les niveaux
+     * @param fromLatestRun {@code true} pour limiter un export de toute la patientèle filtré par
+     *                      niveau aux patients classés à ce niveau par le dernier recalcul
+     * @param format format de l’export
+     * @param out flux de sortie (fermé à la fin de l’export)
+     * @return le nombre de rapports exportés
+     * @throws IOException en cas d'erreur d'écriture
+     * @throws DocumentException en cas d'erreur de génération du PDF
+     */
+    @Timed(value = "ui.report.pdf", extraTags = {"mode", "bulk"}, histogram = true)
+    public int export(List<Long> patientIds, String riskLevel, boolean fromLatestRun, Format format, OutputStream out)
+            throws IOException, DocumentException {
+        Batches batches = new Batches(patientIds, riskLevel, fromLatestRun);
+        return format == Format.ZIP
+                ? exportZip(batches, riskLevel, out)
+                : exportPdf(batches, riskLevel, out);
+    }
+
+    /**
+     * Écrit un document PDF unique contenant une page par patient.
+     */
+    private int exportPdf(Batches batches, String riskLevel, OutputStream out) throws DocumentException {
+        Document document = new Document();
+        PdfWriter writer = PdfWriter.getInstance(document, out);
+        document.open();
+        int count = 0;
+        for (List<Patient> batch = batches.next(); !batch.isEmpty(); batch = batches.next()) {
+            Map<Long, RiskAssessmentResponse> risks = assessBatch(batch);
+            for (Patient patient : batch) {
+                RiskAssessmentResponse risk = risks.get(patient.getId());
+                if (matches(risk, riskLevel)) {
+                    if (count++ > 0) {
+                        document.newPage();
+                    }
+                    addReportPage(document, patient, risk);
+                }
+            }
+            writer.flush();
+        }
+        if (count == 0) {
+            document.add(new Paragraph("Aucun patient ne correspond aux critères de l’export.", BODY_FONT));
+        }
+        document.close();
+        return count;
+    }
+
+    /**
+     * Écrit une archive ZIP contenant un document PDF par patient.
+     */
+    private int exportZip(Batches batches, String riskLevel, OutputStream out) throws IOException, DocumentException {
+        int count = 0;
+        try (ZipOutputStream zip = new ZipOutputStream(out)) {
+            for (List<Patient> batch = batches.next(); !batch.isEmpty(); batch = batches.next()) {
+                Map<Long, RiskAssessmentResponse> risks = assessBatch(batch);
+                for (Patient patient : batch) {
+                    RiskAssessmentResponse risk = risks.get(patient.getId());
+                    if (matches(risk, riskLevel)) {
+                        zip.putNextEntry(new ZipEntry("rapport_patient_" + patient.getId() + ".pdf"));
+                        Document document = new Document();
+                        // L’archive ne doit être fermée qu’après sa dernière entrée.
+                        PdfWriter.getInstance(document, zip).setCloseStream(false);
+                        document.open();
+                        addReportPage(document, patient, risk);
+                        document.close();
+                        zip.closeEntry();
+                        count++;
+                    }
+                }
+                zip.flush();
+            }
+        }
+        return count;
+    }
+
+    /**
+     * Ajoute au document la page de rapport d’un patient.
+     *
+     * @param document document ouvert
+     * @param patient patient concerné
+     * @param risk évaluation du risque (peut être {@code null} si elle n’a pas pu être obtenue)
+     * @throws DocumentException en cas d'erreur de génération du PDF
+     */
+    private void addReportPage(Document document, Patient patient, RiskAssessmentResponse risk) throws DocumentException {
+        document.add(new Paragraph("Rapport de risque de diabète", TITLE_FONT));
+        document.add(new Paragraph(" ", BODY_FONT));
+        document.add(new Paragraph("Nom : " + patient.getNom(), BODY_FONT));
+        document.add(new Paragraph("Prénom : " + patient.getPrenom(), BODY_FONT));
+        document.add(new Paragraph("Date de naissance : " + patient.getDateNaissance(), BODY_FONT));
+        document.add(new Paragraph("Genre : " + patient.getGenre(), BODY_FONT));
+        document.add(new Paragraph("Âge : " + (risk != null ? risk.getAge() : "Non disponible"), BODY_FONT));
+        document.add(new Paragraph("Risque détecté : " + (risk != null ? risk.getRiskLevel() : PatientOverviewService.UNAVAILABLE), BODY_FONT));
+    }
+
+    /**
+     * Évalue le risque d’un lot de patients en un seul appel.
+     *
+     * @param batch patients du lot
+     * @return les évaluations, indexées par identifiant de patient
+     */
+    private Map<Long, RiskAssessmentResponse> assessBatch(List<Patient> batch) {
+        List<Long> ids = batch.stream().map(Patient::getId).toList();
+        RiskAssessmentResponse[] risks = restTemplate.postForObject(RISK_BATCH_URL, ids, RiskAssessmentResponse[].class);
+        Map<Long, RiskAssessmentResponse> byPatient = new HashMap<>();
+        if (risks != null) {
+            for (RiskAssessmentResponse risk : risks) {
+                // Un patient dont l’évaluation a échoué peut manquer ou être nul dans la réponse.
+                if (risk != null && risk.getPatientId() != null) {
+                    byPatient.put(risk.getPatientId(), risk);
+                }
+            }
+        }
+        return byPatient;
+    }
+
+    /**
+     * @return {@code true} si l’évaluation correspond au niveau de risque demandé
+     */
+    private static boolean matches(RiskAssessmentResponse risk, String riskLevel) {
+        return isBlank(riskLevel)
+                || (risk != null && riskLevel.equalsIgnoreCase(risk.getRiskLevel()));
+    }
+
+    private static boolean isBlank(String value) {
+        return value == null || value.isBlank();
+    }
+
+    /**
+     * Parcours par lots des patients à exporter : les identifiants demandés, les patients classés
+     * au niveau de risque demandé par le dernier recalcul (sur demande), ou toute la patientèle
+     * page par page (pagination par curseur).
+     */
+    private final class Batches {
+
+        private final List<Long> patientIds;
+        private final String riskLevel;
+        private int offset;
+        private Long after;
+        private boolean done;
+
+        /**
+         * Vrai tant que les candidats sont lus dans le dernier recalcul plutôt que dans toute la patientèle.
+         */
+        private boolean fromLatestRun;
+
+        private Batches(List<Long> patientIds, String riskLevel, boolean fromLatestRun) {
+            this.patientIds = patientIds;
+            this.riskLevel = riskLevel;
+            this.fromLatestRun = fromLatestRun && patientIds == null && !isBlank(riskLevel);
+        }
+
+        /**
+         * @return le lot suivant, ou une liste vide lorsque tous les patients ont été parcourus
+         */
+        private List<Patient> next() {
+            while (!done) {
+                List<Patient> patients;
+                if (patientIds != null) {
+                    patients = nextRequested();
+                } else if (fromLatestRun) {
+                    patients = nextAtRiskLevel();
+                } else {
+                    PatientPage page = patientService.getPatientPage(after, BATCH_SIZE);
+                    after = page.getNextAfter();
+                    done = after == null;
+                    patients = page.getPatients() != null ? page.getPatients() : List.of();
+                }
+                // Un lot peut ne contenir que des identifiants inconnus : on passe alors au suivant.
+                if (!patients.isEmpty()) {
+                    return patients;
+                }
+            }
+            return List.of();
+        }
+
+        private List<Patient> nextRequested() {
+            List<Long> ids = patientIds.subList(offset, Math.min(offset + BATCH_SIZE, patientIds.size()));
+            offset += ids.size();
+            done = offset >= patientIds.size();
+            return fetchPatients(ids);
+        }
+
+        private List<Patient> nextAtRiskLevel() {
+            RiskLevelPage page;
+            try {
+                page = restTemplate.getForObject(RISK_LEVEL_URL, RiskLevelPage.class,
+                        riskLevel, after != null ? after : 0, BATCH_SIZE);
+            } catch (HttpClientErrorException.NotFound e) {
+                // Aucun recalcul terminé : toute la patientèle est évaluée.
+                fromLatestRun = false;
+                after = null;
+                return List.of();
+            }
+            if (page == null) {
+                done = true;
+                return List.of();
+            }
+            after = page.getNextAfter();
+            done = after == null;
+            return fetchPatients(page.getPatientIds());
+        }
+
+        private List<Patient> fetchPatients(List<Long> ids) {
+            if (ids == null || ids.isEmpty()) {
+                return List.of();
+            }
+            Patient[] patients = restTemplate.postForObject(PATIENT_BATCH_URL, ids, Patient[].class);
+            return patients != null ? Arrays.asList(patients) : List.of();
+        }
+    }
+}
@@ -3,6 +3,10 @@ package com.medilabo.patientui.controller;
 import com.medilabo.patientui.config.SecurityConfig;
 import com.medilabo.patientui.model.AppUser;
 import com.medilabo.patientui.repository.UserRepository;
+import com.medilabo.patientui.security.GatewayAuthentication;
+import com.medilabo.patientui.security.GatewayTokenCookie;
+import com.medilabo.patientui.security.GatewayTokenService;
+import com.medilabo.patientui.security.UserDetailsCache;
 
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
@@ -10,16 +14,26 @@ import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
 import org.springframework.boot.test.mock.mockito.MockBean;
 import org.springframework.context.annotation.Import;
+import org.springframework.security.core.authority.AuthorityUtils;
+import org.springframework.security.core.userdetails.UserDetailsService;
 import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.security.core.userdetails.User;
 import org.springframework.security.test.context.support.WithAnonymousUser;
+import org.springframework.web.client.ResourceAccessException;
 import org.springframework.test.web.servlet.MockMvc;
 import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
 
+import jakarta.servlet.http.Cookie;
+
+import java.time.Instant;
 import java.util.Optional;
 
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 import static org.mockito.ArgumentMatchers.any;
 
+import static org.springframework.security.test.web.servlet.request.SecurityMockMvcRequestBuilders.formLogin;
 import static org.springframework.security.test.web.servlet.request.SecurityMockMvcRequestPostProcessors.csrf;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
@@ -38,6 +52,15 @@ class AuthControllerTest {
     @MockBean
     private PasswordEncoder passwordEncoder;
 
+    @MockBean
+    private UserDetailsCache userCache;
+
+    @MockBean
+    private UserDetailsService userDetailsService;
+
+    @MockBean
+    private GatewayTokenService gatewayTokenService;
+
     private AppUser newUser;
 
     @BeforeEach
@@ -77,5 +100,67 @@ class AuthControllerTest {
                         .with(csrf()))
                 .andExpect(status().is3xxRedirection())
                 .andExpect(redirectedUrl("/login"));
+
+        verify(userCache).invalidate("testuser");
+    }
+
+    @Test
+    void shouldObtainGatewayTokenOnLogin() throws Exception {
+        when(userDetailsService.loadUserByUsername("testuser")).thenReturn(
+                User.withUsername("testuser").password("encodedPassword").roles("PRATICIEN").build());
+        when(passwordEncoder.matches("password", "encodedPassword")).thenReturn(true);
+        when(gatewayTokenService.authenticate("testuser", "password")).thenReturn(new GatewayAuthentication(
+                "testuser", AuthorityUtils.createAuthorityList("ROLE_PRATICIEN"), "jeton-testuser",
+                Instant.now().plusSeconds(900)));
+
+        mockMvc.perform(formLogin("/login").user("testuser").password("password"))
+                .andExpect(redirectedUrl("/patients"))
+                .andExpect(cookie().value(GatewayTokenCookie.NAME, "jeton-testuser"))
+                .andExpect(cookie().httpOnly(GatewayTokenCookie.NAME, true))
+                .andExpect(result -> assertThat(result.getRequest().getSession(false)).isNull());
+
+        verify(gatewayTokenService).authenticate("testuser", "password");
+    }
+
+    @Test
+    void shouldRefuseLoginWhenGatewayDeniesToken() throws Exception {
+        when(userDetailsService.loadUserByUsername("testuser")).thenReturn(
+                User.withUsername("testuser").password("encodedPassword").roles("PRATICIEN").build());
+        when(passwordEncoder.matches("password", "encodedPassword")).thenReturn(true);
+        when(gatewayTokenService.authenticate("testuser", "password"))
+                .thenThrow(new ResourceAccessException("gateway injoignable"));
+
+        mockMvc.perform(formLogin("/login").user("testuser").password("password"))
+                .andExpect(redirectedUrl("/login?error"))
+                .andExpect(cookie().doesNotExist(GatewayTokenCookie.NAME))
+                .andExpect(result -> assertThat(result.getRequest().getSession(false)).isNull());
+    }
+
+    @Test
+    void shouldLogOutWhenGatewayTokenExpired() throws Exception {
+        when(gatewayTokenService.verify("jeton-expire")).thenReturn(Optional.empty());
+
+        mockMvc.perform(get("/register").cookie(new Cookie(GatewayTokenCookie.NAME, "jeton-expire")))
+                .andExpect(redirectedUrl("/login?expired"))
+                .andExpect(cookie().maxAge(GatewayTokenCookie.NAME, 0));
+    }
+
+    @Test
+    void shouldRejectInvalidBearerToken() throws Exception {
+        when(gatewayTokenService.verify("jeton-invalide")).thenReturn(Optional.empty());
+
+        mockMvc.perform(get("/register").header("Authorization", "Bearer jeton-invalide"))
+                .andExpect(status().isUnauthorized());
+    }
+
+    @Test
+    void shouldClearTokenCookieOnLogout() throws Exception {
+        when(gatewayTokenService.verify("jeton-testuser")).thenReturn(Optional.of(new GatewayAuthentication(
+                "testuser", AuthorityUtils.createAuthorityList("ROLE_PRATICIEN"), "jeton-testuser",
+                Instant.now().plusSeconds(900))));
+
+        mockMvc.perform(post("/logout").with(csrf()).cookie(new Cookie(GatewayTokenCookie.NAME, "jeton-testuser")))
+                .andExpect(redirectedUrl("/login?logout"))
+                .andExpect(cookie().maxAge(GatewayTokenCookie.NAME, 0));
     }
 }
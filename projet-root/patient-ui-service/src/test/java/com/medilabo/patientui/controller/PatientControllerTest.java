@@ -3,7 +3,11 @@ package com.medilabo.patientui.controller;
 import com.medilabo.patientui.model.Patient;
 import com.medilabo.patientui.repository.PatientRepository;
 import com.medilabo.patientui.service.NoteService;
+import com.medilabo.patientui.service.PatientOverviewService;
 import com.medilabo.patientui.service.PatientService;
+import com.medilabo.patientui.service.PdfReportService;
+import com.medilabo.patientui.dto.PatientOverview;
+import com.medilabo.patientui.dto.PatientPage;
 import com.medilabo.patientui.dto.RiskAssessmentResponse;
 
 import org.junit.jupiter.api.BeforeEach;
@@ -45,6 +49,12 @@ class PatientControllerTest {
     @MockBean
     private RestTemplate restTemplate;
 
+    @MockBean
+    private PatientOverviewService patientOverviewService;
+
+    @MockBean
+    private PdfReportService pdfReportService;
+
     private Patient patient;
     private RiskAssessmentResponse risk;
 
@@ -64,14 +74,58 @@ class PatientControllerTest {
 
     @Test
     void shouldDisplayPatientList() throws Exception {
-        when(patientService.getAllPatients()).thenReturn(List.of(patient));
-        when(noteService.getNotesByPatientId(1L)).thenReturn(Collections.emptyList());
-        when(restTemplate.getForObject(anyString(), eq(RiskAssessmentResponse.class))).thenReturn(risk);
+        when(patientService.getPatientPage(null, PatientController.DEFAULT_PAGE_SIZE))
+                .thenReturn(new PatientPage(List.of(patient), 1L));
 
         mockMvc.perform(get("/patients"))
                 .andExpect(status().isOk())
                 .andExpect(view().name("patients"))
-                .andExpect(model().attributeExists("patients", "notesByPatient", "riskByPatient"));
+                .andExpect(model().attribute("patients", List.of(patient)))
+                .andExpect(model().attribute("nextAfter", 1L))
+                .andExpect(content().string(org.hamcrest.Matchers.containsString("/patients?after=1&amp;size=20")));
+
+        verify(patientService, never()).getAllPatients();
+        verifyNoInteractions(patientOverviewService, noteService, restTemplate);
+    }
+
+    @Test
+    void shouldCapPatientPageSize() throws Exception {
+        when(patientService.getPatientPage(5L, PatientController.MAX_PAGE_SIZE))
+                .thenReturn(new PatientPage(List.of(), null));
+
+        mockMvc.perform(get("/patients").param("after", "5").param("size", "10000"))
+                .andExpect(status().isOk())
+                .andExpect(model().attribute("size", PatientController.MAX_PAGE_SIZE));
+    }
+
+    @Test
+    void shouldReturnPatientSummaryAsJson() throws Exception {
+        when(patientOverviewService.loadOverview(List.of(1L)))
+                .thenReturn(new PatientOverview(Map.of(1L, 1L), Map.of(1L, "Borderline")));
+
+        mockMvc.perform(get("/patients/1/summary"))
+                .andExpect(status().isOk())
+                .andExpect(content().contentTypeCompatibleWith(MediaType.APPLICATION_JSON))
+                .andExpect(jsonPath("$.patientId").value(1))
+                .andExpect(jsonPath("$.noteCount").value(1))
+                .andExpect(jsonPath("$.riskLevel").value("Borderline"));
+    }
+
+    @Test
+    void shouldReturnSummariesOfWholePageInOneCall() throws Exception {
+        when(patientOverviewService.loadOverview(List.of(1L, 2L)))
+                .thenReturn(new PatientOverview(Map.of(1L, 1L), Map.of(1L, "Borderline")));
+
+        mockMvc.perform(get("/patients/summaries").param("ids", "1,2,1"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.length()").value(2))
+                .andExpect(jsonPath("$[0].noteCount").value(1))
+                .andExpect(jsonPath("$[0].riskLevel").value("Borderline"))
+                .andExpect(jsonPath("$[1].patientId").value(2))
+                .andExpect(jsonPath("$[1].noteCount").value(0))
+                .andExpect(jsonPath("$[1].riskLevel").value(PatientOverviewService.UNAVAILABLE));
+
+        verify(patientOverviewService, times(1)).loadOverview(anyList());
     }
 
     @Test
@@ -168,11 +222,30 @@ class PatientControllerTest {
 
         MockHttpServletResponse response = new MockHttpServletResponse();
 
-        PatientController controller = new PatientController(patientService, noteService, restTemplate);
+        PatientController controller = new PatientController(patientService, noteService, restTemplate,
+                patientOverviewService, new PdfReportService(patientService, restTemplate));
         controller.downloadPdfReport(1L, response);
 
         assertThat(response.getStatus()).isEqualTo(200);
         assertThat(response.getContentType()).isEqualTo("application/pdf");
         assertThat(response.getContentAsByteArray()).isNotEmpty();
     }
+
+    @Test
+    void shouldRejectUnknownExportFormat() throws Exception {
+        mockMvc.perform(get("/patients/reports").param("format", "docx"))
+                .andExpect(status().isBadRequest());
+
+        verifyNoInteractions(pdfReportService);
+    }
+
+    @Test
+    void shouldExportReportsAsZip() throws Exception {
+        mockMvc.perform(get("/patients/reports").param("ids", "1,2").param("riskLevel", "In Danger").param("format", "zip"))
+                .andExpect(status().isOk())
+                .andExpect(content().contentType("application/zip"))
+                .andExpect(header().string("Content-Disposition", "attachment; filename=rapports_patients.zip"));
+
+        verify(pdfReportService).export(eq(List.of(1L, 2L)), eq("In Danger"), eq(false), eq(PdfReportService.Format.ZIP), any());
+    }
 }
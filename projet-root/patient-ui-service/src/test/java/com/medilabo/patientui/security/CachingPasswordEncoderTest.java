@@ -0,0 +1,91 @@
+package com.medilabo.patientui.security;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+import org.springframework.security.crypto.password.PasswordEncoder;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Duration;
+import java.util.HexFormat;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.spy;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+
+class CachingPasswordEncoderTest {
+
+    private PasswordEncoder bcrypt;
+
+    private CachingPasswordEncoder encoder;
+
+    private String encoded;
+
+    @BeforeEach
+    void setUp() {
+        bcrypt = spy(new BCryptPasswordEncoder(4));
+        encoder = new CachingPasswordEncoder(bcrypt, 100, Duration.ofMinutes(5));
+        encoded = encoder.encode("secret");
+    }
+
+    @Test
+    void matches_verifiesSuccessfulCredentialsOnlyOnce() {
+        assertThat(encoder.matches("secret", encoded)).isTrue();
+        assertThat(encoder.matches("secret", encoded)).isTrue();
+
+        verify(bcrypt, times(1)).matches("secret", encoded);
+    }
+
+    @Test
+    void matches_neverCachesFailedVerifications() {
+        assertThat(encoder.matches("wrong", encoded)).isFalse();
+        assertThat(encoder.matches("wrong", encoded)).isFalse();
+
+        verify(bcrypt, times(2)).matches("wrong", encoded);
+    }
+
+    @Test
+    void matches_changedPasswordHashIsVerifiedAgain() {
+        encoder.matches("secret", encoded);
+        String other = encoder.encode("secret");
+
+        assertThat(encoder.matches("secret", other)).isTrue();
+        verify(bcrypt).matches("secret", other);
+    }
+
+    @Test
+    void bindTo_exposesHitsAndMisses() {
+        SimpleMeterRegistry registry = new SimpleMeterRegistry();
+        encoder.bindTo(registry);
+
+        encoder.matches("secret", encoded);
+        encoder.matches("secret", encoded);
+
+        assertThat(registry.get("cache.gets").tag("cache", "auth.credentials").tag("result", "hit")
+                .functionCounter().count()).isEqualTo(1.0);
+        assertThat(registry.get("cache.gets").tag("cache", "auth.credentials").tag("result", "miss")
+                .functionCounter().count()).isEqualTo(1.0);
+    }
+
+    @Test
+    void fingerprint_isKeyedPerInstance() {
+        CachingPasswordEncoder other = new CachingPasswordEncoder(bcrypt, 100, Duration.ofMinutes(5));
+
+        assertThat(encoder.fingerprint("secret", encoded)).isEqualTo(encoder.fingerprint("secret", encoded));
+        assertThat(encoder.fingerprint("secret", encoded)).isNotEqualTo(other.fingerprint("secret", encoded));
+        assertThat(encoder.fingerprint("secret", encoded)).isNotEqualTo(sha256(encoded + "\0secret"));
+    }
+
+    private static String sha256(String value) {
+        try {
+            return HexFormat.of().formatHex(MessageDigest.getInstance("SHA-256")
+                    .digest(value.getBytes(StandardCharsets.UTF_8)));
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+}
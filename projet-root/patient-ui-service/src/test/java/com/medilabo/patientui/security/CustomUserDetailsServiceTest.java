@@ -0,0 +1,77 @@
+package com.medilabo.patientui.security;
+
+import com.medilabo.patientui.model.AppUser;
+import com.medilabo.patientui.repository.UserRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.security.core.userdetails.User;
+import org.springframework.security.core.userdetails.UserDetails;
+import org.springframework.security.core.userdetails.UsernameNotFoundException;
+
+import java.time.Duration;
+import java.util.Optional;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class CustomUserDetailsServiceTest {
+
+    private UserRepository userRepository;
+
+    private UserDetailsCache userCache;
+
+    private CustomUserDetailsService service;
+
+    @BeforeEach
+    void setUp() {
+        userRepository = mock(UserRepository.class);
+        userCache = new UserDetailsCache(100, Duration.ofMinutes(5));
+        service = new CustomUserDetailsService(userRepository, userCache);
+    }
+
+    @Test
+    void loadUserByUsername_readsDatabaseOnceAndReturnsIndependentCopies() {
+        when(userRepository.findByUsername("alice")).thenReturn(Optional.of(user("ORGANISATEUR")));
+
+        UserDetails first = service.loadUserByUsername("alice");
+        ((User) first).eraseCredentials();
+        UserDetails second = service.loadUserByUsername("alice");
+
+        assertThat(second.getPassword()).isEqualTo("hash");
+        assertThat(second.getAuthorities()).extracting(Object::toString).containsExactly("ROLE_ORGANISATEUR");
+        verify(userRepository, times(1)).findByUsername("alice");
+    }
+
+    @Test
+    void loadUserByUsername_reloadsAfterInvalidation() {
+        when(userRepository.findByUsername("alice")).thenReturn(Optional.of(user("ORGANISATEUR")));
+        service.loadUserByUsername("alice");
+        when(userRepository.findByUsername("alice")).thenReturn(Optional.of(user("PRATICIEN")));
+
+        userCache.invalidate("alice");
+
+        assertThat(service.loadUserByUsername("alice").getAuthorities())
+                .extracting(Object::toString).containsExactly("ROLE_PRATICIEN");
+    }
+
+    @Test
+    void loadUserByUsername_unknownUserIsNotCached() {
+        when(userRepository.findByUsername("bob")).thenReturn(Optional.empty());
+
+        assertThatThrownBy(() -> service.loadUserByUsername("bob")).isInstanceOf(UsernameNotFoundException.class);
+        assertThatThrownBy(() -> service.loadUserByUsername("bob")).isInstanceOf(UsernameNotFoundException.class);
+        verify(userRepository, times(2)).findByUsername("bob");
+    }
+
+    private static AppUser user(String role) {
+        AppUser user = new AppUser();
+        user.setUsername("alice");
+        user.setPassword("hash");
+        user.setRole(role);
+        return user;
+    }
+}
@@ -0,0 +1,145 @@
+package com.medilabo.patientui.security;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.medilabo.patientui.config.AppConfig;
+import org.apache.hc.client5.http.impl.classic.HttpClients;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.test.web.client.MockServerRestTemplateCustomizer;
+import org.springframework.boot.web.client.RestTemplateBuilder;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.MediaType;
+import org.springframework.security.core.authority.AuthorityUtils;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.test.web.client.MockRestServiceServer;
+import org.springframework.web.client.RestClientException;
+import org.springframework.web.client.RestTemplate;
+
+import javax.crypto.Mac;
+import javax.crypto.spec.SecretKeySpec;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Base64;
+import java.util.concurrent.ExecutorService;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.springframework.test.web.client.ExpectedCount.once;
+import static org.springframework.test.web.client.match.MockRestRequestMatchers.header;
+import static org.springframework.test.web.client.match.MockRestRequestMatchers.method;
+import static org.springframework.test.web.client.match.MockRestRequestMatchers.requestTo;
+import static org.springframework.test.web.client.response.MockRestResponseCreators.withSuccess;
+
+class GatewayTokenServiceTest {
+
+    private static final String TOKEN_URL = "http://gateway-service:8080/auth/token";
+
+    private static final String ISSUER = "medilabo-gateway";
+
+    private static final String SECRET = "secret-de-test-de-32-octets-minimum";
+
+    private MockServerRestTemplateCustomizer gateway;
+
+    private GatewayTokenService tokenService;
+
+    @BeforeEach
+    void setUp() {
+        gateway = new MockServerRestTemplateCustomizer();
+        tokenService = new GatewayTokenService(new RestTemplateBuilder(gateway), HttpClients.createDefault(),
+                new ObjectMapper(), TOKEN_URL, ISSUER, SECRET, Duration.ofSeconds(30));
+    }
+
+    @AfterEach
+    void clearContext() {
+        SecurityContextHolder.clearContext();
+    }
+
+    @Test
+    void authenticate_exchangesCredentialsForVerifiedToken() {
+        String token = token(SECRET, ISSUER, "alice", Instant.now().plusSeconds(900));
+        MockRestServiceServer server = gateway.getServer();
+        server.expect(once(), requestTo(TOKEN_URL))
+                .andExpect(method(HttpMethod.POST))
+                .andExpect(header(HttpHeaders.AUTHORIZATION, "Basic " + base64("alice:secret")))
+                .andRespond(withSuccess("{\"access_token\":\"" + token + "\",\"token_type\":\"Bearer\",\"expires_in\":900}",
+                        MediaType.APPLICATION_JSON));
+
+        GatewayAuthentication authentication = tokenService.authenticate("alice", "secret");
+
+        server.verify();
+        assertThat(authentication.getName()).isEqualTo("alice");
+        assertThat(authentication.getToken()).isEqualTo(token);
+        assertThat(AuthorityUtils.authorityListToSet(authentication.getAuthorities())).containsExactly("ROLE_PRATICIEN");
+    }
+
+    @Test
+    void authenticate_failsWhenGatewayReturnsUnverifiableToken() {
+        String token = token("un-autre-secret-de-32-octets-minimum", ISSUER, "alice", Instant.now().plusSeconds(900));
+        gateway.getServer().expect(requestTo(TOKEN_URL))
+                .andRespond(withSuccess("{\"access_token\":\"" + token + "\",\"expires_in\":900}", MediaType.APPLICATION_JSON));
+
+        assertThatThrownBy(() -> tokenService.authenticate("alice", "secret")).isInstanceOf(RestClientException.class);
+    }
+
+    @Test
+    void verify_rejectsForgedExpiredOrForeignTokens() {
+        String valid = token(SECRET, ISSUER, "alice", Instant.now().plusSeconds(900));
+        String[] parts = valid.split("\\.");
+        String forged = parts[0] + "." + base64Url("{\"iss\":\"" + ISSUER + "\",\"sub\":\"bob\",\"exp\":"
+                + Instant.now().plusSeconds(900).getEpochSecond() + ",\"roles\":[\"ROLE_ORGANISATEUR\"]}") + "." + parts[2];
+
+        assertThat(tokenService.verify(valid)).isPresent();
+        assertThat(tokenService.verify(forged)).isEmpty();
+        assertThat(tokenService.verify(token(SECRET, ISSUER, "alice", Instant.now().plusSeconds(20)))).isEmpty();
+        assertThat(tokenService.verify(token(SECRET, "autre-emetteur", "alice", Instant.now().plusSeconds(900)))).isEmpty();
+        assertThat(tokenService.verify("pas-un-jeton")).isEmpty();
+    }
+
+    @Test
+    void interceptor_attachesTokenOfUserOnOverviewThreads() throws Exception {
+        RestTemplate restTemplate = new RestTemplate();
+        restTemplate.getInterceptors().add(new GatewayTokenInterceptor());
+        MockRestServiceServer notes = MockRestServiceServer.bindTo(restTemplate).build();
+        notes.expect(requestTo("http://gateway-service:8080/notes/patient/1/count"))
+                .andExpect(header(HttpHeaders.AUTHORIZATION, "Bearer jeton-alice"))
+                .andRespond(withSuccess("3", MediaType.APPLICATION_JSON));
+        SecurityContextHolder.getContext().setAuthentication(new GatewayAuthentication(
+                "alice", AuthorityUtils.createAuthorityList("ROLE_PRATICIEN"), "jeton-alice",
+                Instant.now().plusSeconds(900)));
+
+        try (ExecutorService executor = new AppConfig().overviewExecutor()) {
+            Long count = executor.submit(() -> restTemplate.getForObject(
+                    "http://gateway-service:8080/notes/patient/1/count", Long.class)).get();
+            assertThat(count).isEqualTo(3L);
+        }
+        notes.verify();
+    }
+
+    private static String base64(String value) {
+        return Base64.getEncoder().encodeToString(value.getBytes());
+    }
+
+    private static String base64Url(String value) {
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(value.getBytes(StandardCharsets.UTF_8));
+    }
+
+    /**
+     * Jeton HS256 au format de ceux de la gateway (rôle PRATICIEN).
+     */
+    private static String token(String secret, String issuer, String subject, Instant expiresAt) {
+        String content = base64Url("{\"alg\":\"HS256\"}") + "." + base64Url("{\"iss\":\"" + issuer
+                + "\",\"sub\":\"" + subject + "\",\"exp\":" + expiresAt.getEpochSecond()
+                + ",\"roles\":[\"ROLE_PRATICIEN\"]}");
+        try {
+            Mac mac = Mac.getInstance("HmacSHA256");
+            mac.init(new SecretKeySpec(secret.getBytes(StandardCharsets.UTF_8), "HmacSHA256"));
+            return content + "." + Base64.getUrlEncoder().withoutPadding()
+                    .encodeToString(mac.doFinal(content.getBytes(StandardCharsets.US_ASCII)));
+        } catch (Exception e) {
+            throw new IllegalStateException(e);
+        }
+    }
+}
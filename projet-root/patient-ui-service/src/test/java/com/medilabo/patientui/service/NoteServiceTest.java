@@ -23,18 +23,7 @@ class NoteServiceTest {
     @BeforeEach
     void setUp() {
         restTemplate = new RestTemplate(new SimpleClientHttpRequestFactory());
-        noteService = new NoteService() {
-            @Override
-            public List<Map<String, Object>> getNotesByPatientId(Long patientId) {
-                return restTemplate.getForObject("http://note-service:8083/notes/patient/" + patientId, List.class);
-            }
-
-            @Override
-            public void ajouterNote(Long patientId, String contenu) {
-                Map<String, Object> note = Map.of("patientId", patientId, "contenu", contenu);
-                restTemplate.postForObject("http://note-service:8083/notes", note, Void.class);
-            }
-        };
+        noteService = new NoteService(restTemplate);
         mockServer = MockRestServiceServer.createServer(restTemplate);
     }
 
@@ -47,7 +36,7 @@ class NoteServiceTest {
             ]
         """;
 
-        mockServer.expect(requestTo("http://note-service:8083/notes/patient/1"))
+        mockServer.expect(requestTo("http://gateway-service:8080/notes/patient/1"))
                 .andRespond(withSuccess(jsonResponse, MediaType.APPLICATION_JSON));
 
         List<Map<String, Object>> notes = noteService.getNotesByPatientId(1L);
@@ -58,9 +47,54 @@ class NoteServiceTest {
         mockServer.verify();
     }
 
+    @Test
+    void getNotesByPatientIds_shouldUseSingleBulkCall() {
+        String jsonResponse = """
+            {"1":[{"patientId":1,"contenu":"note 1"}],"2":[{"patientId":2,"contenu":"note 2"}]}
+        """;
+
+        mockServer.expect(requestTo("http://gateway-service:8080/notes/patients"))
+                .andExpect(method(org.springframework.http.HttpMethod.POST))
+                .andExpect(content().json("[1, 2]"))
+                .andRespond(withSuccess(jsonResponse, MediaType.APPLICATION_JSON));
+
+        Map<Long, List<Map<String, Object>>> notes = noteService.getNotesByPatientIds(List.of(1L, 2L));
+
+        assertThat(notes).containsOnlyKeys(1L, 2L);
+        assertThat(notes.get(2L).get(0)).containsEntry("contenu", "note 2");
+
+        mockServer.verify();
+    }
+
+    @Test
+    void countNotesByPatientId_shouldUseCountEndpoint() {
+        mockServer.expect(requestTo("http://gateway-service:8080/notes/patient/1/count"))
+                .andRespond(withSuccess("3", MediaType.APPLICATION_JSON));
+
+        assertThat(noteService.countNotesByPatientId(1L)).isEqualTo(3);
+
+        mockServer.verify();
+    }
+
+    @Test
+    void countNotesByPatientIds_shouldUseSingleBulkCallWithoutNoteBodies() {
+        String jsonResponse = """
+            [{"patientId":1,"noteCount":2,"triggerCount":5,"unindexedNotes":0}]
+        """;
+
+        mockServer.expect(requestTo("http://gateway-service:8080/notes/patients/triggers"))
+                .andExpect(method(org.springframework.http.HttpMethod.POST))
+                .andExpect(content().json("[1, 2]"))
+                .andRespond(withSuccess(jsonResponse, MediaType.APPLICATION_JSON));
+
+        assertThat(noteService.countNotesByPatientIds(List.of(1L, 2L))).containsExactly(Map.entry(1L, 2L));
+
+        mockServer.verify();
+    }
+
     @Test
     void ajouterNote_shouldPostNoteToService() {
-        mockServer.expect(requestTo("http://note-service:8083/notes"))
+        mockServer.expect(requestTo("http://gateway-service:8080/notes"))
                 .andExpect(method(org.springframework.http.HttpMethod.POST))
                 .andExpect(jsonPath("$.patientId").value(1))
                 .andExpect(jsonPath("$.contenu").value("test note"))
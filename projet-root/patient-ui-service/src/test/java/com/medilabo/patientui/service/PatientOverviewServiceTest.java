@@ -0,0 +1,114 @@
+package com.medilabo.patientui.service;
+
+import com.medilabo.patientui.dto.PatientOverview;
+import com.medilabo.patientui.dto.RiskAssessmentResponse;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpStatus;
+import org.springframework.web.client.HttpServerErrorException;
+import org.springframework.web.client.RestTemplate;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.stream.LongStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.*;
+
+class PatientOverviewServiceTest {
+
+    private static final String RISK_BATCH_URL = "http://gateway-service:8080/assess/batch";
+
+    private NoteService noteService;
+    private RestTemplate restTemplate;
+    private ExecutorService executor;
+
+    @BeforeEach
+    void setUp() {
+        noteService = mock(NoteService.class);
+        restTemplate = mock(RestTemplate.class);
+        executor = Executors.newVirtualThreadPerTaskExecutor();
+    }
+
+    @AfterEach
+    void tearDown() {
+        executor.close();
+    }
+
+    @Test
+    void loadOverview_fetchesRiskOfWholePageInOneBatchCall() {
+        List<Long> ids = LongStream.rangeClosed(1, 100).boxed().toList();
+        when(noteService.countNotesByPatientIds(ids)).thenReturn(Map.of(1L, 3L));
+        when(restTemplate.postForObject(RISK_BATCH_URL, ids, RiskAssessmentResponse[].class))
+                .thenReturn(ids.stream().filter(id -> id != 50L).map(id -> risk(id, "None")).toArray(RiskAssessmentResponse[]::new));
+
+        PatientOverview overview = service(Duration.ofSeconds(5)).loadOverview(ids);
+
+        assertThat(overview.getRiskByPatient()).hasSize(100)
+                .containsEntry(1L, "None")
+                .containsEntry(50L, PatientOverviewService.UNAVAILABLE);
+        assertThat(overview.getNoteCountByPatient()).containsEntry(1L, 3L).containsEntry(2L, 0L);
+        verify(noteService, never()).getNotesByPatientIds(anyCollection());
+        verify(restTemplate, times(1)).postForObject(anyString(), any(), eq(RiskAssessmentResponse[].class));
+        verify(restTemplate, never()).getForObject(anyString(), eq(RiskAssessmentResponse.class));
+    }
+
+    @Test
+    void loadOverview_marksRiskUnavailableWhenBatchCallIsTooSlow() {
+        when(noteService.countNotesByPatientIds(List.of(1L, 2L))).thenReturn(Map.of(1L, 1L));
+        when(restTemplate.postForObject(RISK_BATCH_URL, List.of(1L, 2L), RiskAssessmentResponse[].class))
+                .thenAnswer(invocation -> {
+                    Thread.sleep(5_000);
+                    return new RiskAssessmentResponse[] {risk(1L, "None"), risk(2L, "None")};
+                });
+
+        long start = System.nanoTime();
+        PatientOverview overview = service(Duration.ofMillis(300)).loadOverview(List.of(1L, 2L));
+
+        assertThat(Duration.ofNanos(System.nanoTime() - start)).isLessThan(Duration.ofSeconds(2));
+        assertThat(overview.getRiskByPatient()).containsEntry(1L, PatientOverviewService.UNAVAILABLE)
+                .containsEntry(2L, PatientOverviewService.UNAVAILABLE);
+        assertThat(overview.getNoteCountByPatient()).containsEntry(1L, 1L);
+    }
+
+    @Test
+    void loadOverview_marksRiskUnavailableWhenBatchCallFails() {
+        when(noteService.countNotesByPatientId(1L)).thenReturn(0L);
+        when(restTemplate.postForObject(RISK_BATCH_URL, List.of(1L), RiskAssessmentResponse[].class))
+                .thenThrow(new HttpServerErrorException(HttpStatus.SERVICE_UNAVAILABLE));
+
+        PatientOverview overview = service(Duration.ofSeconds(1)).loadOverview(List.of(1L));
+
+        assertThat(overview.getRiskByPatient()).containsEntry(1L, PatientOverviewService.UNAVAILABLE);
+        assertThat(overview.getNoteCountByPatient()).containsEntry(1L, 0L);
+    }
+
+    @Test
+    void loadOverview_countsNotesOfSinglePatientWithoutDownloadingThem() {
+        when(noteService.countNotesByPatientId(1L)).thenReturn(4L);
+        when(restTemplate.postForObject(RISK_BATCH_URL, List.of(1L), RiskAssessmentResponse[].class))
+                .thenReturn(new RiskAssessmentResponse[] {risk(1L, "Borderline")});
+
+        PatientOverview overview = service(Duration.ofSeconds(1)).loadOverview(List.of(1L));
+
+        assertThat(overview.getNoteCountByPatient()).containsEntry(1L, 4L);
+        assertThat(overview.getRiskByPatient()).containsEntry(1L, "Borderline");
+        verify(noteService, never()).getNotesByPatientId(anyLong());
+        verify(noteService, never()).getNotesByPatientIds(anyCollection());
+    }
+
+    private PatientOverviewService service(Duration pageDeadline) {
+        return new PatientOverviewService(noteService, restTemplate, executor, pageDeadline);
+    }
+
+    private static RiskAssessmentResponse risk(Long patientId, String level) {
+        RiskAssessmentResponse risk = new RiskAssessmentResponse();
+        risk.setPatientId(patientId);
+        risk.setRiskLevel(level);
+        return risk;
+    }
+}
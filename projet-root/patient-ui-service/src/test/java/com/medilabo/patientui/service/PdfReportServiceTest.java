@@ -0,0 +1,161 @@
+package com.medilabo.patientui.service;
+
+import com.itextpdf.text.pdf.PdfReader;
+import com.medilabo.patientui.dto.PatientPage;
+import com.medilabo.patientui.dto.RiskAssessmentResponse;
+import com.medilabo.patientui.dto.RiskLevelPage;
+import com.medilabo.patientui.model.Patient;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpStatus;
+import org.springframework.web.client.HttpClientErrorException;
+import org.springframework.web.client.RestTemplate;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.LongStream;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipInputStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+class PdfReportServiceTest {
+
+    private static final String RISK_BATCH_URL = "http://gateway-service:8080/assess/batch";
+    private static final String PATIENT_BATCH_URL = "http://gateway-service:8080/patients/batch";
+    private static final String RISK_LEVEL_URL = "http://gateway-service:8080/assess/levels/{riskLevel}?after={after}&limit={limit}";
+
+    private PatientService patientService;
+    private RestTemplate restTemplate;
+    private PdfReportService service;
+
+    @BeforeEach
+    void setUp() {
+        patientService = mock(PatientService.class);
+        restTemplate = mock(RestTemplate.class);
+        service = new PdfReportService(patientService, restTemplate);
+    }
+
+    @Test
+    void export_wholeBaseAsSinglePdf_walksPagesAndAssessesPerBatch() throws Exception {
+        when(patientService.getPatientPage(null, PdfReportService.BATCH_SIZE))
+                .thenReturn(new PatientPage(List.of(patient(1L), patient(2L)), 2L));
+        when(patientService.getPatientPage(2L, PdfReportService.BATCH_SIZE))
+                .thenReturn(new PatientPage(List.of(patient(3L)), null));
+        when(restTemplate.postForObject(RISK_BATCH_URL, List.of(1L, 2L), RiskAssessmentResponse[].class))
+                .thenReturn(new RiskAssessmentResponse[] {risk(1L, "None"), risk(2L, "Borderline")});
+        when(restTemplate.postForObject(RISK_BATCH_URL, List.of(3L), RiskAssessmentResponse[].class))
+                .thenReturn(new RiskAssessmentResponse[] {risk(3L, "In Danger")});
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+
+        int count = service.export(null, null, false, PdfReportService.Format.PDF, out);
+
+        assertThat(count).isEqualTo(3);
+        assertThat(new PdfReader(out.toByteArray()).getNumberOfPages()).isEqualTo(3);
+        verify(restTemplate, never()).getForObject(anyString(), eq(RiskAssessmentResponse.class));
+    }
+
+    @Test
+    void export_selectedPatientsAsZip_keepsOnlyRequestedRiskLevel() throws Exception {
+        when(restTemplate.postForObject(PATIENT_BATCH_URL, List.of(1L, 2L), Patient[].class))
+                .thenReturn(new Patient[] {patient(1L), patient(2L)});
+        when(restTemplate.postForObject(RISK_BATCH_URL, List.of(1L, 2L), RiskAssessmentResponse[].class))
+                .thenReturn(new RiskAssessmentResponse[] {risk(1L, "None"), risk(2L, "In Danger")});
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+
+        int count = service.export(List.of(1L, 2L), "in danger", false, PdfReportService.Format.ZIP, out);
+
+        List<String> entries = new ArrayList<>();
+        try (ZipInputStream zip = new ZipInputStream(new ByteArrayInputStream(out.toByteArray()))) {
+            for (ZipEntry entry = zip.getNextEntry(); entry != null; entry = zip.getNextEntry()) {
+                entries.add(entry.getName());
+                assertThat(new PdfReader(zip.readAllBytes()).getNumberOfPages()).isEqualTo(1);
+            }
+        }
+        assertThat(count).isEqualTo(1);
+        assertThat(entries).containsExactly("rapport_patient_2.pdf");
+        verify(patientService, never()).getPatientPage(any(), anyInt());
+    }
+
+    @Test
+    void export_byRiskLevelOnly_assessesOnlyCandidatesOfLatestRun() throws Exception {
+        when(restTemplate.getForObject(RISK_LEVEL_URL, RiskLevelPage.class, "In Danger", 0L, PdfReportService.BATCH_SIZE))
+                .thenReturn(new RiskLevelPage(List.of(4L, 9L), 9L));
+        when(restTemplate.getForObject(RISK_LEVEL_URL, RiskLevelPage.class, "In Danger", 9L, PdfReportService.BATCH_SIZE))
+                .thenReturn(new RiskLevelPage(List.of(), null));
+        when(restTemplate.postForObject(PATIENT_BATCH_URL, List.of(4L, 9L), Patient[].class))
+                .thenReturn(new Patient[] {patient(4L), patient(9L)});
+        // Le patient 9 a changé de niveau depuis le recalcul, l’évaluation du patient 4 a échoué.
+        when(restTemplate.postForObject(RISK_BATCH_URL, List.of(4L, 9L), RiskAssessmentResponse[].class))
+                .thenReturn(new RiskAssessmentResponse[] {null, risk(9L, "None")});
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+
+        int count = service.export(null, "In Danger", true, PdfReportService.Format.PDF, out);
+
+        assertThat(count).isZero();
+        assertThat(new PdfReader(out.toByteArray()).getNumberOfPages()).isEqualTo(1);
+        verify(patientService, never()).getPatientPage(any(), anyInt());
+    }
+
+    @Test
+    void export_byRiskLevelOnly_walksWholeBaseWhenNoRunCompleted() throws Exception {
+        when(restTemplate.getForObject(eq(RISK_LEVEL_URL), eq(RiskLevelPage.class), any(Object[].class)))
+                .thenThrow(HttpClientErrorException.create(HttpStatus.NOT_FOUND, "Not Found", null, null, null));
+        when(patientService.getPatientPage(null, PdfReportService.BATCH_SIZE))
+                .thenReturn(new PatientPage(List.of(patient(1L), patient(2L)), null));
+        when(restTemplate.postForObject(RISK_BATCH_URL, List.of(1L, 2L), RiskAssessmentResponse[].class))
+                .thenReturn(new RiskAssessmentResponse[] {risk(1L, "None"), risk(2L, "In Danger")});
+
+        int count = service.export(null, "In Danger", true, PdfReportService.Format.PDF, new ByteArrayOutputStream());
+
+        assertThat(count).isEqualTo(1);
+    }
+
+    @Test
+    void export_byRiskLevelOnly_reassessesWholeBaseByDefault() throws Exception {
+        // Le patient 1 est arrivé depuis le dernier recalcul, le patient 2 a changé de niveau depuis.
+        when(patientService.getPatientPage(null, PdfReportService.BATCH_SIZE))
+                .thenReturn(new PatientPage(List.of(patient(1L), patient(2L), patient(3L)), null));
+        when(restTemplate.postForObject(RISK_BATCH_URL, List.of(1L, 2L, 3L), RiskAssessmentResponse[].class))
+                .thenReturn(new RiskAssessmentResponse[] {risk(1L, "In Danger"), risk(2L, "In Danger"), risk(3L, "None")});
+
+        int count = service.export(null, "In Danger", false, PdfReportService.Format.PDF, new ByteArrayOutputStream());
+
+        assertThat(count).isEqualTo(2);
+        verify(restTemplate, never()).getForObject(eq(RISK_LEVEL_URL), eq(RiskLevelPage.class), any(Object[].class));
+    }
+
+    @Test
+    void export_skipsBatchesOfUnknownPatientsWithoutRecursion() throws Exception {
+        List<Long> ids = LongStream.rangeClosed(1, 10L * PdfReportService.BATCH_SIZE + 1).boxed().toList();
+        when(restTemplate.postForObject(eq(PATIENT_BATCH_URL), anyList(), eq(Patient[].class)))
+                .thenReturn(new Patient[0]);
+        when(restTemplate.postForObject(PATIENT_BATCH_URL, List.of(ids.getLast()), Patient[].class))
+                .thenReturn(new Patient[] {patient(ids.getLast())});
+        when(restTemplate.postForObject(RISK_BATCH_URL, List.of(ids.getLast()), RiskAssessmentResponse[].class))
+                .thenReturn(new RiskAssessmentResponse[] {risk(ids.getLast(), "None")});
+
+        int count = service.export(ids, null, false, PdfReportService.Format.PDF, new ByteArrayOutputStream());
+
+        assertThat(count).isEqualTo(1);
+        verify(restTemplate, times(11)).postForObject(eq(PATIENT_BATCH_URL), anyList(), eq(Patient[].class));
+    }
+
+    private static Patient patient(Long id) {
+        Patient patient = new Patient();
+        patient.setId(id);
+        patient.setNom("Patient " + id);
+        return patient;
+    }
+
+    private static RiskAssessmentResponse risk(Long patientId, String level) {
+        RiskAssessmentResponse risk = new RiskAssessmentResponse();
+        risk.setPatientId(patientId);
+        risk.setRiskLevel(level);
+        return risk;
+    }
+}
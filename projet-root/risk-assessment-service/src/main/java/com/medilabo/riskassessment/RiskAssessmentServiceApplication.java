@@ -1,9 +1,16 @@
 package com.medilabo.riskassessment;
 
+import com.medilabo.common.security.RequiredIdentityFilter;
+import com.medilabo.common.security.ServiceIdentityConfig;
+import io.micrometer.context.ContextExecutorService;
+import io.micrometer.context.ContextSnapshotFactory;
 import org.springframework.boot.SpringApplication;
 import org.springframework.boot.autoconfigure.SpringBootApplication;
 import org.springframework.context.annotation.Bean;
-import org.springframework.web.client.RestTemplate;
+import org.springframework.context.annotation.Import;
+
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
 
 /**
  * Classe principale du microservice Risk Assessment.
@@ -11,8 +18,14 @@ import org.springframework.web.client.RestTemplate;
  * Ce microservice analyse les données d’un patient pour déterminer son niveau de risque de diabète.
  * Il interroge les microservices patient-service et note-service via HTTP.
  * </p>
+ * <p>
+ * Seules les requêtes portant l’identité transmise par la gateway ou par un autre microservice
+ * sont acceptées ({@link RequiredIdentityFilter}) ; les appels sortants portent l’identité de ce
+ * service ({@link ServiceIdentityConfig}).
+ * </p>
  */
 @SpringBootApplication
+@Import({ServiceIdentityConfig.class, RequiredIdentityFilter.class})
 public class RiskAssessmentServiceApplication {
 
     /**
@@ -25,13 +38,23 @@ public class RiskAssessmentServiceApplication {
     }
 
     /**
-     * Déclare un {@link RestTemplate} en tant que bean Spring pour permettre les appels REST
-     * vers les autres microservices (ex. : patient-service, note-service).
+     * Déclare l’exécuteur utilisé pour paralléliser les appels vers les autres microservices.
+     * <p>
+     * Chaque tâche s’exécute sur son propre thread virtuel : un appel HTTP bloquant ne mobilise
+     * aucun thread système, ce qui permet de traiter des milliers d’évaluations simultanées
+     * sans pool de threads dimensionné à l’avance.
+     * </p>
+     * <p>
+     * Chaque tâche reprend le contexte du thread qui la soumet (trace en cours notamment) :
+     * les appels vers patient-service et note-service apparaissent dans la trace de la requête
+     * d’origine au lieu de démarrer une nouvelle trace.
+     * </p>
      *
-     * @return une instance de {@link RestTemplate}
+     * @return un {@link ExecutorService} à threads virtuels
      */
-    @Bean
-    public RestTemplate restTemplate() {
-        return new RestTemplate();
+    @Bean(destroyMethod = "close")
+    public ExecutorService riskExecutor() {
+        return ContextExecutorService.wrap(Executors.newVirtualThreadPerTaskExecutor(),
+                ContextSnapshotFactory.builder().build());
     }
 }
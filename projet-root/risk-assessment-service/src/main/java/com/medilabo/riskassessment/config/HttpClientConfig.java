@@ -0,0 +1,37 @@
+package com.medilabo.riskassessment.config;
+
+import com.medilabo.common.http.PooledHttpClientConfig;
+import org.apache.hc.client5.http.impl.classic.CloseableHttpClient;
+import org.springframework.boot.web.client.RestTemplateBuilder;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Import;
+import org.springframework.http.client.HttpComponentsClientHttpRequestFactory;
+import org.springframework.web.client.RestTemplate;
+
+/**
+ * Configuration du client HTTP utilisé pour les appels vers patient-service et note-service.
+ * <p>
+ * Le pool de connexions, ses délais et ses métriques sont ceux de {@link PooledHttpClientConfig}
+ * (module medilabo-common), réglés par les propriétés {@code medilabo.http.*}.
+ * </p>
+ */
+@Configuration
+@Import(PooledHttpClientConfig.class)
+public class HttpClientConfig {
+
+    /**
+     * Déclare le {@link RestTemplate} utilisé pour les appels REST vers les autres microservices
+     * (patient-service, note-service), adossé au client HTTP à connexions mutualisées.
+     *
+     * @param builder le builder fourni par Spring Boot (convertisseurs, observations)
+     * @param httpClient le client HTTP
+     * @return une instance de {@link RestTemplate}
+     */
+    @Bean
+    public RestTemplate restTemplate(RestTemplateBuilder builder, CloseableHttpClient httpClient) {
+        return builder
+                .requestFactory(() -> new HttpComponentsClientHttpRequestFactory(httpClient))
+                .build();
+    }
+}
@@ -0,0 +1,183 @@
+package com.medilabo.riskassessment.config;
+
+import com.medilabo.riskassessment.service.DownstreamGuard;
+
+import io.github.resilience4j.circuitbreaker.CircuitBreakerConfig;
+import io.github.resilience4j.circuitbreaker.CircuitBreakerRegistry;
+import io.github.resilience4j.micrometer.tagged.TaggedCircuitBreakerMetrics;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.web.client.HttpClientErrorException;
+import org.springframework.web.reactive.function.client.WebClientResponseException;
+
+import java.time.Duration;
+import java.util.concurrent.ExecutorService;
+
+/**
+ * Configuration des disjoncteurs et de la couverture (hedging) des appels vers patient-service et note-service.
+ * <p>
+ * Un disjoncteur distinct est associé à chaque service aval : la panne de note-service n’empêche
+ * pas d’interroger patient-service. Les erreurs 4xx (patient inconnu, par exemple) ne sont pas
+ * comptées comme des échecs du service, qu’elles viennent de {@code RestTemplate} ou de {@code WebClient}.
+ * </p>
+ */
+@Configuration
+public class ResilienceConfig {
+
+    /**
+     * Registre des disjoncteurs, partageant une même configuration.
+     *
+     * @param failureRateThreshold pourcentage d’échecs au-delà duquel le disjoncteur s’ouvre
+     * @param slowCallDuration durée au-delà de laquelle un appel est considéré comme lent
+     * @param slowCallRateThreshold pourcentage d’appels lents au-delà duquel le disjoncteur s’ouvre
+     * @param slidingWindowSize nombre d’appels récents pris en compte
+     * @param minimumCalls nombre minimal d’appels avant de calculer les taux
+     * @param openDuration durée d’ouverture avant les appels d’essai
+     * @param halfOpenCalls nombre d’appels d’essai
+     * @return le registre des disjoncteurs
+     */
+    @Bean
+    public CircuitBreakerRegistry circuitBreakerRegistry(
+            @Value("${medilabo.risk.circuit-breaker.failure-rate-threshold:50}") float failureRateThreshold,
+            @Value("${medilabo.risk.circuit-breaker.slow-call-duration:1s}") Duration slowCallDuration,
+            @Value("${medilabo.risk.circuit-breaker.slow-call-rate-threshold:80}") float slowCallRateThreshold,
+            @Value("${medilabo.risk.circuit-breaker.sliding-window-size:20}") int slidingWindowSize,
+            @Value("${medilabo.risk.circuit-breaker.minimum-calls:10}") int minimumCalls,
+            @Value("${medilabo.risk.circuit-breaker.open-duration:10s}") Duration openDuration,
+            @Value("${medilabo.risk.circuit-breaker.half-open-calls:3}") int halfOpenCalls) {
+        return CircuitBreakerRegistry.of(CircuitBreakerConfig.custom()
+                .failureRateThreshold(failureRateThreshold)
+                .slowCallDurationThreshold(slowCallDuration)
+                .slowCallRateThreshold(slowCallRateThreshold)
+                .slidingWindowSize(slidingWindowSize)
+                .minimumNumberOfCalls(minimumCalls)
+                .waitDurationInOpenState(openDuration)
+                .permittedNumberOfCallsInHalfOpenState(halfOpenCalls)
+                .ignoreException(e -> e instanceof HttpClientErrorException
+                        || e instanceof WebClientResponseException response && response.getStatusCode().is4xxClientError())
+                .build());
+    }
+
+    /**
+     * Garde des appels vers patient-service.
+     *
+     * @param registry registre des disjoncteurs
+     * @param riskExecutor exécuteur des tentatives
+     * @param timeout délai maximal d’un appel
+     * @param hedging active la seconde tentative
+     * @param initialDelay délai de couverture initial
+     * @param minDelay délai de couverture minimal
+     * @return le garde de patient-service
+     */
+    @Bean
+    public DownstreamGuard patientServiceGuard(CircuitBreakerRegistry registry,
+                                               @Qualifier("riskExecutor") ExecutorService riskExecutor,
+                                               @Value("${medilabo.risk.downstream-timeout:2s}") Duration timeout,
+                                               @Value("${medilabo.risk.hedge.enabled:true}") boolean hedging,
+                                               @Value("${medilabo.risk.hedge.initial-delay:150ms}") Duration initialDelay,
+                                               @Value("${medilabo.risk.hedge.min-delay:20ms}") Duration minDelay) {
+        return new DownstreamGuard("patient-service", registry.circuitBreaker("patient-service"), riskExecutor,
+                timeout, hedging, initialDelay, minDelay);
+    }
+
+    /**
+     * Garde des appels vers note-service.
+     *
+     * @param registry registre des disjoncteurs
+     * @param riskExecutor exécuteur des tentatives
+     * @param timeout délai maximal d’un appel
+     * @param hedging active la seconde tentative
+     * @param initialDelay délai de couverture initial
+     * @param minDelay délai de couverture minimal
+     * @return le garde de note-service
+     */
+    @Bean
+    public DownstreamGuard noteServiceGuard(CircuitBreakerRegistry registry,
+                                            @Qualifier("riskExecutor") ExecutorService riskExecutor,
+                                            @Value("${medilabo.risk.downstream-timeout:2s}") Duration timeout,
+                                            @Value("${medilabo.risk.hedge.enabled:true}") boolean hedging,
+                                            @Value("${medilabo.risk.hedge.initial-delay:150ms}") Duration initialDelay,
+                                            @Value("${medilabo.risk.hedge.min-delay:20ms}") Duration minDelay) {
+        return new DownstreamGuard("note-service", registry.circuitBreaker("note-service"), riskExecutor,
+                timeout, hedging, initialDelay, minDelay);
+    }
+
+    /**
+     * Garde des appels du recalcul de population vers patient-service.
+     * <p>
+     * Disjoncteur distinct de celui des évaluations à la demande et sans seconde tentative :
+     * le recalcul lit des pages entières et doit pouvoir attendre sans doubler la charge.
+     * </p>
+     *
+     * @param registry registre des disjoncteurs
+     * @param riskExecutor exécuteur des tentatives
+     * @param timeout délai maximal d’un appel
+     * @param initialDelay délai de couverture initial
+     * @param minDelay délai de couverture minimal
+     * @return le garde de patient-service pour le recalcul
+     */
+    @Bean
+    public DownstreamGuard patientServiceJobGuard(CircuitBreakerRegistry registry,
+                                                  @Qualifier("riskExecutor") ExecutorService riskExecutor,
+                                                  @Value("${medilabo.risk.downstream-timeout:2s}") Duration timeout,
+                                                  @Value("${medilabo.risk.hedge.initial-delay:150ms}") Duration initialDelay,
+                                                  @Value("${medilabo.risk.hedge.min-delay:20ms}") Duration minDelay) {
+        return new DownstreamGuard("patient-service-job", registry.circuitBreaker("patient-service-job"), riskExecutor,
+                timeout, false, initialDelay, minDelay);
+    }
+
+    /**
+     * Garde des appels du recalcul de population vers note-service, sans seconde tentative.
+     *
+     * @param registry registre des disjoncteurs
+     * @param riskExecutor exécuteur des tentatives
+     * @param timeout délai maximal d’un appel
+     * @param initialDelay délai de couverture initial
+     * @param minDelay délai de couverture minimal
+     * @return le garde de note-service pour le recalcul
+     */
+    @Bean
+    public DownstreamGuard noteServiceJobGuard(CircuitBreakerRegistry registry,
+                                               @Qualifier("riskExecutor") ExecutorService riskExecutor,
+                                               @Value("${medilabo.risk.downstream-timeout:2s}") Duration timeout,
+                                               @Value("${medilabo.risk.hedge.initial-delay:150ms}") Duration initialDelay,
+                                               @Value("${medilabo.risk.hedge.min-delay:20ms}") Duration minDelay) {
+        return new DownstreamGuard("note-service-job", registry.circuitBreaker("note-service-job"), riskExecutor,
+                timeout, false, initialDelay, minDelay);
+    }
+
+    /**
+     * Publie l’état des disjoncteurs ({@code resilience4j.circuitbreaker.*}) dans Micrometer.
+     *
+     * @param registry registre des disjoncteurs
+     * @return le binder Micrometer
+     */
+    @Bean
+    public MeterBinder circuitBreakerMetrics(CircuitBreakerRegistry registry) {
+        return TaggedCircuitBreakerMetrics.ofCircuitBreakerRegistry(registry);
+    }
+
+    /**
+     * Publie le nombre de secondes tentatives lancées par service aval ({@code risk.downstream.hedged}).
+     *
+     * @param patientServiceGuard garde de patient-service
+     * @param noteServiceGuard garde de note-service
+     * @return le binder Micrometer
+     */
+    @Bean
+    public MeterBinder hedgeMetrics(@Qualifier("patientServiceGuard") DownstreamGuard patientServiceGuard,
+                                    @Qualifier("noteServiceGuard") DownstreamGuard noteServiceGuard) {
+        return meterRegistry -> {
+            for (DownstreamGuard guard : new DownstreamGuard[] { patientServiceGuard, noteServiceGuard }) {
+                FunctionCounter.builder("risk.downstream.hedged", guard, DownstreamGuard::getHedgedCalls)
+                        .description("Appels pour lesquels une seconde tentative a été lancée")
+                        .tag("service", guard.getName())
+                        .register(meterRegistry);
+            }
+        };
+    }
+}
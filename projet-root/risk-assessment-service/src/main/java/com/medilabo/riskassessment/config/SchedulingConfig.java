@@ -0,0 +1,13 @@
+package com.medilabo.riskassessment.config;
+
+import org.springframework.context.annotation.Configuration;
+import org.springframework.scheduling.annotation.EnableScheduling;
+
+/**
+ * Active les traitements planifiés (recalcul nocturne du risque de toute la population,
+ * voir {@code medilabo.risk.job.cron}).
+ */
+@Configuration
+@EnableScheduling
+public class SchedulingConfig {
+}
@@ -0,0 +1,85 @@
+package com.medilabo.riskassessment.controller;
+
+import com.medilabo.riskassessment.dto.RiskAssessmentResponse;
+import com.medilabo.riskassessment.service.ReactiveRiskAssessmentService;
+import io.github.resilience4j.circuitbreaker.CallNotPermittedException;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.http.CacheControl;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+import org.springframework.web.reactive.function.client.WebClientResponseException;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.util.List;
+
+/**
+ * Endpoints non bloquants d’évaluation du risque, sous le préfixe <code>/assess/reactive</code>.
+ * <p>
+ * Disponibles lorsque <code>medilabo.risk.reactive.enabled</code> vaut {@code true}. Le thread
+ * de la requête est libéré pendant les appels aux autres microservices ; la réponse est écrite
+ * lorsque l’évaluation est prête.
+ * </p>
+ */
+@RestController
+@RequestMapping("/assess/reactive")
+@ConditionalOnProperty(name = "medilabo.risk.reactive.enabled", havingValue = "true")
+public class ReactiveRiskAssessmentController {
+
+    private final ReactiveRiskAssessmentService riskService;
+
+    public ReactiveRiskAssessmentController(ReactiveRiskAssessmentService riskService) {
+        this.riskService = riskService;
+    }
+
+    /**
+     * Évalue le risque de diabète d’un patient.
+     * <p>
+     * Une évaluation servie en mode dégradé est marquée {@code Cache-Control: no-store}, comme
+     * sur l’endpoint bloquant.
+     * </p>
+     *
+     * @param patientId identifiant du patient à analyser
+     * @return l’évaluation du patient
+     */
+    @GetMapping("/{patientId}")
+    public Mono<ResponseEntity<RiskAssessmentResponse>> getRisk(@PathVariable Long patientId) {
+        return riskService.assessRiskDetailed(patientId).map(response -> response.isStale()
+                ? ResponseEntity.ok().cacheControl(CacheControl.noStore()).body(response)
+                : ResponseEntity.ok(response));
+    }
+
+    /**
+     * Évalue le risque d’un ensemble de patients ; chaque évaluation est envoyée (une par ligne)
+     * dès qu’elle est prête.
+     *
+     * @param patientIds identifiants des patients à analyser
+     * @return le flux NDJSON des évaluations, dans l’ordre des identifiants demandés
+     */
+    @PostMapping(value = "/batch", produces = MediaType.APPLICATION_NDJSON_VALUE)
+    public Flux<RiskAssessmentResponse> getRiskBatch(@RequestBody List<Long> patientIds) {
+        return riskService.assessRiskBatch(patientIds);
+    }
+
+    /**
+     * @return une réponse 404 lorsque le patient est inconnu de patient-service
+     */
+    @ExceptionHandler(WebClientResponseException.NotFound.class)
+    public ResponseEntity<Void> handleUnknownPatient() {
+        return ResponseEntity.notFound().build();
+    }
+
+    /**
+     * Répond 503 lorsqu’un microservice aval est indisponible et qu’aucune évaluation
+     * antérieure ne peut être servie.
+     *
+     * @param e l’exception levée par le disjoncteur
+     * @return une réponse 503 Service Unavailable
+     */
+    @ExceptionHandler(CallNotPermittedException.class)
+    public ResponseEntity<String> handleOpenCircuit(CallNotPermittedException e) {
+        return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE).body(e.getMessage());
+    }
+}
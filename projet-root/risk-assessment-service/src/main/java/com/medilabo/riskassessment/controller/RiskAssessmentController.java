@@ -1,16 +1,25 @@
 package com.medilabo.riskassessment.controller;
 
 import com.medilabo.riskassessment.dto.RiskAssessmentResponse;
+import com.medilabo.riskassessment.dto.RiskLevelPage;
 import com.medilabo.riskassessment.service.RiskAssessmentService;
+import com.medilabo.riskassessment.service.RiskJobService;
+import io.github.resilience4j.circuitbreaker.CallNotPermittedException;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.CacheControl;
+import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.client.HttpServerErrorException;
+import org.springframework.web.client.ResourceAccessException;
+
+import java.util.List;
 
 /**
  * Contrôleur REST du microservice Risk Assessment.
  * <p>
- * Fournit un endpoint pour évaluer le niveau de risque de diabète d’un patient
- * à partir de son identifiant.
+ * Fournit des endpoints pour évaluer le niveau de risque de diabète d’un patient
+ * à partir de son identifiant, ou de plusieurs patients en un seul appel.
  * </p>
  */
 @RestController
@@ -20,8 +29,16 @@ public class RiskAssessmentController {
     @Autowired
     private RiskAssessmentService riskService;
 
+    @Autowired
+    private RiskJobService riskJobService;
+
     /**
      * Évalue le risque de diabète d’un patient donné en appelant le service métier.
+     * <p>
+     * Une évaluation antérieure servie en mode dégradé ({@link RiskAssessmentResponse#isStale()})
+     * est marquée {@code Cache-Control: no-store} : ni la gateway ni le client ne la conservent,
+     * la requête suivante obtient une évaluation à jour dès le rétablissement des services.
+     * </p>
      *
      * @param patientId identifiant du patient à analyser
      * @return un objet {@link RiskAssessmentResponse} contenant le niveau de risque et les informations patient
@@ -29,6 +46,103 @@ public class RiskAssessmentController {
     @GetMapping("/{patientId}")
     public ResponseEntity<RiskAssessmentResponse> getRisk(@PathVariable Long patientId) {
         RiskAssessmentResponse response = riskService.assessRiskDetailed(patientId);
+        if (response.isStale()) {
+            return ResponseEntity.ok().cacheControl(CacheControl.noStore()).body(response);
+        }
         return ResponseEntity.ok(response);
     }
+
+    /**
+     * Évalue le risque de diabète d’un ensemble de patients en un seul appel.
+     *
+     * @param patientIds identifiants des patients à analyser
+     * @return la liste des {@link RiskAssessmentResponse}, dans l’ordre des identifiants demandés
+     */
+    @PostMapping("/batch")
+    public ResponseEntity<List<RiskAssessmentResponse>> getRiskBatch(@RequestBody List<Long> patientIds) {
+        return ResponseEntity.ok(riskService.assessRiskBatch(patientIds));
+    }
+
+    /**
+     * Liste les patients classés à un niveau de risque par le dernier recalcul de population terminé.
+     * <p>
+     * Permet de sélectionner les patients d’un niveau donné sans réévaluer toute la patientèle ;
+     * les évaluations ont l’ancienneté du dernier recalcul.
+     * </p>
+     *
+     * @param riskLevel niveau de risque recherché
+     * @param after identifiant du dernier patient de la page précédente (absent pour la première page)
+     * @param limit nombre maximal de patients par page
+     * @return la page de patients, ou un code 404 si aucun recalcul n’est terminé
+     */
+    @GetMapping("/levels/{riskLevel}")
+    public ResponseEntity<RiskLevelPage> getPatientsAtLevel(@PathVariable String riskLevel,
+                                                            @RequestParam(required = false) Long after,
+                                                            @RequestParam(defaultValue = "200") int limit) {
+        return riskJobService.patientsAtLevel(riskLevel, after, limit)
+                .map(ResponseEntity::ok)
+                .orElse(ResponseEntity.notFound().build());
+    }
+
+    /**
+     * Invalide l’évaluation en cache d’un patient.
+     * <p>
+     * Appelé par note-service et patient-service lorsqu’une note est ajoutée ou que les
+     * informations du patient utilisées par le calcul du risque sont modifiées. Lorsque le
+     * patient a été supprimé, sa dernière évaluation connue est également oubliée.
+     * </p>
+     *
+     * @param patientId identifiant du patient concerné
+     * @param patientDeleted {@code true} si le patient a été supprimé
+     * @return une réponse 204 No Content
+     */
+    @DeleteMapping("/cache/{patientId}")
+    public ResponseEntity<Void> invalidate(@PathVariable Long patientId,
+                                           @RequestParam(defaultValue = "false") boolean patientDeleted) {
+        if (patientDeleted) {
+            riskService.patientDeleted(patientId);
+        } else {
+            riskService.invalidate(patientId);
+        }
+        return ResponseEntity.noContent().build();
+    }
+
+    /**
+     * Invalide en un seul appel les évaluations en cache de plusieurs patients.
+     * <p>
+     * Appelé par note-service après l’écriture de chaque lot d’un import de notes.
+     * </p>
+     *
+     * @param patientIds identifiants des patients concernés
+     * @return une réponse 204 No Content
+     */
+    @PostMapping("/cache/batch")
+    public ResponseEntity<Void> invalidateAll(@RequestBody List<Long> patientIds) {
+        riskService.invalidateAll(patientIds);
+        return ResponseEntity.noContent().build();
+    }
+
+    /**
+     * Répond 503 lorsqu’un microservice aval est indisponible (disjoncteur ouvert) et
+     * qu’aucune évaluation antérieure ne peut être servie.
+     *
+     * @param e l’exception levée par le disjoncteur
+     * @return une réponse 503 Service Unavailable
+     */
+    @ExceptionHandler(CallNotPermittedException.class)
+    public ResponseEntity<String> handleOpenCircuit(CallNotPermittedException e) {
+        return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE).body(e.getMessage());
+    }
+
+    /**
+     * Répond 503 lorsqu’un microservice aval ne répond pas à temps ou répond en erreur et
+     * qu’aucune évaluation antérieure ne peut être servie.
+     *
+     * @param e l’erreur de l’appel aval
+     * @return une réponse 503 Service Unavailable
+     */
+    @ExceptionHandler({ ResourceAccessException.class, HttpServerErrorException.class })
+    public ResponseEntity<String> handleUnavailableService(RuntimeException e) {
+        return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE).body(e.getMessage());
+    }
 }
@@ -0,0 +1,62 @@
+package com.medilabo.riskassessment.controller;
+
+import com.medilabo.riskassessment.dto.RiskJobReport;
+import com.medilabo.riskassessment.service.RiskJobService;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+/**
+ * Contrôleur REST du recalcul du risque de toute la population.
+ * <p>
+ * Permet de lancer le recalcul à la demande (en plus de l’exécution planifiée chaque nuit)
+ * et de suivre son avancement.
+ * </p>
+ */
+@RestController
+@RequestMapping("/jobs/risk")
+public class RiskJobController {
+
+    @Autowired
+    private RiskJobService riskJobService;
+
+    /**
+     * Lance le recalcul en arrière-plan, ou reprend l’exécution interrompue.
+     *
+     * @return 202 Accepted avec l’avancement de l’exécution lancée, ou 409 Conflict avec celui
+     * de l’exécution déjà en cours
+     */
+    @PostMapping
+    public ResponseEntity<RiskJobReport> start() {
+        return riskJobService.start(RiskJobService.TRIGGER_MANUAL)
+                .map(report -> ResponseEntity.accepted().body(report))
+                .orElseGet(() -> ResponseEntity.status(HttpStatus.CONFLICT)
+                        .body(riskJobService.latestReport().orElse(null)));
+    }
+
+    /**
+     * Retourne l’avancement de l’exécution la plus récente.
+     *
+     * @return un {@link RiskJobReport} ou un code 404 si aucune exécution n’a eu lieu
+     */
+    @GetMapping("/latest")
+    public ResponseEntity<RiskJobReport> getLatest() {
+        return riskJobService.latestReport()
+                .map(ResponseEntity::ok)
+                .orElse(ResponseEntity.notFound().build());
+    }
+
+    /**
+     * Retourne l’avancement d’une exécution.
+     *
+     * @param runId identifiant de l’exécution
+     * @return un {@link RiskJobReport} ou un code 404 si l’exécution n’existe pas
+     */
+    @GetMapping("/{runId}")
+    public ResponseEntity<RiskJobReport> getRun(@PathVariable Long runId) {
+        return riskJobService.report(runId)
+                .map(ResponseEntity::ok)
+                .orElse(ResponseEntity.notFound().build());
+    }
+}
@@ -0,0 +1,86 @@
+package com.medilabo.riskassessment.dto;
+
+/**
+ * DTO des bornes des identifiants de patients, reçues de patient-service
+ * ({@code GET /patients/id-range}).
+ * <p>
+ * Utilisé pour découper la population en plages avant le recalcul du risque de tous les patients.
+ * </p>
+ */
+public class PatientIdRangeDTO {
+
+    /**
+     * Plus petit identifiant de patient ({@code null} s'il n'y a aucun patient).
+     */
+    private Long minId;
+
+    /**
+     * Plus grand identifiant de patient ({@code null} s'il n'y a aucun patient).
+     */
+    private Long maxId;
+
+    /**
+     * Nombre de patients.
+     */
+    private long count;
+
+    /**
+     * Constructeur par défaut requis pour la désérialisation JSON.
+     */
+    public PatientIdRangeDTO() {
+        // Constructeur par défaut
+    }
+
+    /**
+     * @param minId plus petit identifiant
+     * @param maxId plus grand identifiant
+     * @param count nombre de patients
+     */
+    public PatientIdRangeDTO(Long minId, Long maxId, long count) {
+        this.minId = minId;
+        this.maxId = maxId;
+        this.count = count;
+    }
+
+    /**
+     * @return le plus petit identifiant, ou {@code null}
+     */
+    public Long getMinId() {
+        return minId;
+    }
+
+    /**
+     * @param minId le plus petit identifiant à définir
+     */
+    public void setMinId(Long minId) {
+        this.minId = minId;
+    }
+
+    /**
+     * @return le plus grand identifiant, ou {@code null}
+     */
+    public Long getMaxId() {
+        return maxId;
+    }
+
+    /**
+     * @param maxId le plus grand identifiant à définir
+     */
+    public void setMaxId(Long maxId) {
+        this.maxId = maxId;
+    }
+
+    /**
+     * @return le nombre de patients
+     */
+    public long getCount() {
+        return count;
+    }
+
+    /**
+     * @param count le nombre de patients à définir
+     */
+    public void setCount(long count) {
+        this.count = count;
+    }
+}
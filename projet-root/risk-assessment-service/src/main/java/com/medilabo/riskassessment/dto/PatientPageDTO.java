@@ -0,0 +1,65 @@
+package com.medilabo.riskassessment.dto;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * DTO d'une page de patients reçue de patient-service (pagination par curseur,
+ * {@code GET /patients?after=&limit=}).
+ */
+public class PatientPageDTO {
+
+    /**
+     * Patients de la page, triés par identifiant croissant.
+     */
+    private List<PatientDTO> patients = new ArrayList<>();
+
+    /**
+     * Curseur de la page suivante, ou {@code null} s'il n'y en a pas.
+     */
+    private Long nextAfter;
+
+    /**
+     * Constructeur par défaut requis pour la désérialisation JSON.
+     */
+    public PatientPageDTO() {
+        // Constructeur par défaut
+    }
+
+    /**
+     * @param patients patients de la page
+     * @param nextAfter curseur de la page suivante
+     */
+    public PatientPageDTO(List<PatientDTO> patients, Long nextAfter) {
+        this.patients = patients;
+        this.nextAfter = nextAfter;
+    }
+
+    /**
+     * @return les patients de la page
+     */
+    public List<PatientDTO> getPatients() {
+        return patients;
+    }
+
+    /**
+     * @param patients les patients de la page à définir
+     */
+    public void setPatients(List<PatientDTO> patients) {
+        this.patients = patients;
+    }
+
+    /**
+     * @return le curseur de la page suivante, ou {@code null}
+     */
+    public Long getNextAfter() {
+        return nextAfter;
+    }
+
+    /**
+     * @param nextAfter le curseur de la page suivante à définir
+     */
+    public void setNextAfter(Long nextAfter) {
+        this.nextAfter = nextAfter;
+    }
+}
@@ -34,6 +34,11 @@ public class RiskAssessmentResponse {
      */
     private String riskLevel;
 
+    /**
+     * Indique une évaluation antérieure, servie parce qu’un microservice aval est indisponible.
+     */
+    private boolean stale;
+
     /**
      * Constructeur par défaut requis pour la sérialisation/désérialisation.
      */
@@ -127,6 +132,31 @@ public class RiskAssessmentResponse {
         this.riskLevel = riskLevel;
     }
 
+    /**
+     * @return {@code true} si l’évaluation est une évaluation antérieure servie en mode dégradé
+     */
+    public boolean isStale() {
+        return stale;
+    }
+
+    /**
+     * @param stale {@code true} pour une évaluation antérieure servie en mode dégradé
+     */
+    public void setStale(boolean stale) {
+        this.stale = stale;
+    }
+
+    /**
+     * Retourne une copie de cette évaluation marquée comme antérieure (mode dégradé).
+     *
+     * @return la copie marquée
+     */
+    public RiskAssessmentResponse asStale() {
+        RiskAssessmentResponse copy = new RiskAssessmentResponse(patientId, firstName, lastName, age, riskLevel);
+        copy.setStale(true);
+        return copy;
+    }
+
     /**
      * Fournit une représentation textuelle de l’objet pour le logging ou le débogage.
      *
@@ -140,6 +170,7 @@ public class RiskAssessmentResponse {
             ", lastName='" + lastName + '\'' +
             ", age=" + age +
             ", riskLevel='" + riskLevel + '\'' +
+            ", stale=" + stale +
             '}';
     }
 }
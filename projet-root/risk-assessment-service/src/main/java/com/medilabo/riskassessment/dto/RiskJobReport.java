@@ -0,0 +1,186 @@
+package com.medilabo.riskassessment.dto;
+
+import java.time.Instant;
+import java.util.Map;
+
+/**
+ * Avancement d'une exécution du recalcul du risque de toute la population
+ * ({@code POST /jobs/risk}, {@code GET /jobs/risk/{runId}}).
+ */
+public class RiskJobReport {
+
+    /**
+     * Identifiant de l'exécution.
+     */
+    private final Long runId;
+
+    /**
+     * Origine du lancement ("scheduled", "manual" ou "resume").
+     */
+    private final String trigger;
+
+    /**
+     * État de l'exécution ("RUNNING", "COMPLETED" ou "FAILED").
+     */
+    private final String status;
+
+    /**
+     * Date de lancement.
+     */
+    private final Instant startedAt;
+
+    /**
+     * Date de fin, nulle tant que l'exécution n'est pas terminée.
+     */
+    private final Instant finishedAt;
+
+    /**
+     * Nombre de patients connus au lancement.
+     */
+    private final long expectedPatients;
+
+    /**
+     * Nombre de patients évalués.
+     */
+    private final long assessedPatients;
+
+    /**
+     * Nombre de partitions.
+     */
+    private final int partitions;
+
+    /**
+     * Nombre de partitions entièrement traitées.
+     */
+    private final long partitionsDone;
+
+    /**
+     * Nombre de partitions en échec.
+     */
+    private final long partitionsFailed;
+
+    /**
+     * Débit moyen depuis le lancement, en patients par seconde.
+     */
+    private final double patientsPerSecond;
+
+    /**
+     * Nombre de patients par niveau de risque calculé.
+     */
+    private final Map<String, Long> riskLevels;
+
+    /**
+     * @param runId identifiant de l'exécution
+     * @param trigger origine du lancement
+     * @param status état de l'exécution
+     * @param startedAt date de lancement
+     * @param finishedAt date de fin, ou {@code null}
+     * @param expectedPatients nombre de patients connus au lancement
+     * @param assessedPatients nombre de patients évalués
+     * @param partitions nombre de partitions
+     * @param partitionsDone nombre de partitions traitées
+     * @param partitionsFailed nombre de partitions en échec
+     * @param patientsPerSecond débit moyen
+     * @param riskLevels nombre de patients par niveau de risque
+     */
+    public RiskJobReport(Long runId, String trigger, String status, Instant startedAt, Instant finishedAt,
+                         long expectedPatients, long assessedPatients, int partitions, long partitionsDone,
+                         long partitionsFailed, double patientsPerSecond, Map<String, Long> riskLevels) {
+        this.runId = runId;
+        this.trigger = trigger;
+        this.status = status;
+        this.startedAt = startedAt;
+        this.finishedAt = finishedAt;
+        this.expectedPatients = expectedPatients;
+        this.assessedPatients = assessedPatients;
+        this.partitions = partitions;
+        this.partitionsDone = partitionsDone;
+        this.partitionsFailed = partitionsFailed;
+        this.patientsPerSecond = patientsPerSecond;
+        this.riskLevels = riskLevels;
+    }
+
+    /**
+     * @return l'identifiant de l'exécution
+     */
+    public Long getRunId() {
+        return runId;
+    }
+
+    /**
+     * @return l'origine du lancement
+     */
+    public String getTrigger() {
+        return trigger;
+    }
+
+    /**
+     * @return l'état de l'exécution
+     */
+    public String getStatus() {
+        return status;
+    }
+
+    /**
+     * @return la date de lancement
+     */
+    public Instant getStartedAt() {
+        return startedAt;
+    }
+
+    /**
+     * @return la date de fin, ou {@code null}
+     */
+    public Instant getFinishedAt() {
+        return finishedAt;
+    }
+
+    /**
+     * @return le nombre de patients connus au lancement
+     */
+    public long getExpectedPatients() {
+        return expectedPatients;
+    }
+
+    /**
+     * @return le nombre de patients évalués
+     */
+    public long getAssessedPatients() {
+        return assessedPatients;
+    }
+
+    /**
+     * @return le nombre de partitions
+     */
+    public int getPartitions() {
+        return partitions;
+    }
+
+    /**
+     * @return le nombre de partitions traitées
+     */
+    public long getPartitionsDone() {
+        return partitionsDone;
+    }
+
+    /**
+     * @return le nombre de partitions en échec
+     */
+    public long getPartitionsFailed() {
+        return partitionsFailed;
+    }
+
+    /**
+     * @return le débit moyen, en patients par seconde
+     */
+    public double getPatientsPerSecond() {
+        return patientsPerSecond;
+    }
+
+    /**
+     * @return le nombre de patients par niveau de risque
+     */
+    public Map<String, Long> getRiskLevels() {
+        return riskLevels;
+    }
+}
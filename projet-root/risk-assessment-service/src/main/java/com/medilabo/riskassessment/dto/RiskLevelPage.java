@@ -0,0 +1,57 @@
+package com.medilabo.riskassessment.dto;
+
+import java.util.List;
+
+/**
+ * Page des patients classés à un niveau de risque par le dernier recalcul de population terminé
+ * (pagination par curseur, {@code GET /assess/levels/{riskLevel}?after=&limit=}).
+ */
+public class RiskLevelPage {
+
+    /**
+     * Exécution du recalcul dont proviennent les instantanés.
+     */
+    private final Long runId;
+
+    /**
+     * Identifiants des patients de la page, par ordre croissant.
+     */
+    private final List<Long> patientIds;
+
+    /**
+     * Curseur de la page suivante, ou {@code null} s'il n'y en a pas.
+     */
+    private final Long nextAfter;
+
+    /**
+     * @param runId exécution du recalcul
+     * @param patientIds identifiants des patients de la page
+     * @param nextAfter curseur de la page suivante
+     */
+    public RiskLevelPage(Long runId, List<Long> patientIds, Long nextAfter) {
+        this.runId = runId;
+        this.patientIds = patientIds;
+        this.nextAfter = nextAfter;
+    }
+
+    /**
+     * @return l'exécution du recalcul dont proviennent les instantanés
+     */
+    public Long getRunId() {
+        return runId;
+    }
+
+    /**
+     * @return les identifiants des patients de la page
+     */
+    public List<Long> getPatientIds() {
+        return patientIds;
+    }
+
+    /**
+     * @return le curseur de la page suivante, ou {@code null}
+     */
+    public Long getNextAfter() {
+        return nextAfter;
+    }
+}
@@ -0,0 +1,113 @@
+package com.medilabo.riskassessment.dto;
+
+/**
+ * DTO représentant le nombre de termes déclencheurs d'un patient, calculé par note-service
+ * à partir des termes indexés à l'écriture des notes.
+ */
+public class TriggerCountDTO {
+
+    /**
+     * Identifiant du patient.
+     */
+    private Long patientId;
+
+    /**
+     * Nombre de notes du patient.
+     */
+    private long noteCount;
+
+    /**
+     * Nombre de termes déclencheurs (distincts par note, additionnés sur les notes).
+     */
+    private long triggerCount;
+
+    /**
+     * Nombre de notes pas encore indexées par note-service.
+     */
+    private long unindexedNotes;
+
+    /**
+     * Constructeur par défaut requis pour la désérialisation JSON.
+     */
+    public TriggerCountDTO() {
+        // Constructeur par défaut
+    }
+
+    /**
+     * Constructeur complet.
+     *
+     * @param patientId l'identifiant du patient
+     * @param noteCount le nombre de notes
+     * @param triggerCount le nombre de termes déclencheurs
+     * @param unindexedNotes le nombre de notes non indexées
+     */
+    public TriggerCountDTO(Long patientId, long noteCount, long triggerCount, long unindexedNotes) {
+        this.patientId = patientId;
+        this.noteCount = noteCount;
+        this.triggerCount = triggerCount;
+        this.unindexedNotes = unindexedNotes;
+    }
+
+    /**
+     * @return l'identifiant du patient
+     */
+    public Long getPatientId() {
+        return patientId;
+    }
+
+    /**
+     * @param patientId l'identifiant du patient
+     */
+    public void setPatientId(Long patientId) {
+        this.patientId = patientId;
+    }
+
+    /**
+     * @return le nombre de notes
+     */
+    public long getNoteCount() {
+        return noteCount;
+    }
+
+    /**
+     * @param noteCount le nombre de notes
+     */
+    public void setNoteCount(long noteCount) {
+        this.noteCount = noteCount;
+    }
+
+    /**
+     * @return le nombre de termes déclencheurs
+     */
+    public long getTriggerCount() {
+        return triggerCount;
+    }
+
+    /**
+     * @param triggerCount le nombre de termes déclencheurs
+     */
+    public void setTriggerCount(long triggerCount) {
+        this.triggerCount = triggerCount;
+    }
+
+    /**
+     * @return le nombre de notes non indexées
+     */
+    public long getUnindexedNotes() {
+        return unindexedNotes;
+    }
+
+    /**
+     * @param unindexedNotes le nombre de notes non indexées
+     */
+    public void setUnindexedNotes(long unindexedNotes) {
+        this.unindexedNotes = unindexedNotes;
+    }
+
+    /**
+     * @return {@code true} si toutes les notes du patient sont indexées
+     */
+    public boolean isComplete() {
+        return unindexedNotes == 0;
+    }
+}
@@ -0,0 +1,207 @@
+package com.medilabo.riskassessment.model;
+
+import jakarta.persistence.*;
+
+import java.time.Instant;
+
+/**
+ * Plage d'identifiants de patients traitée par une {@link RiskJobRun exécution} du recalcul.
+ * <p>
+ * Une partition couvre les identifiants de {@code fromId} (inclus) à {@code toId} (exclu).
+ * Ses patients sont lus page par page ; après chaque page, l'identifiant du dernier patient
+ * évalué est enregistré ({@code lastPatientId}) dans la même transaction que les
+ * {@link RiskSnapshot instantanés} : une partition interrompue reprend juste après,
+ * sans évaluer deux fois le même patient.
+ * </p>
+ * <p>
+ * Plusieurs instances du service peuvent traiter la même exécution : une partition est
+ * réservée en base par l'instance qui la traite ({@code owner}) jusqu'à {@code leaseUntil},
+ * échéance repoussée à chaque page enregistrée. Une réservation échue (instance arrêtée
+ * brutalement) peut être reprise par une autre instance.
+ * </p>
+ */
+@Entity
+@Table(name = "risk_job_partition", indexes = @Index(name = "idx_risk_job_partition_run", columnList = "runId, status"))
+public class RiskJobPartition {
+
+    /**
+     * État d'une partition.
+     */
+    public enum Status {
+        /** À traiter (ou à reprendre). */
+        PENDING,
+        /** En cours de traitement. */
+        RUNNING,
+        /** Tous les patients de la plage ont été évalués. */
+        DONE,
+        /** Abandonnée sur une erreur (service aval indisponible notamment). */
+        FAILED
+    }
+
+    /**
+     * Identifiant de la partition.
+     */
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    /**
+     * Exécution à laquelle appartient la partition.
+     */
+    @Column(nullable = false)
+    private Long runId;
+
+    /**
+     * Premier identifiant de la plage (inclus).
+     */
+    private long fromId;
+
+    /**
+     * Fin de la plage (exclue).
+     */
+    private long toId;
+
+    /**
+     * État de la partition.
+     */
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false, length = 20)
+    private Status status;
+
+    /**
+     * Identifiant du dernier patient évalué, nul tant qu'aucune page n'a été enregistrée.
+     */
+    private Long lastPatientId;
+
+    /**
+     * Instance qui traite (ou a traité en dernier) la partition.
+     */
+    @Column(name = "lease_owner", length = 100)
+    private String owner;
+
+    /**
+     * Échéance de la réservation de l'instance qui traite la partition.
+     */
+    private Instant leaseUntil;
+
+    /**
+     * Nombre de patients évalués.
+     */
+    private long patients;
+
+    /**
+     * Nombre de tentatives de traitement.
+     */
+    private int attempts;
+
+    /**
+     * Date de début de la dernière tentative.
+     */
+    private Instant startedAt;
+
+    /**
+     * Date de fin de la dernière tentative.
+     */
+    private Instant finishedAt;
+
+    /**
+     * Motif de l'échec de la dernière tentative.
+     */
+    @Column(name = "error_message", length = 500)
+    private String error;
+
+    /**
+     * Constructeur requis par JPA.
+     */
+    protected RiskJobPartition() {
+    }
+
+    /**
+     * @param runId exécution à laquelle appartient la partition
+     * @param fromId premier identifiant de la plage (inclus)
+     * @param toId fin de la plage (exclue)
+     */
+    public RiskJobPartition(Long runId, long fromId, long toId) {
+        this.runId = runId;
+        this.fromId = fromId;
+        this.toId = toId;
+        this.status = Status.PENDING;
+    }
+
+    /**
+     * @return l'identifiant de la partition
+     */
+    public Long getId() {
+        return id;
+    }
+
+    /**
+     * @return l'exécution à laquelle appartient la partition
+     */
+    public Long getRunId() {
+        return runId;
+    }
+
+    /**
+     * @return le premier identifiant de la plage (inclus)
+     */
+    public long getFromId() {
+        return fromId;
+    }
+
+    /**
+     * @return la fin de la plage (exclue)
+     */
+    public long getToId() {
+        return toId;
+    }
+
+    /**
+     * @return l'état de la partition
+     */
+    public Status getStatus() {
+        return status;
+    }
+
+    /**
+     * @return l'identifiant du dernier patient évalué, ou {@code null}
+     */
+    public Long getLastPatientId() {
+        return lastPatientId;
+    }
+
+    /**
+     * @return l'instance qui traite (ou a traité en dernier) la partition, ou {@code null}
+     */
+    public String getOwner() {
+        return owner;
+    }
+
+    /**
+     * @return l'échéance de la réservation, ou {@code null}
+     */
+    public Instant getLeaseUntil() {
+        return leaseUntil;
+    }
+
+    /**
+     * @return le nombre de patients évalués
+     */
+    public long getPatients() {
+        return patients;
+    }
+
+    /**
+     * @return le nombre de tentatives de traitement
+     */
+    public int getAttempts() {
+        return attempts;
+    }
+
+    /**
+     * @return le motif de l'échec de la dernière tentative, ou {@code null}
+     */
+    public String getError() {
+        return error;
+    }
+}
@@ -0,0 +1,164 @@
+package com.medilabo.riskassessment.model;
+
+import jakarta.persistence.*;
+
+import java.time.Instant;
+
+/**
+ * Exécution du recalcul du risque de toute la population.
+ * <p>
+ * La plage d'identifiants de patients connue au lancement est découpée en
+ * {@link RiskJobPartition partitions} ; l'avancement de l'exécution se lit sur ses partitions.
+ * Une exécution restée {@link Status#RUNNING} après un arrêt du service est reprise au
+ * lancement suivant.
+ * </p>
+ * <p>
+ * Une seule exécution peut être en cours dans la base : {@code activeLock}, unique, vaut
+ * {@link #ACTIVE} tant que l'exécution est en cours et est remis à {@code null} à sa fin. Deux
+ * instances qui lancent le recalcul au même moment ne créent donc pas deux exécutions.
+ * </p>
+ */
+@Entity
+@Table(name = "risk_job_run", indexes = @Index(name = "idx_risk_job_run_status", columnList = "status"))
+public class RiskJobRun {
+
+    /**
+     * Valeur de {@code activeLock} de l'exécution en cours.
+     */
+    public static final String ACTIVE = "ACTIVE";
+
+    /**
+     * État d'une exécution.
+     */
+    public enum Status {
+        /** En cours, ou interrompue par un arrêt du service (à reprendre). */
+        RUNNING,
+        /** Toutes les partitions ont été traitées. */
+        COMPLETED,
+        /** Terminée, mais au moins une partition a échoué. */
+        FAILED
+    }
+
+    /**
+     * Identifiant de l'exécution.
+     */
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    /**
+     * Origine du lancement ("scheduled", "manual" ou "resume").
+     */
+    @Column(name = "run_trigger", nullable = false, length = 20)
+    private String trigger;
+
+    /**
+     * État de l'exécution.
+     */
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false, length = 20)
+    private Status status;
+
+    /**
+     * Date de lancement.
+     */
+    @Column(nullable = false)
+    private Instant startedAt;
+
+    /**
+     * Date de fin, nulle tant que l'exécution n'est pas terminée.
+     */
+    private Instant finishedAt;
+
+    /**
+     * Nombre de patients connus de patient-service au lancement.
+     */
+    private long expectedPatients;
+
+    /**
+     * Nombre de partitions de l'exécution.
+     */
+    @Column(name = "partition_count")
+    private int partitions;
+
+    /**
+     * {@link #ACTIVE} tant que l'exécution est en cours, {@code null} ensuite.
+     */
+    @Column(unique = true, length = 10)
+    private String activeLock;
+
+    /**
+     * Constructeur requis par JPA.
+     */
+    protected RiskJobRun() {
+    }
+
+    /**
+     * @param trigger origine du lancement
+     * @param startedAt date de lancement
+     * @param expectedPatients nombre de patients à évaluer
+     */
+    public RiskJobRun(String trigger, Instant startedAt, long expectedPatients) {
+        this.trigger = trigger;
+        this.status = Status.RUNNING;
+        this.startedAt = startedAt;
+        this.expectedPatients = expectedPatients;
+        this.activeLock = ACTIVE;
+    }
+
+    /**
+     * @return l'identifiant de l'exécution
+     */
+    public Long getId() {
+        return id;
+    }
+
+    /**
+     * @return l'origine du lancement
+     */
+    public String getTrigger() {
+        return trigger;
+    }
+
+    /**
+     * @return l'état de l'exécution
+     */
+    public Status getStatus() {
+        return status;
+    }
+
+    /**
+     * @return la date de lancement
+     */
+    public Instant getStartedAt() {
+        return startedAt;
+    }
+
+    /**
+     * @return la date de fin, ou {@code null}
+     */
+    public Instant getFinishedAt() {
+        return finishedAt;
+    }
+
+    /**
+     * @return le nombre de patients connus au lancement
+     */
+    public long getExpectedPatients() {
+        return expectedPatients;
+    }
+
+    /**
+     * @return le nombre de partitions
+     */
+    public int getPartitions() {
+        return partitions;
+    }
+
+    /**
+     * @param partitions nombre de partitions à définir
+     */
+    public void setPartitions(int partitions) {
+        this.partitions = partitions;
+    }
+}
@@ -0,0 +1,172 @@
+package com.medilabo.riskassessment.model;
+
+import jakarta.persistence.*;
+import org.springframework.data.domain.Persistable;
+
+import java.io.Serializable;
+import java.time.Instant;
+import java.util.Objects;
+
+/**
+ * Niveau de risque d'un patient calculé par une {@link RiskJobRun exécution} du recalcul de
+ * population.
+ * <p>
+ * Un instantané est écrit une seule fois et n'est jamais modifié : chaque exécution ajoute les
+ * siens, ce qui permet de suivre la répartition des niveaux de risque d'une nuit à l'autre.
+ * {@link #isNew()} vaut toujours vrai pour que l'enregistrement se fasse par simple insertion
+ * (regroupée en lots JDBC), sans lecture préalable.
+ * </p>
+ * <p>
+ * Seules les données utiles aux tableaux de bord sont conservées (ni nom ni prénom).
+ * </p>
+ */
+@Entity
+@Table(name = "risk_snapshot", indexes = @Index(name = "idx_risk_snapshot_level", columnList = "runId, riskLevel"))
+@IdClass(RiskSnapshot.Key.class)
+public class RiskSnapshot implements Persistable<RiskSnapshot.Key> {
+
+    /**
+     * Exécution qui a calculé l'instantané.
+     */
+    @Id
+    private Long runId;
+
+    /**
+     * Identifiant du patient évalué.
+     */
+    @Id
+    private Long patientId;
+
+    /**
+     * Niveau de risque calculé.
+     */
+    @Column(nullable = false, length = 20)
+    private String riskLevel;
+
+    /**
+     * Âge du patient au moment du calcul.
+     */
+    private int age;
+
+    /**
+     * Genre du patient.
+     */
+    @Column(length = 10)
+    private String genre;
+
+    /**
+     * Date du calcul.
+     */
+    @Column(nullable = false)
+    private Instant assessedAt;
+
+    /**
+     * Constructeur requis par JPA.
+     */
+    protected RiskSnapshot() {
+    }
+
+    /**
+     * @param runId exécution qui a calculé l'instantané
+     * @param patientId identifiant du patient
+     * @param riskLevel niveau de risque calculé
+     * @param age âge du patient
+     * @param genre genre du patient
+     * @param assessedAt date du calcul
+     */
+    public RiskSnapshot(Long runId, Long patientId, String riskLevel, int age, String genre, Instant assessedAt) {
+        this.runId = runId;
+        this.patientId = patientId;
+        this.riskLevel = riskLevel;
+        this.age = age;
+        this.genre = genre;
+        this.assessedAt = assessedAt;
+    }
+
+    @Override
+    public Key getId() {
+        return new Key(runId, patientId);
+    }
+
+    @Override
+    public boolean isNew() {
+        return true;
+    }
+
+    /**
+     * @return l'exécution qui a calculé l'instantané
+     */
+    public Long getRunId() {
+        return runId;
+    }
+
+    /**
+     * @return l'identifiant du patient
+     */
+    public Long getPatientId() {
+        return patientId;
+    }
+
+    /**
+     * @return le niveau de risque calculé
+     */
+    public String getRiskLevel() {
+        return riskLevel;
+    }
+
+    /**
+     * @return l'âge du patient au moment du calcul
+     */
+    public int getAge() {
+        return age;
+    }
+
+    /**
+     * @return le genre du patient
+     */
+    public String getGenre() {
+        return genre;
+    }
+
+    /**
+     * @return la date du calcul
+     */
+    public Instant getAssessedAt() {
+        return assessedAt;
+    }
+
+    /**
+     * Clé d'un instantané : une exécution, un patient.
+     */
+    public static class Key implements Serializable {
+
+        private Long runId;
+
+        private Long patientId;
+
+        /**
+         * Constructeur requis par JPA.
+         */
+        public Key() {
+        }
+
+        /**
+         * @param runId exécution
+         * @param patientId patient
+         */
+        public Key(Long runId, Long patientId) {
+            this.runId = runId;
+            this.patientId = patientId;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            return o instanceof Key key && Objects.equals(runId, key.runId) && Objects.equals(patientId, key.patientId);
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hash(runId, patientId);
+        }
+    }
+}
@@ -0,0 +1,170 @@
+package com.medilabo.riskassessment.repository;
+
+import com.medilabo.riskassessment.model.RiskJobPartition;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.Instant;
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * Accès aux {@link RiskJobPartition partitions} du recalcul de population.
+ * <p>
+ * Les changements d'état sont des mises à jour ciblées : plusieurs partitions d'une même
+ * exécution sont traitées en parallèle sans relire ni verrouiller l'exécution.
+ * </p>
+ * <p>
+ * Une partition est réservée par une instance ({@link #claim}) ; l'avancement et la fin d'une
+ * tentative ne sont enregistrés que si cette instance détient toujours la réservation.
+ * </p>
+ */
+public interface RiskJobPartitionRepository extends JpaRepository<RiskJobPartition, Long> {
+
+    /**
+     * @param runId exécution
+     * @param status état recherché
+     * @return les partitions de l'exécution dans cet état, par plage croissante
+     */
+    List<RiskJobPartition> findByRunIdAndStatusOrderByFromIdAsc(Long runId, RiskJobPartition.Status status);
+
+    /**
+     * @param runId exécution
+     * @param status état recherché
+     * @return le nombre de partitions de l'exécution dans cet état
+     */
+    long countByRunIdAndStatus(Long runId, RiskJobPartition.Status status);
+
+    /**
+     * @param runId exécution
+     * @param statuses états recherchés
+     * @return le nombre de partitions de l'exécution dans l'un de ces états
+     */
+    long countByRunIdAndStatusIn(Long runId, Collection<RiskJobPartition.Status> statuses);
+
+    /**
+     * @param runId exécution
+     * @param now date courante
+     * @return les partitions à traiter et celles dont la réservation est échue, par plage croissante
+     */
+    @Query("select p from RiskJobPartition p where p.runId = :runId and (p.status = 'PENDING' "
+            + "or (p.status = 'RUNNING' and (p.leaseUntil is null or p.leaseUntil < :now))) order by p.fromId")
+    List<RiskJobPartition> findClaimable(Long runId, Instant now);
+
+    /**
+     * Avancement d'une exécution : nombre de partitions et de patients évalués par état.
+     *
+     * @param runId exécution
+     * @return une ligne par état présent
+     */
+    @Query("select p.status as status, count(p) as partitions, sum(p.patients) as patients "
+            + "from RiskJobPartition p where p.runId = :runId group by p.status")
+    List<PartitionProgress> progress(Long runId);
+
+    /**
+     * Réserve une partition et débute une tentative de traitement, si elle est à traiter
+     * ou si la réservation de l'instance qui la traitait est échue.
+     *
+     * @param id partition
+     * @param owner instance qui réserve la partition
+     * @param now date de début
+     * @param leaseUntil échéance de la réservation
+     * @return 1 si la partition a été réservée, 0 si une autre instance la détient ou l'a terminée
+     */
+    @Transactional
+    @Modifying(clearAutomatically = true)
+    @Query("update RiskJobPartition p set p.status = 'RUNNING', p.owner = :owner, p.leaseUntil = :leaseUntil, "
+            + "p.attempts = p.attempts + 1, p.startedAt = :now, p.finishedAt = null, p.error = null "
+            + "where p.id = :id and (p.status = 'PENDING' "
+            + "or (p.status = 'RUNNING' and (p.leaseUntil is null or p.leaseUntil < :now)))")
+    int claim(Long id, String owner, Instant now, Instant leaseUntil);
+
+    /**
+     * Enregistre l'avancement d'une partition et prolonge sa réservation ; appelé dans la
+     * transaction qui écrit les instantanés de la page.
+     *
+     * @param id partition
+     * @param owner instance qui traite la partition
+     * @param lastPatientId dernier patient évalué
+     * @param patients nombre de patients évalués dans la page
+     * @param leaseUntil nouvelle échéance de la réservation
+     * @return 1 si l'avancement a été enregistré, 0 si l'instance ne détient plus la partition
+     */
+    @Modifying
+    @Query("update RiskJobPartition p set p.lastPatientId = :lastPatientId, p.patients = p.patients + :patients, "
+            + "p.leaseUntil = :leaseUntil where p.id = :id and p.owner = :owner and p.status = 'RUNNING'")
+    int checkpoint(Long id, String owner, Long lastPatientId, long patients, Instant leaseUntil);
+
+    /**
+     * Termine une tentative de traitement.
+     *
+     * @param id partition
+     * @param owner instance qui traite la partition
+     * @param status état final ({@code DONE} ou {@code FAILED})
+     * @param now date de fin
+     * @param error motif de l'échec, ou {@code null}
+     * @return 1 si la tentative a été terminée, 0 si l'instance ne détient plus la partition
+     */
+    @Transactional
+    @Modifying
+    @Query("update RiskJobPartition p set p.status = :status, p.finishedAt = :now, p.error = :error, "
+            + "p.leaseUntil = null where p.id = :id and p.owner = :owner and p.status = 'RUNNING'")
+    int finish(Long id, String owner, RiskJobPartition.Status status, Instant now, String error);
+
+    /**
+     * Rend une partition interrompue par l'arrêt de l'instance qui la traitait : elle pourra
+     * être reprise aussitôt, sans attendre l'échéance de la réservation.
+     *
+     * @param id partition
+     * @param owner instance qui traite la partition
+     * @return 1 si la partition a été rendue
+     */
+    @Transactional
+    @Modifying
+    @Query("update RiskJobPartition p set p.status = 'PENDING', p.leaseUntil = null "
+            + "where p.id = :id and p.owner = :owner and p.status = 'RUNNING'")
+    int release(Long id, String owner);
+
+    /**
+     * Remet à traiter les partitions en échec d'une exécution reprise.
+     *
+     * @param runId exécution
+     * @return le nombre de partitions remises à traiter
+     */
+    @Transactional
+    @Modifying
+    @Query("update RiskJobPartition p set p.status = 'PENDING' where p.runId = :runId and p.status = 'FAILED'")
+    int resetFailed(Long runId);
+
+    /**
+     * @param runId première exécution conservée
+     * @return le nombre de partitions supprimées
+     */
+    @Transactional
+    @Modifying
+    @Query("delete from RiskJobPartition p where p.runId < :runId")
+    int deleteOlderThan(Long runId);
+
+    /**
+     * Nombre de partitions et de patients évalués pour un état donné.
+     */
+    interface PartitionProgress {
+
+        /**
+         * @return l'état des partitions
+         */
+        RiskJobPartition.Status getStatus();
+
+        /**
+         * @return le nombre de partitions dans cet état
+         */
+        long getPartitions();
+
+        /**
+         * @return le nombre de patients évalués par ces partitions
+         */
+        Long getPatients();
+    }
+}
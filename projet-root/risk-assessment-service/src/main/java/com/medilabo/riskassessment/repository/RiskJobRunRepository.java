@@ -0,0 +1,60 @@
+package com.medilabo.riskassessment.repository;
+
+import com.medilabo.riskassessment.model.RiskJobRun;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.Instant;
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * Accès aux {@link RiskJobRun exécutions} du recalcul de population.
+ */
+public interface RiskJobRunRepository extends JpaRepository<RiskJobRun, Long> {
+
+    /**
+     * @param status état recherché
+     * @return l'exécution la plus récente dans cet état
+     */
+    Optional<RiskJobRun> findFirstByStatusOrderByIdDesc(RiskJobRun.Status status);
+
+    /**
+     * @return l'exécution la plus récente
+     */
+    Optional<RiskJobRun> findFirstByOrderByIdDesc();
+
+    /**
+     * @param status état recherché
+     * @param limit nombre maximal d'identifiants
+     * @return les identifiants des exécutions dans cet état, des plus récentes aux plus anciennes
+     */
+    @Query("select r.id from RiskJobRun r where r.status = :status order by r.id desc")
+    List<Long> findIdsByStatus(RiskJobRun.Status status, Limit limit);
+
+    /**
+     * Termine une exécution encore en cours et libère {@code activeLock}.
+     *
+     * @param id exécution
+     * @param status état final ({@code COMPLETED} ou {@code FAILED})
+     * @param now date de fin
+     * @return 1 si l'exécution a été terminée, 0 si une autre instance l'a déjà fait
+     */
+    @Transactional
+    @Modifying
+    @Query("update RiskJobRun r set r.status = :status, r.finishedAt = :now, r.activeLock = null "
+            + "where r.id = :id and r.status = 'RUNNING'")
+    int finish(Long id, RiskJobRun.Status status, Instant now);
+
+    /**
+     * @param runId première exécution conservée
+     * @return le nombre d'exécutions supprimées
+     */
+    @Transactional
+    @Modifying
+    @Query("delete from RiskJobRun r where r.id < :runId")
+    int deleteOlderThan(Long runId);
+}
@@ -0,0 +1,65 @@
+package com.medilabo.riskassessment.repository;
+
+import com.medilabo.riskassessment.model.RiskSnapshot;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.List;
+
+/**
+ * Accès aux {@link RiskSnapshot instantanés} de risque écrits par le recalcul de population.
+ */
+public interface RiskSnapshotRepository extends JpaRepository<RiskSnapshot, RiskSnapshot.Key> {
+
+    /**
+     * Répartition des niveaux de risque calculés par une exécution.
+     *
+     * @param runId exécution
+     * @return une ligne par niveau de risque
+     */
+    @Query("select s.riskLevel as riskLevel, count(s) as patients from RiskSnapshot s "
+            + "where s.runId = :runId group by s.riskLevel")
+    List<RiskLevelCount> countByRiskLevel(Long runId);
+
+    /**
+     * Patients classés à un niveau de risque par une exécution, par identifiant croissant
+     * (index {@code idx_risk_snapshot_level}).
+     *
+     * @param runId exécution
+     * @param riskLevel niveau de risque
+     * @param after identifiant à partir duquel lire (exclu)
+     * @param limit nombre maximal d'identifiants
+     * @return les identifiants des patients
+     */
+    @Query("select s.patientId from RiskSnapshot s where s.runId = :runId and s.riskLevel = :riskLevel "
+            + "and s.patientId > :after order by s.patientId")
+    List<Long> findPatientIds(Long runId, String riskLevel, long after, Limit limit);
+
+    /**
+     * @param runId première exécution conservée
+     * @return le nombre d'instantanés supprimés
+     */
+    @Transactional
+    @Modifying
+    @Query("delete from RiskSnapshot s where s.runId < :runId")
+    int deleteOlderThan(Long runId);
+
+    /**
+     * Nombre de patients pour un niveau de risque.
+     */
+    interface RiskLevelCount {
+
+        /**
+         * @return le niveau de risque
+         */
+        String getRiskLevel();
+
+        /**
+         * @return le nombre de patients de ce niveau
+         */
+        long getPatients();
+    }
+}
@@ -0,0 +1,245 @@
+package com.medilabo.riskassessment.service;
+
+import io.github.resilience4j.circuitbreaker.CallNotPermittedException;
+import io.github.resilience4j.circuitbreaker.CircuitBreaker;
+
+import org.springframework.web.client.ResourceAccessException;
+import org.springframework.web.client.RestClientException;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorCompletionService;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.function.Supplier;
+
+/**
+ * Protège les appels vers un microservice aval (patient-service ou note-service).
+ * <p>
+ * Chaque appel passe par un disjoncteur (Resilience4j) : lorsque le service aval échoue ou ralentit
+ * trop souvent, le disjoncteur s’ouvre et les appels suivants échouent immédiatement avec
+ * {@link CallNotPermittedException}, sans mobiliser de thread ni de connexion, jusqu’à ce qu’un
+ * petit nombre d’appels d’essai réussisse. Chaque appel dispose d’un délai maximal : un service aval
+ * qui ne répond pas dans ce délai est compté comme un échec ({@link TimeoutException}) et finit
+ * par ouvrir le disjoncteur, au même titre qu’un service qui répond en erreur.
+ * </p>
+ * <p>
+ * Les appels unitaires ({@link #call(Supplier)}) sont en outre « couverts » (hedging) : si la réponse
+ * n’est pas arrivée après le 95e centile des latences récentes de ces appels, une seconde tentative
+ * identique est lancée et la première réponse obtenue est retenue, l’autre tentative étant annulée.
+ * Seuls des appels de lecture passent par ce garde, ce qui rend la seconde tentative sans effet de bord.
+ * Les appels par lots ({@link #callWithoutHedging(Supplier)}), dont la durée dépend de la taille du
+ * lot, ne sont ni couverts ni pris en compte dans ces latences.
+ * </p>
+ */
+public class DownstreamGuard {
+
+    /**
+     * Nombre de latences récentes conservées pour estimer le 95e centile.
+     */
+    static final int LATENCY_WINDOW = 128;
+
+    /**
+     * Nombre minimal de latences mesurées avant d’utiliser le 95e centile plutôt que le délai initial.
+     */
+    static final int MIN_SAMPLES = 20;
+
+    private final String name;
+
+    private final CircuitBreaker circuitBreaker;
+
+    private final ExecutorService executor;
+
+    private final long timeoutNanos;
+
+    private final boolean hedging;
+
+    private final long initialHedgeDelayNanos;
+
+    private final long minHedgeDelayNanos;
+
+    /**
+     * Latences récentes (nanosecondes) des appels unitaires réussis, en tampon circulaire.
+     */
+    private final AtomicLongArray latencies = new AtomicLongArray(LATENCY_WINDOW);
+
+    private final AtomicLong samples = new AtomicLong();
+
+    private final AtomicLong hedgedCalls = new AtomicLong();
+
+    /**
+     * @param name nom du service aval
+     * @param circuitBreaker disjoncteur associé au service
+     * @param executor exécuteur sur lequel sont lancées les tentatives
+     * @param timeout délai maximal d’un appel, seconde tentative comprise
+     * @param hedging {@code true} pour lancer une seconde tentative après le 95e centile
+     * @param initialHedgeDelay délai avant la seconde tentative tant que trop peu de latences ont été mesurées
+     * @param minHedgeDelay délai minimal avant la seconde tentative
+     */
+    public DownstreamGuard(String name, CircuitBreaker circuitBreaker, ExecutorService executor, Duration timeout,
+                           boolean hedging, Duration initialHedgeDelay, Duration minHedgeDelay) {
+        this.name = name;
+        this.circuitBreaker = circuitBreaker;
+        this.executor = executor;
+        this.timeoutNanos = timeout.toNanos();
+        this.hedging = hedging;
+        this.initialHedgeDelayNanos = initialHedgeDelay.toNanos();
+        this.minHedgeDelayNanos = minHedgeDelay.toNanos();
+    }
+
+    /**
+     * Exécute un appel de lecture unitaire vers le service aval, couvert par une seconde tentative
+     * s’il est plus lent que d’habitude.
+     *
+     * @param request l’appel à exécuter
+     * @return la réponse du service
+     * @throws CallNotPermittedException si le disjoncteur est ouvert
+     * @throws RestClientException si l’appel échoue ou dépasse le délai maximal
+     */
+    public <T> T call(Supplier<T> request) {
+        return guarded(request, hedging);
+    }
+
+    /**
+     * Exécute un appel de lecture par lot vers le service aval, sans seconde tentative.
+     *
+     * @param request l’appel à exécuter
+     * @return la réponse du service
+     * @throws CallNotPermittedException si le disjoncteur est ouvert
+     * @throws RestClientException si l’appel échoue ou dépasse le délai maximal
+     */
+    public <T> T callWithoutHedging(Supplier<T> request) {
+        return guarded(request, false);
+    }
+
+    private <T> T guarded(Supplier<T> request, boolean hedge) {
+        circuitBreaker.acquirePermission();
+        long start = System.nanoTime();
+        try {
+            T result = attempt(request, hedge, start + timeoutNanos);
+            circuitBreaker.onSuccess(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+            return result;
+        } catch (TimeoutException e) {
+            circuitBreaker.onError(System.nanoTime() - start, TimeUnit.NANOSECONDS, e);
+            throw new ResourceAccessException(e.getMessage());
+        } catch (InterruptedException e) {
+            long elapsed = System.nanoTime() - start;
+            if (elapsed >= timeoutNanos) {
+                // L’appelant a renoncé à l’échéance : le service aval n’a pas répondu à temps.
+                circuitBreaker.onError(elapsed, TimeUnit.NANOSECONDS, timeout());
+            } else {
+                // Appel abandonné avant l’échéance (échec d’un appel parallèle) : rien à reprocher au service aval.
+                circuitBreaker.releasePermission();
+            }
+            Thread.currentThread().interrupt();
+            throw new ResourceAccessException("Appel à " + name + " interrompu");
+        } catch (RuntimeException e) {
+            circuitBreaker.onError(System.nanoTime() - start, TimeUnit.NANOSECONDS, e);
+            throw e;
+        }
+    }
+
+    /**
+     * Lance l’appel, puis une seconde tentative s’il n’a pas répondu dans le délai de couverture,
+     * et retourne la première réponse réussie obtenue avant l’échéance.
+     */
+    private <T> T attempt(Supplier<T> request, boolean hedge, long deadline)
+            throws InterruptedException, TimeoutException {
+        ExecutorCompletionService<T> completion = new ExecutorCompletionService<>(executor);
+        List<Future<T>> attempts = new ArrayList<>(2);
+        attempts.add(completion.submit(() -> hedge ? timed(request) : request.get()));
+        try {
+            Future<T> done = null;
+            if (hedge) {
+                done = completion.poll(Math.min(hedgeDelayNanos(), deadline - System.nanoTime()), TimeUnit.NANOSECONDS);
+                if (done == null && System.nanoTime() < deadline) {
+                    attempts.add(completion.submit(() -> timed(request)));
+                    hedgedCalls.incrementAndGet();
+                }
+            }
+            RuntimeException failure = null;
+            for (int outstanding = attempts.size(); outstanding > 0; outstanding--) {
+                if (done == null) {
+                    done = completion.poll(deadline - System.nanoTime(), TimeUnit.NANOSECONDS);
+                    if (done == null) {
+                        throw timeout();
+                    }
+                }
+                try {
+                    return done.get();
+                } catch (ExecutionException e) {
+                    failure = e.getCause() instanceof RuntimeException runtimeException
+                        ? runtimeException
+                        : new RestClientException("Échec de l’appel à " + name, e.getCause());
+                }
+                done = null;
+            }
+            throw failure;
+        } finally {
+            attempts.forEach(attempt -> attempt.cancel(true));
+        }
+    }
+
+    private TimeoutException timeout() {
+        return new TimeoutException("Délai de " + TimeUnit.NANOSECONDS.toMillis(timeoutNanos)
+            + " ms dépassé lors de l’appel à " + name);
+    }
+
+    /**
+     * Exécute une tentative et enregistre sa latence si elle réussit.
+     */
+    private <T> T timed(Supplier<T> request) {
+        long start = System.nanoTime();
+        T result = request.get();
+        long index = samples.getAndIncrement();
+        latencies.set((int) (index % LATENCY_WINDOW), System.nanoTime() - start);
+        return result;
+    }
+
+    /**
+     * Délai avant la seconde tentative : 95e centile des latences récentes, borné par le délai minimal.
+     *
+     * @return le délai en nanosecondes
+     */
+    long hedgeDelayNanos() {
+        long count = Math.min(samples.get(), LATENCY_WINDOW);
+        if (count < MIN_SAMPLES) {
+            return initialHedgeDelayNanos;
+        }
+        long[] window = new long[(int) count];
+        for (int i = 0; i < window.length; i++) {
+            window[i] = latencies.get(i);
+        }
+        Arrays.sort(window);
+        long p95 = window[(int) Math.ceil(count * 0.95) - 1];
+        return Math.max(p95, minHedgeDelayNanos);
+    }
+
+    /**
+     * @return le nom du service aval
+     */
+    public String getName() {
+        return name;
+    }
+
+    /**
+     * @return le disjoncteur associé au service aval
+     */
+    public CircuitBreaker getCircuitBreaker() {
+        return circuitBreaker;
+    }
+
+    /**
+     * @return le nombre d’appels pour lesquels une seconde tentative a été lancée
+     */
+    public long getHedgedCalls() {
+        return hedgedCalls.get();
+    }
+}
@@ -0,0 +1,209 @@
+package com.medilabo.riskassessment.service;
+
+import com.medilabo.common.security.IdentityHeaders;
+import com.medilabo.riskassessment.dto.NoteDTO;
+import com.medilabo.riskassessment.dto.PatientDTO;
+import com.medilabo.riskassessment.dto.RiskAssessmentResponse;
+
+import io.github.resilience4j.circuitbreaker.CallNotPermittedException;
+import io.github.resilience4j.circuitbreaker.CircuitBreaker;
+import io.github.resilience4j.reactor.circuitbreaker.operator.CircuitBreakerOperator;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.http.MediaType;
+import org.springframework.stereotype.Service;
+import org.springframework.web.reactive.function.client.WebClient;
+import org.springframework.web.reactive.function.client.WebClientRequestException;
+import org.springframework.web.reactive.function.client.WebClientResponseException;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.TimeoutException;
+
+/**
+ * Variante non bloquante de {@link RiskAssessmentService}, activée par
+ * <code>medilabo.risk.reactive.enabled</code>.
+ * <p>
+ * Les appels vers patient-service et note-service passent par {@link WebClient} : aucune requête
+ * n’immobilise de thread pendant l’attente des services aval, quelques threads de la boucle
+ * d’événements suffisent quel que soit le nombre d’évaluations en cours. Les notes sont reçues
+ * en NDJSON et leurs termes déclencheurs sont comptés au fil de l’eau, avant la lecture de la
+ * dernière note.
+ * </p>
+ * <p>
+ * Le cache des évaluations et les disjoncteurs sont partagés avec {@link RiskAssessmentService} ;
+ * la couverture (hedging) n’est pas appliquée dans cette variante.
+ * </p>
+ */
+@Service
+@ConditionalOnProperty(name = "medilabo.risk.reactive.enabled", havingValue = "true")
+public class ReactiveRiskAssessmentService {
+
+    private static final Logger log = LoggerFactory.getLogger(ReactiveRiskAssessmentService.class);
+
+    /**
+     * URL de l’API du microservice patient-service.
+     */
+    private static final String PATIENT_API = "http://patient-service:8081/patients/{patientId}";
+
+    /**
+     * URL de l’endpoint note-service retournant le contenu des notes d’un patient.
+     */
+    private static final String NOTE_CONTENUS_API = "http://note-service:8083/notes/patient/{patientId}/contenus";
+
+    private final WebClient webClient;
+
+    /**
+     * Délai maximal accordé à chaque appel aux autres microservices.
+     */
+    private final Duration downstreamTimeout;
+
+    /**
+     * Nombre maximal d’évaluations simultanées lors d’une évaluation groupée.
+     */
+    private final int maxConcurrency;
+
+    private final RiskScorer riskScorer;
+
+    private final RiskResultCache riskCache;
+
+    private final RiskMetrics riskMetrics;
+
+    private final CircuitBreaker patientBreaker;
+
+    private final CircuitBreaker noteBreaker;
+
+    /**
+     * Constructeur avec injection des dépendances.
+     *
+     * @param serviceName nom de ce service, transmis comme identité aux autres microservices
+     * @param webClientBuilder builder fourni par Spring Boot (codecs, observations)
+     * @param downstreamTimeout délai maximal accordé à chaque appel aux autres microservices
+     * @param maxConcurrency nombre maximal d’évaluations simultanées lors d’une évaluation groupée
+     * @param riskScorer moteur de calcul du risque
+     * @param riskCache cache des évaluations déjà calculées
+     * @param riskMetrics compteurs métier
+     * @param patientGuard garde des appels vers patient-service (disjoncteur partagé)
+     * @param noteGuard garde des appels vers note-service (disjoncteur partagé)
+     */
+    public ReactiveRiskAssessmentService(@Value("${spring.application.name}") String serviceName,
+                                         WebClient.Builder webClientBuilder,
+                                         @Value("${medilabo.risk.downstream-timeout:2s}") Duration downstreamTimeout,
+                                         @Value("${medilabo.risk.reactive.max-concurrency:64}") int maxConcurrency,
+                                         RiskScorer riskScorer,
+                                         RiskResultCache riskCache,
+                                         RiskMetrics riskMetrics,
+                                         @Qualifier("patientServiceGuard") DownstreamGuard patientGuard,
+                                         @Qualifier("noteServiceGuard") DownstreamGuard noteGuard) {
+        this.webClient = webClientBuilder
+                .defaultHeader(IdentityHeaders.USER_HEADER, serviceName)
+                .defaultHeader(IdentityHeaders.ROLES_HEADER, IdentityHeaders.SERVICE_ROLE)
+                .build();
+        this.downstreamTimeout = downstreamTimeout;
+        this.maxConcurrency = maxConcurrency;
+        this.riskScorer = riskScorer;
+        this.riskCache = riskCache;
+        this.riskMetrics = riskMetrics;
+        this.patientBreaker = patientGuard.getCircuitBreaker();
+        this.noteBreaker = noteGuard.getCircuitBreaker();
+    }
+
+    /**
+     * Évalue le risque de diabète d’un patient.
+     * <p>
+     * Une évaluation déjà en cache est retournée sans appel aux autres microservices. Sinon,
+     * le patient et ses notes sont demandés simultanément ; si l’un des appels échoue, l’autre
+     * est annulé. En cas d’indisponibilité d’un service aval, la dernière évaluation connue
+     * est retournée, marquée comme antérieure.
+     * </p>
+     *
+     * @param patientId identifiant du patient
+     * @return l’évaluation du patient
+     */
+    public Mono<RiskAssessmentResponse> assessRiskDetailed(Long patientId) {
+        return Mono.defer(() -> {
+            RiskAssessmentResponse cached = riskCache.get(patientId);
+            if (cached != null) {
+                return Mono.just(cached);
+            }
+            long token = riskCache.token();
+            return computeRisk(patientId)
+                .doOnNext(response -> riskCache.put(patientId, response, token))
+                .onErrorResume(ReactiveRiskAssessmentService::isUnavailable, e -> {
+                    RiskAssessmentResponse previous = riskCache.lastKnown(patientId);
+                    if (previous == null) {
+                        return Mono.error(e);
+                    }
+                    log.warn("Évaluation antérieure servie pour le patient {} : {}", patientId, e.getMessage());
+                    return Mono.just(previous.asStale());
+                });
+        });
+    }
+
+    /**
+     * Évalue le risque d’un ensemble de patients, au plus {@link #maxConcurrency} à la fois.
+     * <p>
+     * Les évaluations sont émises dans l’ordre des identifiants demandés ; les identifiants
+     * inconnus de patient-service sont ignorés.
+     * </p>
+     *
+     * @param patientIds identifiants des patients
+     * @return le flux des évaluations
+     */
+    public Flux<RiskAssessmentResponse> assessRiskBatch(List<Long> patientIds) {
+        return Flux.fromIterable(patientIds)
+            .flatMapSequential(patientId -> assessRiskDetailed(patientId)
+                .onErrorResume(WebClientResponseException.NotFound.class, e -> Mono.empty()), maxConcurrency);
+    }
+
+    /**
+     * Récupère le patient et compte les termes déclencheurs de ses notes au fil de leur réception.
+     *
+     * @param patientId identifiant du patient
+     * @return l’évaluation calculée
+     */
+    private Mono<RiskAssessmentResponse> computeRisk(Long patientId) {
+        Mono<PatientDTO> patient = webClient.get()
+            .uri(PATIENT_API, patientId)
+            .retrieve()
+            .bodyToMono(PatientDTO.class)
+            .timeout(downstreamTimeout)
+            .transformDeferred(CircuitBreakerOperator.of(patientBreaker));
+
+        Mono<int[]> triggerHits = webClient.get()
+            .uri(NOTE_CONTENUS_API, patientId)
+            .accept(MediaType.APPLICATION_NDJSON)
+            .retrieve()
+            .bodyToFlux(NoteDTO.class)
+            .reduceWith(() -> new int[riskScorer.getTriggers().size()], (hits, note) -> {
+                riskScorer.addTriggerHits(note, hits);
+                return hits;
+            })
+            .timeout(downstreamTimeout)
+            .transformDeferred(CircuitBreakerOperator.of(noteBreaker));
+
+        return Mono.zip(patient, triggerHits, (p, hits) -> {
+            riskMetrics.recordTriggerHits(hits);
+            RiskAssessmentResponse response = riskScorer.assess(p, Arrays.stream(hits).sum());
+            riskMetrics.recordRiskLevel(response.getRiskLevel());
+            return response;
+        });
+    }
+
+    /**
+     * @param e erreur d’un appel aval
+     * @return {@code true} si l’erreur traduit une indisponibilité du service (et non une requête invalide)
+     */
+    private static boolean isUnavailable(Throwable e) {
+        return e instanceof CallNotPermittedException
+            || e instanceof TimeoutException
+            || e instanceof WebClientRequestException
+            || e instanceof WebClientResponseException response && response.getStatusCode().is5xxServerError();
+    }
+}
@@ -2,27 +2,106 @@ package com.medilabo.riskassessment.service;
 
 import com.medilabo.riskassessment.dto.NoteDTO;
 import com.medilabo.riskassessment.dto.PatientDTO;
+import com.medilabo.riskassessment.dto.PatientIdRangeDTO;
+import com.medilabo.riskassessment.dto.PatientPageDTO;
 import com.medilabo.riskassessment.dto.RiskAssessmentResponse;
+import com.medilabo.riskassessment.dto.TriggerCountDTO;
 
+import io.github.resilience4j.circuitbreaker.CallNotPermittedException;
+import io.micrometer.core.annotation.Timed;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.ParameterizedTypeReference;
+import org.springframework.http.HttpEntity;
+import org.springframework.http.HttpMethod;
 import org.springframework.stereotype.Service;
+import org.springframework.web.client.HttpServerErrorException;
+import org.springframework.web.client.ResourceAccessException;
+import org.springframework.web.client.RestClientException;
 import org.springframework.web.client.RestTemplate;
 
-import java.time.LocalDate;
-import java.time.Period;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorCompletionService;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.function.ToIntFunction;
 
 /**
  * Service métier du microservice Risk Assessment.
  * <p>
- * Cette classe contient la logique d’analyse du risque de diabète pour un patient,
- * en fonction de son âge, de son genre et des mots-clés présents dans ses notes médicales.
+ * Cette classe récupère les données d’un patient et ses notes médicales auprès des autres
+ * microservices, puis délègue à {@link RiskScorer} l’analyse du risque de diabète
+ * en fonction de son âge, de son genre et des mots-clés présents dans ses notes.
  * </p>
  */
 @Service
 public class RiskAssessmentService {
 
+    private static final Logger log = LoggerFactory.getLogger(RiskAssessmentService.class);
+
     private final RestTemplate restTemplate;
 
+    /**
+     * Exécuteur (threads virtuels) sur lequel sont lancés en parallèle les appels aux autres microservices.
+     */
+    private final ExecutorService riskExecutor;
+
+    /**
+     * Délai maximal accordé à chaque appel aux autres microservices.
+     */
+    private final Duration downstreamTimeout;
+
+    /**
+     * Moteur de calcul du risque (règles métier).
+     */
+    private final RiskScorer riskScorer;
+
+    /**
+     * Cache des évaluations déjà calculées.
+     */
+    private final RiskResultCache riskCache;
+
+    /**
+     * Utilise les termes déclencheurs indexés par note-service au lieu d’analyser le texte des notes.
+     */
+    private final boolean precomputedTriggers;
+
+    /**
+     * Disjoncteur et couverture des appels vers patient-service.
+     */
+    private final DownstreamGuard patientGuard;
+
+    /**
+     * Disjoncteur et couverture des appels vers note-service.
+     */
+    private final DownstreamGuard noteGuard;
+
+    /**
+     * Disjoncteur des appels du recalcul de population vers patient-service, sans couverture.
+     */
+    private final DownstreamGuard patientJobGuard;
+
+    /**
+     * Disjoncteur des appels du recalcul de population vers note-service, sans couverture.
+     */
+    private final DownstreamGuard noteJobGuard;
+
+    /**
+     * Compteurs métier (termes déclencheurs, niveaux de risque).
+     */
+    private final RiskMetrics riskMetrics;
+
     /**
      * URL de l’API du microservice patient-service.
      */
@@ -34,21 +113,87 @@ public class RiskAssessmentService {
     private final String NOTE_API = "http://note-service:8083/notes/patient/";
 
     /**
-     * Liste des termes déclencheurs à rechercher dans les notes.
+     * Suffixe de l’endpoint note-service ne retournant que le contenu des notes.
+     */
+    private final String NOTE_CONTENUS_SUFFIX = "/contenus";
+
+    /**
+     * Suffixe de l’endpoint note-service retournant le nombre de termes déclencheurs précalculé.
+     */
+    private final String NOTE_TRIGGERS_SUFFIX = "/triggers";
+
+    /**
+     * URL de l’API de récupération groupée des patients (patient-service).
      */
-    private final List<String> triggers = List.of(
-        "Hémoglobine A1C", "Microalbumine", "Taille", "Poids",
-        "Fumeur", "Fumeuse", "Anormal", "Cholestérol",
-        "Vertiges", "Rechute", "Réaction", "Anticorps"
-    );
+    private final String PATIENT_BATCH_API = "http://patient-service:8081/patients/batch";
 
     /**
-     * Constructeur avec injection de {@link RestTemplate}.
+     * URL de l’API de pagination par curseur des patients (patient-service).
+     */
+    private final String PATIENT_PAGE_API = "http://patient-service:8081/patients?after={after}&limit={limit}";
+
+    /**
+     * URL de l’API des bornes des identifiants de patients (patient-service).
+     */
+    private final String PATIENT_ID_RANGE_API = "http://patient-service:8081/patients/id-range";
+
+    /**
+     * URL de l’API de récupération groupée des notes (note-service).
+     */
+    private final String NOTE_BATCH_API = "http://note-service:8083/notes/patients";
+
+    /**
+     * URL de l’API de décompte groupé des termes déclencheurs précalculés (note-service).
+     */
+    private final String NOTE_TRIGGERS_BATCH_API = "http://note-service:8083/notes/patients/triggers";
+
+    /**
+     * Nombre maximal d’identifiants envoyés dans un même appel groupé aux autres microservices.
+     */
+    private static final int BATCH_SIZE = 500;
+
+    /**
+     * Marge accordée aux appels gardés au-delà de leur délai maximal avant de les abandonner.
+     */
+    private static final Duration DEADLINE_GRACE = Duration.ofMillis(100);
+
+    /**
+     * Constructeur avec injection des dépendances.
      *
      * @param restTemplate client HTTP utilisé pour interroger les autres microservices
+     * @param riskExecutor exécuteur utilisé pour paralléliser les appels aux autres microservices
+     * @param downstreamTimeout délai maximal accordé à chaque appel aux autres microservices
+     * @param riskScorer moteur de calcul du risque
+     * @param riskCache cache des évaluations déjà calculées
+     * @param precomputedTriggers {@code true} pour lire le nombre de termes déclencheurs précalculé par note-service
+     * @param patientGuard garde des appels vers patient-service
+     * @param noteGuard garde des appels vers note-service
+     * @param patientJobGuard garde des appels du recalcul de population vers patient-service
+     * @param noteJobGuard garde des appels du recalcul de population vers note-service
+     * @param riskMetrics compteurs métier
      */
-    public RiskAssessmentService(RestTemplate restTemplate) {
+    public RiskAssessmentService(RestTemplate restTemplate,
+                                 ExecutorService riskExecutor,
+                                 @Value("${medilabo.risk.downstream-timeout:2s}") Duration downstreamTimeout,
+                                 RiskScorer riskScorer,
+                                 RiskResultCache riskCache,
+                                 @Value("${medilabo.risk.precomputed-triggers:false}") boolean precomputedTriggers,
+                                 @Qualifier("patientServiceGuard") DownstreamGuard patientGuard,
+                                 @Qualifier("noteServiceGuard") DownstreamGuard noteGuard,
+                                 @Qualifier("patientServiceJobGuard") DownstreamGuard patientJobGuard,
+                                 @Qualifier("noteServiceJobGuard") DownstreamGuard noteJobGuard,
+                                 RiskMetrics riskMetrics) {
         this.restTemplate = restTemplate;
+        this.riskExecutor = riskExecutor;
+        this.downstreamTimeout = downstreamTimeout;
+        this.riskScorer = riskScorer;
+        this.riskCache = riskCache;
+        this.precomputedTriggers = precomputedTriggers;
+        this.patientGuard = patientGuard;
+        this.noteGuard = noteGuard;
+        this.patientJobGuard = patientJobGuard;
+        this.noteJobGuard = noteJobGuard;
+        this.riskMetrics = riskMetrics;
     }
 
     /**
@@ -58,99 +203,419 @@ public class RiskAssessmentService {
      * @return le niveau de risque : "None", "Borderline", "In Danger", ou "Early onset"
      */
     public String assessRisk(Long patientId) {
-        PatientDTO patient = restTemplate.getForObject(PATIENT_API + patientId, PatientDTO.class);
-        NoteDTO[] notes = restTemplate.getForObject(NOTE_API + patientId, NoteDTO[].class);
+        return assessRiskDetailed(patientId).getRiskLevel();
+    }
 
-        int age = calculateAge(patient.getDateNaissance());
-        String genre = patient.getGenre();
-        int triggerCount = countTriggerTerms(notes);
+    /**
+     * Évalue le risque de diabète d’un patient et retourne une réponse détaillée incluant
+     * ses informations personnelles, son âge et son niveau de risque.
+     * <p>
+     * Une évaluation déjà en cache est retournée sans aucun appel aux autres microservices.
+     * Sinon, le patient et ses notes sont récupérés en parallèle : la latence de l’évaluation
+     * est celle de l’appel le plus lent et non la somme des deux.
+     * </p>
+     * <p>
+     * Avec <code>medilabo.risk.precomputed-triggers</code>, seul le nombre de termes déclencheurs
+     * est demandé à note-service ; le texte des notes n’est relu que si certaines notes du patient
+     * ne sont pas encore indexées.
+     * </p>
+     * <p>
+     * Si patient-service ou note-service est indisponible (disjoncteur ouvert, délai dépassé ou
+     * erreur serveur), la dernière évaluation connue du patient est retournée, marquée
+     * comme antérieure ({@link RiskAssessmentResponse#isStale()}).
+     * </p>
+     *
+     * @param patientId identifiant du patient
+     * @return un objet {@link RiskAssessmentResponse} complet
+     */
+    @Timed(value = "risk.assessment", description = "Évaluation du risque d’un patient", histogram = true)
+    public RiskAssessmentResponse assessRiskDetailed(Long patientId) {
+        RiskAssessmentResponse cached = riskCache.get(patientId);
+        if (cached != null) {
+            return cached;
+        }
 
-        return determineRiskLevel(age, genre, triggerCount);
+        long token = riskCache.token();
+        RiskAssessmentResponse response;
+        try {
+            response = computeRisk(patientId);
+        } catch (CallNotPermittedException | ResourceAccessException | HttpServerErrorException e) {
+            RiskAssessmentResponse previous = riskCache.lastKnown(patientId);
+            if (previous == null) {
+                throw e;
+            }
+            log.warn("Évaluation antérieure servie pour le patient {} : {}", patientId, e.getMessage());
+            return previous.asStale();
+        }
+        riskCache.put(patientId, response, token);
+        return response;
     }
 
     /**
-     * Calcule l'âge d'un patient à partir de sa date de naissance.
+     * Récupère le patient et ses notes (ou son décompte de termes déclencheurs) et calcule son risque.
      *
-     * @param birthDate la date de naissance
-     * @return l’âge du patient en années
+     * @param patientId identifiant du patient
+     * @return l’évaluation calculée
      */
-    private int calculateAge(LocalDate birthDate) {
-        return Period.between(birthDate, LocalDate.now()).getYears();
+    private RiskAssessmentResponse computeRisk(Long patientId) {
+        if (precomputedTriggers) {
+            // Les notes ne sont relues que si certaines ne sont pas encore indexées, dans le même délai.
+            Fetched<PatientDTO, Integer> fetched = fetchInParallel(
+                () -> patientGuard.call(() -> restTemplate.getForObject(PATIENT_API + patientId, PatientDTO.class)),
+                () -> {
+                    TriggerCountDTO counts = noteGuard.call(
+                        () -> restTemplate.getForObject(NOTE_API + patientId + NOTE_TRIGGERS_SUFFIX, TriggerCountDTO.class));
+                    return counts == null || counts.isComplete()
+                        ? triggerCount(counts)
+                        : countTriggerTerms(noteGuard.call(
+                            () -> restTemplate.getForObject(NOTE_API + patientId + NOTE_CONTENUS_SUFFIX, NoteDTO[].class)));
+                }
+            );
+            return buildResponse(fetched.first(), fetched.second());
+        }
+        Fetched<PatientDTO, NoteDTO[]> fetched = fetchInParallel(
+            () -> patientGuard.call(() -> restTemplate.getForObject(PATIENT_API + patientId, PatientDTO.class)),
+            () -> noteGuard.call(() -> restTemplate.getForObject(NOTE_API + patientId + NOTE_CONTENUS_SUFFIX, NoteDTO[].class))
+        );
+        return buildResponse(fetched.first(), countTriggerTerms(fetched.second()));
     }
 
     /**
-     * Compte le nombre de termes déclencheurs trouvés dans toutes les notes du patient.
+     * Invalide l’évaluation en cache d’un patient, suite à l’ajout d’une note ou à la modification
+     * de ses informations.
      *
-     * @param notes tableau de notes médicales
-     * @return le nombre total de termes déclencheurs détectés
+     * @param patientId identifiant du patient
      */
-    private int countTriggerTerms(NoteDTO[] notes) {
-        int count = 0;
-        if (notes != null) {
-            for (NoteDTO note : notes) {
-                String contenu = note.getContenu();
-                if (contenu != null) {
-                    String normalized = contenu.toLowerCase();
-                    for (String trigger : triggers) {
-                        if (normalized.contains(trigger.toLowerCase())) {
-                            count++;
-                        }
+    public void invalidate(Long patientId) {
+        riskCache.invalidate(patientId);
+    }
+
+    /**
+     * Invalide les évaluations en cache de plusieurs patients, suite à un import de notes.
+     *
+     * @param patientIds identifiants des patients
+     */
+    public void invalidateAll(List<Long> patientIds) {
+        riskCache.invalidateAll(patientIds);
+    }
+
+    /**
+     * Oublie toute évaluation d’un patient supprimé, y compris la dernière évaluation connue
+     * servie en mode dégradé.
+     *
+     * @param patientId identifiant du patient supprimé
+     */
+    public void patientDeleted(Long patientId) {
+        riskCache.evict(patientId);
+    }
+
+    /**
+     * Évalue le risque de diabète d’un ensemble de patients en un seul passage.
+     * <p>
+     * Les patients et leurs notes sont récupérés par lots de {@value #BATCH_SIZE} identifiants
+     * (un appel à patient-service et un appel à note-service par lot) au lieu de deux appels
+     * par patient. Seuls les patients absents du cache sont récupérés. Les identifiants inconnus
+     * de patient-service sont ignorés.
+     * </p>
+     * <p>
+     * Si un lot ne peut être récupéré parce qu’un service aval est indisponible, la dernière
+     * évaluation connue de chacun de ses patients est retournée, marquée comme antérieure ; les
+     * patients jamais évalués sont omis. L’erreur n’est propagée que si aucune évaluation ne peut
+     * être retournée.
+     * </p>
+     *
+     * @param patientIds identifiants des patients à évaluer
+     * @return la liste des évaluations, dans l’ordre des identifiants demandés
+     * @throws RestClientException si un service aval est indisponible et qu’aucune évaluation
+     *         antérieure ne peut être servie
+     */
+    @Timed(value = "risk.assessment.batch", description = "Évaluation groupée du risque", histogram = true)
+    public List<RiskAssessmentResponse> assessRiskBatch(List<Long> patientIds) {
+        Map<Long, RiskAssessmentResponse> responsesById = new HashMap<>();
+        LinkedHashSet<Long> absent = new LinkedHashSet<>();
+        for (Long patientId : patientIds) {
+            RiskAssessmentResponse cached = riskCache.get(patientId);
+            if (cached != null) {
+                responsesById.put(patientId, cached);
+            } else {
+                absent.add(patientId);
+            }
+        }
+        List<Long> missing = new ArrayList<>(absent);
+
+        long token = riskCache.token();
+        RuntimeException unavailable = null;
+        for (int from = 0; from < missing.size(); from += BATCH_SIZE) {
+            List<Long> chunk = missing.subList(from, Math.min(from + BATCH_SIZE, missing.size()));
+            try {
+                for (RiskAssessmentResponse response : computeRiskBatch(chunk)) {
+                    responsesById.put(response.getPatientId(), response);
+                    riskCache.put(response.getPatientId(), response, token);
+                }
+            } catch (CallNotPermittedException | ResourceAccessException | HttpServerErrorException e) {
+                unavailable = e;
+                int served = 0;
+                for (Long patientId : chunk) {
+                    RiskAssessmentResponse previous = riskCache.lastKnown(patientId);
+                    if (previous != null) {
+                        responsesById.put(patientId, previous.asStale());
+                        served++;
                     }
                 }
+                log.warn("Évaluations antérieures servies pour {} patients sur {} : {}", served, chunk.size(), e.getMessage());
             }
         }
-        return count;
+
+        List<RiskAssessmentResponse> responses = new ArrayList<>(responsesById.size());
+        for (Long patientId : patientIds) {
+            RiskAssessmentResponse response = responsesById.get(patientId);
+            if (response != null) {
+                responses.add(response);
+            }
+        }
+        if (responses.isEmpty() && unavailable != null) {
+            throw unavailable;
+        }
+        return responses;
     }
 
     /**
-     * Détermine le niveau de risque selon les règles métier fournies.
+     * Récupère un lot de patients et leurs notes (ou leurs décomptes de termes déclencheurs)
+     * et calcule leur risque.
      *
-     * @param age âge du patient
-     * @param genre genre du patient ("M" ou "F")
-     * @param triggerCount nombre de termes déclencheurs détectés
-     * @return le niveau de risque : "None", "Borderline", "In Danger", ou "Early onset"
+     * @param chunk identifiants des patients du lot
+     * @return les évaluations des patients connus de patient-service
+     */
+    private List<RiskAssessmentResponse> computeRiskBatch(List<Long> chunk) {
+        Fetched<PatientDTO[], TriggerSource> fetched = fetchInParallel(
+            () -> patientGuard.callWithoutHedging(() -> restTemplate.postForObject(PATIENT_BATCH_API, chunk, PatientDTO[].class)),
+            () -> fetchTriggerSource(chunk, noteGuard)
+        );
+        PatientDTO[] patients = fetched.first();
+        if (patients == null) {
+            return List.of();
+        }
+        Map<Long, Integer> triggerCounts = triggerCounts(fetched.second(), noteGuard, this::countTriggerTerms);
+        List<RiskAssessmentResponse> responses = new ArrayList<>(patients.length);
+        for (PatientDTO patient : patients) {
+            responses.add(buildResponse(patient, triggerCounts.getOrDefault(patient.getId(), 0)));
+        }
+        return responses;
+    }
+
+    /**
+     * Récupère les bornes des identifiants de patients, pour découper la population en plages.
+     *
+     * @return les bornes et le nombre des identifiants
+     */
+    public PatientIdRangeDTO fetchPatientIdRange() {
+        PatientIdRangeDTO range = patientJobGuard.callWithoutHedging(
+            () -> restTemplate.getForObject(PATIENT_ID_RANGE_API, PatientIdRangeDTO.class));
+        return range != null ? range : new PatientIdRangeDTO(null, null, 0);
+    }
+
+    /**
+     * Récupère une page de patients par pagination par curseur.
+     *
+     * @param after identifiant du dernier patient déjà lu
+     * @param limit nombre maximal de patients
+     * @return la page de patients, triés par identifiant croissant
+     */
+    public PatientPageDTO fetchPatientPage(long after, int limit) {
+        PatientPageDTO page = patientJobGuard.callWithoutHedging(
+            () -> restTemplate.getForObject(PATIENT_PAGE_API, PatientPageDTO.class, after, limit));
+        return page != null ? page : new PatientPageDTO();
+    }
+
+    /**
+     * Évalue le risque de patients déjà récupérés auprès de patient-service, pour le recalcul
+     * de toute la population ({@link RiskJobService}).
+     * <p>
+     * Seules les notes (ou les décomptes précalculés) sont demandées à note-service, en un seul
+     * appel. Le cache des évaluations n’est ni consulté ni alimenté et les compteurs métier ne
+     * sont pas incrémentés : un recalcul complet fausserait la répartition des évaluations
+     * demandées par les utilisateurs.
+     * </p>
+     * <p>
+     * Les appels du recalcul ({@link #fetchPatientIdRange()}, {@link #fetchPatientPage(long, int)}
+     * et celui-ci) passent par leurs propres disjoncteurs : une nuit de recalcul en difficulté
+     * n'ouvre pas les disjoncteurs des évaluations demandées par les utilisateurs, et inversement.
+     * </p>
+     *
+     * @param patients patients à évaluer (au plus {@value #BATCH_SIZE})
+     * @return les évaluations, dans l’ordre des patients
+     */
+    public List<RiskAssessmentResponse> assessPatients(List<PatientDTO> patients) {
+        List<Long> patientIds = patients.stream().map(PatientDTO::getId).toList();
+        Map<Long, Integer> triggerCounts = triggerCounts(fetchTriggerSource(patientIds, noteJobGuard), noteJobGuard,
+            riskScorer::countTriggerTerms);
+
+        List<RiskAssessmentResponse> responses = new ArrayList<>(patients.size());
+        for (PatientDTO patient : patients) {
+            responses.add(riskScorer.assess(patient, triggerCounts.getOrDefault(patient.getId(), 0)));
+        }
+        return responses;
+    }
+
+    /**
+     * Demande à note-service, en un seul appel, de quoi compter les termes déclencheurs d’un lot
+     * de patients : les décomptes précalculés si {@link #precomputedTriggers} est activé,
+     * sinon le texte des notes.
+     *
+     * @param patientIds identifiants des patients
+     * @param guard garde des appels vers note-service
+     * @return les décomptes ou les notes du lot
+     */
+    private TriggerSource fetchTriggerSource(List<Long> patientIds, DownstreamGuard guard) {
+        if (precomputedTriggers) {
+            return new TriggerSource(guard.callWithoutHedging(
+                () -> restTemplate.postForObject(NOTE_TRIGGERS_BATCH_API, patientIds, TriggerCountDTO[].class)), null);
+        }
+        return new TriggerSource(null, fetchNotes(patientIds, guard));
+    }
+
+    /**
+     * Calcule le nombre de termes déclencheurs de chaque patient d’un lot.
+     * <p>
+     * Les décomptes précalculés complets sont repris tels quels ; les notes des patients dont
+     * les notes ne sont pas toutes indexées sont demandées en un seul appel supplémentaire.
+     * </p>
+     *
+     * @param source décomptes ou notes renvoyés par {@link #fetchTriggerSource(List, DownstreamGuard)}
+     * @param guard garde des appels vers note-service
+     * @param counter décompte des termes des notes d’un patient
+     * @return le nombre de termes déclencheurs, indexé par identifiant de patient
      */
-    private String determineRiskLevel(int age, String genre, int triggerCount) {
-        if (triggerCount == 0) return "None";
-
-        if (age > 30) {
-            if (triggerCount >= 8) return "Early onset";
-            if (triggerCount >= 6) return "In Danger";
-            if (triggerCount >= 2) return "Borderline";
-        } else {
-            if ("M".equalsIgnoreCase(genre)) {
-                if (triggerCount >= 5) return "Early onset";
-                if (triggerCount >= 3) return "In Danger";
-            } else if ("F".equalsIgnoreCase(genre)) {
-                if (triggerCount >= 7) return "Early onset";
-                if (triggerCount >= 4) return "In Danger";
+    private Map<Long, Integer> triggerCounts(TriggerSource source, DownstreamGuard guard, ToIntFunction<NoteDTO[]> counter) {
+        Map<Long, Integer> triggerCounts = new HashMap<>();
+        Map<Long, NoteDTO[]> notes = source.notes();
+        if (source.counts() != null) {
+            List<Long> unindexed = new ArrayList<>();
+            for (TriggerCountDTO counts : source.counts()) {
+                if (counts.isComplete()) {
+                    triggerCounts.put(counts.getPatientId(), triggerCount(counts));
+                } else {
+                    unindexed.add(counts.getPatientId());
+                }
             }
+            notes = unindexed.isEmpty() ? Map.of() : fetchNotes(unindexed, guard);
+        }
+        if (notes != null) {
+            notes.forEach((patientId, patientNotes) -> triggerCounts.put(patientId, counter.applyAsInt(patientNotes)));
         }
-        return "None";
+        return triggerCounts;
     }
 
     /**
-     * Évalue le risque de diabète d’un patient et retourne une réponse détaillée incluant
-     * ses informations personnelles, son âge et son niveau de risque.
+     * Récupère en un seul appel les notes de plusieurs patients.
      *
-     * @param patientId identifiant du patient
+     * @param patientIds identifiants des patients
+     * @param guard garde des appels vers note-service
+     * @return les notes de chaque patient, indexées par identifiant de patient
+     */
+    private Map<Long, NoteDTO[]> fetchNotes(List<Long> patientIds, DownstreamGuard guard) {
+        Map<Long, NoteDTO[]> notes = guard.callWithoutHedging(() -> restTemplate.exchange(
+            NOTE_BATCH_API,
+            HttpMethod.POST,
+            new HttpEntity<>(patientIds),
+            new ParameterizedTypeReference<Map<Long, NoteDTO[]>>() {}
+        ).getBody());
+        return notes != null ? notes : Map.of();
+    }
+
+    /**
+     * Compte les termes déclencheurs des notes d’un patient et met à jour les compteurs par terme.
+     *
+     * @param notes notes du patient
+     * @return le nombre total de termes déclencheurs détectés
+     */
+    private int countTriggerTerms(NoteDTO[] notes) {
+        int[] hits = riskScorer.triggerHits(notes);
+        riskMetrics.recordTriggerHits(hits);
+        return Arrays.stream(hits).sum();
+    }
+
+    /**
+     * @param counts décompte précalculé par note-service (éventuellement {@code null})
+     * @return le nombre de termes déclencheurs, 0 si le patient n’a pas de note
+     */
+    private static int triggerCount(TriggerCountDTO counts) {
+        return counts == null ? 0 : Math.toIntExact(counts.getTriggerCount());
+    }
+
+    /**
+     * Construit la réponse détaillée d’un patient à partir de ses données et du nombre
+     * de termes déclencheurs relevés dans ses notes.
+     *
+     * @param patient le patient évalué
+     * @param triggerCount nombre de termes déclencheurs
      * @return un objet {@link RiskAssessmentResponse} complet
      */
-    public RiskAssessmentResponse assessRiskDetailed(Long patientId) {
-        PatientDTO patient = restTemplate.getForObject(PATIENT_API + patientId, PatientDTO.class);
-        NoteDTO[] notes = restTemplate.getForObject(NOTE_API + patientId, NoteDTO[].class);
-
-        int age = calculateAge(patient.getDateNaissance());
-        String genre = patient.getGenre();
-        int triggerCount = countTriggerTerms(notes);
-        String risk = determineRiskLevel(age, genre, triggerCount);
-
-        return new RiskAssessmentResponse(
-            patient.getId(),
-            patient.getPrenom(),
-            patient.getNom(),
-            age,
-            risk
-        );
+    private RiskAssessmentResponse buildResponse(PatientDTO patient, int triggerCount) {
+        RiskAssessmentResponse response = riskScorer.assess(patient, triggerCount);
+        riskMetrics.recordRiskLevel(response.getRiskLevel());
+        return response;
+    }
+
+    /**
+     * Lance deux appels en parallèle sur {@link #riskExecutor} et attend leurs deux résultats.
+     * <p>
+     * Les deux appels partagent le même délai maximal ({@link #downstreamTimeout}). Dès que l’un
+     * d’eux échoue ou que le délai est dépassé, l’autre est annulé (interruption du thread virtuel)
+     * et l’erreur est propagée à l’appelant. Les appels passant par un {@link DownstreamGuard}
+     * échouent d’eux-mêmes à l’échéance, ce qui est compté par leur disjoncteur : l’attente est donc
+     * prolongée de {@link #DEADLINE_GRACE} pour leur en laisser le temps.
+     * </p>
+     *
+     * @param first premier appel
+     * @param second second appel
+     * @return les résultats des deux appels
+     * @throws RestClientException si l’un des appels échoue ou si le délai est dépassé
+     */
+    @SuppressWarnings("unchecked")
+    private <A, B> Fetched<A, B> fetchInParallel(Callable<A> first, Callable<B> second) {
+        ExecutorCompletionService<Object> completion = new ExecutorCompletionService<>(riskExecutor);
+        Future<Object> firstTask = completion.submit(first::call);
+        Future<Object> secondTask = completion.submit(second::call);
+        long deadline = System.nanoTime() + downstreamTimeout.plus(DEADLINE_GRACE).toNanos();
+
+        try {
+            for (int completed = 0; completed < 2; completed++) {
+                Future<Object> done = completion.poll(deadline - System.nanoTime(), TimeUnit.NANOSECONDS);
+                if (done == null) {
+                    throw new ResourceAccessException(
+                        "Délai de " + downstreamTimeout.toMillis() + " ms dépassé lors de l’appel aux microservices");
+                }
+                done.get();
+            }
+            return new Fetched<>((A) firstTask.get(), (B) secondTask.get());
+        } catch (ExecutionException e) {
+            Throwable cause = e.getCause();
+            if (cause instanceof RuntimeException runtimeException) {
+                throw runtimeException;
+            }
+            throw new RestClientException("Échec de l’appel aux microservices", cause);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new ResourceAccessException("Appel aux microservices interrompu");
+        } finally {
+            firstTask.cancel(true);
+            secondTask.cancel(true);
+        }
+    }
+
+    /**
+     * Résultats de deux appels effectués en parallèle.
+     *
+     * @param first résultat du premier appel
+     * @param second résultat du second appel
+     */
+    private record Fetched<A, B>(A first, B second) {
+    }
+
+    /**
+     * Réponse de note-service pour un lot : décomptes précalculés ou texte des notes.
+     */
+    private record TriggerSource(TriggerCountDTO[] counts, Map<Long, NoteDTO[]> notes) {
     }
 }
@@ -0,0 +1,556 @@
+package com.medilabo.riskassessment.service;
+
+import com.medilabo.riskassessment.dto.PatientDTO;
+import com.medilabo.riskassessment.dto.PatientIdRangeDTO;
+import com.medilabo.riskassessment.dto.PatientPageDTO;
+import com.medilabo.riskassessment.dto.RiskAssessmentResponse;
+import com.medilabo.riskassessment.dto.RiskJobReport;
+import com.medilabo.riskassessment.dto.RiskLevelPage;
+import com.medilabo.riskassessment.model.RiskJobPartition;
+import com.medilabo.riskassessment.model.RiskJobRun;
+import com.medilabo.riskassessment.model.RiskSnapshot;
+import com.medilabo.riskassessment.repository.RiskJobPartitionRepository;
+import com.medilabo.riskassessment.repository.RiskJobPartitionRepository.PartitionProgress;
+import com.medilabo.riskassessment.repository.RiskJobRunRepository;
+import com.medilabo.riskassessment.repository.RiskSnapshotRepository;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.data.domain.Limit;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.lang.management.ManagementFactory;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.EnumSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Queue;
+import java.util.TreeMap;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Recalcul du risque de toute la population, planifié chaque nuit ou lancé à la demande.
+ * <p>
+ * Les identifiants de patients connus au lancement sont découpés en plages de
+ * {@code partitionSize} identifiants ({@link RiskJobPartition}). Les partitions sont traitées
+ * en parallèle, {@code parallelism} à la fois, sur l'exécuteur à threads virtuels : chacune lit
+ * ses patients page par page (pagination par curseur de patient-service), récupère leurs notes
+ * en un appel groupé et enregistre un {@link RiskSnapshot} par patient. La mémoire consommée
+ * est bornée à une page par partition en cours, quelle que soit la taille de la population.
+ * </p>
+ * <p>
+ * L'avancement de chaque partition est enregistré dans la transaction qui écrit les instantanés
+ * de la page : une exécution interrompue (arrêt ou panne du service) reste à l'état
+ * {@link RiskJobRun.Status#RUNNING} et reprend, au démarrage suivant ou au prochain lancement,
+ * juste après le dernier patient enregistré. Une partition en échec (service aval indisponible)
+ * n'interrompt pas les autres ; l'exécution est alors terminée en {@link RiskJobRun.Status#FAILED}.
+ * </p>
+ * <p>
+ * Une seule exécution à la fois dans la base. Plusieurs instances du service peuvent la traiter
+ * ensemble : chaque partition est réservée en base par l'instance qui la traite, pour une durée
+ * ({@code lease}) prolongée à chaque page. Une partition dont la réservation est échue (instance
+ * arrêtée brutalement) est reprise par une autre instance ; l'ancienne ne peut plus enregistrer
+ * d'avancement. L'exécution est terminée par la dernière instance qui y travaille.
+ * Les instantanés des {@code retainedRuns} dernières exécutions terminées sont conservés.
+ * </p>
+ */
+@Service
+public class RiskJobService {
+
+    /**
+     * Origine d'une exécution lancée par la planification.
+     */
+    public static final String TRIGGER_SCHEDULED = "scheduled";
+
+    /**
+     * Origine d'une exécution lancée par {@code POST /jobs/risk}.
+     */
+    public static final String TRIGGER_MANUAL = "manual";
+
+    /**
+     * Origine d'une exécution reprise au démarrage du service.
+     */
+    public static final String TRIGGER_RESUME = "resume";
+
+    /**
+     * Taille de page maximale acceptée par patient-service et par les appels groupés à note-service.
+     */
+    private static final int MAX_PAGE_SIZE = 500;
+
+    private static final Logger log = LoggerFactory.getLogger(RiskJobService.class);
+
+    private final RiskAssessmentService riskService;
+
+    private final RiskJobRunRepository runRepository;
+
+    private final RiskJobPartitionRepository partitionRepository;
+
+    private final RiskSnapshotRepository snapshotRepository;
+
+    private final TransactionTemplate transactionTemplate;
+
+    private final ExecutorService riskExecutor;
+
+    private final RiskMetrics riskMetrics;
+
+    private final long partitionSize;
+
+    private final int pageSize;
+
+    private final int parallelism;
+
+    private final int retainedRuns;
+
+    private final boolean resumeOnStartup;
+
+    private final Duration lease;
+
+    /**
+     * Identifiant de cette instance, propriétaire des partitions qu'elle réserve.
+     */
+    private final String owner;
+
+    /**
+     * Vrai tant qu'une exécution est en cours dans cette instance.
+     */
+    private final AtomicBoolean running = new AtomicBoolean();
+
+    /**
+     * Positionné à l'arrêt du service : les partitions en cours s'arrêtent après leur page courante.
+     */
+    private volatile boolean stopping;
+
+    /**
+     * @param riskService récupération des patients et calcul du risque
+     * @param runRepository exécutions du recalcul
+     * @param partitionRepository partitions des exécutions
+     * @param snapshotRepository instantanés de risque
+     * @param transactionTemplate transaction d'écriture de chaque page
+     * @param riskExecutor exécuteur (threads virtuels) sur lequel sont traitées les partitions
+     * @param riskMetrics compteurs du recalcul
+     * @param partitionSize nombre d'identifiants de patients par partition
+     * @param pageSize nombre de patients lus et enregistrés à la fois (au plus {@value #MAX_PAGE_SIZE})
+     * @param parallelism nombre de partitions traitées simultanément
+     * @param retainedRuns nombre d'exécutions terminées dont les instantanés sont conservés
+     * @param resumeOnStartup reprendre au démarrage une exécution interrompue
+     * @param lease durée de réservation d'une partition, prolongée à chaque page enregistrée
+     * @param instanceId identifiant de cette instance ; généré s'il est vide
+     */
+    public RiskJobService(RiskAssessmentService riskService,
+                          RiskJobRunRepository runRepository,
+                          RiskJobPartitionRepository partitionRepository,
+                          RiskSnapshotRepository snapshotRepository,
+                          TransactionTemplate transactionTemplate,
+                          @Qualifier("riskExecutor") ExecutorService riskExecutor,
+                          RiskMetrics riskMetrics,
+                          @Value("${medilabo.risk.job.partition-size:5000}") long partitionSize,
+                          @Value("${medilabo.risk.job.page-size:500}") int pageSize,
+                          @Value("${medilabo.risk.job.parallelism:4}") int parallelism,
+                          @Value("${medilabo.risk.job.retained-runs:7}") int retainedRuns,
+                          @Value("${medilabo.risk.job.resume-on-startup:true}") boolean resumeOnStartup,
+                          @Value("${medilabo.risk.job.lease:5m}") Duration lease,
+                          @Value("${medilabo.risk.job.instance-id:}") String instanceId) {
+        this.riskService = riskService;
+        this.runRepository = runRepository;
+        this.partitionRepository = partitionRepository;
+        this.snapshotRepository = snapshotRepository;
+        this.transactionTemplate = transactionTemplate;
+        this.riskExecutor = riskExecutor;
+        this.riskMetrics = riskMetrics;
+        this.partitionSize = Math.max(1, partitionSize);
+        this.pageSize = Math.clamp(pageSize, 1, MAX_PAGE_SIZE);
+        this.parallelism = Math.max(1, parallelism);
+        this.retainedRuns = Math.max(1, retainedRuns);
+        this.resumeOnStartup = resumeOnStartup;
+        this.lease = lease;
+        this.owner = instanceId.isBlank()
+                ? ManagementFactory.getRuntimeMXBean().getName() + "-" + UUID.randomUUID().toString().substring(0, 8)
+                : instanceId;
+    }
+
+    /**
+     * Lance le recalcul en arrière-plan (ou reprend l'exécution interrompue).
+     *
+     * @param trigger origine du lancement
+     * @return l'avancement de l'exécution lancée, vide si une exécution est déjà en cours
+     */
+    public Optional<RiskJobReport> start(String trigger) {
+        if (!running.compareAndSet(false, true)) {
+            return Optional.empty();
+        }
+        try {
+            RiskJobRun run = prepare(trigger);
+            riskExecutor.execute(() -> {
+                try {
+                    execute(run);
+                } finally {
+                    running.set(false);
+                }
+            });
+            return Optional.of(report(run));
+        } catch (RuntimeException e) {
+            running.set(false);
+            throw e;
+        }
+    }
+
+    /**
+     * Exécute le recalcul jusqu'à son terme (ou reprend l'exécution interrompue).
+     *
+     * @param trigger origine du lancement
+     * @return l'avancement final de l'exécution, vide si une exécution est déjà en cours
+     */
+    public Optional<RiskJobReport> run(String trigger) {
+        if (!running.compareAndSet(false, true)) {
+            return Optional.empty();
+        }
+        try {
+            RiskJobRun run = prepare(trigger);
+            execute(run);
+            return report(run.getId());
+        } finally {
+            running.set(false);
+        }
+    }
+
+    /**
+     * Recalcul planifié (par défaut chaque nuit à 2 h ; {@code -} désactive la planification).
+     */
+    @Scheduled(cron = "${medilabo.risk.job.cron:0 0 2 * * *}")
+    public void runScheduled() {
+        if (run(TRIGGER_SCHEDULED).isEmpty()) {
+            log.info("Recalcul planifié ignoré : une exécution est déjà en cours");
+        }
+    }
+
+    /**
+     * Reprend au démarrage du service l'exécution interrompue par un arrêt ou une panne.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void resumeInterruptedRun() {
+        if (resumeOnStartup && runRepository.findFirstByStatusOrderByIdDesc(RiskJobRun.Status.RUNNING).isPresent()) {
+            start(TRIGGER_RESUME);
+        }
+    }
+
+    /**
+     * @param runId exécution
+     * @return son avancement, vide si elle n'existe pas
+     */
+    public Optional<RiskJobReport> report(Long runId) {
+        return runRepository.findById(runId).map(this::report);
+    }
+
+    /**
+     * @return l'avancement de l'exécution la plus récente, vide s'il n'y en a aucune
+     */
+    public Optional<RiskJobReport> latestReport() {
+        return runRepository.findFirstByOrderByIdDesc().map(this::report);
+    }
+
+    /**
+     * Liste, page par page, les patients classés à un niveau de risque par le dernier recalcul terminé.
+     *
+     * @param riskLevel niveau de risque
+     * @param after identifiant à partir duquel lire (exclu), ou {@code null} pour la première page
+     * @param limit nombre maximal de patients (au plus {@value #MAX_PAGE_SIZE})
+     * @return la page, vide si aucun recalcul n'est terminé
+     */
+    public Optional<RiskLevelPage> patientsAtLevel(String riskLevel, Long after, int limit) {
+        List<Long> latest = runRepository.findIdsByStatus(RiskJobRun.Status.COMPLETED, Limit.of(1));
+        if (latest.isEmpty()) {
+            return Optional.empty();
+        }
+        int pageLimit = Math.clamp(limit, 1, MAX_PAGE_SIZE);
+        Long runId = latest.getFirst();
+        List<Long> patientIds = snapshotRepository.findPatientIds(runId, riskLevel, after != null ? after : Long.MIN_VALUE,
+                Limit.of(pageLimit));
+        Long nextAfter = patientIds.size() == pageLimit ? patientIds.getLast() : null;
+        return Optional.of(new RiskLevelPage(runId, patientIds, nextAfter));
+    }
+
+    /**
+     * Arrête les partitions en cours après leur page courante ; l'exécution sera reprise
+     * au prochain démarrage.
+     */
+    @PreDestroy
+    void stop() {
+        stopping = true;
+    }
+
+    /**
+     * Rejoint l'exécution en cours ou interrompue s'il y en a une, sinon crée une exécution et
+     * ses partitions à partir des bornes des identifiants de patients.
+     * <p>
+     * Si une autre instance crée une exécution au même moment, la contrainte d'unicité de
+     * {@code activeLock} rejette la seconde : cette instance rejoint alors la première.
+     * </p>
+     *
+     * @param trigger origine du lancement
+     * @return l'exécution à traiter
+     */
+    private RiskJobRun prepare(String trigger) {
+        Optional<RiskJobRun> active = join();
+        if (active.isPresent()) {
+            return active.get();
+        }
+
+        PatientIdRangeDTO range = riskService.fetchPatientIdRange();
+        try {
+            return create(trigger, range);
+        } catch (DataIntegrityViolationException e) {
+            return join().orElseThrow(() -> e);
+        }
+    }
+
+    /**
+     * Rejoint l'exécution en cours, en remettant à traiter ses partitions en échec.
+     *
+     * @return l'exécution en cours, vide s'il n'y en a aucune
+     */
+    private Optional<RiskJobRun> join() {
+        return runRepository.findFirstByStatusOrderByIdDesc(RiskJobRun.Status.RUNNING).map(run -> {
+            int reset = partitionRepository.resetFailed(run.getId());
+            log.info("Reprise du recalcul {} ({} partition(s) en échec remise(s) à traiter)", run.getId(), reset);
+            return run;
+        });
+    }
+
+    /**
+     * Crée une exécution et ses partitions.
+     *
+     * @param trigger origine du lancement
+     * @param range bornes des identifiants de patients
+     * @return l'exécution créée
+     */
+    private RiskJobRun create(String trigger, PatientIdRangeDTO range) {
+        return transactionTemplate.execute(status -> {
+            RiskJobRun run = runRepository.save(new RiskJobRun(trigger, Instant.now(), range.getCount()));
+            List<RiskJobPartition> partitions = new ArrayList<>();
+            if (range.getMinId() != null && range.getMaxId() != null) {
+                for (long from = range.getMinId(); from <= range.getMaxId(); from += partitionSize) {
+                    partitions.add(new RiskJobPartition(run.getId(), from, Math.min(from + partitionSize, range.getMaxId() + 1)));
+                }
+            }
+            partitionRepository.saveAll(partitions);
+            run.setPartitions(partitions.size());
+            log.info("Recalcul {} lancé ({}) : {} patients, {} partition(s)",
+                    run.getId(), trigger, range.getCount(), partitions.size());
+            return run;
+        });
+    }
+
+    /**
+     * Traite les partitions restantes d'une exécution puis la termine.
+     *
+     * @param run exécution à traiter
+     */
+    private void execute(RiskJobRun run) {
+        Queue<RiskJobPartition> pending = new ConcurrentLinkedQueue<>(
+                partitionRepository.findClaimable(run.getId(), Instant.now()));
+        List<Future<?>> workers = new ArrayList<>();
+        for (int i = 0; i < Math.min(parallelism, pending.size()); i++) {
+            workers.add(riskExecutor.submit(() -> {
+                RiskJobPartition partition;
+                while (!stopping && (partition = pending.poll()) != null) {
+                    process(run.getId(), partition);
+                }
+            }));
+        }
+        boolean interrupted = false;
+        for (Future<?> worker : workers) {
+            try {
+                worker.get();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                stopping = true;
+                return;
+            } catch (ExecutionException e) {
+                log.error("Recalcul {} interrompu", run.getId(), e.getCause());
+                interrupted = true;
+            }
+        }
+        if (stopping) {
+            log.info("Recalcul {} interrompu par l'arrêt du service, il sera repris", run.getId());
+            return;
+        }
+        if (interrupted) {
+            return;
+        }
+
+        long unfinished = partitionRepository.countByRunIdAndStatusIn(run.getId(),
+                EnumSet.of(RiskJobPartition.Status.PENDING, RiskJobPartition.Status.RUNNING));
+        if (unfinished > 0) {
+            log.info("Recalcul {} : {} partition(s) encore en cours dans une autre instance", run.getId(), unfinished);
+            return;
+        }
+        boolean failed = partitionRepository.countByRunIdAndStatus(run.getId(), RiskJobPartition.Status.FAILED) > 0;
+        RiskJobRun.Status status = failed ? RiskJobRun.Status.FAILED : RiskJobRun.Status.COMPLETED;
+        if (runRepository.finish(run.getId(), status, Instant.now()) == 0) {
+            return;
+        }
+        log.info("Recalcul {} terminé : {}", run.getId(), status);
+        if (!failed) {
+            prune();
+        }
+    }
+
+    /**
+     * Réserve une partition puis évalue ses patients, page par page, à partir du dernier patient
+     * enregistré. La partition est ignorée si une autre instance l'a réservée entre-temps.
+     *
+     * @param runId exécution
+     * @param candidate partition à traiter
+     */
+    private void process(Long runId, RiskJobPartition candidate) {
+        Instant claimedAt = Instant.now();
+        if (partitionRepository.claim(candidate.getId(), owner, claimedAt, claimedAt.plus(lease)) == 0) {
+            return;
+        }
+        // relue après la réservation : l'instance précédente a pu enregistrer d'autres pages
+        RiskJobPartition partition = partitionRepository.findById(candidate.getId()).orElseThrow();
+        long start = System.nanoTime();
+        try {
+            long after = partition.getLastPatientId() != null ? partition.getLastPatientId() : partition.getFromId() - 1;
+            while (after < partition.getToId() - 1) {
+                if (stopping) {
+                    partitionRepository.release(partition.getId(), owner);
+                    return;
+                }
+                PatientPageDTO page = riskService.fetchPatientPage(after,
+                        (int) Math.min(pageSize, partition.getToId() - 1 - after));
+                List<PatientDTO> patients = page.getPatients().stream()
+                        .filter(patient -> patient.getId() < partition.getToId())
+                        .toList();
+                if (patients.isEmpty()) {
+                    break;
+                }
+                saveSnapshots(runId, partition.getId(), patients, riskService.assessPatients(patients));
+                riskMetrics.recordJobPatients(patients.size());
+                if (page.getNextAfter() == null || patients.size() < page.getPatients().size()) {
+                    break;
+                }
+                after = patients.getLast().getId();
+            }
+            if (partitionRepository.finish(partition.getId(), owner, RiskJobPartition.Status.DONE, Instant.now(), null) > 0) {
+                riskMetrics.recordJobPartition(System.nanoTime() - start, true);
+            }
+        } catch (LeaseLostException e) {
+            log.warn("Partition [{}, {}) du recalcul {} reprise par une autre instance",
+                    partition.getFromId(), partition.getToId(), runId);
+        } catch (RuntimeException e) {
+            log.warn("Partition [{}, {}) du recalcul {} en échec : {}",
+                    partition.getFromId(), partition.getToId(), runId, e.getMessage());
+            if (partitionRepository.finish(partition.getId(), owner, RiskJobPartition.Status.FAILED, Instant.now(),
+                    abbreviate(String.valueOf(e.getMessage()))) > 0) {
+                riskMetrics.recordJobPartition(System.nanoTime() - start, false);
+            }
+        }
+    }
+
+    /**
+     * Enregistre les instantanés d'une page et l'avancement de la partition dans une même transaction.
+     * La transaction est annulée si cette instance ne détient plus la partition.
+     *
+     * @param runId exécution
+     * @param partitionId partition
+     * @param patients patients de la page
+     * @param responses évaluations, dans l'ordre des patients
+     */
+    private void saveSnapshots(Long runId, Long partitionId, List<PatientDTO> patients,
+                               List<RiskAssessmentResponse> responses) {
+        Instant now = Instant.now();
+        List<RiskSnapshot> snapshots = new ArrayList<>(responses.size());
+        for (int i = 0; i < responses.size(); i++) {
+            PatientDTO patient = patients.get(i);
+            RiskAssessmentResponse response = responses.get(i);
+            snapshots.add(new RiskSnapshot(runId, patient.getId(), response.getRiskLevel(), response.getAge(),
+                    patient.getGenre(), now));
+        }
+        transactionTemplate.executeWithoutResult(status -> {
+            if (partitionRepository.checkpoint(partitionId, owner, patients.getLast().getId(), snapshots.size(),
+                    Instant.now().plus(lease)) == 0) {
+                throw new LeaseLostException();
+            }
+            snapshotRepository.saveAll(snapshots);
+        });
+    }
+
+    /**
+     * Supprime les exécutions (et leurs instantanés) antérieures aux {@code retainedRuns}
+     * dernières exécutions terminées.
+     */
+    private void prune() {
+        List<Long> retained = runRepository.findIdsByStatus(RiskJobRun.Status.COMPLETED, Limit.of(retainedRuns));
+        if (retained.size() < retainedRuns) {
+            return;
+        }
+        Long oldest = retained.getLast();
+        int snapshots = snapshotRepository.deleteOlderThan(oldest);
+        partitionRepository.deleteOlderThan(oldest);
+        int runs = runRepository.deleteOlderThan(oldest);
+        if (runs > 0) {
+            log.info("{} exécution(s) et {} instantané(s) antérieurs au recalcul {} supprimés", runs, snapshots, oldest);
+        }
+    }
+
+    /**
+     * Calcule l'avancement d'une exécution à partir de ses partitions et de ses instantanés.
+     *
+     * @param run exécution
+     * @return son avancement
+     */
+    private RiskJobReport report(RiskJobRun run) {
+        long assessed = 0;
+        long done = 0;
+        long failed = 0;
+        for (PartitionProgress progress : partitionRepository.progress(run.getId())) {
+            assessed += progress.getPatients() != null ? progress.getPatients() : 0;
+            switch (progress.getStatus()) {
+                case DONE -> done = progress.getPartitions();
+                case FAILED -> failed = progress.getPartitions();
+                default -> {
+                    // partitions à traiter ou en cours
+                }
+            }
+        }
+        Map<String, Long> riskLevels = new TreeMap<>();
+        snapshotRepository.countByRiskLevel(run.getId())
+                .forEach(count -> riskLevels.put(count.getRiskLevel(), count.getPatients()));
+        Instant end = run.getFinishedAt() != null ? run.getFinishedAt() : Instant.now();
+        long elapsedMillis = Duration.between(run.getStartedAt(), end).toMillis();
+        double patientsPerSecond = elapsedMillis > 0 ? assessed * 1000.0 / elapsedMillis : 0;
+        return new RiskJobReport(run.getId(), run.getTrigger(), run.getStatus().name(), run.getStartedAt(),
+                run.getFinishedAt(), run.getExpectedPatients(), assessed, run.getPartitions(), done, failed,
+                patientsPerSecond, riskLevels);
+    }
+
+    private static String abbreviate(String message) {
+        return message.length() <= 500 ? message : message.substring(0, 497) + "...";
+    }
+
+    /**
+     * Levée lorsqu'une autre instance a repris la partition en cours de traitement.
+     */
+    private static final class LeaseLostException extends RuntimeException {
+
+        LeaseLostException() {
+            super(null, null, false, false);
+        }
+    }
+}
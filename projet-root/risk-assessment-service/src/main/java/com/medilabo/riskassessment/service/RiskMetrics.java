@@ -0,0 +1,103 @@
+package com.medilabo.riskassessment.service;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compteurs métier du calcul de risque, publiés dans Micrometer.
+ * <ul>
+ *     <li>{@code risk.trigger.hits} (tag {@code term}) : nombre de notes analysées contenant chaque terme déclencheur ;</li>
+ *     <li>{@code risk.level} (tag {@code level}) : répartition des niveaux de risque calculés ;</li>
+ *     <li>{@code risk.job.patients} : patients évalués par le recalcul de population (débit du traitement) ;</li>
+ *     <li>{@code risk.job.partition} (tag {@code outcome}) : durée de traitement de chaque partition du recalcul.</li>
+ * </ul>
+ * <p>
+ * Seules les évaluations effectivement calculées sont comptées, pas celles servies par le cache.
+ * Les termes déclencheurs ne sont comptés que lorsque le texte des notes est analysé ici
+ * (et non lorsque le décompte précalculé par note-service est utilisé).
+ * </p>
+ */
+@Component
+public class RiskMetrics {
+
+    private final MeterRegistry meterRegistry;
+
+    /**
+     * Compteur de chaque terme déclencheur, indexé comme {@link RiskScorer#getTriggers()}.
+     */
+    private final Counter[] triggerHits;
+
+    private final Map<String, Counter> riskLevels = new ConcurrentHashMap<>();
+
+    private final Counter jobPatients;
+
+    /**
+     * Enregistre un compteur par terme déclencheur.
+     *
+     * @param meterRegistry registre des métriques
+     * @param riskScorer moteur de calcul du risque (liste des termes)
+     */
+    public RiskMetrics(MeterRegistry meterRegistry, RiskScorer riskScorer) {
+        this.meterRegistry = meterRegistry;
+        List<String> triggers = riskScorer.getTriggers();
+        this.triggerHits = new Counter[triggers.size()];
+        for (int i = 0; i < triggers.size(); i++) {
+            triggerHits[i] = Counter.builder("risk.trigger.hits")
+                    .description("Notes analysées contenant le terme déclencheur")
+                    .tag("term", triggers.get(i))
+                    .register(meterRegistry);
+        }
+        this.jobPatients = Counter.builder("risk.job.patients")
+                .description("Patients évalués par le recalcul de population")
+                .register(meterRegistry);
+    }
+
+    /**
+     * @param hits nombre de notes contenant chaque terme (voir {@link RiskScorer#triggerHits})
+     */
+    public void recordTriggerHits(int[] hits) {
+        for (int i = 0; i < hits.length; i++) {
+            if (hits[i] > 0) {
+                triggerHits[i].increment(hits[i]);
+            }
+        }
+    }
+
+    /**
+     * @param riskLevel niveau de risque calculé
+     */
+    public void recordRiskLevel(String riskLevel) {
+        riskLevels.computeIfAbsent(riskLevel, level -> Counter.builder("risk.level")
+                .description("Niveaux de risque calculés")
+                .tag("level", level)
+                .register(meterRegistry))
+            .increment();
+    }
+
+    /**
+     * @param patients nombre de patients évalués par le recalcul de population
+     */
+    public void recordJobPatients(int patients) {
+        jobPatients.increment(patients);
+    }
+
+    /**
+     * @param durationNanos durée de traitement d'une partition du recalcul, en nanosecondes
+     * @param succeeded {@code true} si tous les patients de la partition ont été évalués
+     */
+    public void recordJobPartition(long durationNanos, boolean succeeded) {
+        Timer.builder("risk.job.partition")
+                .description("Traitement d'une partition du recalcul de population")
+                .tag("outcome", succeeded ? "success" : "failure")
+                .register(meterRegistry)
+                .record(durationNanos, TimeUnit.NANOSECONDS);
+    }
+}
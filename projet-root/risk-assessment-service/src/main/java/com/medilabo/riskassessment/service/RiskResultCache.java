@@ -0,0 +1,162 @@
+package com.medilabo.riskassessment.service;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.medilabo.riskassessment.dto.RiskAssessmentResponse;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.Collection;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Cache local des évaluations de risque, indexé par identifiant de patient.
+ * <p>
+ * Une évaluation n’est plus valable lorsqu’une note est ajoutée au patient ou que ses informations
+ * sont modifiées : note-service et patient-service notifient alors ce microservice
+ * (voir {@code DELETE /assess/cache/{patientId}}), qui invalide l’entrée correspondante.
+ * </p>
+ * <p>
+ * La taille du cache est bornée (éviction W-TinyLFU de Caffeine) et chaque entrée expire après
+ * un délai configurable, filet de sécurité en cas de notification perdue.
+ * </p>
+ * <p>
+ * La dernière évaluation connue de chaque patient est en outre conservée sans invalidation,
+ * pendant une durée bornée ({@code last-known-expire-after-write}) : elle n’est servie, marquée
+ * comme antérieure, que lorsque patient-service ou note-service est indisponible, et est
+ * supprimée avec le patient. Au-delà de cette durée, une évaluation trop ancienne n’est plus
+ * servie : l’indisponibilité est signalée telle quelle.
+ * </p>
+ */
+@Component
+public class RiskResultCache {
+
+    private final Cache<Long, RiskAssessmentResponse> cache;
+
+    /**
+     * Dernière évaluation connue de chaque patient (mode dégradé).
+     */
+    private final Cache<Long, RiskAssessmentResponse> lastKnown;
+
+    /**
+     * Compteur d’invalidations, utilisé pour ne pas mettre en cache un résultat calculé
+     * pendant qu’une invalidation avait lieu.
+     */
+    private final AtomicLong invalidations = new AtomicLong();
+
+    /**
+     * Construit le cache.
+     *
+     * @param maximumSize nombre maximal d’évaluations conservées
+     * @param expireAfterWrite durée de vie d’une évaluation en cache
+     * @param lastKnownExpireAfterWrite durée pendant laquelle la dernière évaluation connue peut
+     *                                  être servie en mode dégradé
+     */
+    public RiskResultCache(@Value("${medilabo.risk.cache.maximum-size:10000}") long maximumSize,
+                           @Value("${medilabo.risk.cache.expire-after-write:10m}") Duration expireAfterWrite,
+                           @Value("${medilabo.risk.cache.last-known-expire-after-write:24h}") Duration lastKnownExpireAfterWrite) {
+        this.cache = Caffeine.newBuilder()
+                .maximumSize(maximumSize)
+                .expireAfterWrite(expireAfterWrite)
+                .recordStats()
+                .build();
+        this.lastKnown = Caffeine.newBuilder()
+                .maximumSize(maximumSize)
+                .expireAfterWrite(lastKnownExpireAfterWrite)
+                .build();
+    }
+
+    /**
+     * @param patientId identifiant du patient
+     * @return l’évaluation en cache, ou {@code null} si absente
+     */
+    public RiskAssessmentResponse get(Long patientId) {
+        return cache.getIfPresent(patientId);
+    }
+
+    /**
+     * Retourne le jeton à obtenir avant de calculer une évaluation, puis à passer à
+     * {@link #put(Long, RiskAssessmentResponse, long)}.
+     *
+     * @return le jeton courant
+     */
+    public long token() {
+        return invalidations.get();
+    }
+
+    /**
+     * Met une évaluation en cache, sauf si une invalidation a eu lieu depuis l’obtention du jeton
+     * (le résultat pourrait alors avoir été calculé à partir de données obsolètes).
+     * <p>
+     * Une invalidation survenue pendant l’insertion annule aussi la mise à jour de la dernière
+     * évaluation connue : l’évaluation précédente est rétablie, sauf si l’entrée a changé
+     * entre-temps (patient supprimé, notamment, qui ne doit pas retrouver d’évaluation).
+     * </p>
+     *
+     * @param patientId identifiant du patient
+     * @param response évaluation calculée
+     * @param token jeton obtenu par {@link #token()} avant le calcul
+     */
+    public void put(Long patientId, RiskAssessmentResponse response, long token) {
+        if (invalidations.get() != token) {
+            return;
+        }
+        cache.put(patientId, response);
+        RiskAssessmentResponse previous = lastKnown.asMap().put(patientId, response);
+        if (invalidations.get() != token) {
+            cache.asMap().remove(patientId, response);
+            if (previous != null) {
+                lastKnown.asMap().replace(patientId, response, previous);
+            } else {
+                lastKnown.asMap().remove(patientId, response);
+            }
+        }
+    }
+
+    /**
+     * @param patientId identifiant du patient
+     * @return la dernière évaluation connue du patient, même invalidée ou expirée, ou {@code null}
+     */
+    public RiskAssessmentResponse lastKnown(Long patientId) {
+        return lastKnown.getIfPresent(patientId);
+    }
+
+    /**
+     * Invalide l’évaluation en cache d’un patient.
+     *
+     * @param patientId identifiant du patient
+     */
+    public void invalidate(Long patientId) {
+        invalidations.incrementAndGet();
+        cache.invalidate(patientId);
+    }
+
+    /**
+     * Invalide les évaluations en cache de plusieurs patients.
+     *
+     * @param patientIds identifiants des patients
+     */
+    public void invalidateAll(Collection<Long> patientIds) {
+        invalidations.incrementAndGet();
+        cache.invalidateAll(patientIds);
+    }
+
+    /**
+     * Supprime toute évaluation d’un patient, y compris sa dernière évaluation connue.
+     *
+     * @param patientId identifiant du patient supprimé
+     */
+    public void evict(Long patientId) {
+        invalidate(patientId);
+        lastKnown.invalidate(patientId);
+    }
+
+    /**
+     * @return le cache Caffeine sous-jacent (statistiques, métriques)
+     */
+    public Cache<Long, RiskAssessmentResponse> nativeCache() {
+        return cache;
+    }
+}
@@ -0,0 +1,153 @@
+package com.medilabo.riskassessment.service;
+
+import com.medilabo.common.trigger.TriggerTermMatcher;
+import com.medilabo.common.trigger.TriggerTerms;
+import com.medilabo.riskassessment.dto.NoteDTO;
+import com.medilabo.riskassessment.dto.PatientDTO;
+import com.medilabo.riskassessment.dto.RiskAssessmentResponse;
+
+import org.springframework.stereotype.Component;
+
+import java.time.LocalDate;
+import java.time.Period;
+import java.util.List;
+
+/**
+ * Moteur de calcul du risque de diabète.
+ * <p>
+ * Cette classe regroupe les règles métier pures (âge, termes déclencheurs, niveau de risque),
+ * sans aucun appel réseau, afin de pouvoir être réutilisée et mesurée indépendamment
+ * de {@link RiskAssessmentService} (voir le module risk-benchmarks).
+ * </p>
+ */
+@Component
+public class RiskScorer {
+
+    /**
+     * Liste des termes déclencheurs à rechercher dans les notes, partagée avec note-service.
+     */
+    private final List<String> triggers = TriggerTerms.TERMS;
+
+    /**
+     * Automate de recherche des termes déclencheurs.
+     */
+    private final TriggerTermMatcher triggerMatcher = TriggerTerms.MATCHER;
+
+    /**
+     * Calcule l'âge d'un patient à partir de sa date de naissance.
+     *
+     * @param birthDate la date de naissance
+     * @return l’âge du patient en années
+     */
+    public int calculateAge(LocalDate birthDate) {
+        return Period.between(birthDate, LocalDate.now()).getYears();
+    }
+
+    /**
+     * Compte le nombre de termes déclencheurs trouvés dans toutes les notes du patient.
+     * <p>
+     * Chaque note est parcourue une seule fois par {@link TriggerTermMatcher}, sans tenir compte
+     * de la casse ni des accents ; un terme est compté au plus une fois par note.
+     * </p>
+     *
+     * @param notes tableau de notes médicales
+     * @return le nombre total de termes déclencheurs détectés
+     */
+    public int countTriggerTerms(NoteDTO[] notes) {
+        int count = 0;
+        if (notes != null) {
+            for (NoteDTO note : notes) {
+                count += triggerMatcher.countDistinctTerms(note.getContenu());
+            }
+        }
+        return count;
+    }
+
+    /**
+     * Compte, pour chaque terme déclencheur, le nombre de notes du patient qui le contiennent.
+     * <p>
+     * La somme du tableau est égale à {@link #countTriggerTerms(NoteDTO[])}.
+     * </p>
+     *
+     * @param notes tableau de notes médicales
+     * @return le nombre de notes contenant chaque terme, indexé comme {@link #getTriggers()}
+     */
+    public int[] triggerHits(NoteDTO[] notes) {
+        int[] hits = new int[triggers.size()];
+        if (notes != null) {
+            for (NoteDTO note : notes) {
+                addTriggerHits(note, hits);
+            }
+        }
+        return hits;
+    }
+
+    /**
+     * Ajoute à un décompte par terme les termes déclencheurs présents dans une note.
+     * <p>
+     * Permet de compter les termes au fil de la réception des notes, sans attendre la dernière.
+     * </p>
+     *
+     * @param note note médicale
+     * @param hits décompte par terme à compléter, indexé comme {@link #getTriggers()}
+     */
+    public void addTriggerHits(NoteDTO note, int[] hits) {
+        for (int id : triggerMatcher.distinctTermIds(note.getContenu())) {
+            hits[id]++;
+        }
+    }
+
+    /**
+     * @return les termes déclencheurs recherchés
+     */
+    public List<String> getTriggers() {
+        return triggers;
+    }
+
+    /**
+     * Construit l’évaluation détaillée d’un patient à partir de ses données et du nombre
+     * de termes déclencheurs relevés dans ses notes.
+     *
+     * @param patient le patient évalué
+     * @param triggerCount nombre de termes déclencheurs
+     * @return un objet {@link RiskAssessmentResponse} complet
+     */
+    public RiskAssessmentResponse assess(PatientDTO patient, int triggerCount) {
+        int age = calculateAge(patient.getDateNaissance());
+        String risk = determineRiskLevel(age, patient.getGenre(), triggerCount);
+        return new RiskAssessmentResponse(
+            patient.getId(),
+            patient.getPrenom(),
+            patient.getNom(),
+            age,
+            risk
+        );
+    }
+
+    /**
+     * Détermine le niveau de risque selon les règles métier fournies.
+     *
+     * @param age âge du patient
+     * @param genre genre du patient ("M" ou "F")
+     * @param triggerCount nombre de termes déclencheurs détectés
+     * @return le niveau de risque : "None", "Borderline", "In Danger", ou "Early onset"
+     */
+    public String determineRiskLevel(int age, String genre, int triggerCount) {
+        if (triggerCount == 0) return "None";
+
+        if (age > 30) {
+            if (triggerCount >= 8) return "Early onset";
+            if (triggerCount >= 6) return "In Danger";
+            if (triggerCount >= 2) return "Borderline";
+        } else {
+            if ("M".equalsIgnoreCase(genre)) {
+                if (triggerCount >= 5) return "Early onset";
+                if (triggerCount >= 3) return "In Danger";
+            } else if ("F".equalsIgnoreCase(genre)) {
+                if (triggerCount >= 7) return "Early onset";
+                if (triggerCount >= 4) return "In Danger";
+            }
+        }
+        return "None";
+    }
+}
@@ -0,0 +1,94 @@
+package com.medilabo.riskassessment;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.hamcrest.Matchers.startsWith;
+import static org.springframework.test.web.client.match.MockRestRequestMatchers.header;
+import static org.springframework.test.web.client.match.MockRestRequestMatchers.requestTo;
+import static org.springframework.test.web.client.response.MockRestResponseCreators.withSuccess;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+import java.util.concurrent.TimeUnit;
+
+import com.medilabo.common.security.IdentityHeaders;
+
+import io.opentelemetry.api.trace.SpanKind;
+import io.opentelemetry.sdk.testing.exporter.InMemorySpanExporter;
+import io.opentelemetry.sdk.trace.SdkTracerProvider;
+import io.opentelemetry.sdk.trace.data.SpanData;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.actuate.observability.AutoConfigureObservability;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.context.annotation.Bean;
+import org.springframework.http.MediaType;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.client.MockRestServiceServer;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.web.client.RestTemplate;
+
+/**
+ * Vérifie que la trace d’une requête entrante est propagée aux appels vers patient-service
+ * et note-service, y compris ceux exécutés sur l’exécuteur à threads virtuels.
+ */
+@SpringBootTest(properties = "medilabo.risk.hedge.enabled=false")
+@ActiveProfiles("test")
+@AutoConfigureMockMvc
+@AutoConfigureObservability
+class TracePropagationTest {
+
+    private static final String TRACE_ID = "4bf92f3577b34da6a3ce929d0e0e4736";
+
+    @TestConfiguration
+    static class InMemoryExporterConfig {
+
+        @Bean
+        InMemorySpanExporter inMemorySpanExporter() {
+            return InMemorySpanExporter.create();
+        }
+    }
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private RestTemplate restTemplate;
+
+    @Autowired
+    private SdkTracerProvider tracerProvider;
+
+    @Autowired
+    private InMemorySpanExporter spanExporter;
+
+    @Test
+    void downstreamCallsJoinIncomingTrace() throws Exception {
+        MockRestServiceServer server = MockRestServiceServer.bindTo(restTemplate).ignoreExpectOrder(true).build();
+        server.expect(requestTo("http://patient-service:8081/patients/7"))
+                .andExpect(header("traceparent", startsWith("00-" + TRACE_ID + "-")))
+                .andExpect(header(IdentityHeaders.USER_HEADER, "risk-assessment-service"))
+                .andRespond(withSuccess("""
+                        {"id":7,"nom":"Durand","prenom":"Alice","genre":"F","dateNaissance":"1980-03-02"}
+                        """, MediaType.APPLICATION_JSON));
+        server.expect(requestTo("http://note-service:8083/notes/patient/7/contenus"))
+                .andExpect(header("traceparent", startsWith("00-" + TRACE_ID + "-")))
+                .andRespond(withSuccess("""
+                        [{"id":"1","patientId":7,"contenu":"Fumeuse, Cholestérol élevé"}]
+                        """, MediaType.APPLICATION_JSON));
+
+        mockMvc.perform(get("/assess/7")
+                        .header("traceparent", "00-" + TRACE_ID + "-00f067aa0ba902b7-01")
+                        .header(IdentityHeaders.USER_HEADER, "praticien"))
+                .andExpect(status().isOk());
+
+        server.verify();
+        tracerProvider.forceFlush().join(5, TimeUnit.SECONDS);
+        assertThat(spanExporter.getFinishedSpanItems())
+                .filteredOn(span -> span.getKind() == SpanKind.CLIENT)
+                .hasSize(2)
+                .extracting(SpanData::getTraceId)
+                .containsOnly(TRACE_ID);
+    }
+}
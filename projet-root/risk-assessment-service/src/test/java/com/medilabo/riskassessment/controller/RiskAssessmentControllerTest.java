@@ -1,7 +1,9 @@
 package com.medilabo.riskassessment.controller;
 
 import com.medilabo.riskassessment.dto.RiskAssessmentResponse;
+import com.medilabo.riskassessment.dto.RiskLevelPage;
 import com.medilabo.riskassessment.service.RiskAssessmentService;
+import com.medilabo.riskassessment.service.RiskJobService;
 import org.junit.jupiter.api.Test;
 import org.mockito.Mockito;
 import org.springframework.beans.factory.annotation.Autowired;
@@ -10,12 +12,19 @@ import org.springframework.boot.test.context.SpringBootTest;
 import org.springframework.boot.test.mock.mockito.MockBean;
 import org.springframework.http.MediaType;
 import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.web.client.ResourceAccessException;
 
+import java.util.List;
+import java.util.Optional;
+
+import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.delete;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
 
-@WebMvcTest(RiskAssessmentController.class)
+@WebMvcTest(controllers = RiskAssessmentController.class, properties = "medilabo.security.identity-header.required=false")
 class RiskAssessmentControllerTest {
 
     @Autowired
@@ -24,6 +33,29 @@ class RiskAssessmentControllerTest {
     @MockBean
     private RiskAssessmentService riskService;
 
+    @MockBean
+    private RiskJobService riskJobService;
+
+    @Test
+    void shouldListPatientsAtLevelFromLatestRun() throws Exception {
+        when(riskJobService.patientsAtLevel("In Danger", 10L, 2))
+                .thenReturn(Optional.of(new RiskLevelPage(4L, List.of(12L, 15L), 15L)));
+
+        mockMvc.perform(get("/assess/levels/{riskLevel}", "In Danger").param("after", "10").param("limit", "2"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.runId").value(4))
+                .andExpect(jsonPath("$.patientIds[1]").value(15))
+                .andExpect(jsonPath("$.nextAfter").value(15));
+    }
+
+    @Test
+    void shouldReturnNotFoundWhenNoRunCompleted() throws Exception {
+        when(riskJobService.patientsAtLevel("None", null, 200)).thenReturn(Optional.empty());
+
+        mockMvc.perform(get("/assess/levels/{riskLevel}", "None"))
+                .andExpect(status().isNotFound());
+    }
+
     @Test
     void shouldReturnRiskAssessmentResponse() throws Exception {
         Long patientId = 1L;
@@ -57,4 +89,67 @@ class RiskAssessmentControllerTest {
                 .andExpect(status().isOk())
                 .andExpect(jsonPath("$.riskLevel").value("Early onset"));
     }
+
+    @Test
+    void shouldMarkDegradedAssessmentAsNotStorable() throws Exception {
+        RiskAssessmentResponse previous = new RiskAssessmentResponse(3L, "Jean", "Dupont", 40, "Borderline");
+        when(riskService.assessRiskDetailed(3L)).thenReturn(previous.asStale());
+
+        mockMvc.perform(get("/assess/{patientId}", 3L))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.stale").value(true))
+                .andExpect(header().string("Cache-Control", "no-store"));
+    }
+
+    @Test
+    void shouldReturnBatchRiskAssessments() throws Exception {
+        RiskAssessmentResponse first = new RiskAssessmentResponse(1L, "Jean", "Dupont", 40, "None");
+        RiskAssessmentResponse second = new RiskAssessmentResponse(2L, "Marie", "Martin", 62, "In Danger");
+
+        when(riskService.assessRiskBatch(List.of(1L, 2L))).thenReturn(List.of(first, second));
+
+        mockMvc.perform(post("/assess/batch")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("[1, 2]"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$[0].patientId").value(1))
+                .andExpect(jsonPath("$[1].riskLevel").value("In Danger"));
+    }
+
+    @Test
+    void shouldInvalidateCachedAssessment() throws Exception {
+        mockMvc.perform(delete("/assess/cache/{patientId}", 3L))
+                .andExpect(status().isNoContent());
+
+        verify(riskService).invalidate(3L);
+    }
+
+    @Test
+    void shouldInvalidateSeveralCachedAssessments() throws Exception {
+        mockMvc.perform(post("/assess/cache/batch")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("[3, 4]"))
+                .andExpect(status().isNoContent());
+
+        verify(riskService).invalidateAll(List.of(3L, 4L));
+    }
+
+    @Test
+    void shouldForgetAssessmentsOfDeletedPatient() throws Exception {
+        mockMvc.perform(delete("/assess/cache/{patientId}", 3L).param("patientDeleted", "true"))
+                .andExpect(status().isNoContent());
+
+        verify(riskService).patientDeleted(3L);
+    }
+
+    @Test
+    void shouldReturnServiceUnavailableWhenDownstreamTimesOut() throws Exception {
+        when(riskService.assessRiskBatch(List.of(1L)))
+                .thenThrow(new ResourceAccessException("Délai de 2000 ms dépassé lors de l’appel à note-service"));
+
+        mockMvc.perform(post("/assess/batch")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("[1]"))
+                .andExpect(status().isServiceUnavailable());
+    }
 }
@@ -0,0 +1,71 @@
+package com.medilabo.riskassessment.controller;
+
+import com.medilabo.riskassessment.dto.RiskJobReport;
+import com.medilabo.riskassessment.service.RiskJobService;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.test.web.servlet.MockMvc;
+
+import java.time.Instant;
+import java.util.Map;
+import java.util.Optional;
+
+import static org.mockito.Mockito.when;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
+
+@WebMvcTest(controllers = RiskJobController.class, properties = "medilabo.security.identity-header.required=false")
+class RiskJobControllerTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @MockBean
+    private RiskJobService riskJobService;
+
+    @Test
+    void shouldStartJobInBackground() throws Exception {
+        when(riskJobService.start(RiskJobService.TRIGGER_MANUAL)).thenReturn(Optional.of(report(3L, "RUNNING")));
+
+        mockMvc.perform(post("/jobs/risk"))
+                .andExpect(status().isAccepted())
+                .andExpect(jsonPath("$.runId").value(3))
+                .andExpect(jsonPath("$.status").value("RUNNING"));
+    }
+
+    @Test
+    void shouldReturnConflictWhenJobAlreadyRunning() throws Exception {
+        when(riskJobService.start(RiskJobService.TRIGGER_MANUAL)).thenReturn(Optional.empty());
+        when(riskJobService.latestReport()).thenReturn(Optional.of(report(2L, "RUNNING")));
+
+        mockMvc.perform(post("/jobs/risk"))
+                .andExpect(status().isConflict())
+                .andExpect(jsonPath("$.runId").value(2));
+    }
+
+    @Test
+    void shouldReturnRunProgress() throws Exception {
+        when(riskJobService.report(1L)).thenReturn(Optional.of(report(1L, "COMPLETED")));
+
+        mockMvc.perform(get("/jobs/risk/{runId}", 1L))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.assessedPatients").value(120))
+                .andExpect(jsonPath("$.riskLevels.None").value(100));
+    }
+
+    @Test
+    void shouldReturnNotFoundForUnknownRun() throws Exception {
+        when(riskJobService.report(9L)).thenReturn(Optional.empty());
+
+        mockMvc.perform(get("/jobs/risk/{runId}", 9L))
+                .andExpect(status().isNotFound());
+    }
+
+    private static RiskJobReport report(Long runId, String status) {
+        return new RiskJobReport(runId, RiskJobService.TRIGGER_MANUAL, status, Instant.parse("2026-01-01T02:00:00Z"),
+                null, 120, 120, 3, 3, 0, 40.0, Map.of("None", 100L, "Borderline", 20L));
+    }
+}
@@ -0,0 +1,179 @@
+package com.medilabo.riskassessment.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+
+import io.github.resilience4j.circuitbreaker.CallNotPermittedException;
+import io.github.resilience4j.circuitbreaker.CircuitBreaker;
+import io.github.resilience4j.circuitbreaker.CircuitBreakerConfig;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.web.client.HttpServerErrorException;
+import org.springframework.web.client.ResourceAccessException;
+import org.springframework.web.client.RestTemplate;
+
+/**
+ * Tests du garde des appels aval contre un serveur HTTP local simulant un service lent ou en panne.
+ */
+class DownstreamGuardTest {
+
+    private HttpServer server;
+    private ExecutorService executor;
+    private final RestTemplate restTemplate = new RestTemplate();
+    private final AtomicInteger slowRequests = new AtomicInteger();
+    private final AtomicInteger failingRequests = new AtomicInteger();
+    private final AtomicInteger hangingRequests = new AtomicInteger();
+
+    @BeforeEach
+    void setUp() throws IOException {
+        executor = Executors.newVirtualThreadPerTaskExecutor();
+        server = HttpServer.create(new InetSocketAddress("127.0.0.1", 0), 0);
+        server.setExecutor(executor);
+        // La première requête reste bloquée 2 s, les suivantes répondent immédiatement.
+        server.createContext("/slow-once", exchange -> {
+            if (slowRequests.incrementAndGet() == 1) {
+                sleep(Duration.ofSeconds(2));
+            }
+            respond(exchange, 200, "ok");
+        });
+        server.createContext("/hanging", exchange -> {
+            hangingRequests.incrementAndGet();
+            sleep(Duration.ofSeconds(2));
+            respond(exchange, 200, "trop tard");
+        });
+        server.createContext("/failing", exchange -> {
+            failingRequests.incrementAndGet();
+            respond(exchange, 500, "panne");
+        });
+        server.start();
+    }
+
+    @AfterEach
+    void tearDown() {
+        server.stop(0);
+        executor.close();
+    }
+
+    @Test
+    void call_hedgesSlowRequestAndReturnsFirstResponse() {
+        DownstreamGuard guard = new DownstreamGuard("note-service", CircuitBreaker.ofDefaults("note-service"),
+                executor, Duration.ofSeconds(2), true, Duration.ofMillis(50), Duration.ofMillis(10));
+
+        long start = System.nanoTime();
+        String body = guard.call(() -> restTemplate.getForObject(url("/slow-once"), String.class));
+
+        assertThat(body).isEqualTo("ok");
+        assertThat(Duration.ofNanos(System.nanoTime() - start)).isLessThan(Duration.ofSeconds(1));
+        assertThat(guard.getHedgedCalls()).isEqualTo(1);
+        assertThat(slowRequests).hasValue(2);
+    }
+
+    @Test
+    void call_opensCircuitAfterRepeatedFailures() {
+        CircuitBreaker breaker = CircuitBreaker.of("patient-service", CircuitBreakerConfig.custom()
+                .slidingWindowSize(4)
+                .minimumNumberOfCalls(4)
+                .failureRateThreshold(50)
+                .waitDurationInOpenState(Duration.ofMinutes(1))
+                .build());
+        DownstreamGuard guard = new DownstreamGuard("patient-service", breaker, executor, Duration.ofSeconds(2), false,
+                Duration.ofMillis(50), Duration.ofMillis(10));
+
+        for (int i = 0; i < 4; i++) {
+            assertThatThrownBy(() -> guard.call(() -> restTemplate.getForObject(url("/failing"), String.class)))
+                    .isInstanceOf(HttpServerErrorException.class);
+        }
+
+        assertThat(breaker.getState()).isEqualTo(CircuitBreaker.State.OPEN);
+        assertThatThrownBy(() -> guard.call(() -> restTemplate.getForObject(url("/failing"), String.class)))
+                .isInstanceOf(CallNotPermittedException.class);
+        assertThat(failingRequests).hasValue(4);
+    }
+
+    @Test
+    void call_opensCircuitWhenBackendDoesNotAnswerInTime() {
+        CircuitBreaker breaker = CircuitBreaker.of("note-service", CircuitBreakerConfig.custom()
+                .slidingWindowSize(4)
+                .minimumNumberOfCalls(4)
+                .failureRateThreshold(50)
+                .waitDurationInOpenState(Duration.ofMinutes(1))
+                .build());
+        DownstreamGuard guard = new DownstreamGuard("note-service", breaker, executor, Duration.ofMillis(100), false,
+                Duration.ofMillis(50), Duration.ofMillis(10));
+
+        for (int i = 0; i < 4; i++) {
+            long start = System.nanoTime();
+            assertThatThrownBy(() -> guard.call(() -> restTemplate.getForObject(url("/hanging"), String.class)))
+                    .isInstanceOf(ResourceAccessException.class)
+                    .hasMessageContaining("100 ms");
+            assertThat(Duration.ofNanos(System.nanoTime() - start)).isLessThan(Duration.ofSeconds(1));
+        }
+
+        assertThat(breaker.getState()).isEqualTo(CircuitBreaker.State.OPEN);
+        assertThat(breaker.getMetrics().getNumberOfFailedCalls()).isEqualTo(4);
+        assertThatThrownBy(() -> guard.call(() -> restTemplate.getForObject(url("/hanging"), String.class)))
+                .isInstanceOf(CallNotPermittedException.class);
+        assertThat(hangingRequests).hasValue(4);
+    }
+
+    @Test
+    void callWithoutHedging_neitherHedgesNorFeedsLatencies() {
+        DownstreamGuard guard = new DownstreamGuard("note-service", CircuitBreaker.ofDefaults("note-service"),
+                executor, Duration.ofSeconds(3), true, Duration.ofMillis(50), Duration.ofMillis(10));
+
+        String body = guard.callWithoutHedging(() -> restTemplate.getForObject(url("/slow-once"), String.class));
+
+        assertThat(body).isEqualTo("ok");
+        assertThat(guard.getHedgedCalls()).isZero();
+        assertThat(slowRequests).hasValue(1);
+        assertThat(guard.hedgeDelayNanos()).isEqualTo(Duration.ofMillis(50).toNanos());
+    }
+
+    @Test
+    void hedgeDelay_followsRecentLatencies() {
+        DownstreamGuard guard = new DownstreamGuard("note-service", CircuitBreaker.ofDefaults("note-service"),
+                executor, Duration.ofSeconds(2), true, Duration.ofMillis(150), Duration.ofMillis(20));
+
+        assertThat(guard.hedgeDelayNanos()).isEqualTo(Duration.ofMillis(150).toNanos());
+        for (int i = 0; i < DownstreamGuard.MIN_SAMPLES; i++) {
+            guard.call(() -> "rapide");
+        }
+
+        assertThat(guard.hedgeDelayNanos()).isEqualTo(Duration.ofMillis(20).toNanos());
+    }
+
+    private String url(String path) {
+        return "http://127.0.0.1:" + server.getAddress().getPort() + path;
+    }
+
+    private static void respond(HttpExchange exchange, int status, String body) throws IOException {
+        byte[] bytes = body.getBytes(StandardCharsets.UTF_8);
+        exchange.getResponseHeaders().add("Content-Type", "text/plain");
+        exchange.sendResponseHeaders(status, bytes.length);
+        try (OutputStream out = exchange.getResponseBody()) {
+            out.write(bytes);
+        }
+    }
+
+    private static void sleep(Duration duration) {
+        try {
+            Thread.sleep(duration);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
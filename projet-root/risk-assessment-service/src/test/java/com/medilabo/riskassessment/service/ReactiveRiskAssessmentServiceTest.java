@@ -0,0 +1,124 @@
+package com.medilabo.riskassessment.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import com.medilabo.common.security.IdentityHeaders;
+import com.medilabo.riskassessment.dto.RiskAssessmentResponse;
+
+import io.github.resilience4j.circuitbreaker.CallNotPermittedException;
+import io.github.resilience4j.circuitbreaker.CircuitBreaker;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.web.reactive.function.client.ClientResponse;
+import org.springframework.web.reactive.function.client.WebClient;
+
+import reactor.core.publisher.Mono;
+
+class ReactiveRiskAssessmentServiceTest {
+
+    private static final String PATIENT = """
+            {"id":%d,"nom":"Dupont","prenom":"Jean","genre":"M","dateNaissance":"1990-01-01"}
+            """;
+
+    private static final String NOTES = """
+            {"id":"1","patientId":1,"contenu":"Fumeur et Cholestérol"}
+            {"id":"2","patientId":1,"contenu":"Poids élevé"}
+            """;
+
+    private final AtomicInteger noteCalls = new AtomicInteger();
+
+    private HttpStatus noteStatus;
+
+    private SimpleMeterRegistry meterRegistry;
+
+    private DownstreamGuard noteGuard;
+
+    private RiskResultCache riskCache;
+
+    private ReactiveRiskAssessmentService service;
+
+    @BeforeEach
+    void setUp() {
+        noteStatus = HttpStatus.OK;
+        meterRegistry = new SimpleMeterRegistry();
+        noteGuard = guard("note-service");
+        riskCache = new RiskResultCache(100, Duration.ofMinutes(1), Duration.ofHours(1));
+        WebClient.Builder webClient = WebClient.builder().exchangeFunction(request -> {
+            if (!request.headers().containsKey(IdentityHeaders.USER_HEADER)) {
+                return Mono.just(ClientResponse.create(HttpStatus.FORBIDDEN).build());
+            }
+            String path = request.url().getPath();
+            if (path.startsWith("/patients/")) {
+                long id = Long.parseLong(path.substring("/patients/".length()));
+                return Mono.just(id == 404
+                        ? ClientResponse.create(HttpStatus.NOT_FOUND).build()
+                        : json(HttpStatus.OK, MediaType.APPLICATION_JSON, PATIENT.formatted(id)));
+            }
+            noteCalls.incrementAndGet();
+            return Mono.just(json(noteStatus, MediaType.APPLICATION_NDJSON, noteStatus.is2xxSuccessful() ? NOTES : ""));
+        });
+        service = new ReactiveRiskAssessmentService("risk-assessment-service", webClient, Duration.ofSeconds(5), 4, new RiskScorer(),
+                riskCache, new RiskMetrics(meterRegistry, new RiskScorer()),
+                guard("patient-service"), noteGuard);
+    }
+
+    @Test
+    void assessRiskDetailed_countsStreamedNotesAndCachesResult() {
+        RiskAssessmentResponse response = service.assessRiskDetailed(1L).block();
+
+        assertThat(response.getRiskLevel()).isEqualTo("Borderline");
+        assertThat(response.getLastName()).isEqualTo("Dupont");
+        assertThat(meterRegistry.get("risk.trigger.hits").tag("term", "Poids").counter().count()).isEqualTo(1.0);
+
+        service.assessRiskDetailed(1L).block();
+        assertThat(noteCalls).hasValue(1);
+    }
+
+    @Test
+    void assessRiskDetailed_servesLastKnownRiskAsStaleWhenNoteServiceFails() {
+        assertThat(service.assessRiskDetailed(1L).block().isStale()).isFalse();
+        riskCache.invalidate(1L);
+        noteStatus = HttpStatus.SERVICE_UNAVAILABLE;
+
+        RiskAssessmentResponse fallback = service.assessRiskDetailed(1L).block();
+
+        assertThat(fallback.getRiskLevel()).isEqualTo("Borderline");
+        assertThat(fallback.isStale()).isTrue();
+    }
+
+    @Test
+    void assessRiskDetailed_openCircuitWithoutLastKnownRisk_failsFast() {
+        noteGuard.getCircuitBreaker().transitionToOpenState();
+
+        assertThatThrownBy(() -> service.assessRiskDetailed(1L).block()).isInstanceOf(CallNotPermittedException.class);
+        assertThat(noteCalls).hasValue(0);
+    }
+
+    @Test
+    void assessRiskBatch_keepsRequestOrderAndSkipsUnknownPatients() {
+        List<RiskAssessmentResponse> responses = service.assessRiskBatch(List.of(3L, 404L, 1L, 2L)).collectList().block();
+
+        assertThat(responses).extracting(RiskAssessmentResponse::getPatientId).containsExactly(3L, 1L, 2L);
+    }
+
+    private static ClientResponse json(HttpStatus status, MediaType type, String body) {
+        return ClientResponse.create(status)
+                .header(HttpHeaders.CONTENT_TYPE, type.toString())
+                .body(body)
+                .build();
+    }
+
+    private static DownstreamGuard guard(String name) {
+        return new DownstreamGuard(name, CircuitBreaker.ofDefaults(name), null, Duration.ofSeconds(2), false, Duration.ZERO, Duration.ZERO);
+    }
+}
@@ -1,20 +1,43 @@
 package com.medilabo.riskassessment.service;
 
 import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
+import java.time.Duration;
 import java.time.LocalDate;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
 
 import com.medilabo.riskassessment.dto.NoteDTO;
 import com.medilabo.riskassessment.dto.PatientDTO;
 import com.medilabo.riskassessment.dto.RiskAssessmentResponse;
+import com.medilabo.riskassessment.dto.TriggerCountDTO;
 
+import io.github.resilience4j.circuitbreaker.CallNotPermittedException;
+import io.github.resilience4j.circuitbreaker.CircuitBreaker;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+import org.junit.jupiter.api.AfterEach;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
-import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.MockitoAnnotations;
 import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.core.ParameterizedTypeReference;
+import org.springframework.http.HttpEntity;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.client.HttpServerErrorException;
+import org.springframework.web.client.ResourceAccessException;
 import org.springframework.web.client.RestTemplate;
 
 
@@ -23,15 +46,27 @@ class RiskAssessmentServiceTest {
     @Mock
     private RestTemplate restTemplate;
 
-    @InjectMocks
+    private ExecutorService executor;
+
     private RiskAssessmentService service;
 
+    private DownstreamGuard noteGuard;
+
+    private SimpleMeterRegistry meterRegistry;
+
     private PatientDTO patient;
     private NoteDTO[] notes;
 
     @BeforeEach
     void setUp() {
         MockitoAnnotations.openMocks(this);
+        executor = Executors.newVirtualThreadPerTaskExecutor();
+        noteGuard = guard("note-service");
+        meterRegistry = new SimpleMeterRegistry();
+        service = new RiskAssessmentService(restTemplate, executor, Duration.ofMillis(500), new RiskScorer(),
+                new RiskResultCache(100, Duration.ofMinutes(1), Duration.ofHours(1)), false,
+                guard("patient-service"), noteGuard, guard("patient-service-job"), guard("note-service-job"),
+                new RiskMetrics(meterRegistry, new RiskScorer()));
 
         patient = new PatientDTO();
         patient.setId(1L);
@@ -53,12 +88,17 @@ class RiskAssessmentServiceTest {
         notes = new NoteDTO[] { note1, note2 };
     }
 
+    @AfterEach
+    void tearDown() {
+        executor.close();
+    }
+
     @Test
     void testAssessRisk_shouldReturnBorderline() {
         when(restTemplate.getForObject("http://patient-service:8081/patients/1", PatientDTO.class))
                 .thenReturn(patient);
 
-        when(restTemplate.getForObject("http://note-service:8083/notes/patient/1", NoteDTO[].class))
+        when(restTemplate.getForObject("http://note-service:8083/notes/patient/1/contenus", NoteDTO[].class))
                 .thenReturn(notes);
 
         String result = service.assessRisk(1L);
@@ -71,7 +111,7 @@ class RiskAssessmentServiceTest {
         when(restTemplate.getForObject("http://patient-service:8081/patients/1", PatientDTO.class))
                 .thenReturn(patient);
 
-        when(restTemplate.getForObject("http://note-service:8083/notes/patient/1", NoteDTO[].class))
+        when(restTemplate.getForObject("http://note-service:8083/notes/patient/1/contenus", NoteDTO[].class))
                 .thenReturn(notes);
 
         RiskAssessmentResponse response = service.assessRiskDetailed(1L);
@@ -95,10 +135,332 @@ class RiskAssessmentServiceTest {
         when(restTemplate.getForObject("http://patient-service:8081/patients/1", PatientDTO.class))
                 .thenReturn(patient);
 
-        when(restTemplate.getForObject("http://note-service:8083/notes/patient/1", NoteDTO[].class))
+        when(restTemplate.getForObject("http://note-service:8083/notes/patient/1/contenus", NoteDTO[].class))
                 .thenReturn(emptyNotes);
 
         String risk = service.assessRisk(1L);
         assertThat(risk).isEqualTo("None");
     }
+
+    @Test
+    void testAssessRiskBatch_shouldUseBulkCallsAndKeepRequestedOrder() {
+        PatientDTO other = new PatientDTO();
+        other.setId(2L);
+        other.setNom("Martin");
+        other.setPrenom("Marie");
+        other.setGenre("F");
+        other.setDateNaissance(LocalDate.parse("1960-05-12"));
+
+        when(restTemplate.postForObject(eq("http://patient-service:8081/patients/batch"), any(), eq(PatientDTO[].class)))
+                .thenReturn(new PatientDTO[] { patient, other });
+
+        when(restTemplate.exchange(eq("http://note-service:8083/notes/patients"), eq(HttpMethod.POST),
+                any(HttpEntity.class), any(ParameterizedTypeReference.class)))
+                .thenReturn(ResponseEntity.ok(Map.of(1L, notes)));
+
+        List<RiskAssessmentResponse> responses = service.assessRiskBatch(List.of(2L, 1L, 3L));
+
+        assertThat(responses).extracting(RiskAssessmentResponse::getPatientId).containsExactly(2L, 1L);
+        assertThat(responses.get(0).getRiskLevel()).isEqualTo("None");
+        assertThat(responses.get(1).getRiskLevel()).isEqualTo("Borderline");
+    }
+
+    @Test
+    void testAssessRiskBatch_shouldFetchDuplicatedIdsOnce() {
+        when(restTemplate.postForObject(eq("http://patient-service:8081/patients/batch"), eq(List.of(1L)), eq(PatientDTO[].class)))
+                .thenReturn(new PatientDTO[] { patient });
+
+        when(restTemplate.exchange(eq("http://note-service:8083/notes/patients"), eq(HttpMethod.POST),
+                any(HttpEntity.class), any(ParameterizedTypeReference.class)))
+                .thenReturn(ResponseEntity.ok(Map.of(1L, notes)));
+
+        List<RiskAssessmentResponse> responses = service.assessRiskBatch(List.of(1L, 1L));
+
+        assertThat(responses).extracting(RiskAssessmentResponse::getPatientId).containsExactly(1L, 1L);
+        verify(restTemplate).postForObject(eq("http://patient-service:8081/patients/batch"), eq(List.of(1L)), eq(PatientDTO[].class));
+    }
+
+    @Test
+    void testAssessPatients_shouldFetchOnlyNotesAndLeaveMetricsUntouched() {
+        when(restTemplate.exchange(eq("http://note-service:8083/notes/patients"), eq(HttpMethod.POST),
+                any(HttpEntity.class), any(ParameterizedTypeReference.class)))
+                .thenReturn(ResponseEntity.ok(Map.of(1L, notes)));
+
+        List<RiskAssessmentResponse> responses = service.assessPatients(List.of(patient));
+
+        assertThat(responses).singleElement()
+                .extracting(RiskAssessmentResponse::getRiskLevel).isEqualTo("Borderline");
+        verify(restTemplate, never()).postForObject(eq("http://patient-service:8081/patients/batch"), any(), eq(PatientDTO[].class));
+        assertThat(meterRegistry.find("risk.level").counter()).isNull();
+    }
+
+    @Test
+    void testAssessPatients_shouldIgnoreOpenOnlineBreaker() {
+        noteGuard.getCircuitBreaker().transitionToOpenState();
+        when(restTemplate.exchange(eq("http://note-service:8083/notes/patients"), eq(HttpMethod.POST),
+                any(HttpEntity.class), any(ParameterizedTypeReference.class)))
+                .thenReturn(ResponseEntity.ok(Map.of(1L, notes)));
+
+        assertThat(service.assessPatients(List.of(patient))).singleElement()
+                .extracting(RiskAssessmentResponse::getRiskLevel).isEqualTo("Borderline");
+    }
+
+    @Test
+    void testAssessRiskDetailed_shouldFailFastWhenOneCallFails() {
+        when(restTemplate.getForObject("http://patient-service:8081/patients/1", PatientDTO.class))
+                .thenAnswer(invocation -> {
+                    Thread.sleep(5_000);
+                    return patient;
+                });
+
+        when(restTemplate.getForObject("http://note-service:8083/notes/patient/1/contenus", NoteDTO[].class))
+                .thenThrow(new HttpServerErrorException(HttpStatus.SERVICE_UNAVAILABLE));
+
+        long start = System.nanoTime();
+        assertThatThrownBy(() -> service.assessRiskDetailed(1L))
+                .isInstanceOf(HttpServerErrorException.class);
+        assertThat(Duration.ofNanos(System.nanoTime() - start)).isLessThan(Duration.ofSeconds(2));
+    }
+
+    @Test
+    void testAssessRiskDetailed_shouldTimeOutOnSlowCall() {
+        when(restTemplate.getForObject("http://patient-service:8081/patients/1", PatientDTO.class))
+                .thenAnswer(invocation -> {
+                    Thread.sleep(5_000);
+                    return patient;
+                });
+
+        when(restTemplate.getForObject("http://note-service:8083/notes/patient/1/contenus", NoteDTO[].class))
+                .thenReturn(notes);
+
+        assertThatThrownBy(() -> service.assessRiskDetailed(1L))
+                .isInstanceOf(ResourceAccessException.class);
+    }
+
+    @Test
+    void testAssessRiskDetailed_shouldServeSecondCallFromCache() {
+        when(restTemplate.getForObject("http://patient-service:8081/patients/1", PatientDTO.class))
+                .thenReturn(patient);
+
+        when(restTemplate.getForObject("http://note-service:8083/notes/patient/1/contenus", NoteDTO[].class))
+                .thenReturn(notes);
+
+        service.assessRiskDetailed(1L);
+        RiskAssessmentResponse cached = service.assessRiskDetailed(1L);
+
+        assertThat(cached.getRiskLevel()).isEqualTo("Borderline");
+        verify(restTemplate, times(1)).getForObject("http://patient-service:8081/patients/1", PatientDTO.class);
+        verify(restTemplate, times(1)).getForObject("http://note-service:8083/notes/patient/1/contenus", NoteDTO[].class);
+    }
+
+    @Test
+    void testInvalidate_shouldRecomputeWithNewNotes() {
+        when(restTemplate.getForObject("http://patient-service:8081/patients/1", PatientDTO.class))
+                .thenReturn(patient);
+
+        NoteDTO emptyNote = new NoteDTO();
+        emptyNote.setId("1");
+        emptyNote.setPatientId(1);
+        emptyNote.setContenu("Aucune mention suspecte");
+
+        when(restTemplate.getForObject("http://note-service:8083/notes/patient/1/contenus", NoteDTO[].class))
+                .thenReturn(new NoteDTO[] { emptyNote })
+                .thenReturn(notes);
+
+        assertThat(service.assessRisk(1L)).isEqualTo("None");
+        assertThat(service.assessRisk(1L)).isEqualTo("None");
+
+        service.invalidate(1L);
+
+        assertThat(service.assessRisk(1L)).isEqualTo("Borderline");
+    }
+
+    @Test
+    void testAssessRiskBatch_shouldOnlyFetchPatientsMissingFromCache() {
+        when(restTemplate.getForObject("http://patient-service:8081/patients/1", PatientDTO.class))
+                .thenReturn(patient);
+
+        when(restTemplate.getForObject("http://note-service:8083/notes/patient/1/contenus", NoteDTO[].class))
+                .thenReturn(notes);
+
+        service.assessRiskDetailed(1L);
+
+        PatientDTO other = new PatientDTO();
+        other.setId(2L);
+        other.setNom("Martin");
+        other.setPrenom("Marie");
+        other.setGenre("F");
+        other.setDateNaissance(LocalDate.parse("1960-05-12"));
+
+        when(restTemplate.postForObject(eq("http://patient-service:8081/patients/batch"), eq(List.of(2L)), eq(PatientDTO[].class)))
+                .thenReturn(new PatientDTO[] { other });
+
+        when(restTemplate.exchange(eq("http://note-service:8083/notes/patients"), eq(HttpMethod.POST),
+                any(HttpEntity.class), any(ParameterizedTypeReference.class)))
+                .thenReturn(ResponseEntity.ok(Map.of()));
+
+        List<RiskAssessmentResponse> responses = service.assessRiskBatch(List.of(1L, 2L));
+
+        assertThat(responses).extracting(RiskAssessmentResponse::getPatientId).containsExactly(1L, 2L);
+        assertThat(responses.get(0).getRiskLevel()).isEqualTo("Borderline");
+    }
+
+    @Test
+    void testAssessRiskDetailed_shouldCountTriggerHitsAndRiskLevel() {
+        when(restTemplate.getForObject("http://patient-service:8081/patients/1", PatientDTO.class))
+                .thenReturn(patient);
+
+        when(restTemplate.getForObject("http://note-service:8083/notes/patient/1/contenus", NoteDTO[].class))
+                .thenReturn(notes);
+
+        service.assessRiskDetailed(1L);
+
+        assertThat(meterRegistry.get("risk.trigger.hits").tag("term", "Fumeur").counter().count()).isEqualTo(1.0);
+        assertThat(meterRegistry.get("risk.trigger.hits").tag("term", "Poids").counter().count()).isEqualTo(1.0);
+        assertThat(meterRegistry.get("risk.trigger.hits").tag("term", "Vertiges").counter().count()).isZero();
+        assertThat(meterRegistry.get("risk.level").tag("level", "Borderline").counter().count()).isEqualTo(1.0);
+    }
+
+    @Test
+    void testPrecomputedTriggers_shouldNotFetchNoteText() {
+        RiskAssessmentService precomputed = new RiskAssessmentService(restTemplate, executor, Duration.ofMillis(500),
+                new RiskScorer(), new RiskResultCache(100, Duration.ofMinutes(1), Duration.ofHours(1)), true,
+                guard("patient-service"), guard("note-service"), guard("patient-service-job"),
+                guard("note-service-job"), new RiskMetrics(meterRegistry, new RiskScorer()));
+
+        when(restTemplate.getForObject("http://patient-service:8081/patients/1", PatientDTO.class))
+                .thenReturn(patient);
+
+        when(restTemplate.getForObject("http://note-service:8083/notes/patient/1/triggers", TriggerCountDTO.class))
+                .thenReturn(new TriggerCountDTO(1L, 2, 6, 0));
+
+        assertThat(precomputed.assessRisk(1L)).isEqualTo("In Danger");
+        verify(restTemplate, never()).getForObject("http://note-service:8083/notes/patient/1/contenus", NoteDTO[].class);
+    }
+
+    @Test
+    void testPrecomputedTriggers_shouldFallBackToNoteTextWhenNotesAreNotIndexed() {
+        RiskAssessmentService precomputed = new RiskAssessmentService(restTemplate, executor, Duration.ofMillis(500),
+                new RiskScorer(), new RiskResultCache(100, Duration.ofMinutes(1), Duration.ofHours(1)), true,
+                guard("patient-service"), guard("note-service"), guard("patient-service-job"),
+                guard("note-service-job"), new RiskMetrics(meterRegistry, new RiskScorer()));
+
+        when(restTemplate.getForObject("http://patient-service:8081/patients/1", PatientDTO.class))
+                .thenReturn(patient);
+
+        when(restTemplate.getForObject("http://note-service:8083/notes/patient/1/triggers", TriggerCountDTO.class))
+                .thenReturn(new TriggerCountDTO(1L, 2, 0, 2));
+
+        when(restTemplate.getForObject("http://note-service:8083/notes/patient/1/contenus", NoteDTO[].class))
+                .thenReturn(notes);
+
+        assertThat(precomputed.assessRisk(1L)).isEqualTo("Borderline");
+    }
+
+    @Test
+    void testPrecomputedTriggers_batchShouldUseAggregatedCounts() {
+        RiskAssessmentService precomputed = new RiskAssessmentService(restTemplate, executor, Duration.ofMillis(500),
+                new RiskScorer(), new RiskResultCache(100, Duration.ofMinutes(1), Duration.ofHours(1)), true,
+                guard("patient-service"), guard("note-service"), guard("patient-service-job"),
+                guard("note-service-job"), new RiskMetrics(meterRegistry, new RiskScorer()));
+
+        when(restTemplate.postForObject(eq("http://patient-service:8081/patients/batch"), any(), eq(PatientDTO[].class)))
+                .thenReturn(new PatientDTO[] { patient });
+
+        when(restTemplate.postForObject(eq("http://note-service:8083/notes/patients/triggers"), any(), eq(TriggerCountDTO[].class)))
+                .thenReturn(new TriggerCountDTO[] { new TriggerCountDTO(1L, 4, 8, 0) });
+
+        List<RiskAssessmentResponse> responses = precomputed.assessRiskBatch(List.of(1L));
+
+        assertThat(responses).extracting(RiskAssessmentResponse::getRiskLevel).containsExactly("Early onset");
+    }
+
+    @Test
+    void testOpenCircuit_shouldServeLastKnownRiskAsStale() {
+        when(restTemplate.getForObject("http://patient-service:8081/patients/1", PatientDTO.class))
+                .thenReturn(patient);
+
+        when(restTemplate.getForObject("http://note-service:8083/notes/patient/1/contenus", NoteDTO[].class))
+                .thenReturn(notes);
+
+        assertThat(service.assessRiskDetailed(1L).isStale()).isFalse();
+        service.invalidate(1L);
+        noteGuard.getCircuitBreaker().transitionToOpenState();
+
+        RiskAssessmentResponse fallback = service.assessRiskDetailed(1L);
+
+        assertThat(fallback.getRiskLevel()).isEqualTo("Borderline");
+        assertThat(fallback.isStale()).isTrue();
+        verify(restTemplate, times(1)).getForObject("http://note-service:8083/notes/patient/1/contenus", NoteDTO[].class);
+    }
+
+    @Test
+    void testOpenCircuit_withoutLastKnownRisk_shouldFailFast() {
+        when(restTemplate.getForObject("http://patient-service:8081/patients/1", PatientDTO.class))
+                .thenReturn(patient);
+        noteGuard.getCircuitBreaker().transitionToOpenState();
+
+        assertThatThrownBy(() -> service.assessRiskDetailed(1L))
+                .isInstanceOf(CallNotPermittedException.class);
+        verify(restTemplate, never()).getForObject("http://note-service:8083/notes/patient/1/contenus", NoteDTO[].class);
+    }
+
+    @Test
+    void testOpenCircuit_batchShouldServeLastKnownRisks() {
+        when(restTemplate.getForObject("http://patient-service:8081/patients/1", PatientDTO.class))
+                .thenReturn(patient);
+
+        when(restTemplate.getForObject("http://note-service:8083/notes/patient/1/contenus", NoteDTO[].class))
+                .thenReturn(notes);
+
+        service.assessRiskDetailed(1L);
+        service.invalidate(1L);
+        noteGuard.getCircuitBreaker().transitionToOpenState();
+
+        List<RiskAssessmentResponse> responses = service.assessRiskBatch(List.of(1L));
+
+        assertThat(responses).extracting(RiskAssessmentResponse::getRiskLevel).containsExactly("Borderline");
+        assertThat(responses.get(0).isStale()).isTrue();
+    }
+
+    @Test
+    void testOpenCircuit_batchShouldServeKnownRisksAndOmitOthers() {
+        when(restTemplate.getForObject("http://patient-service:8081/patients/1", PatientDTO.class))
+                .thenReturn(patient);
+
+        when(restTemplate.getForObject("http://note-service:8083/notes/patient/1/contenus", NoteDTO[].class))
+                .thenReturn(notes);
+
+        service.assessRiskDetailed(1L);
+        service.invalidate(1L);
+        noteGuard.getCircuitBreaker().transitionToOpenState();
+
+        List<RiskAssessmentResponse> responses = service.assessRiskBatch(List.of(2L, 1L));
+
+        assertThat(responses).extracting(RiskAssessmentResponse::getPatientId).containsExactly(1L);
+        assertThat(responses.get(0).isStale()).isTrue();
+        assertThatThrownBy(() -> service.assessRiskBatch(List.of(2L)))
+                .isInstanceOf(CallNotPermittedException.class);
+    }
+
+    @Test
+    void testPatientDeleted_shouldForgetLastKnownRisk() {
+        when(restTemplate.getForObject("http://patient-service:8081/patients/1", PatientDTO.class))
+                .thenReturn(patient);
+
+        when(restTemplate.getForObject("http://note-service:8083/notes/patient/1/contenus", NoteDTO[].class))
+                .thenReturn(notes);
+
+        service.assessRiskDetailed(1L);
+        service.patientDeleted(1L);
+        noteGuard.getCircuitBreaker().transitionToOpenState();
+
+        assertThatThrownBy(() -> service.assessRiskBatch(List.of(1L)))
+                .isInstanceOf(CallNotPermittedException.class);
+    }
+
+    private DownstreamGuard guard(String name) {
+        return new DownstreamGuard(name, CircuitBreaker.ofDefaults(name), executor, Duration.ofMillis(500), true,
+                Duration.ofMillis(150), Duration.ofMillis(20));
+    }
 }
@@ -0,0 +1,258 @@
+package com.medilabo.riskassessment.service;
+
+import com.medilabo.riskassessment.dto.PatientDTO;
+import com.medilabo.riskassessment.dto.PatientIdRangeDTO;
+import com.medilabo.riskassessment.dto.PatientPageDTO;
+import com.medilabo.riskassessment.dto.RiskAssessmentResponse;
+import com.medilabo.riskassessment.dto.RiskJobReport;
+import com.medilabo.riskassessment.dto.RiskLevelPage;
+import com.medilabo.riskassessment.model.RiskJobPartition;
+import com.medilabo.riskassessment.model.RiskJobRun;
+import com.medilabo.riskassessment.repository.RiskJobPartitionRepository;
+import com.medilabo.riskassessment.repository.RiskJobRunRepository;
+import com.medilabo.riskassessment.repository.RiskSnapshotRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.web.client.ResourceAccessException;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.util.List;
+import java.util.NavigableMap;
+import java.util.TreeMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.argThat;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+/**
+ * Recalcul de population sur une base H2 : patient-service et note-service sont simulés
+ * par un {@link RiskAssessmentService} factice.
+ */
+@DataJpaTest
+@ActiveProfiles("test")
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+class RiskJobServiceTest {
+
+    @Autowired
+    private RiskJobRunRepository runRepository;
+
+    @Autowired
+    private RiskJobPartitionRepository partitionRepository;
+
+    @Autowired
+    private RiskSnapshotRepository snapshotRepository;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    private final RiskAssessmentService riskService = mock(RiskAssessmentService.class);
+
+    private static final Duration LEASE = Duration.ofMinutes(5);
+
+    private final ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor();
+
+    /**
+     * Patients connus de patient-service, par identifiant (identifiants non contigus).
+     */
+    private final NavigableMap<Long, PatientDTO> patients = new TreeMap<>();
+
+    @BeforeEach
+    void setUp() {
+        for (long id = 1; id <= 30; id++) {
+            if (id % 7 != 0) {
+                patients.put(id, patient(id));
+            }
+        }
+        when(riskService.fetchPatientIdRange()).thenAnswer(invocation ->
+                new PatientIdRangeDTO(patients.firstKey(), patients.lastKey(), patients.size()));
+        when(riskService.fetchPatientPage(anyLong(), anyInt())).thenAnswer(invocation ->
+                page(invocation.getArgument(0), invocation.getArgument(1)));
+        when(riskService.assessPatients(anyList())).thenAnswer(invocation -> {
+            List<PatientDTO> batch = invocation.getArgument(0);
+            return batch.stream()
+                    .map(p -> new RiskAssessmentResponse(p.getId(), p.getPrenom(), p.getNom(), 40,
+                            p.getId() % 2 == 0 ? "None" : "Borderline"))
+                    .toList();
+        });
+    }
+
+    @AfterEach
+    void tearDown() {
+        executor.close();
+        snapshotRepository.deleteAllInBatch();
+        partitionRepository.deleteAllInBatch();
+        runRepository.deleteAllInBatch();
+    }
+
+    @Test
+    void run_assessesEveryPatientOncePartitionByPartition() {
+        RiskJobReport report = service(2).run(RiskJobService.TRIGGER_MANUAL).orElseThrow();
+
+        assertThat(report.getStatus()).isEqualTo("COMPLETED");
+        assertThat(report.getPartitions()).isEqualTo(3);
+        assertThat(report.getPartitionsDone()).isEqualTo(3);
+        assertThat(report.getExpectedPatients()).isEqualTo(patients.size());
+        assertThat(report.getAssessedPatients()).isEqualTo(patients.size());
+        assertThat(report.getRiskLevels()).containsEntry("None", 13L).containsEntry("Borderline", 13L);
+        assertThat(snapshotRepository.count()).isEqualTo(patients.size());
+        verify(riskService, never()).fetchPatientPage(anyLong(), intThat(limit -> limit > 4));
+    }
+
+    @Test
+    void run_resumesInterruptedRunAfterLastSavedPatient() {
+        RiskJobRun interrupted = runRepository.save(new RiskJobRun(RiskJobService.TRIGGER_SCHEDULED, Instant.now(), patients.size()));
+        RiskJobPartition done = new RiskJobPartition(interrupted.getId(), 1, 11);
+        RiskJobPartition running = new RiskJobPartition(interrupted.getId(), 11, 31);
+        partitionRepository.saveAll(List.of(done, running));
+        Instant crashed = Instant.now().minus(Duration.ofMinutes(10));
+        partitionRepository.claim(done.getId(), "crashed", crashed, crashed.plus(LEASE));
+        partitionRepository.finish(done.getId(), "crashed", RiskJobPartition.Status.DONE, crashed, null);
+        partitionRepository.claim(running.getId(), "crashed", crashed, crashed.plus(LEASE));
+        new TransactionTemplate(transactionManager).executeWithoutResult(status ->
+                partitionRepository.checkpoint(running.getId(), "crashed", 20L, 8, crashed.plus(LEASE)));
+
+        RiskJobReport report = service(1).run(RiskJobService.TRIGGER_MANUAL).orElseThrow();
+
+        assertThat(report.getRunId()).isEqualTo(interrupted.getId());
+        assertThat(report.getTrigger()).isEqualTo(RiskJobService.TRIGGER_SCHEDULED);
+        assertThat(report.getStatus()).isEqualTo("COMPLETED");
+        assertThat(snapshotRepository.count()).isEqualTo(patients.subMap(20L, false, 31L, false).size());
+        verify(riskService, never()).fetchPatientIdRange();
+        verify(riskService).fetchPatientPage(eq(20L), anyInt());
+        verify(riskService, never()).assessPatients(argThat(batch -> batch.stream().anyMatch(p -> p.getId() <= 20)));
+    }
+
+    @Test
+    void run_leavesPartitionsLeasedByAnotherInstance() {
+        RiskJobRun active = runRepository.save(new RiskJobRun(RiskJobService.TRIGGER_MANUAL, Instant.now(), patients.size()));
+        RiskJobPartition leased = new RiskJobPartition(active.getId(), 1, 11);
+        RiskJobPartition pending = new RiskJobPartition(active.getId(), 11, 31);
+        partitionRepository.saveAll(List.of(leased, pending));
+        partitionRepository.claim(leased.getId(), "other", Instant.now(), Instant.now().plus(LEASE));
+
+        RiskJobReport report = service(2).run(RiskJobService.TRIGGER_MANUAL).orElseThrow();
+
+        assertThat(report.getRunId()).isEqualTo(active.getId());
+        assertThat(report.getStatus()).isEqualTo("RUNNING");
+        assertThat(report.getPartitionsDone()).isEqualTo(1);
+        assertThat(partitionRepository.findById(leased.getId())).get()
+                .extracting(RiskJobPartition::getOwner, RiskJobPartition::getStatus)
+                .containsExactly("other", RiskJobPartition.Status.RUNNING);
+        verify(riskService, never()).assessPatients(argThat(batch -> batch.stream().anyMatch(p -> p.getId() < 11)));
+    }
+
+    @Test
+    void run_sharesTheRunBetweenInstancesWithoutAssessingAPatientTwice() throws Exception {
+        RiskJobService first = service(2, "instance-1");
+        RiskJobService second = service(2, "instance-2");
+
+        try (ExecutorService instances = Executors.newFixedThreadPool(2)) {
+            Future<?> a = instances.submit(() -> first.run(RiskJobService.TRIGGER_MANUAL));
+            Future<?> b = instances.submit(() -> second.run(RiskJobService.TRIGGER_MANUAL));
+            a.get();
+            b.get();
+        }
+
+        assertThat(runRepository.findAll()).singleElement()
+                .extracting(RiskJobRun::getStatus).isEqualTo(RiskJobRun.Status.COMPLETED);
+        assertThat(snapshotRepository.count()).isEqualTo(patients.size());
+        assertThat(partitionRepository.findAll()).allSatisfy(partition -> {
+            assertThat(partition.getStatus()).isEqualTo(RiskJobPartition.Status.DONE);
+            assertThat(partition.getAttempts()).isEqualTo(1);
+        });
+    }
+
+    @Test
+    void run_failsOnlyThePartitionWhoseDownstreamCallFails() {
+        when(riskService.assessPatients(argThat(batch -> batch != null && batch.stream().anyMatch(p -> p.getId() == 12))))
+                .thenThrow(new ResourceAccessException("note-service indisponible"));
+
+        RiskJobReport report = service(2).run(RiskJobService.TRIGGER_MANUAL).orElseThrow();
+
+        assertThat(report.getStatus()).isEqualTo("FAILED");
+        assertThat(report.getPartitionsDone()).isEqualTo(2);
+        assertThat(report.getPartitionsFailed()).isEqualTo(1);
+        assertThat(partitionRepository.findByRunIdAndStatusOrderByFromIdAsc(report.getRunId(), RiskJobPartition.Status.FAILED))
+                .singleElement()
+                .satisfies(partition -> {
+                    assertThat(partition.getFromId()).isEqualTo(11);
+                    assertThat(partition.getError()).contains("note-service indisponible");
+                });
+    }
+
+    @Test
+    void run_keepsOnlyTheRetainedRuns() {
+        RiskJobService service = service(2);
+        Long first = service.run(RiskJobService.TRIGGER_MANUAL).orElseThrow().getRunId();
+        Long second = service.run(RiskJobService.TRIGGER_MANUAL).orElseThrow().getRunId();
+        Long third = service.run(RiskJobService.TRIGGER_MANUAL).orElseThrow().getRunId();
+
+        assertThat(runRepository.findById(first)).isEmpty();
+        assertThat(runRepository.findById(second)).isPresent();
+        assertThat(runRepository.findById(third)).isPresent();
+        assertThat(snapshotRepository.count()).isEqualTo(2L * patients.size());
+    }
+
+    @Test
+    void patientsAtLevel_pagesThroughLatestCompletedRun() {
+        RiskJobService service = service(2);
+        assertThat(service.patientsAtLevel("Borderline", null, 5)).isEmpty();
+        Long runId = service.run(RiskJobService.TRIGGER_MANUAL).orElseThrow().getRunId();
+
+        RiskLevelPage first = service.patientsAtLevel("Borderline", null, 5).orElseThrow();
+        RiskLevelPage second = service.patientsAtLevel("Borderline", first.getNextAfter(), 10).orElseThrow();
+
+        assertThat(first.getRunId()).isEqualTo(runId);
+        assertThat(first.getPatientIds()).containsExactly(1L, 3L, 5L, 9L, 11L);
+        assertThat(first.getNextAfter()).isEqualTo(11L);
+        assertThat(second.getPatientIds()).containsExactly(13L, 15L, 17L, 19L, 23L, 25L, 27L, 29L);
+        assertThat(second.getNextAfter()).isNull();
+    }
+
+    private RiskJobService service(int parallelism) {
+        return service(parallelism, "test");
+    }
+
+    private RiskJobService service(int parallelism, String instanceId) {
+        return new RiskJobService(riskService, runRepository, partitionRepository, snapshotRepository,
+                new TransactionTemplate(transactionManager), executor,
+                new RiskMetrics(new SimpleMeterRegistry(), new RiskScorer()),
+                10, 4, parallelism, 2, false, LEASE, instanceId);
+    }
+
+    private PatientPageDTO page(long after, int limit) {
+        List<PatientDTO> content = patients.tailMap(after, false).values().stream().limit(limit).toList();
+        Long nextAfter = content.size() == limit && patients.higherKey(content.getLast().getId()) != null
+                ? content.getLast().getId()
+                : null;
+        return new PatientPageDTO(content, nextAfter);
+    }
+
+    private static PatientDTO patient(long id) {
+        PatientDTO patient = new PatientDTO();
+        patient.setId(id);
+        patient.setPrenom("Prenom" + id);
+        patient.setNom("Nom" + id);
+        patient.setGenre(id % 3 == 0 ? "M" : "F");
+        patient.setDateNaissance(LocalDate.of(1980, 1, 1));
+        return patient;
+    }
+}
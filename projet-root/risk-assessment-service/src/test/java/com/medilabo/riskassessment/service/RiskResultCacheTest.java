@@ -0,0 +1,36 @@
+package com.medilabo.riskassessment.service;
+
+import com.medilabo.riskassessment.dto.RiskAssessmentResponse;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class RiskResultCacheTest {
+
+    private final RiskResultCache cache = new RiskResultCache(100, Duration.ofMinutes(1), Duration.ofHours(1));
+
+    @Test
+    void put_afterInvalidation_leavesCacheAndLastKnownUntouched() {
+        RiskAssessmentResponse previous = new RiskAssessmentResponse(1L, "Jean", "Dupont", 40, "None");
+        cache.put(1L, previous, cache.token());
+        long token = cache.token();
+        cache.invalidate(1L);
+
+        cache.put(1L, new RiskAssessmentResponse(1L, "Jean", "Dupont", 40, "In Danger"), token);
+
+        assertThat(cache.get(1L)).isNull();
+        assertThat(cache.lastKnown(1L)).isSameAs(previous);
+    }
+
+    @Test
+    void evict_forgetsLastKnownAssessment() {
+        cache.put(1L, new RiskAssessmentResponse(1L, "Jean", "Dupont", 40, "None"), cache.token());
+
+        cache.evict(1L);
+
+        assertThat(cache.get(1L)).isNull();
+        assertThat(cache.lastKnown(1L)).isNull();
+    }
+}
@@ -0,0 +1,96 @@
+package com.medilabo.riskassessment.benchmark;
+
+import com.medilabo.riskassessment.dto.NoteDTO;
+
+import java.util.SplittableRandom;
+
+/**
+ * Générateur de corpus de notes médicales synthétiques pour les benchmarks.
+ * <p>
+ * Les notes sont construites à partir d’un vocabulaire courant de consultation, dans lequel
+ * sont glissés quelques termes déclencheurs (avec ou sans accents, en casse variable).
+ * La graine est fixe : deux exécutions produisent exactement le même corpus.
+ * </p>
+ */
+public final class NoteCorpus {
+
+    /**
+     * Taille des notes générées.
+     */
+    public enum NoteSize {
+
+        /** Note courte d’environ 120 caractères. */
+        SHORT(120),
+
+        /** Note longue d’environ 4 Ko (compte rendu détaillé). */
+        LONG(4_096);
+
+        private final int length;
+
+        NoteSize(int length) {
+            this.length = length;
+        }
+
+        /**
+         * @return la longueur cible d’une note, en caractères
+         */
+        public int length() {
+            return length;
+        }
+    }
+
+    private static final long SEED = 20_240_601L;
+
+    private static final String[] WORDS = {
+        "patient", "consultation", "suivi", "traitement", "tension", "artérielle", "normale",
+        "stable", "prescription", "examen", "clinique", "antécédents", "familiaux", "régime",
+        "activité", "physique", "recommandée", "bilan", "sanguin", "prévu", "douleurs",
+        "légères", "sommeil", "correct", "revoir", "dans", "trois", "mois", "glycémie", "à",
+        "jeun", "contrôle", "le", "la", "les", "et", "de", "du", "avec", "sans", "pas"
+    };
+
+    private static final String[] TRIGGERS = {
+        "Hémoglobine A1C", "hemoglobine a1c", "Microalbumine", "Taille", "Poids", "POIDS",
+        "Fumeur", "Fumeuse", "Anormal", "Cholestérol", "cholesterol", "Vertiges", "Rechute",
+        "Réaction", "reaction", "Anticorps"
+    };
+
+    private NoteCorpus() {
+    }
+
+    /**
+     * Génère un tableau de notes pour un patient.
+     *
+     * @param count nombre de notes à générer
+     * @param size taille des notes
+     * @return les notes générées
+     */
+    public static NoteDTO[] generate(int count, NoteSize size) {
+        SplittableRandom random = new SplittableRandom(SEED + count * 31L + size.ordinal());
+        NoteDTO[] notes = new NoteDTO[count];
+        for (int i = 0; i < count; i++) {
+            notes[i] = new NoteDTO(Integer.toHexString(i), 1, text(random, size.length()));
+        }
+        return notes;
+    }
+
+    /**
+     * Construit le texte d’une note, avec environ un terme déclencheur pour quarante mots.
+     *
+     * @param random générateur pseudo-aléatoire
+     * @param length longueur cible du texte
+     * @return le texte de la note
+     */
+    private static String text(SplittableRandom random, int length) {
+        StringBuilder builder = new StringBuilder(length + 32);
+        while (builder.length() < length) {
+            if (random.nextInt(40) == 0) {
+                builder.append(TRIGGERS[random.nextInt(TRIGGERS.length)]);
+            } else {
+                builder.append(WORDS[random.nextInt(WORDS.length)]);
+            }
+            builder.append(random.nextInt(12) == 0 ? ". " : " ");
+        }
+        return builder.toString();
+    }
+}
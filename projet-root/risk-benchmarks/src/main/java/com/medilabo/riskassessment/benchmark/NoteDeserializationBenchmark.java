@@ -0,0 +1,56 @@
+package com.medilabo.riskassessment.benchmark;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+import com.medilabo.riskassessment.benchmark.NoteCorpus.NoteSize;
+import com.medilabo.riskassessment.dto.NoteDTO;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Mesure la désérialisation Jackson d’un tableau {@link NoteDTO}[], telle que la réalise
+ * {@code RestTemplate} à la réception de la réponse de note-service.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class NoteDeserializationBenchmark {
+
+    @Param({"1", "50", "1000"})
+    private int notesPerPatient;
+
+    @Param({"SHORT", "LONG"})
+    private NoteSize noteSize;
+
+    private ObjectReader reader;
+
+    private byte[] json;
+
+    @Setup
+    public void setUp() throws IOException {
+        ObjectMapper mapper = new ObjectMapper();
+        reader = mapper.readerFor(NoteDTO[].class);
+        json = mapper.writeValueAsBytes(NoteCorpus.generate(notesPerPatient, noteSize));
+    }
+
+    @Benchmark
+    public NoteDTO[] deserializeNotes() throws IOException {
+        return reader.readValue(json);
+    }
+}
@@ -0,0 +1,64 @@
+package com.medilabo.riskassessment.benchmark;
+
+import com.medilabo.riskassessment.service.RiskScorer;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.time.LocalDate;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Mesure les règles métier indépendantes des notes : {@link RiskScorer#calculateAge(LocalDate)}
+ * et {@link RiskScorer#determineRiskLevel(int, String, int)}.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class RiskRulesBenchmark {
+
+    private static final String[] GENRES = {"M", "F"};
+
+    private RiskScorer scorer;
+
+    private LocalDate[] birthDates;
+
+    @Setup
+    public void setUp() {
+        scorer = new RiskScorer();
+        birthDates = new LocalDate[64];
+        for (int i = 0; i < birthDates.length; i++) {
+            birthDates[i] = LocalDate.of(1940 + i, 1 + i % 12, 1 + i % 28);
+        }
+    }
+
+    @Benchmark
+    public void calculateAge(Blackhole blackhole) {
+        for (LocalDate birthDate : birthDates) {
+            blackhole.consume(scorer.calculateAge(birthDate));
+        }
+    }
+
+    @Benchmark
+    public void determineRiskLevel(Blackhole blackhole) {
+        for (int age = 20; age <= 40; age += 20) {
+            for (String genre : GENRES) {
+                for (int triggers = 0; triggers <= 9; triggers++) {
+                    blackhole.consume(scorer.determineRiskLevel(age, genre, triggers));
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,53 @@
+package com.medilabo.riskassessment.benchmark;
+
+import com.medilabo.riskassessment.benchmark.NoteCorpus.NoteSize;
+import com.medilabo.riskassessment.dto.NoteDTO;
+import com.medilabo.riskassessment.service.RiskScorer;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Mesure {@link RiskScorer#countTriggerTerms(NoteDTO[])} sur des corpus de 1, 50 et 1 000 notes
+ * par patient, courtes ou longues.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class TriggerCountBenchmark {
+
+    @Param({"1", "50", "1000"})
+    private int notesPerPatient;
+
+    @Param({"SHORT", "LONG"})
+    private NoteSize noteSize;
+
+    private RiskScorer scorer;
+
+    private NoteDTO[] notes;
+
+    @Setup
+    public void setUp() {
+        scorer = new RiskScorer();
+        notes = NoteCorpus.generate(notesPerPatient, noteSize);
+    }
+
+    @Benchmark
+    public int countTriggerTerms() {
+        return scorer.countTriggerTerms(notes);
+    }
+}